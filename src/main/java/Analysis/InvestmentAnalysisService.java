@@ -12,7 +12,8 @@ import views.BucksBrainAIChatView;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import services.BaiduAIService;
+import services.AIResponseCache;
+import services.AIGateway;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 /**
@@ -47,7 +48,7 @@ public class InvestmentAnalysisService {
     private String analyzeInvestments() throws IOException {
         // 1. 准备要分析的数据
         String investmentData = prepareInvestmentData();
-        BaiduAIService baiduAIService = new BaiduAIService();
+        AIGateway aiGateway = AIGateway.getDefault();
 
         // 2. 调用大模型API
         String prompt = "Below are some transaction records. Please analyze them in a clear and readable format and provide recommendations. Use English to answer."
@@ -61,7 +62,9 @@ public class InvestmentAnalysisService {
         System.out.println("发送给AI的提示词：\n" + prompt);
 
         try {
-            String response = baiduAIService.getAIResponse(prompt);
+            // Reports for unchanged transaction data are served from the local cache
+            String response = AIResponseCache.getDefault().getOrFetch(aiGateway.getEndpoint(), prompt,
+                    aiGateway::getAIResponse, InvestmentAnalysisService::hasResult);
             // 提取并格式化结果
             return formatAIResponse(response);
         } catch (Exception ex) {
@@ -69,6 +72,19 @@ public class InvestmentAnalysisService {
         }
     }
 
+    /**
+     * Checks whether a response carries a result, so that error responses are not cached
+     * @param jsonResponse Raw response of the AI service
+     * @return true if the response contains a "result" field
+     */
+    private static boolean hasResult(String jsonResponse) {
+        try {
+            return JsonParser.parseString(jsonResponse).getAsJsonObject().has("result");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     private String formatAIResponse(String jsonResponse) {
         try {
             JsonObject jsonObject = JsonParser.parseString(jsonResponse).getAsJsonObject();
@@ -182,4 +198,4 @@ public class InvestmentAnalysisService {
             }
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+package Entity;
+
+/**
+ * An amount of money held as a whole number of cents.
+ * Sums of cents are exact, unlike sums of doubles, so totals never pick up
+ * rounding error no matter how many amounts are added.
+ *
+ * <p>{@link #parseCents(CharSequence)} reads the amount notations used throughout
+ * the app in a single pass without creating any objects:
+ * <ul>
+ *     <li>an optional sign, {@code +} or {@code -}, before or after the currency symbol</li>
+ *     <li>an optional currency symbol: {@code $ € £ ¥}, possibly with a letter prefix such as {@code HK$}</li>
+ *     <li>digits, optionally grouped with commas</li>
+ *     <li>an optional fraction; digits past the cents are rounded half away from zero</li>
+ * </ul>
+ * For example {@code "-$2,500"}, {@code "+$100.50"}, {@code "$-7.5"}, {@code "HK$780.00"}
+ * and {@code " 12 "} are all accepted.
+ *
+ * @param cents the signed amount in cents
+ */
+public record Money(long cents) implements Comparable<Money> {
+    /** No money. */
+    public static final Money ZERO = new Money(0);
+
+    // Largest whole-unit value that can take one more digit and still fit in cents after rounding
+    private static final long MAX_UNITS_BEFORE_DIGIT = (Long.MAX_VALUE / 100 - 10) / 10;
+
+    /**
+     * Creates an amount from cents.
+     *
+     * @param cents the signed amount in cents
+     * @return the amount
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Creates an amount from a value in currency units, rounded to the nearest cent.
+     *
+     * @param amount the amount in currency units, e.g. {@code 12.5}
+     * @return the amount
+     */
+    public static Money of(double amount) {
+        return ofCents(Math.round(amount * 100));
+    }
+
+    /**
+     * Parses an amount in any of the accepted notations.
+     *
+     * @param text the amount text
+     * @return the amount
+     * @throws NumberFormatException if the text is not an amount
+     */
+    public static Money parse(CharSequence text) {
+        return ofCents(parseCents(text, 0, text.length()));
+    }
+
+    /**
+     * Parses an amount in any of the accepted notations into cents.
+     *
+     * @param text the amount text
+     * @return the signed amount in cents
+     * @throws NumberFormatException if the text is not an amount
+     */
+    public static long parseCents(CharSequence text) {
+        return parseCents(text, 0, text.length());
+    }
+
+    /**
+     * Parses the amount in a range of a character sequence into cents,
+     * so a field of a larger line can be read without cutting it out first.
+     *
+     * @param text the text containing the amount
+     * @param from the index of the first character of the amount
+     * @param to the index after the last character of the amount
+     * @return the signed amount in cents
+     * @throws NumberFormatException if the range does not hold an amount
+     */
+    public static long parseCents(CharSequence text, int from, int to) {
+        int end = to;
+        while (end > from && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+
+        // Sign and currency symbol, in either order
+        int i = from;
+        boolean negative = false;
+        boolean signSeen = false;
+        boolean symbolSeen = false;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if ((c == '-' || c == '+') && !signSeen) {
+                negative = c == '-';
+                signSeen = true;
+                i++;
+            } else if (!symbolSeen && (c == '$' || c == '€' || c == '£' || c == '¥')) {
+                symbolSeen = true;
+                i++;
+            } else if (!symbolSeen && c >= 'A' && c <= 'Z' && isSymbolPrefix(text, i, end)) {
+                // A letter prefix such as the HK in HK$
+                while (text.charAt(i) != '$') {
+                    i++;
+                }
+            } else {
+                break;
+            }
+        }
+
+        // Whole units, with commas between digits
+        long units = 0;
+        int digits = 0;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (units > MAX_UNITS_BEFORE_DIGIT) {
+                    throw invalid(text, from, to);
+                }
+                units = units * 10 + (c - '0');
+                digits++;
+            } else if (c != ',' || digits == 0) {
+                break;
+            }
+        }
+
+        // Cents, rounding on the first digit past them
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < end && text.charAt(i) == '.') {
+            for (i++; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (fractionDigits < 2) {
+                    fraction = fraction * 10 + (c - '0');
+                } else if (fractionDigits == 2 && c >= '5') {
+                    fraction++;
+                }
+                fractionDigits++;
+            }
+        }
+        if (i != end || digits + fractionDigits == 0) {
+            throw invalid(text, from, to);
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+        long cents = units * 100 + fraction;
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Checks for one to three capital letters followed by a dollar sign.
+     */
+    private static boolean isSymbolPrefix(CharSequence text, int start, int end) {
+        for (int i = start; i < end && i <= start + 3; i++) {
+            char c = text.charAt(i);
+            if (c == '$') {
+                return i > start;
+            }
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static NumberFormatException invalid(CharSequence text, int from, int to) {
+        return new NumberFormatException("Invalid amount: \"" + text.subSequence(from, to) + "\"");
+    }
+
+    /**
+     * Returns the sum of this amount and another.
+     *
+     * @param other the amount to add
+     * @return the sum
+     * @throws ArithmeticException if the sum overflows
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Returns the difference of this amount and another.
+     *
+     * @param other the amount to subtract
+     * @return the difference
+     * @throws ArithmeticException if the difference overflows
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Returns this amount with the opposite sign.
+     *
+     * @return the negated amount
+     */
+    public Money negate() {
+        return ofCents(-cents);
+    }
+
+    /**
+     * Returns the magnitude of this amount.
+     *
+     * @return the amount without its sign
+     */
+    public Money abs() {
+        return cents < 0 ? negate() : this;
+    }
+
+    /**
+     * Checks whether this amount is below zero.
+     *
+     * @return true if the amount is negative
+     */
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    /**
+     * Returns the amount in currency units, for charts and other display code.
+     *
+     * @return the amount as a double, e.g. {@code -12.5}
+     */
+    public double toDouble() {
+        return cents / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    /**
+     * Returns the amount with two decimals and no currency symbol, e.g. {@code "-12.50"}.
+     * The result can be read back by {@link #parse(CharSequence)}.
+     *
+     * @return the formatted amount
+     */
+    @Override
+    public String toString() {
+        long magnitude = Math.abs(cents);
+        long fraction = magnitude % 100;
+        StringBuilder text = new StringBuilder(24);
+        if (cents < 0) {
+            text.append('-');
+        }
+        text.append(magnitude / 100).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+}
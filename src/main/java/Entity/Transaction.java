@@ -1,31 +1,65 @@
 package Entity;
 
+import java.time.LocalDate;
+
 /**
  * Represents a financial transaction in the system.
  * This class encapsulates the essential properties of a transaction:
- * description, amount, and category.
+ * description, amount, and category, and optionally the date it took place.
+ * The amount is kept in whole cents as a {@link Money} value.
  */
 public class Transaction {
     /** The description or purpose of the transaction */
     private String description;
     
     /** The monetary amount of the transaction */
-    private double amount;
+    private Money amount;
     
     /** The category or type of the transaction (e.g., income, expense) */
     private String category;
 
+    /** The date of the transaction, or null if it is not known */
+    private LocalDate date;
+
+    /** The date as it was written, e.g. {@code 28 Jan 2021}, or null if only the date is kept */
+    private String dateText;
+
     /**
-     * Constructs a new Transaction with the specified details.
+     * Constructs a new Transaction with the specified details and no date.
      *
      * @param description The description or purpose of the transaction
      * @param amount The monetary amount of the transaction
      * @param category The category or type of the transaction
      */
     public Transaction(String description, double amount, String category) {
+        this(description, amount, category, null);
+    }
+
+    /**
+     * Constructs a new Transaction with the specified details.
+     *
+     * @param description The description or purpose of the transaction
+     * @param amount The monetary amount of the transaction
+     * @param category The category or type of the transaction
+     * @param date The date of the transaction, or null if it is not known
+     */
+    public Transaction(String description, double amount, String category, LocalDate date) {
+        this(description, Money.of(amount), category, date);
+    }
+
+    /**
+     * Constructs a new Transaction with an exact amount.
+     *
+     * @param description The description or purpose of the transaction
+     * @param amount The monetary amount of the transaction
+     * @param category The category or type of the transaction
+     * @param date The date of the transaction, or null if it is not known
+     */
+    public Transaction(String description, Money amount, String category, LocalDate date) {
         this.description = description;
         this.amount = amount;
         this.category = category;
+        this.date = date;
     }
 
     /**
@@ -52,15 +86,33 @@ public class Transaction {
      * @return The transaction amount
      */
     public double getAmount() {
-        return amount;
+        return amount.toDouble();
     }
 
     /**
-     * Sets the amount of the transaction.
+     * Sets the amount of the transaction, rounded to the nearest cent.
      *
      * @param amount The new amount to set
      */
     public void setAmount(double amount) {
+        this.amount = Money.of(amount);
+    }
+
+    /**
+     * Gets the exact amount of the transaction.
+     *
+     * @return The transaction amount in cents
+     */
+    public Money getMoney() {
+        return amount;
+    }
+
+    /**
+     * Sets the exact amount of the transaction.
+     *
+     * @param amount The new amount to set
+     */
+    public void setMoney(Money amount) {
         this.amount = amount;
     }
 
@@ -82,6 +134,43 @@ public class Transaction {
         this.category = category;
     }
 
+    /**
+     * Gets the date of the transaction.
+     *
+     * @return The transaction date, or null if it is not known
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Sets the date of the transaction.
+     *
+     * @param date The new date to set, or null if it is not known
+     */
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    /**
+     * Gets the date as it was written. Dates in formats that {@link #getDate()} cannot
+     * hold, e.g. {@code 28 Jan, 12.30 AM}, are kept this way.
+     *
+     * @return The date text, or null if only the date is kept
+     */
+    public String getDateText() {
+        return dateText;
+    }
+
+    /**
+     * Sets the date as it was written.
+     *
+     * @param dateText The date text, or null if only the date is kept
+     */
+    public void setDateText(String dateText) {
+        this.dateText = dateText;
+    }
+
     /**
      * Returns a string representation of the transaction.
      * The format is: Transaction{description='...', amount=..., category='...'}
@@ -92,7 +181,7 @@ public class Transaction {
     public String toString() {
         return "Transaction{" +
                 "description='" + description + '\'' +
-                ", amount=" + amount +
+                ", amount=" + amount.toDouble() +
                 ", category='" + category + '\'' +
                 '}';
     }
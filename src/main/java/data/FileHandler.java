@@ -1,22 +1,52 @@
 package data;
 
+import Entity.Money;
 import Entity.Transaction;
+import services.CategoryClassifier;
 import services.SecurityService;
+import services.TransactionColumns;
+import services.TransactionDataService;
+import services.TransactionStore;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Handles file operations for transaction data.
  * This class provides methods to load transactions from a file and save
  * transactions to a file.
  * It includes encryption and decryption of transaction data for security.
+ *
+ * <p>Transactions are saved in the encrypted block format of {@link TransactionBlockFile}.
+ * Files in the older format, one encrypted line per transaction, can still be loaded
+ * and are converted by {@link #migrateToBlockFormat(String)}. They are memory-mapped,
+ * cut into line-aligned chunks, and the chunks are decrypted and parsed in parallel
+ * on the common ForkJoin pool.
  */
 public class FileHandler {
+    /** The date format of the optional fourth column of imported CSV files. */
+    private static final DateTimeFormatter IMPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /** The smallest chunk of a line format file handed to one task. */
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+
     /**
      * Loads transactions from a specified file.
-     * Each line in the file represents a transaction in the format:
+     * Files in the block format are decrypted block by block. In the older format,
+     * each line in the file represents a transaction in the format:
      * description,amount,category.
      * The data is decrypted before processing.
      *
@@ -25,28 +55,388 @@ public class FileHandler {
      */
     // 读取并解密存储文件
     public List<Transaction> loadTransactions(String filePath) {
-        List<Transaction> transactions = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String decrypted = SecurityService.decrypt(line);
-                if (decrypted == null)
-                    continue;
-
-                String[] data = decrypted.split(",");
-                if (data.length == 3) {
-                    String description = data[0];
-                    double amount = Double.parseDouble(data[1]);
-                    String category = data[2];
-                    transactions.add(new Transaction(description, amount, category));
+        try {
+            if (TransactionBlockFile.isBlockFile(Path.of(filePath))) {
+                return TransactionBlockFile.read(Path.of(filePath));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+        return loadLineFormat(filePath);
+    }
+
+    /**
+     * Loads transactions from a file into the transaction store of a service, in
+     * file order and with a single bulk insert. In the line format the chunk tasks
+     * parse amounts straight to cents and categorize each row, so nothing is parsed
+     * again when the rows are stored.
+     *
+     * <p>A stored category of Income or Expense is the type of the transaction, as
+     * saved by {@link TransactionPersistence}, and its category is assigned by the
+     * classifier of the service. Any other stored category, such as Food, names the
+     * category of an expense.
+     *
+     * @param filePath The path to the file containing transaction data
+     * @param target The service to add the transactions to
+     * @return The ids of the stored transactions, in file order
+     */
+    public long[] loadTransactions(String filePath, TransactionDataService target) {
+        CategoryClassifier classifier = target.getClassifier();
+        TransactionColumns batch = new TransactionColumns();
+        try {
+            Path path = Path.of(filePath);
+            if (TransactionBlockFile.isBlockFile(path)) {
+                for (Transaction tx : TransactionBlockFile.read(path)) {
+                    int epochDay = tx.getDate() != null ? (int) tx.getDate().toEpochDay() : TransactionStore.NO_DATE;
+                    addStored(batch, classifier, epochDay, tx.getDateText(), tx.getDescription(),
+                            tx.getMoney().cents(), tx.getCategory());
                 }
+            } else {
+                batch = loadLineFormat(path, ForkJoinPool.commonPool(), MIN_CHUNK_BYTES, new ColumnLines(classifier));
             }
         } catch (IOException e) {
             e.printStackTrace();
+            return new long[0];
+        }
+        return target.addTransactions(batch);
+    }
+
+    /**
+     * Adds a stored transaction to a batch, mapping its stored category to a type and
+     * a category as described in {@link #loadTransactions(String, TransactionDataService)}.
+     */
+    private static void addStored(TransactionColumns batch, CategoryClassifier classifier, int epochDay,
+            String dateText, String description, long cents, String stored) {
+        String category = stored.trim();
+        if (category.equalsIgnoreCase("Income")) {
+            batch.add(epochDay, dateText, description, cents, "Income", classifier.categorize(description));
+        } else if (category.equalsIgnoreCase("Expense")) {
+            batch.add(epochDay, dateText, description, cents, "Expense", classifier.categorize(description));
+        } else {
+            batch.add(epochDay, dateText, description, cents, "Expense",
+                    category.isEmpty() ? classifier.categorize(description) : category);
+        }
+    }
+
+    /**
+     * Loads the transactions dated within a range. In the block format only the
+     * blocks covering the range are decrypted; transactions without a date are
+     * never included.
+     *
+     * @param filePath The path to the file containing transaction data
+     * @param from The first date to include, or null for no lower bound
+     * @param to The last date to include, or null for no upper bound
+     * @return The matching transactions in file order
+     */
+    public List<Transaction> loadTransactions(String filePath, LocalDate from, LocalDate to) {
+        try {
+            if (TransactionBlockFile.isBlockFile(Path.of(filePath))) {
+                return TransactionBlockFile.read(Path.of(filePath), from, to);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+        List<Transaction> matching = new ArrayList<>();
+        for (Transaction tx : loadLineFormat(filePath)) {
+            LocalDate date = tx.getDate();
+            if (date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to))) {
+                matching.add(tx);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Converts a file in the older line format to the block format. The file is
+     * replaced atomically once the new content has been written.
+     *
+     * @param filePath The path to the file containing transaction data
+     * @return true if the file was converted, false if it does not exist or already
+     *         uses the block format
+     * @throws IOException if the file cannot be read or written
+     */
+    public boolean migrateToBlockFormat(String filePath) throws IOException {
+        Path path = Path.of(filePath);
+        if (!path.toFile().exists() || TransactionBlockFile.isBlockFile(path)) {
+            return false;
+        }
+        TransactionBlockFile.write(path, loadLineFormat(filePath));
+        return true;
+    }
+
+    /**
+     * Loads a file in the older format with one encrypted line per transaction.
+     */
+    private List<Transaction> loadLineFormat(String filePath) {
+        try {
+            return loadLineFormat(Path.of(filePath), ForkJoinPool.commonPool(), MIN_CHUNK_BYTES);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Loads a file in the line format by splitting it into line-aligned chunks and
+     * decrypting and parsing them in parallel. The result keeps the file order.
+     *
+     * @param path the file to load
+     * @param pool the pool to run the chunk tasks on
+     * @param minChunkBytes the smallest chunk handed to one task
+     * @return the transactions in file order
+     * @throws IOException if the file cannot be read
+     */
+    static List<Transaction> loadLineFormat(Path path, ForkJoinPool pool, int minChunkBytes) throws IOException {
+        return loadLineFormat(path, pool, minChunkBytes, TRANSACTION_LINES);
+    }
+
+    /**
+     * Loads a file in the line format in parallel chunks, collecting each chunk with a
+     * {@link Lines} and joining the chunks in file order.
+     */
+    private static <R> R loadLineFormat(Path path, ForkJoinPool pool, int minChunkBytes, Lines<R> lines)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Aim for a few chunks per worker so uneven chunks still balance out
+            long target = Math.max(minChunkBytes, size / (pool.getParallelism() * 4L) + 1);
+            List<Long> bounds = new ArrayList<>();
+            bounds.add(0L);
+            long position = 0;
+            while (position < size) {
+                position = nextLineStart(channel, Math.min(size, position + target));
+                bounds.add(position);
+            }
+            try {
+                return pool.invoke(new LoadChunks<>(channel, bounds, 0, bounds.size() - 1, lines));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Returns the position just after the first line break at or after a position,
+     * or the file size if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Collects the decrypted lines of one chunk into a result and joins the results
+     * of neighbouring chunks.
+     *
+     * @param <R> the result of a chunk
+     */
+    private interface Lines<R> {
+        /** Returns an empty result. */
+        R create();
+
+        /** Parses a decrypted line into a result, skipping it if it is not valid. */
+        void add(R result, String line);
+
+        /** Appends the result of the following chunk to a result. */
+        void join(R result, R next);
+    }
+
+    /** Collects lines as {@link Transaction} objects. */
+    private static final Lines<List<Transaction>> TRANSACTION_LINES = new Lines<>() {
+        @Override
+        public List<Transaction> create() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void add(List<Transaction> result, String line) {
+            Transaction transaction = parseLine(line);
+            if (transaction != null) {
+                result.add(transaction);
+            }
+        }
+
+        @Override
+        public void join(List<Transaction> result, List<Transaction> next) {
+            result.addAll(next);
+        }
+    };
+
+    /**
+     * Collects lines as store columns: amounts in cents and categories assigned, so
+     * the rows can be stored without parsing them again. Lines carry no date.
+     */
+    private static final class ColumnLines implements Lines<TransactionColumns> {
+        private final CategoryClassifier classifier;
+
+        ColumnLines(CategoryClassifier classifier) {
+            this.classifier = classifier;
+        }
+
+        @Override
+        public TransactionColumns create() {
+            return new TransactionColumns();
+        }
+
+        @Override
+        public void add(TransactionColumns result, String line) {
+            int[] fields = fieldBounds(line);
+            if (fields == null) {
+                return;
+            }
+            long cents;
+            try {
+                cents = Money.parseCents(line, fields[0] + 1, fields[1]);
+            } catch (NumberFormatException e) {
+                return;
+            }
+            addStored(result, classifier, TransactionStore.NO_DATE, "", line.substring(0, fields[0]), cents,
+                    line.substring(fields[1] + 1, fields[2]));
+        }
+
+        @Override
+        public void join(TransactionColumns result, TransactionColumns next) {
+            result.addAll(next);
         }
-        return transactions;
     }
 
+    /**
+     * Decrypts and parses the chunks between two bounds, splitting the range in half
+     * until a single chunk is left.
+     */
+    private static final class LoadChunks<R> extends RecursiveTask<R> {
+        private final FileChannel channel;
+        private final List<Long> bounds;
+        private final int from;
+        private final int to;
+        private final Lines<R> lines;
+
+        LoadChunks(FileChannel channel, List<Long> bounds, int from, int to, Lines<R> lines) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.lines = lines;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= 1) {
+                return to == from ? lines.create() : loadChunk(bounds.get(from), bounds.get(to));
+            }
+            int middle = (from + to) >>> 1;
+            LoadChunks<R> right = new LoadChunks<>(channel, bounds, middle, to, lines);
+            right.fork();
+            R result = new LoadChunks<>(channel, bounds, from, middle, lines).compute();
+            lines.join(result, right.join());
+            return result;
+        }
+
+        private R loadChunk(long start, long end) {
+            MappedByteBuffer chunk;
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            R result = lines.create();
+            byte[] line = new byte[256];
+            int length = 0;
+            while (chunk.hasRemaining()) {
+                byte b = chunk.get();
+                if (b == '\n') {
+                    addLine(result, line, length);
+                    length = 0;
+                } else {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = b;
+                }
+            }
+            addLine(result, line, length);
+            return result;
+        }
+
+        private void addLine(R result, byte[] line, int length) {
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if (length == 0) {
+                return;
+            }
+            String decrypted = SecurityService.decrypt(new String(line, 0, length, StandardCharsets.ISO_8859_1));
+            if (decrypted == null)
+                return;
+            lines.add(result, decrypted);
+        }
+    }
+
+    /**
+     * Parses a decrypted description,amount,category line without splitting it into an array.
+     *
+     * @return the transaction, or null if the line does not have exactly three fields
+     */
+    static Transaction parseLine(String line) {
+        int[] fields = fieldBounds(line);
+        if (fields == null) {
+            return null;
+        }
+        try {
+            double amount = Double.parseDouble(line.substring(fields[0] + 1, fields[1]));
+            return new Transaction(line.substring(0, fields[0]), amount, line.substring(fields[1] + 1, fields[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the fields of a description,amount,category line.
+     *
+     * @return the positions of the first and second comma and the end of the category,
+     *         or null if the line does not have exactly three fields
+     */
+    private static int[] fieldBounds(String line) {
+        // Trailing empty fields are ignored, as String.split does
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ',') {
+            end--;
+        }
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        if (second < 0 || second >= end) {
+            return null;
+        }
+        int third = line.indexOf(',', second + 1);
+        if (third >= 0 && third < end) {
+            return null;
+        }
+        return new int[] {first, second, end};
+    }
+
+    /**
+     * Parses a plain CSV file in the format description,amount,type with an optional
+     * fourth column holding the date as dd/MM/yyyy.
+     *
+     * @param filePath The path to the CSV file
+     * @return The parsed transactions
+     */
     // 解析用户上传的明文 CSV
     public List<Transaction> importTransactions(String filePath) {
         List<Transaction> list = new ArrayList<>();
@@ -54,11 +444,12 @@ public class FileHandler {
             String line;
             while ((line = br.readLine()) != null) {
                 String[] parts = line.split(",");
-                if (parts.length == 3) {
+                if (parts.length == 3 || parts.length == 4) {
                     String desc = parts[0].trim();
-                    double amt = Double.parseDouble(parts[1].trim());
+                    Money amt = Money.parse(parts[1]);
                     String type = parts[2].trim();
-                    list.add(new Transaction(desc, amt, type));
+                    LocalDate date = parts.length == 4 ? parseImportDate(parts[3].trim()) : null;
+                    list.add(new Transaction(desc, amt, type, date));
                 }
             }
         } catch (IOException e) {
@@ -67,15 +458,26 @@ public class FileHandler {
         return list;
     }
 
+    private static LocalDate parseImportDate(String text) {
+        try {
+            return LocalDate.parse(text, IMPORT_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Saves transactions in the encrypted block format, replacing the file.
+     * This rewrites every transaction, so it suits one-off exports; the application
+     * saves its transactions change by change through {@link TransactionPersistence}.
+     *
+     * @param transactions The transactions to save
+     * @param filePath The path of the file to write
+     */
     // ✅ 新增：加密写入方法
     public void saveTransactions(List<Transaction> transactions, String filePath) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath))) {
-            for (Transaction tx : transactions) {
-                String plain = tx.getDescription() + "," + tx.getAmount() + "," + tx.getCategory();
-                String encrypted = SecurityService.encrypt(plain);
-                bw.write(encrypted);
-                bw.newLine();
-            }
+        try {
+            TransactionBlockFile.write(Path.of(filePath), transactions);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,706 @@
+package data;
+
+import Entity.Transaction;
+import services.SecurityService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persists transactions as an append-only, encrypted write-ahead log with periodic
+ * snapshots, so saving a change costs the same no matter how long the history is.
+ *
+ * <p>Every mutation (add, update or remove of a transaction with a stable id) is applied
+ * in memory and appended to {@code transactions.wal}; the call returns once the log has
+ * been forced to disk. Concurrent writers are group-committed: while one thread writes
+ * and syncs a frame, the others queue up, and the next frame carries all of them with a
+ * single fsync. Each frame is sealed with AES-GCM and bound to its position in the log;
+ * its length is stored together with its complement, so a damaged length is detected.
+ *
+ * <p>When the log outgrows both {@link #DEFAULT_COMPACTION_BYTES} and the snapshot, the
+ * current state is written to {@code transactions.snapshot} and the log starts over
+ * under a new generation number. A log older than the snapshot, left behind by a crash
+ * during compaction, is ignored on open.
+ *
+ * <p>On open the snapshot is loaded and the log replayed. A frame cut short by a crash
+ * at the end of the log is discarded and the log truncated before it; damage anywhere
+ * else fails the open rather than silently losing later changes.
+ *
+ * <p>Example usage:
+ * <pre>
+ * try (TransactionLog log = TransactionLog.open(Paths.get("data"))) {
+ *     long id = log.add(new Transaction("Coffee", 3.5, "Food"));
+ *     log.remove(id);
+ * }
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionLog implements AutoCloseable {
+    /** The log grows to at least this size before it is compacted. */
+    public static final long DEFAULT_COMPACTION_BYTES = 4L * 1024 * 1024;
+
+    static final String LOG_FILE = "transactions.wal";
+    static final String SNAPSHOT_FILE = "transactions.snapshot";
+
+    private static final byte[] LOG_MAGIC = {(byte) 0x89, 'B', 'B', 'W', 'A', 'L', '\r', '\n'};
+    private static final byte[] SNAPSHOT_MAGIC = {(byte) 0x89, 'B', 'B', 'S', 'N', 'P', '\r', '\n'};
+    private static final int LOG_VERSION = 2;
+    private static final int SNAPSHOT_VERSION = 1;
+    /** Magic, version and generation. */
+    private static final int LOG_HEADER_BYTES = LOG_MAGIC.length + 4 + 8;
+    /** Length of the sealed frame and its bitwise complement. */
+    private static final int FRAME_HEADER_BYTES = 4 + 4;
+    /** Magic, version, generation, next id and chunk count. */
+    private static final int SNAPSHOT_HEADER_BYTES = SNAPSHOT_MAGIC.length + 4 + 8 + 8 + 4;
+    private static final int SNAPSHOT_CHUNK_RECORDS = 1024;
+
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte REMOVE = 3;
+
+    private record Mutation(byte op, long id, Transaction transaction) {
+    }
+
+    private final Path directory;
+    private final long compactionBytes;
+
+    // In-memory state and the queue of mutations not yet written, guarded by this
+    private final Map<Long, Transaction> transactions = new LinkedHashMap<>();
+    private final List<Mutation> pending = new ArrayList<>();
+    private long nextId;
+    private long appended;
+    private boolean closed;
+
+    // The log file, guarded by commitLock; acquired before this, never after
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private FileChannel log;
+    private long generation;
+    private long frames;
+    private long logBytes;
+    private long snapshotBytes;
+    private long framesWritten;
+    private volatile long durable;
+    private volatile IOException failure;
+
+    /**
+     * Opens the log in a directory with the default compaction threshold, creating
+     * the directory and an empty log if needed.
+     *
+     * @param directory the directory holding the log and the snapshot
+     * @return the opened log with all committed transactions loaded
+     * @throws IOException if the files cannot be read or are corrupt
+     */
+    public static TransactionLog open(Path directory) throws IOException {
+        return new TransactionLog(directory, DEFAULT_COMPACTION_BYTES);
+    }
+
+    /**
+     * Opens the log in a directory.
+     *
+     * @param directory the directory holding the log and the snapshot
+     * @param compactionBytes the minimum log size before compaction
+     * @throws IOException if the files cannot be read or are corrupt
+     */
+    TransactionLog(Path directory, long compactionBytes) throws IOException {
+        this.directory = directory;
+        this.compactionBytes = compactionBytes;
+        Files.createDirectories(directory);
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            readSnapshot(snapshot);
+            snapshotBytes = Files.size(snapshot);
+        }
+
+        Path logPath = directory.resolve(LOG_FILE);
+        if (Files.exists(logPath) && logGeneration(logPath) == generation) {
+            log = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            replay();
+        } else {
+            // No log yet, or one from before the last snapshot
+            log = createLog(generation);
+        }
+    }
+
+    /**
+     * Adds a transaction and waits until it is durable.
+     *
+     * @param transaction the transaction to add; a copy is stored
+     * @return the id of the new transaction
+     * @throws IOException if the log cannot be written
+     */
+    public long add(Transaction transaction) throws IOException {
+        return addAll(List.of(transaction))[0];
+    }
+
+    /**
+     * Adds several transactions with a single commit.
+     *
+     * @param added the transactions to add; copies are stored
+     * @return the ids of the new transactions, in the same order
+     * @throws IOException if the log cannot be written
+     */
+    public long[] addAll(List<Transaction> added) throws IOException {
+        long[] ids = appendAll(added);
+        sync();
+        return ids;
+    }
+
+    /**
+     * Replaces a transaction and waits until the change is durable.
+     *
+     * @param id the id of the transaction
+     * @param transaction the new values; a copy is stored
+     * @return true if the transaction existed
+     * @throws IOException if the log cannot be written
+     */
+    public boolean update(long id, Transaction transaction) throws IOException {
+        if (!appendUpdate(id, transaction)) {
+            return false;
+        }
+        sync();
+        return true;
+    }
+
+    /**
+     * Removes a transaction and waits until the change is durable.
+     *
+     * @param id the id of the transaction
+     * @return true if the transaction existed
+     * @throws IOException if the log cannot be written
+     */
+    public boolean remove(long id) throws IOException {
+        if (!appendRemove(id)) {
+            return false;
+        }
+        sync();
+        return true;
+    }
+
+    /**
+     * Adds transactions without waiting for them to be durable; see {@link #sync()}.
+     *
+     * @param added the transactions to add; copies are stored
+     * @return the ids of the new transactions, in the same order
+     * @throws IOException if the log is closed or failed earlier
+     */
+    synchronized long[] appendAll(List<Transaction> added) throws IOException {
+        checkOpen();
+        long[] ids = new long[added.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Transaction copy = copy(added.get(i));
+            ids[i] = nextId++;
+            transactions.put(ids[i], copy);
+            pending.add(new Mutation(ADD, ids[i], copy));
+        }
+        appended += ids.length;
+        return ids;
+    }
+
+    /**
+     * Replaces a transaction without waiting for the change to be durable; see {@link #sync()}.
+     *
+     * @param id the id of the transaction
+     * @param transaction the new values; a copy is stored
+     * @return true if the transaction existed
+     * @throws IOException if the log is closed or failed earlier
+     */
+    synchronized boolean appendUpdate(long id, Transaction transaction) throws IOException {
+        checkOpen();
+        if (!transactions.containsKey(id)) {
+            return false;
+        }
+        Transaction copy = copy(transaction);
+        transactions.put(id, copy);
+        pending.add(new Mutation(UPDATE, id, copy));
+        appended++;
+        return true;
+    }
+
+    /**
+     * Removes a transaction without waiting for the change to be durable; see {@link #sync()}.
+     *
+     * @param id the id of the transaction
+     * @return true if the transaction existed
+     * @throws IOException if the log is closed or failed earlier
+     */
+    synchronized boolean appendRemove(long id) throws IOException {
+        checkOpen();
+        if (transactions.remove(id) == null) {
+            return false;
+        }
+        pending.add(new Mutation(REMOVE, id, null));
+        appended++;
+        return true;
+    }
+
+    /**
+     * Waits until every mutation made so far is durable. All of them that are not
+     * written yet go into one frame, with one fsync.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    void sync() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = appended;
+        }
+        commit(sequence);
+    }
+
+    /**
+     * Returns a transaction by id.
+     *
+     * @param id the id of the transaction
+     * @return a copy of the transaction, or null if there is none with this id
+     */
+    public synchronized Transaction get(long id) {
+        Transaction transaction = transactions.get(id);
+        return transaction != null ? copy(transaction) : null;
+    }
+
+    /**
+     * Returns all transactions in the order they were added.
+     *
+     * @return copies of the transactions
+     */
+    public synchronized List<Transaction> getTransactions() {
+        List<Transaction> copies = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions.values()) {
+            copies.add(copy(transaction));
+        }
+        return copies;
+    }
+
+    /**
+     * Returns the ids of all transactions in the order they were added.
+     *
+     * @return the ids
+     */
+    public synchronized long[] getIds() {
+        return transactions.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Returns the number of transactions.
+     *
+     * @return the number of transactions
+     */
+    public synchronized int size() {
+        return transactions.size();
+    }
+
+    /**
+     * Writes the current state to the snapshot and starts a new, empty log.
+     *
+     * @throws IOException if the snapshot or the new log cannot be written
+     */
+    public void compact() throws IOException {
+        commitLock.lock();
+        try {
+            checkFailure();
+            compactLocked();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of frames written since the log was opened. Each frame
+     * costs one fsync and may carry the mutations of several writers.
+     *
+     * @return the number of frames
+     */
+    long framesWritten() {
+        commitLock.lock();
+        try {
+            return framesWritten;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending mutations and closes the log file.
+     *
+     * @throws IOException if the pending mutations cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        long sequence;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            sequence = appended;
+        }
+        commitLock.lock();
+        try {
+            if (failure == null) {
+                commit(sequence);
+            }
+        } finally {
+            log.close();
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all mutations up to a sequence number are durable. The first waiting
+     * thread writes everything pending as one frame; threads arriving meanwhile find
+     * their mutations written by it or queue up for the next frame.
+     */
+    private void commit(long sequence) throws IOException {
+        commitLock.lock();
+        try {
+            if (durable >= sequence) {
+                return;
+            }
+            checkFailure();
+            List<Mutation> batch;
+            long last;
+            synchronized (this) {
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                last = appended;
+            }
+            try {
+                writeFrame(batch);
+            } catch (IOException e) {
+                // The in-memory state is ahead of the log now; refuse further writes
+                failure = e;
+                throw e;
+            }
+            durable = last;
+            if (logBytes >= Math.max(compactionBytes, snapshotBytes)) {
+                compactLocked();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void writeFrame(List<Mutation> batch) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * batch.size() + 4);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(batch.size());
+        for (Mutation mutation : batch) {
+            out.writeByte(mutation.op());
+            out.writeLong(mutation.id());
+            if (mutation.op() != REMOVE) {
+                TransactionBlockFile.writeRecord(out, mutation.transaction());
+            }
+        }
+        byte[] sealed = seal(buffer.toByteArray(), frameData(generation, frames));
+
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + sealed.length);
+        frame.putInt(sealed.length).putInt(~sealed.length).put(sealed).flip();
+        while (frame.hasRemaining()) {
+            log.write(frame, logBytes + frame.position());
+        }
+        log.force(false);
+        logBytes += FRAME_HEADER_BYTES + sealed.length;
+        frames++;
+        framesWritten++;
+    }
+
+    /**
+     * Applies the frames of the log to the state loaded from the snapshot. Only the end
+     * of the log may be damaged, by a crash while appending: a frame header cut short,
+     * zeros up to the end of the file, or a last frame that is incomplete. Anything else
+     * fails the open, so no committed frame after the damage is silently dropped.
+     */
+    private void replay() throws IOException {
+        long size = log.size();
+        long position = LOG_HEADER_BYTES;
+        while (position < size) {
+            if (size - position < FRAME_HEADER_BYTES) {
+                break;
+            }
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+            readFully(log, header, position);
+            int sealedLength = header.getInt(0);
+            if (header.getInt(4) != ~sealedLength || sealedLength <= 0) {
+                if (isZero(log, position, size)) {
+                    break;
+                }
+                throw new IOException("Corrupt transaction log frame header at offset " + position);
+            }
+            long end = position + FRAME_HEADER_BYTES + sealedLength;
+            if (end > size) {
+                // The length is intact, so this is the last frame, only partly written
+                break;
+            }
+            ByteBuffer sealed = ByteBuffer.allocate(sealedLength);
+            readFully(log, sealed, position + FRAME_HEADER_BYTES);
+            byte[] plain;
+            try {
+                plain = SecurityService.decryptBlock(sealed.array(), frameData(generation, frames));
+            } catch (GeneralSecurityException e) {
+                if (end == size) {
+                    // The last frame was only partly written
+                    break;
+                }
+                throw new IOException("Corrupt transaction log frame at offset " + position, e);
+            }
+            apply(plain);
+            frames++;
+            position = end;
+        }
+        if (position < size) {
+            System.err.println("Discarding " + (size - position) + " bytes of an incomplete transaction log frame");
+            log.truncate(position);
+            log.force(true);
+        }
+        logBytes = position;
+    }
+
+    private void apply(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte op = in.readByte();
+            long id = in.readLong();
+            if (op == REMOVE) {
+                transactions.remove(id);
+            } else {
+                // Applying a mutation twice has no further effect, so compaction may include pending ones
+                transactions.put(id, TransactionBlockFile.readRecord(in));
+                nextId = Math.max(nextId, id + 1);
+            }
+        }
+    }
+
+    /**
+     * Writes the state as a snapshot of the next generation and replaces the log with
+     * an empty one. Called with commitLock held.
+     */
+    private void compactLocked() throws IOException {
+        synchronized (this) {
+            try {
+                long next = generation + 1;
+                Path snapshot = directory.resolve(SNAPSHOT_FILE);
+                writeSnapshot(snapshot, next);
+                // From here on the old log is outdated and will be ignored on open
+                FileChannel newLog = createLog(next);
+                log.close();
+                log = newLog;
+                generation = next;
+                frames = 0;
+                logBytes = LOG_HEADER_BYTES;
+                snapshotBytes = Files.size(snapshot);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
+
+    private void writeSnapshot(Path snapshot, long snapshotGeneration) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = SNAPSHOT_HEADER_BYTES;
+            int chunks = 0;
+            List<Map.Entry<Long, Transaction>> entries = new ArrayList<>(transactions.entrySet());
+            for (int start = 0; start < entries.size(); start += SNAPSHOT_CHUNK_RECORDS) {
+                int end = Math.min(entries.size(), start + SNAPSHOT_CHUNK_RECORDS);
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(buffer);
+                out.writeInt(end - start);
+                for (Map.Entry<Long, Transaction> entry : entries.subList(start, end)) {
+                    out.writeLong(entry.getKey());
+                    TransactionBlockFile.writeRecord(out, entry.getValue());
+                }
+                byte[] sealed = seal(buffer.toByteArray(), chunkData(snapshotGeneration, chunks++));
+                ByteBuffer chunk = ByteBuffer.allocate(4 + sealed.length);
+                chunk.putInt(sealed.length).put(sealed).flip();
+                writeFully(channel, chunk, position);
+                position += 4 + sealed.length;
+            }
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+            header.put(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(snapshotGeneration).putLong(nextId).putInt(chunks).flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        moveAtomically(temp, snapshot);
+    }
+
+    private void readSnapshot(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() < SNAPSHOT_HEADER_BYTES) {
+                throw new IOException("Corrupt transaction snapshot: too short");
+            }
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+            readFully(channel, header, 0);
+            header.flip();
+            byte[] magic = new byte[SNAPSHOT_MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, SNAPSHOT_MAGIC) || header.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a transaction snapshot: " + snapshot);
+            }
+            generation = header.getLong();
+            nextId = header.getLong();
+            int chunks = header.getInt();
+
+            long position = SNAPSHOT_HEADER_BYTES;
+            for (int i = 0; i < chunks; i++) {
+                ByteBuffer length = ByteBuffer.allocate(4);
+                readFully(channel, length, position);
+                int sealedLength = length.getInt(0);
+                if (sealedLength <= 0 || position + 4 + sealedLength > channel.size()) {
+                    throw new IOException("Corrupt transaction snapshot chunk " + i);
+                }
+                ByteBuffer sealed = ByteBuffer.allocate(sealedLength);
+                readFully(channel, sealed, position + 4);
+                byte[] plain;
+                try {
+                    plain = SecurityService.decryptBlock(sealed.array(), chunkData(generation, i));
+                } catch (GeneralSecurityException e) {
+                    throw new IOException("Corrupt transaction snapshot chunk " + i, e);
+                }
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(plain));
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    long id = in.readLong();
+                    transactions.put(id, TransactionBlockFile.readRecord(in));
+                }
+                position += 4 + sealedLength;
+            }
+        }
+    }
+
+    /**
+     * Creates an empty log of a generation, replacing the current log file atomically.
+     */
+    private FileChannel createLog(long logGeneration) throws IOException {
+        Path temp = directory.resolve(LOG_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+            header.put(LOG_MAGIC).putInt(LOG_VERSION).putLong(logGeneration).flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        Path logPath = directory.resolve(LOG_FILE);
+        moveAtomically(temp, logPath);
+        logBytes = LOG_HEADER_BYTES;
+        return FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Returns the generation of a log file, or -1 if its header is unreadable.
+     */
+    private static long logGeneration(Path logPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            if (channel.size() < LOG_HEADER_BYTES) {
+                return -1;
+            }
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+            readFully(channel, header, 0);
+            header.flip();
+            byte[] magic = new byte[LOG_MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, LOG_MAGIC) || header.getInt() != LOG_VERSION) {
+                throw new IOException("Not a transaction log: " + logPath);
+            }
+            return header.getLong();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Transaction log is closed");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Transaction log failed earlier: " + failure.getMessage(), failure);
+        }
+    }
+
+    private static Transaction copy(Transaction transaction) {
+        Transaction copy = new Transaction(transaction.getDescription(), transaction.getMoney(),
+                transaction.getCategory(), transaction.getDate());
+        copy.setDateText(transaction.getDateText());
+        return copy;
+    }
+
+    private static byte[] frameData(long logGeneration, long frame) {
+        return ByteBuffer.allocate(LOG_MAGIC.length + 16).put(LOG_MAGIC).putLong(logGeneration).putLong(frame).array();
+    }
+
+    private static byte[] chunkData(long snapshotGeneration, int chunk) {
+        return ByteBuffer.allocate(SNAPSHOT_MAGIC.length + 12).put(SNAPSHOT_MAGIC)
+                .putLong(snapshotGeneration).putInt(chunk).array();
+    }
+
+    private static byte[] seal(byte[] plain, byte[] associatedData) throws IOException {
+        try {
+            return SecurityService.encryptBlock(plain, associatedData);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to encrypt transaction log data", e);
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Returns whether every byte from a position up to the end of a channel is zero.
+     */
+    private static boolean isZero(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (long position = from; position < to; position += buffer.limit()) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            readFully(channel, buffer, position);
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
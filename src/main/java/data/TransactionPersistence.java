@@ -0,0 +1,255 @@
+package data;
+
+import Entity.Money;
+import Entity.Transaction;
+import services.TransactionDraft;
+import services.TransactionManager;
+import services.TransactionRecord;
+import services.TransactionStore;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Saves the transactions of a {@link TransactionManager} in a {@link TransactionLog},
+ * one change at a time.
+ *
+ * <p>{@link #restore(TransactionManager)} loads the saved transactions into the manager.
+ * Registered as a listener of the manager afterwards, this class appends every add,
+ * update and removal to the log, keyed by the stable id the manager gave the
+ * transaction, so saving a change costs the same no matter how long the history is.
+ * Changes made before it is registered, such as the sample transactions shown on first
+ * start, are not saved, and neither are later changes to those transactions.
+ *
+ * <p>The manager notifies its listeners while it holds its lock, often on the event
+ * dispatch thread, so the listener methods only queue the change. A writer thread owned
+ * by this class appends everything queued to the log and makes it durable with one
+ * commit, so a burst of changes costs one fsync and no writer of the manager waits for
+ * the disk. {@link #flush()} waits until the changes made so far are durable, and
+ * {@link #close()} does so before closing the log.
+ *
+ * <p>A transaction is saved as a {@link Transaction} whose category holds its type
+ * (Income/Expense), as in {@link FileHandler#loadTransactions(String, services.TransactionDataService)}.
+ * Dates are saved as written, whatever their format, and restored with the same text,
+ * so the store reads them exactly as it did before the restart.
+ *
+ * <p>Example usage:
+ * <pre>
+ * TransactionManager manager = TransactionManager.getInstance();
+ * TransactionPersistence persistence = new TransactionPersistence(TransactionLog.open(Path.of("transaction_log")));
+ * persistence.restore(manager);
+ * manager.addListener(persistence);
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionPersistence implements TransactionManager.TransactionListener, AutoCloseable {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+    private enum Op { ADD, UPDATE, REMOVE, STOP }
+
+    /**
+     * A queued change.
+     *
+     * @param op what to do
+     * @param id the id of the transaction in the manager
+     * @param transaction the values to save, or null for a removal
+     */
+    private record Change(Op op, long id, Transaction transaction) {
+    }
+
+    private static final Change STOP = new Change(Op.STOP, -1, null);
+
+    private final TransactionLog log;
+    private final BlockingQueue<Change> changes = new LinkedBlockingQueue<>();
+    // Ids in the manager mapped to ids in the log; filled by restore, then by the writer
+    private final Map<Long, Long> logIds = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile TransactionManager manager;
+
+    // Changes queued and changes written, guarded by this
+    private long queued;
+    private long written;
+
+    /**
+     * Creates a persistence over an opened log and starts its writer thread.
+     *
+     * @param log the log to save to and restore from; closed by {@link #close()}
+     */
+    public TransactionPersistence(TransactionLog log) {
+        this.log = log;
+        this.writer = new Thread(this::writeChanges, "transaction-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Adds the saved transactions to a manager, in the order they were first saved,
+     * with a single bulk insert. Call it once, before registering this as a listener.
+     *
+     * @param manager the manager to restore into
+     * @return the number of transactions restored
+     */
+    public int restore(TransactionManager manager) {
+        long[] ids = log.getIds();
+        List<TransactionDraft> drafts = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Transaction saved = log.get(id);
+            String date = saved.getDateText() != null ? saved.getDateText()
+                    : saved.getDate() != null ? saved.getDate().format(DATE_FORMAT) : "";
+            drafts.add(new TransactionDraft(date, saved.getDescription(), saved.getMoney().toString(), saved.getCategory()));
+        }
+        List<TransactionRecord> restored = manager.addTransactions(drafts);
+        for (int i = 0; i < restored.size(); i++) {
+            logIds.put(restored.get(i).id(), ids[i]);
+        }
+        this.manager = manager;
+        return restored.size();
+    }
+
+    @Override
+    public void onTransactionAdded(long id, String date, String description, String amount, String type) {
+        TransactionRecord added = manager.getTransaction(id);
+        if (added != null) {
+            onTransactionsAdded(List.of(added));
+        }
+    }
+
+    @Override
+    public void onTransactionsAdded(List<TransactionRecord> transactions) {
+        for (TransactionRecord transaction : transactions) {
+            enqueue(new Change(Op.ADD, transaction.id(), toSaved(transaction)));
+        }
+    }
+
+    @Override
+    public void onTransactionUpdated(long id,
+            String oldDate, String oldDescription, String oldAmount, String oldType,
+            String newDate, String newDescription, String newAmount, String newType) {
+        // Called while the manager holds the change, so this is the stored new version
+        TransactionRecord updated = manager.getTransaction(id);
+        if (updated != null) {
+            enqueue(new Change(Op.UPDATE, id, toSaved(updated)));
+        }
+    }
+
+    @Override
+    public void onTransactionRemoved(long id, String date, String description, String amount, String type) {
+        enqueue(new Change(Op.REMOVE, id, null));
+    }
+
+    /**
+     * Waits until every change queued so far has been written and is durable, or
+     * has failed and been reported.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = queued;
+        while (written < target && writer.isAlive()) {
+            wait();
+        }
+    }
+
+    /**
+     * Writes the queued changes, stops the writer thread and closes the log.
+     *
+     * @throws IOException if the log cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        changes.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    private void enqueue(Change change) {
+        synchronized (this) {
+            queued++;
+        }
+        changes.add(change);
+    }
+
+    /**
+     * The loop of the writer thread: takes everything queued, appends it to the log in
+     * order and commits it as one frame.
+     */
+    private void writeChanges() {
+        List<Change> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(changes.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            changes.drainTo(batch);
+            int count = 0;
+            for (Change change : batch) {
+                if (change == STOP) {
+                    stop = true;
+                    continue;
+                }
+                count++;
+                try {
+                    append(change);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            try {
+                log.sync();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            synchronized (this) {
+                written += count;
+                notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void append(Change change) throws IOException {
+        switch (change.op()) {
+            case ADD -> logIds.put(change.id(), log.appendAll(List.of(change.transaction()))[0]);
+            case UPDATE -> {
+                Long logId = logIds.get(change.id());
+                if (logId != null) {
+                    log.appendUpdate(logId, change.transaction());
+                }
+            }
+            case REMOVE -> {
+                Long logId = logIds.remove(change.id());
+                if (logId != null) {
+                    log.appendRemove(logId);
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected change " + change.op());
+        }
+    }
+
+    private static Transaction toSaved(TransactionRecord transaction) {
+        Transaction saved = new Transaction(transaction.description(), Money.ofCents(transaction.amountCents()),
+                transaction.type(), parseDate(transaction.date()));
+        saved.setDateText(transaction.date());
+        return saved;
+    }
+
+    private static LocalDate parseDate(String date) {
+        int epochDay = date != null ? TransactionStore.parseEpochDay(date) : TransactionStore.NO_DATE;
+        return epochDay != TransactionStore.NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+}
@@ -1,8 +1,7 @@
 package data;
 
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
 
 import services.SecurityService;
 
@@ -10,50 +9,46 @@ import services.SecurityService;
  * Handles user data storage and authentication operations.
  * This class provides methods for user registration and authentication,
  * storing user credentials in an encrypted format in a file.
+ * The file is indexed in memory by {@link UserDirectory}, so a login does not
+ * scan the file.
  */
 public class UserDataStorage {
 
     /** File path for storing user information */
     private static final String FILE_PATH = "users.txt"; // 文件路径，保存用户信息
 
+    /** Index of the users in the file */
+    private static final UserDirectory DIRECTORY = new UserDirectory(Path.of(FILE_PATH), UserDirectory.DEFAULT_ITERATIONS);
+
     /**
-     * Registers a new user by saving their encrypted credentials to the file.
-     * The username and password are encrypted before being stored.
+     * Registers a new user by saving their credentials to the file.
+     * The username is encrypted and the password is stored as a salted hash.
      *
      * @param username The username of the new user
      * @param password The password of the new user
+     * @return true if the user was registered, false if the username is already taken
+     *         or the file could not be written
      */
-    public static void registerUser(String username, String password) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH, true))) {
-            String encrypted = SecurityService.encrypt(username + ":" + password);
-            writer.write(encrypted);// 修改后的加密方式
-            // writer.write(username + ":" + password); // 使用冒号分隔用户名和密码
-            writer.newLine(); // 换行
+    public static boolean registerUser(String username, String password) {
+        try {
+            return DIRECTORY.register(username, password);
         } catch (IOException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
     /**
      * Authenticates a user by checking their credentials against stored data.
-     * Reads the encrypted user data from file and verifies the username and password.
+     * Looks the user up in the in-memory index and verifies the password.
      *
      * @param username The username to authenticate
      * @param password The password to verify
      * @return true if the credentials are valid, false otherwise
      */
     public static boolean authenticateUser(String username, String password) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String decrypted = SecurityService.decrypt(line);
-                if (decrypted == null)
-                    continue;
-                String[] user = decrypted.split(":");
-                if (user.length == 2 && user[0].equals(username) && user[1].equals(password)) {
-                    return true;
-                }
-            }
+        try {
+            return DIRECTORY.authenticate(username, password);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,250 @@
+package data;
+
+import services.SecurityService;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An in-memory index of the users in a user file, keyed by username.
+ *
+ * <p>The file is read once and then kept in a hash map, so a login costs one lookup
+ * and one password hash no matter how many users are registered. Registering a user
+ * appends a line to the file and updates the map. If the file is changed by someone
+ * else, which is noticed by its size, modification time and file key, it is read again.
+ *
+ * <p>Each line holds the encrypted username, the PBKDF2 iteration count, a random salt
+ * and the salted password hash:
+ * <pre>
+ * encrypted username:iterations:salt:hash
+ * </pre>
+ * Lines in the older format, a single encrypted {@code username:password} pair, are
+ * still accepted. They are replaced by a hashed line on the user's next successful login.
+ *
+ * @author System
+ * @version 1.0
+ */
+class UserDirectory {
+    /** PBKDF2 iterations for new password hashes. */
+    static final int DEFAULT_ITERATIONS = 100_000;
+
+    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom SALT_RANDOM = new SecureRandom();
+
+    /**
+     * The stored credential of one user.
+     */
+    private sealed interface Credential permits Hashed, Legacy {
+    }
+
+    /** A salted PBKDF2 password hash. */
+    private record Hashed(int iterations, byte[] salt, byte[] hash) implements Credential {
+    }
+
+    /** A line in the older format: the encrypted username:password pair. */
+    private record Legacy(String encryptedPair) implements Credential {
+    }
+
+    /** The state of the file when it was last read or written by this directory. */
+    private record FileStamp(long size, long modified, Object fileKey) {
+    }
+
+    private final Path file;
+    private final int iterations;
+
+    // Guarded by this; keyed by encrypted username, so no plain usernames are kept
+    private final Map<String, Credential> users = new HashMap<>();
+    private FileStamp stamp;
+
+    /**
+     * Creates a directory for a user file. The file is read on first use.
+     *
+     * @param file the user file
+     * @param iterations the PBKDF2 iteration count for new password hashes
+     */
+    UserDirectory(Path file, int iterations) {
+        this.file = file;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Registers a new user.
+     *
+     * @param username the username
+     * @param password the password
+     * @return true if the user was registered, false if the username is taken
+     * @throws IOException if the user file cannot be written
+     */
+    boolean register(String username, String password) throws IOException {
+        String key = SecurityService.encrypt(username);
+        // Hash outside the lock; logins of other users are not held up
+        Hashed credential = hash(password, iterations);
+        synchronized (this) {
+            refresh();
+            if (users.containsKey(key)) {
+                return false;
+            }
+            append(key, credential);
+            users.put(key, credential);
+            return true;
+        }
+    }
+
+    /**
+     * Checks a username and password.
+     *
+     * @param username the username
+     * @param password the password
+     * @return true if the user exists and the password matches
+     * @throws IOException if the user file cannot be read
+     */
+    boolean authenticate(String username, String password) throws IOException {
+        String key = SecurityService.encrypt(username);
+        Credential credential;
+        synchronized (this) {
+            refresh();
+            credential = users.get(key);
+        }
+        if (credential instanceof Hashed hashed) {
+            return MessageDigest.isEqual(hashed.hash(), hash(password, hashed.salt(), hashed.iterations()));
+        }
+        if (credential instanceof Legacy legacy
+                && Objects.equals(legacy.encryptedPair(), SecurityService.encrypt(username + ":" + password))) {
+            upgrade(key, legacy, password);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of registered users.
+     *
+     * @return the number of users
+     * @throws IOException if the user file cannot be read
+     */
+    synchronized int size() throws IOException {
+        refresh();
+        return users.size();
+    }
+
+    /**
+     * Replaces a legacy credential by a password hash after a successful login.
+     */
+    private void upgrade(String key, Legacy legacy, String password) throws IOException {
+        Hashed credential = hash(password, iterations);
+        synchronized (this) {
+            refresh();
+            if (users.get(key) == legacy) {
+                // A later line for the same user takes precedence when the file is read
+                append(key, credential);
+                users.put(key, credential);
+            }
+        }
+    }
+
+    /**
+     * Reads the file if it changed since it was last read or written.
+     */
+    private void refresh() throws IOException {
+        FileStamp current = stamp();
+        if (current != null && current.equals(stamp)) {
+            return;
+        }
+        users.clear();
+        stamp = current;
+        if (current == null) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parse(line.trim());
+            }
+        }
+    }
+
+    private void parse(String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        String[] fields = line.split(":");
+        if (fields.length == 4) {
+            try {
+                users.put(fields[0], new Hashed(Integer.parseInt(fields[1]),
+                        Base64.getDecoder().decode(fields[2]), Base64.getDecoder().decode(fields[3])));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping malformed user entry: " + e.getMessage());
+            }
+            return;
+        }
+        // Older format: the encrypted username:password pair
+        String decrypted = SecurityService.decrypt(line);
+        if (decrypted == null) {
+            return;
+        }
+        String[] user = decrypted.split(":");
+        if (user.length == 2) {
+            // The first registration of a name wins, as the linear search found it first
+            users.putIfAbsent(SecurityService.encrypt(user[0]), new Legacy(line));
+        }
+    }
+
+    private void append(String key, Hashed credential) throws IOException {
+        String line = key + ":" + credential.iterations() + ":"
+                + Base64.getEncoder().encodeToString(credential.salt()) + ":"
+                + Base64.getEncoder().encodeToString(credential.hash());
+        // Keep our own write from looking like an outside change
+        boolean unchanged = Objects.equals(stamp(), stamp);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(line);
+            writer.newLine();
+        }
+        stamp = unchanged ? stamp() : null;
+    }
+
+    private FileStamp stamp() throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.fileKey());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static Hashed hash(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        SALT_RANDOM.nextBytes(salt);
+        return new Hashed(iterations, salt, hash(password, salt, iterations));
+    }
+
+    private static byte[] hash(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(HASH_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
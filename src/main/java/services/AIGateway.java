@@ -0,0 +1,402 @@
+package services;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * The single way into the AI service for the whole app.
+ *
+ * <p>The dashboard import, the chat and the investment report all send prompts at
+ * the same time. The gateway keeps them in check:
+ * <ul>
+ *     <li><b>Single flight</b>: a prompt that is already being answered is not sent
+ *         again; every caller gets the answer of the request in flight.</li>
+ *     <li><b>Bounded concurrency</b>: at most a fixed number of requests are sent at
+ *         once. Further requests wait in a queue without blocking their caller.</li>
+ *     <li><b>Deadlines</b>: every prompt has a time budget from the moment it is asked,
+ *         including time spent queueing. When it runs out the caller gets a
+ *         {@link TimeoutException}, or the local fallback it supplied.</li>
+ *     <li><b>Hedged retries</b>: if the first attempt has not answered after the hedge
+ *         delay, or fails, a second attempt is sent and the first answer wins. A hedge
+ *         only starts if a request slot is free, so hedging never adds to a backlog.</li>
+ * </ul>
+ *
+ * <p>Example usage:
+ * <pre>
+ * AIGateway gateway = AIGateway.getDefault();
+ * String response = gateway.getAIResponse(prompt);
+ * String normalized = gateway.getAIResponse(prompt, p -&gt; localAnswer);
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class AIGateway {
+    /** Default number of requests sent at once. */
+    public static final int DEFAULT_MAX_CONCURRENT = 4;
+    /** Default time budget of a prompt. */
+    public static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(30);
+    /** Default wait before a slow attempt is hedged. */
+    public static final Duration DEFAULT_HEDGE_DELAY = Duration.ofSeconds(8);
+    /** Default number of attempts per prompt, the first one included. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 2;
+
+    private static AIGateway defaultInstance;
+
+    /** Schedules deadlines and hedges; never runs requests itself. */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ai-gateway-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<String, CompletableFuture<String>> request;
+    private final BiFunction<String, Consumer<String>, CompletableFuture<String>> stream;
+    private final String endpoint;
+    private final Semaphore permits;
+    private final long deadlineMillis;
+    private final long hedgeDelayMillis;
+    private final int maxAttempts;
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    // Attempts waiting for a request slot
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * Creates a gateway with the default limits in front of an AI service.
+     *
+     * @param service the AI service
+     */
+    public AIGateway(BaiduAIService service) {
+        this(service::getAIResponseAsync, service::streamAIResponse, service.getEndpoint(),
+                DEFAULT_MAX_CONCURRENT, DEFAULT_DEADLINE, DEFAULT_HEDGE_DELAY, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Creates a gateway in front of custom request functions, e.g. stubs in tests.
+     *
+     * @param request sends a prompt and completes with the raw JSON response
+     * @param stream sends a prompt, passes each piece of the answer to the consumer
+     *               and completes with the whole answer
+     * @param endpoint the model endpoint, used as part of cache keys
+     * @param maxConcurrent the number of requests sent at once
+     * @param deadline the time budget of a prompt
+     * @param hedgeDelay the wait before a slow attempt is hedged
+     * @param maxAttempts the number of attempts per prompt, the first one included
+     */
+    AIGateway(Function<String, CompletableFuture<String>> request,
+              BiFunction<String, Consumer<String>, CompletableFuture<String>> stream, String endpoint,
+              int maxConcurrent, Duration deadline, Duration hedgeDelay, int maxAttempts) {
+        this.request = request;
+        this.stream = stream;
+        this.endpoint = endpoint;
+        this.permits = new Semaphore(maxConcurrent);
+        this.deadlineMillis = deadline.toMillis();
+        this.hedgeDelayMillis = hedgeDelay.toMillis();
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Returns the gateway shared by the app, in front of the Baidu AI service.
+     *
+     * @return the shared gateway
+     */
+    public static synchronized AIGateway getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = new AIGateway(new BaiduAIService());
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Returns the model endpoint behind this gateway.
+     *
+     * @return the endpoint URL
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Sends a prompt, joining an identical prompt that is already in flight.
+     *
+     * @param prompt the prompt
+     * @return a future completed with the raw JSON response, or exceptionally with a
+     *         {@link TimeoutException} when the budget runs out or the last attempt's error
+     */
+    public CompletableFuture<String> ask(String prompt) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(prompt, result);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+        requests.incrementAndGet();
+        result.whenComplete((response, error) -> inFlight.remove(prompt, result));
+        expireAtDeadline(result);
+        new Flight(prompt, result).start();
+        return result;
+    }
+
+    /**
+     * Sends a prompt and waits for the response, like {@link BaiduAIService#getAIResponse(String)}.
+     *
+     * @param prompt the prompt
+     * @return the raw JSON response, or an error message starting with "Error: "
+     */
+    public String getAIResponse(String prompt) {
+        return getAIResponse(prompt, p -> null);
+    }
+
+    /**
+     * Sends a prompt and waits for the response, answering locally if the AI fails
+     * or the budget runs out.
+     *
+     * @param prompt the prompt
+     * @param fallback produces a response from the prompt without the AI; may return
+     *                 null to report the error instead
+     * @return the raw JSON response, the fallback's answer, or an error message starting with "Error: "
+     */
+    public String getAIResponse(String prompt, UnaryOperator<String> fallback) {
+        try {
+            return ask(prompt).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Error: interrupted";
+        } catch (ExecutionException e) {
+            String local = fallback.apply(prompt);
+            return local != null ? local : "Error: " + e.getCause().getMessage();
+        }
+    }
+
+    /**
+     * Streams the answer to a prompt within the concurrency limit. The deadline applies
+     * to the first piece of the answer; once the answer is flowing it may take longer.
+     * Streams are neither shared nor hedged, since their pieces go to one consumer.
+     *
+     * @param prompt the prompt
+     * @param onChunk receives each piece of the answer as it arrives
+     * @return a future completed with the whole answer, or exceptionally on error or timeout
+     */
+    public CompletableFuture<String> stream(String prompt, Consumer<String> onChunk) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicBoolean started = new AtomicBoolean();
+        requests.incrementAndGet();
+        TIMER.schedule(() -> {
+            if (started.get()) {
+                return;
+            }
+            timeouts.incrementAndGet();
+            if (!result.completeExceptionally(new TimeoutException("No AI response within " + deadlineMillis + " ms"))) {
+                timeouts.decrementAndGet();
+            }
+        }, deadlineMillis, TimeUnit.MILLISECONDS);
+        enqueue(() -> {
+            if (result.isDone()) {
+                return false;
+            }
+            run(() -> stream.apply(prompt, chunk -> {
+                started.set(true);
+                if (!result.isDone()) {
+                    onChunk.accept(chunk);
+                }
+            }), result::complete, result::completeExceptionally);
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * Returns the number of prompts sent, not counting coalesced ones.
+     *
+     * @return the request count
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of prompts answered by a request that was already in flight.
+     *
+     * @return the coalesced count
+     */
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Returns the number of extra attempts started by hedging or retrying.
+     *
+     * @return the hedge count
+     */
+    public long hedges() {
+        return hedges.get();
+    }
+
+    /**
+     * Returns the number of prompts whose budget ran out.
+     *
+     * @return the timeout count
+     */
+    public long timeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * Fails a result with a {@link TimeoutException} if it is still pending at the deadline.
+     */
+    private void expireAtDeadline(CompletableFuture<String> result) {
+        TIMER.schedule(() -> {
+            // Counted first, so callers woken by the timeout already see it
+            timeouts.incrementAndGet();
+            if (!result.completeExceptionally(new TimeoutException("No AI response within " + deadlineMillis + " ms"))) {
+                timeouts.decrementAndGet();
+            }
+        }, deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The attempts made for one prompt.
+     */
+    private final class Flight {
+        private final String prompt;
+        private final CompletableFuture<String> result;
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+
+        Flight(String prompt, CompletableFuture<String> result) {
+            this.prompt = prompt;
+            this.result = result;
+        }
+
+        void start() {
+            enqueue(this::attempt);
+        }
+
+        /**
+         * Starts another attempt if the budget allows.
+         *
+         * @return true if the attempt was started
+         */
+        boolean attempt() {
+            if (result.isDone()) {
+                return false;
+            }
+            int number = attempts.incrementAndGet();
+            if (number > maxAttempts) {
+                return false;
+            }
+            if (number > 1) {
+                hedges.incrementAndGet();
+            }
+            running.incrementAndGet();
+            run(() -> request.apply(prompt), result::complete, error -> {
+                if (running.decrementAndGet() > 0) {
+                    return;
+                }
+                // Nothing else in flight: retry while attempts remain, else report the failure
+                if (attempts.get() < maxAttempts) {
+                    enqueue(this::attempt);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            });
+            if (number < maxAttempts) {
+                TIMER.schedule(this::hedge, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        }
+
+        /**
+         * Sends one more attempt now, but only if a request slot is free.
+         */
+        void hedge() {
+            if (result.isDone() || !permits.tryAcquire()) {
+                return;
+            }
+            if (!attempt()) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Queues a request until a slot is free. The task returns false if it did not
+     * send anything, which frees its slot again.
+     */
+    private void enqueue(BooleanSupplier task) {
+        waiting.add(() -> {
+            if (!task.getAsBoolean()) {
+                permits.release();
+            }
+        });
+        drain();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            next.run();
+        }
+    }
+
+    /**
+     * Sends a request that holds a slot. The slot is freed when the request finishes
+     * or the deadline passes, whichever comes first, so a hung connection cannot
+     * block the queue forever.
+     */
+    private void run(Supplier<CompletableFuture<String>> send,
+                     Consumer<String> onResponse, Consumer<Throwable> onError) {
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+                drain();
+            }
+        };
+        TIMER.schedule(release, deadlineMillis, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> response;
+        try {
+            response = send.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((value, error) -> {
+            release.run();
+            if (error == null) {
+                onResponse.accept(value);
+            } else {
+                onError.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+    }
+}
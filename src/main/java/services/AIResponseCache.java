@@ -0,0 +1,392 @@
+package services;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A local, content-addressed cache for AI responses.
+ *
+ * <p>Entries are keyed by the SHA-256 hash of the model endpoint and the prompt, so
+ * the same prompt sent to the same model is answered from the cache instead of
+ * going over the network again. The cache has two tiers:
+ * <ul>
+ *   <li>an in-memory LRU map holding the most recently used entries, and</li>
+ *   <li>an append-only file on disk that survives restarts. Each line is
+ *       {@code key createdMillis base64(value)}; a later line for the same key
+ *       replaces an earlier one.</li>
+ * </ul>
+ * Entries older than the configured time-to-live are treated as misses. When the
+ * file grows beyond its size limit it is compacted: expired and superseded lines
+ * are dropped, followed by the oldest entries until the file is at half the limit.
+ *
+ * <p>Hits and misses are counted per tier and can be read through {@link #stats()}.
+ * All methods are thread-safe.
+ *
+ * <p>Example usage:
+ * <pre>
+ * AIResponseCache cache = AIResponseCache.getDefault();
+ * String response = cache.getOrFetch(endpoint, prompt, ai::getAIResponse, r -&gt; !r.startsWith("Error"));
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class AIResponseCache implements AutoCloseable {
+    /** Location of the shared cache file. */
+    public static final Path DEFAULT_FILE = Paths.get("data", "ai_cache.txt");
+    /** Default time-to-live of an entry. */
+    public static final Duration DEFAULT_TTL = Duration.ofDays(30);
+    /** Default number of entries kept in memory. */
+    public static final int DEFAULT_MEMORY_ENTRIES = 2048;
+    /** Default size limit of the cache file. */
+    public static final long DEFAULT_MAX_DISK_BYTES = 16L * 1024 * 1024;
+
+    private static AIResponseCache defaultInstance;
+
+    private final Path file;
+    private final long ttlMillis;
+    private final long maxDiskBytes;
+    private final LongSupplier clock;
+    private final Map<String, Entry> memory;
+    // Position of the latest line for each key in the cache file
+    private final Map<String, Location> diskIndex = new HashMap<>();
+    private RandomAccessFile disk;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Hit and miss counters of a cache.
+     *
+     * @param memoryHits lookups answered from the in-memory tier
+     * @param diskHits lookups answered from the file
+     * @param misses lookups that found no live entry
+     */
+    public record Stats(long memoryHits, long diskHits, long misses) {
+        /**
+         * Returns the share of lookups answered by either tier.
+         *
+         * @return the hit rate between 0 and 1, or 0 if there were no lookups
+         */
+        public double hitRate() {
+            long total = memoryHits + diskHits + misses;
+            return total == 0 ? 0 : (double) (memoryHits + diskHits) / total;
+        }
+    }
+
+    private record Entry(String value, long createdMillis) {
+    }
+
+    private record Location(long offset, int length) {
+    }
+
+    /**
+     * Opens a cache backed by the given file, creating it if needed.
+     *
+     * @param file the cache file, or null for a memory-only cache
+     * @param ttl how long an entry stays valid
+     * @param maxMemoryEntries the capacity of the in-memory tier
+     * @param maxDiskBytes the size at which the cache file is compacted
+     * @throws IOException if the file cannot be opened or read
+     */
+    public AIResponseCache(Path file, Duration ttl, int maxMemoryEntries, long maxDiskBytes) throws IOException {
+        this(file, ttl, maxMemoryEntries, maxDiskBytes, System::currentTimeMillis);
+    }
+
+    AIResponseCache(Path file, Duration ttl, int maxMemoryEntries, long maxDiskBytes, LongSupplier clock)
+            throws IOException {
+        this.file = file;
+        this.ttlMillis = ttl.toMillis();
+        this.maxDiskBytes = maxDiskBytes;
+        this.clock = clock;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+        if (file != null) {
+            open();
+        }
+    }
+
+    /**
+     * Returns the shared cache stored in {@link #DEFAULT_FILE}.
+     * If the file cannot be opened, a memory-only cache is used instead.
+     *
+     * @return the shared cache
+     */
+    public static synchronized AIResponseCache getDefault() {
+        if (defaultInstance == null) {
+            try {
+                defaultInstance = new AIResponseCache(DEFAULT_FILE, DEFAULT_TTL, DEFAULT_MEMORY_ENTRIES,
+                        DEFAULT_MAX_DISK_BYTES);
+            } catch (IOException e) {
+                System.err.println("AI cache file unavailable, caching in memory only: " + e.getMessage());
+                try {
+                    defaultInstance = new AIResponseCache(null, DEFAULT_TTL, DEFAULT_MEMORY_ENTRIES, 0);
+                } catch (IOException impossible) {
+                    throw new IllegalStateException(impossible);
+                }
+            }
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Computes the cache key of a prompt sent to an endpoint.
+     *
+     * @param endpoint the model endpoint
+     * @param prompt the prompt text
+     * @return the hex-encoded SHA-256 hash of both
+     */
+    public static String key(String endpoint, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Looks up a cached value.
+     *
+     * @param key a key from {@link #key(String, String)}
+     * @return the cached value, or null if there is no live entry
+     */
+    public synchronized String get(String key) {
+        long now = clock.getAsLong();
+        Entry entry = memory.get(key);
+        if (entry != null && !isExpired(entry, now)) {
+            memoryHits.incrementAndGet();
+            return entry.value();
+        }
+        entry = readFromDisk(key);
+        if (entry != null && !isExpired(entry, now)) {
+            memory.put(key, entry);
+            diskHits.incrementAndGet();
+            return entry.value();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores a value in both tiers.
+     *
+     * @param key a key from {@link #key(String, String)}
+     * @param value the value to cache
+     */
+    public synchronized void put(String key, String value) {
+        Entry entry = new Entry(value, clock.getAsLong());
+        memory.put(key, entry);
+        if (disk == null) {
+            return;
+        }
+        try {
+            append(key, entry);
+            if (disk.length() > maxDiskBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            // The memory tier still has the entry; the file is only an optimization
+            System.err.println("Error writing AI cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the cached response for a prompt, fetching and caching it on a miss.
+     * The fetch runs outside the cache lock, so slow requests do not block other lookups.
+     *
+     * @param endpoint the model endpoint
+     * @param prompt the prompt text
+     * @param fetch sends the prompt and returns the response
+     * @param cacheable decides whether a fetched response may be cached; error responses should not be
+     * @return the cached or freshly fetched response
+     */
+    public String getOrFetch(String endpoint, String prompt, UnaryOperator<String> fetch,
+            Predicate<String> cacheable) {
+        String key = key(endpoint, prompt);
+        String cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        String response = fetch.apply(prompt);
+        if (response != null && cacheable.test(response)) {
+            put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Returns a snapshot of the hit and miss counters.
+     *
+     * @return the cache statistics
+     */
+    public Stats stats() {
+        return new Stats(memoryHits.get(), diskHits.get(), misses.get());
+    }
+
+    /**
+     * Returns the current size of the cache file.
+     *
+     * @return the file size in bytes, or 0 for a memory-only cache
+     */
+    public synchronized long diskBytes() {
+        try {
+            return disk == null ? 0 : disk.length();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Closes the cache file. The in-memory tier stays usable.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+            disk = null;
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdMillis() > ttlMillis;
+    }
+
+    /**
+     * Opens the file and indexes its lines. A torn last line left by a crash is cut off.
+     */
+    private void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        disk = new RandomAccessFile(file.toFile(), "rw");
+        diskIndex.clear();
+        long offset = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String text = line.toString(StandardCharsets.US_ASCII);
+                if (parse(text) != null) {
+                    diskIndex.put(text.substring(0, text.indexOf(' ')), new Location(offset, line.size()));
+                }
+                offset += line.size() + 1;
+                line.reset();
+            }
+        }
+        // Only newline-terminated lines are complete
+        if (offset < disk.length()) {
+            disk.setLength(offset);
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        Location location = diskIndex.get(key);
+        if (location == null || disk == null) {
+            return null;
+        }
+        try {
+            byte[] line = new byte[location.length()];
+            disk.seek(location.offset());
+            disk.readFully(line);
+            return parse(new String(line, StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void append(String key, Entry entry) throws IOException {
+        long offset = disk.length();
+        byte[] line = format(key, entry).getBytes(StandardCharsets.US_ASCII);
+        disk.seek(offset);
+        disk.write(line);
+        diskIndex.put(key, new Location(offset, line.length - 1));
+    }
+
+    /**
+     * Rewrites the file with the newest live entries, keeping it at half the size limit.
+     */
+    private void compact() throws IOException {
+        long now = clock.getAsLong();
+        List<Map.Entry<String, Entry>> live = new ArrayList<>();
+        for (String key : diskIndex.keySet()) {
+            Entry entry = readFromDisk(key);
+            if (entry != null && !isExpired(entry, now)) {
+                live.add(Map.entry(key, entry));
+            }
+        }
+        live.sort((a, b) -> Long.compare(b.getValue().createdMillis(), a.getValue().createdMillis()));
+
+        StringBuilder kept = new StringBuilder();
+        for (Map.Entry<String, Entry> entry : live) {
+            String line = format(entry.getKey(), entry.getValue());
+            if (kept.length() + line.length() > maxDiskBytes / 2) {
+                break;
+            }
+            kept.append(line);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, kept, StandardCharsets.US_ASCII);
+        disk.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    private static String format(String key, Entry entry) {
+        return key + ' ' + entry.createdMillis() + ' '
+                + Base64.getEncoder().encodeToString(entry.value().getBytes(StandardCharsets.UTF_8)) + '\n';
+    }
+
+    private static Entry parse(String line) {
+        if (line == null) {
+            return null;
+        }
+        String[] parts = line.split(" ");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return new Entry(new String(Base64.getDecoder().decode(parts[2]), StandardCharsets.UTF_8),
+                    Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
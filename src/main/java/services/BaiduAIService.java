@@ -5,16 +5,33 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 
 /**
  * The service class used to invoke the Baidu Wenxin Yiyan API.
  * This class provides the functionality of obtaining access tokens and
  * obtaining AI responses.
+ *
+ * <p>All instances share one HTTP/2 client, so connections are reused across
+ * requests, and one access token per token endpoint. The token is fetched once
+ * and refreshed in the background shortly before it expires, so a chat request
+ * normally costs a single round-trip. {@link #getAIResponseAsync(String)} lets
+ * callers keep several requests in flight at once, and
+ * {@link #streamAIResponse(String, Consumer)} delivers the answer piece by piece
+ * as the server produces it.
  */
 public class BaiduAIService {
     /**
@@ -47,97 +64,401 @@ public class BaiduAIService {
     // "https://aip.baidubce.com/rpc/2.0/ai_custom/v1/wenxinworkshop/chat/completions";
 
     /**
-     * The method for obtaining the access token.
-     * Send a request to the Baidu API to obtain an access token for subsequent API
-     * calls.
-     *
-     * @return The access token string
-     * @throws IOException          If an I/O error occurs when sending the request
-     *                              or processing the response
-     * @throws InterruptedException If the thread is interrupted while waiting for
-     *                              the response
-     */
-    private String getAccessToken() throws IOException, InterruptedException {
-        // Create a new HTTP client
-        HttpClient client = HttpClient.newHttpClient();
-        // Build the HTTP request
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(ACCESS_TOKEN_URL))
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(""))
-                .build();
+     * How long before its expiry a token is refreshed in the background.
+     * For short-lived tokens at most half of the lifetime is used.
+     */
+    private static final long TOKEN_REFRESH_MARGIN_MILLIS = Duration.ofMinutes(10).toMillis();
 
-        // Send the request and get the response
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        // Use Gson to parse the response body to a Map
-        Map<String, Object> result = new Gson().fromJson(response.body(),
-                new com.google.gson.reflect.TypeToken<HashMap<String, Object>>() {
-                }.getType());
+    /**
+     * Error codes the API returns for an invalid or expired access token.
+     */
+    private static final int ERROR_INVALID_TOKEN = 110;
+    private static final int ERROR_EXPIRED_TOKEN = 111;
 
-        if (result.containsKey("error")) {
-            throw new IOException("Failed to get access token: " + result.get("error_description"));
-        }
+    /**
+     * The HTTP client shared by all instances. It negotiates HTTP/2 where the
+     * server supports it and keeps connections open between requests.
+     */
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    /**
+     * The Gson instance shared by all instances; Gson is thread-safe.
+     */
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Access tokens shared by all instances, one per token URL.
+     */
+    private static final Map<String, AccessTokenCache> TOKENS = new ConcurrentHashMap<>();
 
-        // Extract the access token from the result and return it
-        return (String) result.get("access_token");
+    private final String apiUrl;
+    private final AccessTokenCache tokens;
+
+    /**
+     * Creates a service for the Baidu Wenxin Yiyan API.
+     */
+    public BaiduAIService() {
+        this(ACCESS_TOKEN_URL, API_BASE_URL, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a service for custom endpoints, e.g. a local stub in tests.
+     *
+     * @param tokenUrl the URL that issues access tokens
+     * @param apiUrl the chat endpoint
+     * @param clock the time source used for token expiry
+     */
+    BaiduAIService(String tokenUrl, String apiUrl, LongSupplier clock) {
+        this.apiUrl = apiUrl;
+        this.tokens = TOKENS.computeIfAbsent(tokenUrl, url -> new AccessTokenCache(url, clock));
+    }
+
+    /**
+     * Returns the model endpoint this service sends chat requests to.
+     * Used to tell cached responses of different models apart.
+     *
+     * @return the endpoint URL without access token
+     */
+    public String getEndpoint() {
+        return apiUrl;
     }
 
     /**
      * The method of obtaining AI responses.
-     * First, obtain the access token, then build the request body and send the
-     * request to the Baidu Wenxin Yiyan API, and finally return the response from
-     * the AI.
+     * Blocks until the response of {@link #getAIResponseAsync(String)} is available.
      *
      * @param message The chat message entered by the user
      * @return The response string of AI returns an error message if an error occurs
      */
     public String getAIResponse(String message) {
         try {
-            // Obtain the access token
-            String accessToken = getAccessToken();
-            // Build the complete API request URL
-            String apiUrl = API_BASE_URL + "?access_token=" + accessToken;
-
-            // Build a message list
-            List<Map<String, String>> messages = new ArrayList<Map<String, String>>();
-            Map<String, String> userMessage = new HashMap<String, String>();
-            userMessage.put("role", "user");
-            userMessage.put("content", message);
-            messages.add(userMessage);
-
-            // Build the request body
-            Map<String, Object> requestBodyMap = new HashMap<String, Object>();
-            requestBodyMap.put("messages", messages);
-            // Use Gson to convert the request body to a JSON string
-            String requestBody = new Gson().toJson(requestBodyMap);
-
-            // Create an HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(apiUrl))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
+            return getAIResponseAsync(message).get();
+        } catch (ExecutionException e) {
+            // Print the abnormal stack information
+            e.getCause().printStackTrace();
+            // Return error message
+            return "Error: " + e.getCause().getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Error: " + e.getMessage();
+        }
+    }
 
-            // Send a request and obtain a response
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Sends a chat message without blocking the calling thread.
+     * A cached access token is used when available. If the API rejects it as invalid
+     * or expired, a new token is fetched and the request is sent once more.
+     *
+     * @param message The chat message entered by the user
+     * @return a future completed with the raw JSON response body, or completed
+     *         exceptionally if the request fails or the API reports an error
+     */
+    public CompletableFuture<String> getAIResponseAsync(String message) {
+        return send(message, true);
+    }
+
+    private CompletableFuture<String> send(String message, boolean retryOnTokenError) {
+        return tokens.get().thenCompose(accessToken -> HTTP_CLIENT
+                .sendAsync(chatRequest(accessToken, message), HttpResponse.BodyHandlers.ofString())
+                .thenCompose(response -> {
+                    JsonObject body = GSON.fromJson(response.body(), JsonObject.class);
+                    if (retryOnTokenError && isTokenError(body)) {
+                        tokens.invalidate(accessToken);
+                        return send(message, false);
+                    }
+                    // Check whether the response contains errors
+                    if (body == null || body.has("error") || body.has("error_code")) {
+                        String error = body == null ? "empty response"
+                                : body.has("error") ? body.get("error").toString() : body.get("error_msg").toString();
+                        return CompletableFuture.failedFuture(new IOException("API Error: " + error));
+                    }
+                    // Return the response body
+                    return CompletableFuture.completedFuture(response.body());
+                }));
+    }
+
+    /**
+     * Sends a chat message in streaming mode. The server answers with server-sent
+     * events, and the text of each event is passed to {@code onChunk} as soon as it
+     * arrives, so the first words can be shown long before the answer is complete.
+     *
+     * <p>{@code onChunk} is called on an HTTP client thread, one chunk at a time and in
+     * order. A rejected access token is replaced and the request retried once, as in
+     * {@link #getAIResponseAsync(String)}; the API reports such errors before any chunk.
+     *
+     * @param message The chat message entered by the user
+     * @param onChunk receives each piece of the answer text
+     * @return a future completed with the full answer text, or completed exceptionally
+     *         if the request fails or the API reports an error
+     */
+    public CompletableFuture<String> streamAIResponse(String message, Consumer<String> onChunk) {
+        return stream(message, onChunk, true);
+    }
+
+    private CompletableFuture<String> stream(String message, Consumer<String> onChunk, boolean retryOnTokenError) {
+        return tokens.get().thenCompose(accessToken -> {
+            EventStreamSubscriber events = new EventStreamSubscriber(onChunk);
+            return HTTP_CLIENT
+                    .sendAsync(request(accessToken, message, true), HttpResponse.BodyHandlers.fromLineSubscriber(events))
+                    .thenCompose(response -> events.result)
+                    .thenCompose(text -> {
+                        if (events.error == null) {
+                            return CompletableFuture.completedFuture(text);
+                        }
+                        if (retryOnTokenError && isTokenError(events.error) && text.isEmpty()) {
+                            tokens.invalidate(accessToken);
+                            return stream(message, onChunk, false);
+                        }
+                        String error = events.error.has("error_msg") ? events.error.get("error_msg").toString()
+                                : events.error.toString();
+                        return CompletableFuture.failedFuture(new IOException("API Error: " + error));
+                    });
+        });
+    }
+
+    /**
+     * Builds the chat request for a single user message.
+     */
+    private HttpRequest chatRequest(String accessToken, String message) {
+        return request(accessToken, message, false);
+    }
+
+    private HttpRequest request(String accessToken, String message, boolean stream) {
+        // Build a message list
+        List<Map<String, String>> messages = new ArrayList<Map<String, String>>();
+        Map<String, String> userMessage = new HashMap<String, String>();
+        userMessage.put("role", "user");
+        userMessage.put("content", message);
+        messages.add(userMessage);
+
+        // Build the request body
+        Map<String, Object> requestBodyMap = new HashMap<String, Object>();
+        requestBodyMap.put("messages", messages);
+        if (stream) {
+            requestBodyMap.put("stream", true);
+        }
+        // Use Gson to convert the request body to a JSON string
+        String requestBody = GSON.toJson(requestBodyMap);
 
-            // Check whether the response contains errors
-            Map<String, Object> responseMap = new Gson().fromJson(response.body(),
-                    new com.google.gson.reflect.TypeToken<HashMap<String, Object>>() {
-                    }.getType());
-            if (responseMap.containsKey("error")) {
-                throw new IOException("API Error: " + responseMap.get("error"));
+        // Build the complete API request URL
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl + "?access_token=" + accessToken))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                .build();
+    }
+
+    /**
+     * Reads a server-sent event stream line by line. Each event's {@code data} field
+     * holds a JSON object whose {@code result} is the next piece of the answer. An error
+     * arrives either as such an event or, when the request is rejected outright, as a
+     * plain JSON body; both are kept in {@link #error}. A plain body with a
+     * {@code result} is passed on as a single chunk.
+     */
+    private static final class EventStreamSubscriber implements Flow.Subscriber<String> {
+        /** Completed with the concatenated answer once the stream ends. */
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        /** The error object reported by the API, if any. Read after {@link #result} completes. */
+        volatile JsonObject error;
+
+        private final Consumer<String> onChunk;
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder data = new StringBuilder();
+        private final StringBuilder plainBody = new StringBuilder();
+        private Flow.Subscription subscription;
+
+        EventStreamSubscriber(Consumer<String> onChunk) {
+            this.onChunk = onChunk;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            try {
+                accept(line);
+            } catch (RuntimeException e) {
+                // A malformed event or a failing consumer ends the stream
+                subscription.cancel();
+                result.completeExceptionally(e);
             }
+        }
 
-            // Return the response body
-            return response.body();
-        } catch (IOException | InterruptedException e) {
-            // Print the abnormal stack information
-            e.printStackTrace();
-            // Return error message
-            return "Error: " + e.getMessage();
+        private void accept(String line) {
+            if (result.isDone()) {
+                return;
+            }
+            if (line.isEmpty()) {
+                // A blank line ends an event
+                dispatch();
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line, line.startsWith("data: ") ? 6 : 5, line.length());
+            } else if (!line.startsWith(":") && !line.startsWith("event:") && !line.startsWith("id:")
+                    && !line.startsWith("retry:")) {
+                // Not an event stream: an error response in plain JSON
+                plainBody.append(line);
+            }
+        }
+
+        private void dispatch() {
+            if (data.length() == 0) {
+                return;
+            }
+            String payload = data.toString();
+            data.setLength(0);
+            if (payload.equals("[DONE]")) {
+                return;
+            }
+            handle(GSON.fromJson(payload, JsonObject.class));
+        }
+
+        private void handle(JsonObject event) {
+            if (event == null) {
+                return;
+            }
+            if (event.has("error_code") || event.has("error")) {
+                error = event;
+            } else if (event.has("result")) {
+                String chunk = event.get("result").getAsString();
+                if (!chunk.isEmpty()) {
+                    text.append(chunk);
+                    onChunk.accept(chunk);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                dispatch();
+                if (plainBody.length() > 0) {
+                    // Either an error or a server that answered without streaming
+                    handle(GSON.fromJson(plainBody.toString(), JsonObject.class));
+                }
+                result.complete(text.toString());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static boolean isTokenError(JsonObject body) {
+        if (body == null || !body.has("error_code")) {
+            return false;
+        }
+        int code = body.get("error_code").getAsInt();
+        return code == ERROR_INVALID_TOKEN || code == ERROR_EXPIRED_TOKEN;
+    }
+
+    /**
+     * Holds the access token of one token URL and refreshes it before it expires.
+     * Concurrent callers share a single in-flight token request.
+     */
+    private static final class AccessTokenCache {
+        private final String tokenUrl;
+        private final LongSupplier clock;
+        private volatile Token current;
+        private CompletableFuture<Token> refreshing;
+
+        private record Token(String value, long refreshAtMillis, long expiresAtMillis) {
+        }
+
+        AccessTokenCache(String tokenUrl, LongSupplier clock) {
+            this.tokenUrl = tokenUrl;
+            this.clock = clock;
+        }
+
+        /**
+         * Returns a valid token. A token close to expiry is still returned while a
+         * replacement is fetched in the background.
+         */
+        CompletableFuture<String> get() {
+            Token token = current;
+            long now = clock.getAsLong();
+            if (token != null && now < token.expiresAtMillis()) {
+                if (now >= token.refreshAtMillis()) {
+                    refresh();
+                }
+                return CompletableFuture.completedFuture(token.value());
+            }
+            return refresh().thenApply(Token::value);
+        }
+
+        /**
+         * Drops a token the API rejected, unless it has already been replaced.
+         */
+        synchronized void invalidate(String rejected) {
+            Token token = current;
+            if (token != null && token.value().equals(rejected)) {
+                current = null;
+            }
+        }
+
+        private synchronized CompletableFuture<Token> refresh() {
+            if (refreshing != null) {
+                return refreshing;
+            }
+            CompletableFuture<Token> request = fetch();
+            refreshing = request;
+            request.whenComplete((token, error) -> {
+                synchronized (this) {
+                    if (token != null) {
+                        current = token;
+                    }
+                    if (refreshing == request) {
+                        refreshing = null;
+                    }
+                }
+            });
+            return request;
+        }
+
+        /**
+         * The method for obtaining the access token.
+         * Send a request to the Baidu API to obtain an access token for subsequent API
+         * calls.
+         */
+        private CompletableFuture<Token> fetch() {
+            // Build the HTTP request
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(tokenUrl))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(""))
+                    .build();
+
+            long requestedAt = clock.getAsLong();
+            return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+                JsonObject result = GSON.fromJson(response.body(), JsonObject.class);
+                if (result == null || result.has("error") || !result.has("access_token")) {
+                    String error = result != null && result.has("error_description")
+                            ? result.get("error_description").getAsString() : response.body();
+                    throw new CompletionException(new IOException("Failed to get access token: " + error));
+                }
+                // expires_in is in seconds; measure from when the request was sent to stay on the safe side
+                long lifetime = result.has("expires_in") ? result.get("expires_in").getAsLong() * 1000 : 0;
+                long expiresAt = requestedAt + lifetime;
+                long refreshAt = expiresAt - Math.min(TOKEN_REFRESH_MARGIN_MILLIS, lifetime / 2);
+                return new Token(result.get("access_token").getAsString(), refreshAt, expiresAt);
+            });
         }
     }
 
@@ -176,4 +497,4 @@ public class BaiduAIService {
     public static String[] extractKeywords(String text) {
         return new String[] { "Baidu", "AI", "technology" };
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,308 @@
+package services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns an expense category to a transaction description using a table of keyword rules.
+ *
+ * <p>A description belongs to the category of the first rule whose keyword occurs
+ * in it, ignoring case; descriptions matching no rule get the default category.
+ * The rules are compiled into an Aho-Corasick automaton, so a description is
+ * classified in one pass over its characters however many rules there are.
+ * Results are also memoized per description, since the same merchants come up
+ * again and again.
+ *
+ * <p>Rule files have one category per line followed by its keywords; earlier
+ * lines take priority and {@code #} starts a comment:
+ * <pre>
+ * # category: keyword, keyword, ...
+ * Housing: rent, mortgage, house
+ * Food: food, grocery, restaurant
+ * </pre>
+ *
+ * <p>Instances are immutable apart from the memo cache and are thread-safe.
+ *
+ * @author System
+ * @version 1.0
+ */
+public class CategoryClassifier {
+    /** Category of descriptions that match no rule. */
+    public static final String DEFAULT_CATEGORY = "Others";
+
+    /** Number of memoized descriptions; the memo is cleared when it fills up. */
+    static final int MEMO_CAPACITY = 8192;
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    /**
+     * A keyword and the category it selects.
+     *
+     * @param keyword the text to look for, matched ignoring case
+     * @param category the category of descriptions containing the keyword
+     */
+    public record Rule(String keyword, String category) {
+        /**
+         * Validates the rule.
+         *
+         * @throws IllegalArgumentException if the keyword is empty
+         */
+        public Rule {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Empty keyword for category " + category);
+            }
+        }
+    }
+
+    private static final CategoryClassifier DEFAULTS = new CategoryClassifier(List.of(
+            new Rule("rent", "Housing"), new Rule("mortgage", "Housing"), new Rule("house", "Housing"),
+            new Rule("food", "Food"), new Rule("grocery", "Food"), new Rule("restaurant", "Food"),
+            new Rule("car", "Transport"), new Rule("gas", "Transport"), new Rule("transport", "Transport"),
+            new Rule("movie", "Entertainment"), new Rule("entertainment", "Entertainment"),
+            new Rule("game", "Entertainment"),
+            new Rule("saving", "Savings"), new Rule("deposit", "Savings"), new Rule("investment", "Savings")));
+
+    private final String defaultCategory;
+    // Category of each rule, by rule index
+    private final String[] categories;
+
+    // Character classes: ASCII by table, upper and lower case sharing a class;
+    // other characters by binary search over their lower case form
+    private final int[] asciiClasses = new int[128];
+    private final char[] otherChars;
+    private final int[] otherClasses;
+    private final int width;
+
+    // Complete transition table, transitions[state * width + class], with the failure links folded in
+    private final int[] transitions;
+    // Lowest rule index matching at each state, following failure links, or NO_MATCH
+    private final int[] matches;
+
+    private final Map<String, String> memo = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles a rule table with the default category for unmatched descriptions.
+     *
+     * @param rules the rules, highest priority first
+     */
+    public CategoryClassifier(List<Rule> rules) {
+        this(rules, DEFAULT_CATEGORY);
+    }
+
+    /**
+     * Compiles a rule table.
+     *
+     * @param rules the rules, highest priority first
+     * @param defaultCategory the category of descriptions that match no rule
+     */
+    public CategoryClassifier(List<Rule> rules, String defaultCategory) {
+        this.defaultCategory = defaultCategory;
+        this.categories = new String[rules.size()];
+
+        // Alphabet of the keywords; class 0 stands for every other character
+        TreeSet<Character> alphabet = new TreeSet<>();
+        int keywordChars = 0;
+        for (Rule rule : rules) {
+            for (int i = 0; i < rule.keyword().length(); i++) {
+                alphabet.add(Character.toLowerCase(rule.keyword().charAt(i)));
+            }
+            keywordChars += rule.keyword().length();
+        }
+        char[] otherChars = new char[alphabet.size()];
+        int[] otherClasses = new int[alphabet.size()];
+        int others = 0;
+        int nextClass = 1;
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiClasses[c] = nextClass;
+                asciiClasses[Character.toUpperCase(c)] = nextClass;
+            } else {
+                // The alphabet is sorted, so these stay ready for binary search
+                otherChars[others] = c;
+                otherClasses[others++] = nextClass;
+            }
+            nextClass++;
+        }
+        this.otherChars = Arrays.copyOf(otherChars, others);
+        this.otherClasses = Arrays.copyOf(otherClasses, others);
+        this.width = nextClass;
+
+        // Trie of the keywords; -1 marks a missing edge until the failure links fill it
+        int capacity = keywordChars + 1;
+        int[] table = new int[capacity * width];
+        Arrays.fill(table, -1);
+        int[] found = new int[capacity];
+        Arrays.fill(found, NO_MATCH);
+        int states = 1;
+        for (int r = 0; r < rules.size(); r++) {
+            Rule rule = rules.get(r);
+            categories[r] = rule.category();
+            int state = 0;
+            for (int i = 0; i < rule.keyword().length(); i++) {
+                int edge = state * width + classOfKeywordChar(rule.keyword().charAt(i));
+                if (table[edge] < 0) {
+                    table[edge] = states++;
+                }
+                state = table[edge];
+            }
+            found[state] = Math.min(found[state], r);
+        }
+
+        // Breadth-first, so a state's failure target is complete before the state itself
+        int[] failure = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < width; c++) {
+            int child = table[c];
+            if (child < 0) {
+                table[c] = 0;
+            } else {
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            found[state] = Math.min(found[state], found[failure[state]]);
+            for (int c = 0; c < width; c++) {
+                int edge = state * width + c;
+                int fallback = table[failure[state] * width + c];
+                if (table[edge] < 0) {
+                    table[edge] = fallback;
+                } else {
+                    failure[table[edge]] = fallback;
+                    queue.add(table[edge]);
+                }
+            }
+        }
+        this.transitions = Arrays.copyOf(table, states * width);
+        this.matches = Arrays.copyOf(found, states);
+    }
+
+    /**
+     * Returns the classifier with the built-in rules for Housing, Food, Transport,
+     * Entertainment and Savings.
+     *
+     * @return the shared default classifier
+     */
+    public static CategoryClassifier defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Reads a rule file in the format described in the class documentation.
+     *
+     * @param file the rule file
+     * @return the compiled classifier
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a category followed by keywords
+     */
+    public static CategoryClassifier load(Path file) throws IOException {
+        return new CategoryClassifier(parseRules(Files.readAllLines(file, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Parses rule lines in the format described in the class documentation.
+     *
+     * @param lines the lines of a rule file
+     * @return the rules, in priority order
+     * @throws IllegalArgumentException if a line is not a category followed by keywords
+     */
+    public static List<Rule> parseRules(List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            String category = colon < 0 ? "" : line.substring(0, colon).trim();
+            if (category.isEmpty()) {
+                throw new IllegalArgumentException("Line " + (n + 1) + ": expected 'category: keywords'");
+            }
+            for (String keyword : line.substring(colon + 1).split(",")) {
+                if (!keyword.isBlank()) {
+                    rules.add(new Rule(keyword.trim(), category));
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Returns the categories the rules can assign, in priority order.
+     *
+     * @return the distinct rule categories, without the default category
+     */
+    public List<String> categories() {
+        return List.copyOf(new LinkedHashSet<>(Arrays.asList(categories)));
+    }
+
+    /**
+     * Returns the category of a description, from the memo if it was seen before.
+     *
+     * @param description the transaction description
+     * @return the category of the first matching rule, or the default category
+     */
+    public String categorize(String description) {
+        String category = memo.get(description);
+        if (category == null) {
+            category = classify(description);
+            if (memo.size() >= MEMO_CAPACITY) {
+                memo.clear();
+            }
+            memo.put(description, category);
+        }
+        return category;
+    }
+
+    /**
+     * Runs the automaton over a description without consulting the memo.
+     *
+     * @param description the transaction description
+     * @return the category of the first matching rule, or the default category
+     */
+    public String classify(CharSequence description) {
+        int state = 0;
+        int best = NO_MATCH;
+        for (int i = 0; i < description.length(); i++) {
+            state = transitions[state * width + classOf(description.charAt(i))];
+            if (matches[state] < best) {
+                best = matches[state];
+                if (best == 0) {
+                    break;
+                }
+            }
+        }
+        return best == NO_MATCH ? defaultCategory : categories[best];
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        int i = Arrays.binarySearch(otherChars, Character.toLowerCase(c));
+        return i < 0 ? 0 : otherClasses[i];
+    }
+
+    private int classOfKeywordChar(char c) {
+        char lower = Character.toLowerCase(c);
+        if (lower < 128) {
+            return asciiClasses[lower];
+        }
+        return otherClasses[Arrays.binarySearch(otherChars, lower)];
+    }
+}
@@ -0,0 +1,119 @@
+package services;
+
+import org.jfree.data.general.AbstractDataset;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.event.ActionListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Refreshes chart datasets in place, at most once per frame.
+ *
+ * <p>A view registers each chart dataset together with the code that writes the
+ * current values into it. Update requests may come from any thread and in bursts;
+ * they only schedule a frame, and when the frame timer fires every registered update
+ * runs once on the Swing event dispatch thread. Each update runs with the change
+ * notifications of its dataset suspended, so the dataset announces one change when
+ * it is done instead of one per value, and its chart lays itself out and repaints
+ * once. Datasets are mutated rather than replaced, so plots keep their axes,
+ * renderers and section paints.
+ *
+ * <p>Example usage:
+ * <pre>
+ * ChartUpdateScheduler scheduler = new ChartUpdateScheduler();
+ * scheduler.register(weeklyDataset, () -&gt; weeklyDataset.setValue(total, "Spending", "Mon"));
+ * manager.addListener(TransactionManager.TransactionListener.onChange(scheduler::requestUpdate));
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class ChartUpdateScheduler {
+    /** Default frame length, the same as the one of {@link TransactionEventDispatcher}. */
+    public static final int DEFAULT_FRAME_MILLIS = TransactionEventDispatcher.DEFAULT_FRAME_MILLIS;
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer timer;
+
+    private record Registration(AbstractDataset dataset, Runnable update) {
+    }
+
+    /**
+     * Creates a scheduler with the default frame length.
+     */
+    public ChartUpdateScheduler() {
+        this(DEFAULT_FRAME_MILLIS);
+    }
+
+    /**
+     * Creates a scheduler with a custom frame length.
+     *
+     * @param frameMillis how long update requests are collected before the datasets are refreshed
+     */
+    public ChartUpdateScheduler(int frameMillis) {
+        this(listener -> new Timer(frameMillis, listener));
+    }
+
+    /**
+     * Creates a scheduler whose frame timer is made by the given factory, so tests can
+     * act at precise points of the timer's life.
+     *
+     * @param timers creates the frame timer from the action that flushes
+     */
+    ChartUpdateScheduler(Function<ActionListener, Timer> timers) {
+        this.timer = timers.apply(_e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Registers a dataset and the code that refreshes it.
+     *
+     * @param dataset the dataset of a chart
+     * @param update writes the current values into the dataset, on the event dispatch thread
+     */
+    public void register(AbstractDataset dataset, Runnable update) {
+        registrations.add(new Registration(dataset, update));
+    }
+
+    /**
+     * Asks for the datasets to be refreshed in the next frame.
+     * May be called from any thread; requests made before the frame are merged.
+     */
+    public void requestUpdate() {
+        if (scheduled.compareAndSet(false, true)) {
+            timer.restart();
+        }
+    }
+
+    /**
+     * Refreshes every registered dataset immediately.
+     * Must be called on the event dispatch thread; the frame timer calls it automatically.
+     */
+    public void flush() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("flush() must be called on the event dispatch thread");
+        }
+        // Stop a pending frame before clearing the flag: a request arriving in between then
+        // restarts the timer instead of being cancelled, and requests made while refreshing
+        // schedule another frame
+        timer.stop();
+        scheduled.set(false);
+        for (Registration registration : registrations) {
+            registration.dataset().setNotify(false);
+            try {
+                registration.update().run();
+            } catch (RuntimeException e) {
+                System.err.println("Error updating chart: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                // Fires the single change event for everything written above
+                registration.dataset().setNotify(true);
+            }
+        }
+    }
+}
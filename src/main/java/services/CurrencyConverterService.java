@@ -1,87 +1,367 @@
 package services;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A service class that provides currency conversion functionality.
- * This class maintains a static map of exchange rates relative to USD (United
+ * This class maintains a table of exchange rates relative to USD (United
  * States Dollar)
  * and offers methods to convert between different currencies and format
  * currency amounts.
- * 
+ *
  * <p>
  * The exchange rates are stored relative to USD as the base currency (1.0).
  * Currently supported currencies include USD, CNY (Chinese Yuan), EUR (Euro),
  * and HKD (Hong Kong Dollar).
- * 
+ *
+ * <p>
+ * The rates are held in an immutable {@link RateTable}: a dense matrix of
+ * direct rates indexed by {@link Currency} ordinal, so a conversion is a single
+ * multiplication. New rates are published with {@link #updateRates(Map)}, which
+ * swaps in a new table with the next version number. A bulk conversion reads the
+ * table once, so every amount in it is converted at the same rates.
+ *
  * <p>
  * Example usage:
- * 
+ *
  * <pre>
  * double amount = CurrencyConverterService.convert(100, "USD", "EUR");
  * String formatted = CurrencyConverterService.format(amount, "EUR");
  * </pre>
- * 
+ *
  * @author System
  * @version 1.0
  */
 public class CurrencyConverterService {
 
-    private static final Map<String, Double> TO_USD_RATES = new HashMap<>();
+    /**
+     * The supported currencies with their display symbols.
+     */
+    public enum Currency {
+        USD("$"),
+        CNY("¥"),
+        EUR("€"),
+        HKD("HK$"); // ✅ Hong Kong dollars
+
+        private final String symbol;
+
+        Currency(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Returns the symbol placed before formatted amounts.
+         *
+         * @return the currency symbol, e.g. "HK$"
+         */
+        public String symbol() {
+            return symbol;
+        }
+
+        /**
+         * Looks up a currency by its code.
+         *
+         * @param code the currency code (e.g., "USD", "EUR")
+         * @return the currency, or null if the code is not supported
+         */
+        public static Currency fromCode(String code) {
+            if (code == null) {
+                return null;
+            }
+            switch (code) {
+                case "USD":
+                    return USD;
+                case "CNY":
+                    return CNY;
+                case "EUR":
+                    return EUR;
+                case "HKD":
+                    return HKD;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    /**
+     * An immutable set of exchange rates.
+     * {@link #rate(Currency, Currency)} reads a precomputed matrix, so no
+     * conversion has to go through USD at run time.
+     */
+    public static final class RateTable {
+        private final long version;
+        private final double[] toUsd;
+        // matrix[from * n + to] = toUsd[from] / toUsd[to]
+        private final double[] matrix;
+
+        private RateTable(long version, double[] toUsd) {
+            this.version = version;
+            this.toUsd = toUsd;
+            int n = toUsd.length;
+            this.matrix = new double[n * n];
+            for (int from = 0; from < n; from++) {
+                for (int to = 0; to < n; to++) {
+                    matrix[from * n + to] = from == to ? 1.0 : toUsd[from] / toUsd[to];
+                }
+            }
+        }
+
+        /**
+         * Returns the version of this table. Every update increments it.
+         *
+         * @return the version number, starting at 1
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Returns the value of one unit of a currency in USD.
+         *
+         * @param currency the currency
+         * @return the rate to USD
+         */
+        public double toUsd(Currency currency) {
+            return toUsd[currency.ordinal()];
+        }
+
+        /**
+         * Returns the factor that converts amounts from one currency to another.
+         *
+         * @param from the source currency
+         * @param to the target currency
+         * @return the exchange rate
+         */
+        public double rate(Currency from, Currency to) {
+            return matrix[from.ordinal() * CURRENCIES.length + to.ordinal()];
+        }
+    }
+
+    private static final AtomicReference<RateTable> RATES = new AtomicReference<>(new RateTable(1, new double[] {
+            1.0, // USD, the base currency
+            1 / 7.2, // CNY
+            1 / 0.9, // EUR
+            1 / 7.8 // HKD
+    }));
+
+    /** Formatted amounts by currency ordinal, see {@link #format(double, Currency)}. */
+    private static final FormatCache[] FORMAT_CACHES = new FormatCache[CURRENCIES.length];
 
     static {
-        TO_USD_RATES.put("USD", 1.0);// the banchmark is USD
-        TO_USD_RATES.put("CNY", 1 / 7.2);
-        TO_USD_RATES.put("EUR", 1 / 0.9);
-        TO_USD_RATES.put("HKD", 1 / 7.8);// ✅ New exchange rate of Hong Kong dollars
+        for (Currency currency : CURRENCIES) {
+            FORMAT_CACHES[currency.ordinal()] = new FormatCache(currency.symbol());
+        }
+    }
+
+    /**
+     * Returns the rate table currently in use.
+     *
+     * @return the current rates
+     */
+    public static RateTable rates() {
+        return RATES.get();
+    }
+
+    /**
+     * Publishes new exchange rates. Currencies missing from the map keep their
+     * current rate. Conversions already running finish with the table they started
+     * with; later conversions see the new one.
+     *
+     * @param toUsdRates the value of one unit of each updated currency in USD
+     * @return the new rate table
+     * @throws IllegalArgumentException if a rate is not a positive finite number
+     */
+    public static RateTable updateRates(Map<Currency, Double> toUsdRates) {
+        EnumMap<Currency, Double> updates = new EnumMap<>(Currency.class);
+        updates.putAll(toUsdRates);
+        for (Map.Entry<Currency, Double> entry : updates.entrySet()) {
+            double rate = entry.getValue();
+            if (!(rate > 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Invalid rate for " + entry.getKey() + ": " + rate);
+            }
+        }
+        return RATES.updateAndGet(current -> {
+            double[] toUsd = current.toUsd.clone();
+            updates.forEach((currency, rate) -> toUsd[currency.ordinal()] = rate);
+            return new RateTable(current.version + 1, toUsd);
+        });
     }
 
     /**
      * Converts an amount from one currency to another using the stored exchange
      * rates.
-     * 
+     *
      * @param amount       the amount to convert
      * @param fromCurrency the source currency code (e.g., "USD", "EUR")
      * @param toCurrency   the target currency code (e.g., "CNY", "HKD")
      * @return the converted amount in the target currency
      * @throws IllegalArgumentException if either currency is not supported
      */
-
     public static double convert(double amount, String fromCurrency, String toCurrency) {
-        Double fromRate = TO_USD_RATES.get(fromCurrency);
-        Double toRate = TO_USD_RATES.get(toCurrency);
-        if (fromRate == null || toRate == null) {
-            throw new IllegalArgumentException("Invalid currency code.");
+        return amount * RATES.get().rate(currency(fromCurrency), currency(toCurrency));
+    }
+
+    /**
+     * Converts an amount from one currency to another.
+     *
+     * @param amount the amount to convert
+     * @param from   the source currency
+     * @param to     the target currency
+     * @return the converted amount in the target currency
+     */
+    public static double convert(double amount, Currency from, Currency to) {
+        return amount * RATES.get().rate(from, to);
+    }
+
+    /**
+     * Converts many amounts at the same rate.
+     * The loop is a plain multiplication over the array, which the JIT compiles
+     * to SIMD instructions.
+     *
+     * @param amounts the amounts to convert
+     * @param from    the source currency
+     * @param to      the target currency
+     * @return the converted amounts, in the same order
+     */
+    public static double[] convert(double[] amounts, Currency from, Currency to) {
+        double[] converted = new double[amounts.length];
+        convert(amounts, converted, from, to);
+        return converted;
+    }
+
+    /**
+     * Converts many amounts at the same rate into an existing array.
+     * The target may be the source array itself.
+     *
+     * @param amounts   the amounts to convert
+     * @param converted receives the converted amounts; at least as long as {@code amounts}
+     * @param from      the source currency
+     * @param to        the target currency
+     */
+    public static void convert(double[] amounts, double[] converted, Currency from, Currency to) {
+        double rate = RATES.get().rate(from, to);
+        for (int i = 0; i < amounts.length; i++) {
+            converted[i] = amounts[i] * rate;
         }
+    }
+
+    /**
+     * Converts many amounts in cents at the same rate, rounding each result to
+     * the nearest cent.
+     *
+     * @param cents the amounts to convert, in cents
+     * @param from  the source currency
+     * @param to    the target currency
+     * @return the converted amounts in cents, in the same order
+     */
+    public static long[] convert(long[] cents, Currency from, Currency to) {
+        long[] converted = new long[cents.length];
+        convert(cents, converted, from, to);
+        return converted;
+    }
+
+    /**
+     * Converts many amounts in cents at the same rate into an existing array,
+     * rounding each result to the nearest cent. The target may be the source array itself.
+     *
+     * @param cents     the amounts to convert, in cents
+     * @param converted receives the converted amounts; at least as long as {@code cents}
+     * @param from      the source currency
+     * @param to        the target currency
+     */
+    public static void convert(long[] cents, long[] converted, Currency from, Currency to) {
+        double rate = RATES.get().rate(from, to);
+        for (int i = 0; i < cents.length; i++) {
+            converted[i] = Math.round(cents[i] * rate);
+        }
+    }
 
-        // Convert to USD first, then to target currency
-        double usdAmount = amount * fromRate;
-        return usdAmount / toRate;
+    private static Currency currency(String code) {
+        Currency currency = Currency.fromCode(code);
+        if (currency == null) {
+            throw new IllegalArgumentException("Invalid currency code.");
+        }
+        return currency;
     }
 
     /**
      * Formats a currency amount according to the specified currency's conventions.
      * Adds the appropriate currency symbol and formats the number to two decimal
      * places.
-     * 
+     *
      * @param amount   the amount to format
      * @param currency the currency code (e.g., "USD", "EUR", "CNY", "HKD")
      * @return a formatted string representation of the amount with currency symbol
      *         (e.g., "$100.00", "€90.00", "¥720.00", "HK$780.00")
      */
     public static String format(double amount, String currency) {
-        switch (currency) {
-            case "USD":
-                return "$" + String.format("%.2f", amount);
-            case "CNY":
-                return "¥" + String.format("%.2f", amount);
-            case "EUR":
-                return "€" + String.format("%.2f", amount);
-            case "HKD":
-                return "HK$" + String.format("%.2f", amount); // ✅ New format for Hong Kong dollars added
-            default:
-                return amount + " " + currency;
+        Currency known = Currency.fromCode(currency);
+        if (known == null) {
+            return amount + " " + currency;
+        }
+        return format(amount, known);
+    }
+
+    /**
+     * Formats a currency amount with the currency symbol and two decimal places.
+     * Recently formatted amounts are cached per currency, so repainting a table
+     * does not build the same strings again.
+     *
+     * @param amount   the amount to format
+     * @param currency the currency
+     * @return the formatted amount, e.g. "€90.00"
+     */
+    public static String format(double amount, Currency currency) {
+        // Round half away from zero, as %.2f does
+        long cents = amount < 0 ? -Math.round(-amount * 100) : Math.round(amount * 100);
+        return FORMAT_CACHES[currency.ordinal()].format(cents);
+    }
+
+    /**
+     * A small direct-mapped cache from cents to formatted text for one currency.
+     * Entries are immutable and replaced whole, so concurrent readers see either
+     * the old or the new entry and the cache needs no locking.
+     */
+    private static final class FormatCache {
+        private static final int SIZE = 1024;
+
+        private record Entry(long cents, String text) {
+        }
+
+        private final String symbol;
+        private final Entry[] entries = new Entry[SIZE];
+
+        FormatCache(String symbol) {
+            this.symbol = symbol;
+        }
+
+        String format(long cents) {
+            int slot = (int) (cents ^ (cents >>> 32)) & (SIZE - 1);
+            Entry entry = entries[slot];
+            if (entry != null && entry.cents() == cents) {
+                return entry.text();
+            }
+            String text = build(cents);
+            entries[slot] = new Entry(cents, text);
+            return text;
+        }
+
+        private String build(long cents) {
+            long magnitude = Math.abs(cents);
+            long fraction = magnitude % 100;
+            StringBuilder text = new StringBuilder(symbol.length() + 24).append(symbol);
+            if (cents < 0) {
+                text.append('-');
+            }
+            text.append(magnitude / 100).append('.');
+            if (fraction < 10) {
+                text.append('0');
+            }
+            return text.append(fraction).toString();
         }
     }
 }
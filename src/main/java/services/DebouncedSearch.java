@@ -0,0 +1,106 @@
+package services;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a search as the user types, off the event dispatch thread.
+ *
+ * <p>Each change of the text restarts a short delay; only when the user pauses is the
+ * latest text searched, on a background thread, and the result handed back on the event
+ * dispatch thread. A result is dropped if the text changed after its search was started,
+ * and a queued search is skipped if the text changed before it ran, so the screen never
+ * shows the result of an older text.
+ *
+ * <p>Example usage:
+ * <pre>
+ * DebouncedSearch&lt;DescriptionIndex.SearchResult&gt; search =
+ *         new DebouncedSearch&lt;&gt;(index::search, this::showResult, 150);
+ * field.getDocument().addDocumentListener(... search.textChanged(field.getText()) ...);
+ * </pre>
+ *
+ * @param <R> the type of the search result
+ * @author System
+ * @version 1.0
+ */
+public class DebouncedSearch<R> implements AutoCloseable {
+    private final Function<String, R> query;
+    private final Consumer<R> onResult;
+    private final Timer timer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "debounced-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Incremented on every change, so searches can tell whether their text is still current. */
+    private final AtomicLong generation = new AtomicLong();
+    private volatile String pending;
+
+    /**
+     * Creates a search.
+     *
+     * @param query the search to run on a background thread
+     * @param onResult receives each current result on the event dispatch thread
+     * @param delayMillis the pause in typing after which the text is searched
+     */
+    public DebouncedSearch(Function<String, R> query, Consumer<R> onResult, int delayMillis) {
+        this.query = query;
+        this.onResult = onResult;
+        this.timer = new Timer(delayMillis, e -> submit());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Notes a new text and restarts the delay.
+     *
+     * @param text the text to search
+     */
+    public void textChanged(String text) {
+        pending = text;
+        generation.incrementAndGet();
+        timer.restart();
+    }
+
+    /**
+     * Drops the pending and running searches; no result arrives until the text changes again.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        timer.stop();
+    }
+
+    private void submit() {
+        long ticket = generation.get();
+        String text = pending;
+        executor.execute(() -> {
+            if (generation.get() != ticket) {
+                return;
+            }
+            try {
+                R result = query.apply(text);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation.get() == ticket) {
+                        onResult.accept(result);
+                    }
+                });
+            } catch (RuntimeException e) {
+                System.err.println("Error searching \"" + text + "\": " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Stops the delay and the background thread.
+     */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,395 @@
+package services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Trigram full-text index over transaction descriptions.
+ *
+ * <p>Every distinct description is indexed once, however many transactions share it,
+ * under the trigrams (three-character sequences) of its normalized text: lower case,
+ * accents removed, and any run of punctuation or spaces turned into one space. A raw
+ * merchant string such as {@code "STARBUCKS #1234"} and AI-normalized text such as
+ * {@code "Starbucks coffee"} are therefore found by the same query. Each trigram maps
+ * to the ascending list of descriptions containing it.
+ *
+ * <p>A query of three or more characters intersects the lists of its trigrams, starting
+ * with the shortest, and checks the few remaining descriptions for the whole query; a
+ * shorter query scans the distinct descriptions. Matches are ranked: descriptions equal
+ * to the query first, then those starting with it, then those with a word starting with
+ * it, then any other; within each group the descriptions used by more transactions come
+ * first.
+ *
+ * <p>The index follows the transactions of its {@link TransactionManager} as a listener
+ * and counts the transactions of each description; descriptions no longer used by any
+ * transaction are not returned. Searches may run on any thread, concurrently with updates.
+ *
+ * <p>Example usage:
+ * <pre>
+ * DescriptionIndex.SearchResult result = DescriptionIndex.getDefault().search("starb");
+ * for (DescriptionIndex.Match match : result.matches()) {
+ *     System.out.println(match.description() + " (" + match.transactions() + ")");
+ * }
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class DescriptionIndex implements TransactionManager.TransactionListener {
+    private static final int INITIAL_CAPACITY = 16;
+    // Bits of the packed ranking key, see rank()
+    private static final int DOC_BITS = 31;
+    private static final int COUNT_BITS = 28;
+    private static final long MAX_RANKED_COUNT = (1L << COUNT_BITS) - 1;
+
+    private static DescriptionIndex defaultInstance;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private String[] normalized = new String[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int docCount;
+
+    /**
+     * A description matching a query.
+     *
+     * @param description the description as stored
+     * @param transactions the number of transactions with this description
+     */
+    public record Match(String description, int transactions) {
+    }
+
+    /**
+     * The ranked matches of a query.
+     *
+     * @param query the query as given
+     * @param matches the matching descriptions, best first
+     * @param transactions the number of transactions with a matching description
+     */
+    public record SearchResult(String query, List<Match> matches, int transactions) {
+        /**
+         * Returns the matching descriptions as a set, e.g. for
+         * {@link TransactionRowSorter.Filter#withDescriptionIn}.
+         *
+         * @return the matching descriptions
+         */
+        public Set<String> descriptions() {
+            Set<String> set = new HashSet<>(matches.size() * 2);
+            for (Match match : matches) {
+                set.add(match.description());
+            }
+            return set;
+        }
+    }
+
+    /** Ascending list of the descriptions containing one trigram. */
+    private static final class Posting {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    /**
+     * Returns the index over the transactions of {@link TransactionManager#getInstance()},
+     * building it on first use.
+     *
+     * @return the shared index
+     */
+    public static synchronized DescriptionIndex getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = over(TransactionManager.getInstance());
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Creates an index over the transactions of a manager and keeps it up to date.
+     *
+     * @param manager the manager whose transactions to index
+     * @return the index
+     */
+    public static DescriptionIndex over(TransactionManager manager) {
+        DescriptionIndex index = new DescriptionIndex();
+        TransactionSnapshot snapshot = manager.addListenerFromSnapshot(index);
+        long stamp = index.lock.writeLock();
+        try {
+            for (int i = 0; i < snapshot.size(); i++) {
+                index.add(snapshot.description(i));
+            }
+        } finally {
+            index.lock.unlockWrite(stamp);
+        }
+        return index;
+    }
+
+    /**
+     * Searches the descriptions containing a text, ignoring case, accents and punctuation.
+     *
+     * @param query the text to look for
+     * @return the ranked matches; none if the query has no letters or digits
+     */
+    public SearchResult search(String query) {
+        String text = normalize(query);
+        if (text.isEmpty()) {
+            return new SearchResult(query, List.of(), 0);
+        }
+        long stamp = lock.readLock();
+        try {
+            int[] candidates = text.length() < 3 ? null : candidates(text);
+            int candidateCount = candidates == null ? docCount : candidates.length;
+            long[] ranked = new long[candidateCount];
+            int matches = 0;
+            int transactions = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                int doc = candidates == null ? i : candidates[i];
+                if (counts[doc] > 0 && normalized[doc].contains(text)) {
+                    ranked[matches++] = rank(doc, text);
+                    transactions += counts[doc];
+                }
+            }
+            Arrays.sort(ranked, 0, matches);
+            List<Match> result = new ArrayList<>(matches);
+            for (int i = 0; i < matches; i++) {
+                int doc = (int) (ranked[i] & ((1L << DOC_BITS) - 1));
+                result.add(new Match(descriptions[doc], counts[doc]));
+            }
+            return new SearchResult(query, result, transactions);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of distinct descriptions used by at least one transaction.
+     *
+     * @return the number of descriptions
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            int live = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (counts[doc] > 0) {
+                    live++;
+                }
+            }
+            return live;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void onTransactionAdded(long id, String date, String description, String amount, String type) {
+        long stamp = lock.writeLock();
+        try {
+            add(description);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void onTransactionsAdded(List<TransactionRecord> transactions) {
+        long stamp = lock.writeLock();
+        try {
+            for (TransactionRecord transaction : transactions) {
+                add(transaction.description());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void onTransactionUpdated(long id,
+            String oldDate, String oldDescription, String oldAmount, String oldType,
+            String newDate, String newDescription, String newAmount, String newType) {
+        if (oldDescription.equals(newDescription)) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            remove(oldDescription);
+            add(newDescription);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void onTransactionRemoved(long id, String date, String description, String amount, String type) {
+        long stamp = lock.writeLock();
+        try {
+            remove(description);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Normalizes text for indexing and searching: lower case, accents removed,
+     * and runs of other characters than letters and digits replaced by one space.
+     *
+     * @param text the text
+     * @return the normalized text, without leading or trailing spaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                result.append(Character.toLowerCase(c));
+                space = false;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !space) {
+                result.append(' ');
+                space = true;
+            }
+        }
+        int length = result.length();
+        if (length > 0 && result.charAt(length - 1) == ' ') {
+            result.setLength(length - 1);
+        }
+        return result.toString();
+    }
+
+    /** Counts a transaction with a description, indexing the description if it is new. Needs the write lock. */
+    private void add(String description) {
+        if (description == null) {
+            return;
+        }
+        Integer existing = docIds.get(description);
+        if (existing != null) {
+            counts[existing]++;
+            return;
+        }
+        if (docCount == descriptions.length) {
+            int capacity = docCount * 2;
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            normalized = Arrays.copyOf(normalized, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int doc = docCount++;
+        String text = normalize(description);
+        descriptions[doc] = description;
+        normalized[doc] = text;
+        counts[doc] = 1;
+        docIds.put(description, doc);
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), k -> new Posting()).add(doc);
+        }
+    }
+
+    /**
+     * Uncounts a transaction with a description. The description stays indexed,
+     * so a later transaction with the same text reuses it. Needs the write lock.
+     */
+    private void remove(String description) {
+        Integer doc = description == null ? null : docIds.get(description);
+        if (doc != null && counts[doc] > 0) {
+            counts[doc]--;
+        }
+    }
+
+    /**
+     * Returns the descriptions containing every trigram of a text, in ascending order.
+     */
+    private int[] candidates(String text) {
+        List<Posting> lists = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            long trigram = trigram(text, i);
+            if (!seen.add(trigram)) {
+                continue;
+            }
+            Posting posting = postings.get(trigram);
+            if (posting == null) {
+                return new int[0];
+            }
+            lists.add(posting);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+        int size = result.length;
+        for (int l = 1; l < lists.size() && size > 0; l++) {
+            size = intersect(result, size, lists.get(l));
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Keeps the first {@code size} docs of {@code docs} that are also in a posting,
+     * found by galloping search since the posting is usually much longer.
+     *
+     * @return the number of docs kept
+     */
+    private static int intersect(int[] docs, int size, Posting posting) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < size && from < posting.size; i++) {
+            int doc = docs[i];
+            int step = 1;
+            int to = from;
+            while (to < posting.size && posting.docs[to] < doc) {
+                from = to + 1;
+                to += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(posting.docs, from, Math.min(to + 1, posting.size), doc);
+            if (found >= 0) {
+                docs[kept++] = doc;
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Packs the ranking of a match into a long that sorts best first: the match
+     * kind, then the number of transactions descending, then the description id.
+     */
+    private long rank(int doc, String text) {
+        String candidate = normalized[doc];
+        long kind;
+        if (candidate.length() == text.length()) {
+            kind = 0;
+        } else if (candidate.startsWith(text)) {
+            kind = 1;
+        } else if (candidate.contains(" " + text)) {
+            kind = 2;
+        } else {
+            kind = 3;
+        }
+        long count = Math.min(counts[doc], MAX_RANKED_COUNT);
+        return (kind << (DOC_BITS + COUNT_BITS)) | ((MAX_RANKED_COUNT - count) << DOC_BITS) | doc;
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+}
@@ -0,0 +1,204 @@
+package services;
+
+import com.google.gson.JsonParser;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Infers the category and type of a transaction on the device, asking the AI
+ * service only when the local models are unsure.
+ *
+ * <p>Two {@link NaiveBayesModel}s, one for categories and one for Income/Expense,
+ * are trained from the user's own transactions with {@link #train(TransactionSnapshot)}
+ * and keep learning from every confirmed label through {@link #learn}. A prediction
+ * at or above the confidence threshold is answered locally in microseconds. Below it,
+ * the AI service is asked, and a valid answer is learned by the model and remembered
+ * for the description, so the same transaction is never sent twice. Without an AI service, or when it fails, the
+ * category falls back to the keyword rules of a {@link CategoryClassifier}.
+ *
+ * <p>Example usage:
+ * <pre>
+ * LocalCategorizer categorizer = new LocalCategorizer(CategoryClassifier.defaults(),
+ *         aiService::getAIResponse, LocalCategorizer.DEFAULT_THRESHOLD);
+ * categorizer.train(dataService.snapshot());
+ * String category = categorizer.categorize("TESCO STORES 2231");
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class LocalCategorizer {
+    /** Default posterior probability a local prediction needs to be used. */
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    /** Number of remembered AI answers; they are forgotten when it fills up. */
+    static final int ANSWER_CAPACITY = 4096;
+
+    private static final List<String> TYPES = List.of("Income", "Expense");
+
+    private final NaiveBayesModel categories = new NaiveBayesModel();
+    private final NaiveBayesModel types = new NaiveBayesModel();
+    private final CategoryClassifier rules;
+    private final UnaryOperator<String> ai;
+    private final double threshold;
+    // AI answers by description, for descriptions the models are still unsure about
+    private final Map<String, String> categoryAnswers = new ConcurrentHashMap<>();
+    private final Map<String, String> typeAnswers = new ConcurrentHashMap<>();
+
+    private final AtomicLong localAnswers = new AtomicLong();
+    private final AtomicLong aiRequests = new AtomicLong();
+
+    /**
+     * Creates an untrained categorizer.
+     *
+     * @param rules the keyword rules used when neither the model nor the AI can answer
+     * @param ai sends a prompt to the AI service and returns the raw JSON response,
+     *           e.g. {@link BaiduAIService#getAIResponse(String)}, or null to stay offline
+     * @param threshold the posterior probability a local prediction needs to be used
+     */
+    public LocalCategorizer(CategoryClassifier rules, UnaryOperator<String> ai, double threshold) {
+        this.rules = rules;
+        this.ai = ai;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Learns the categories and types of stored transactions.
+     * Transactions in the default category carry no information about their
+     * category and only teach the type.
+     *
+     * @param snapshot the transactions to learn from
+     */
+    public void train(TransactionSnapshot snapshot) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            String category = snapshot.category(i);
+            learn(snapshot.description(i),
+                    CategoryClassifier.DEFAULT_CATEGORY.equals(category) ? null : category, snapshot.type(i));
+        }
+    }
+
+    /**
+     * Learns a confirmed label, e.g. after the user corrected a transaction.
+     *
+     * @param description the transaction description
+     * @param category the category, or null if unknown
+     * @param type the type (Income/Expense), or null if unknown
+     */
+    public void learn(String description, String category, String type) {
+        if (category != null) {
+            categories.learn(description, category);
+        }
+        if (type != null) {
+            types.learn(description, type);
+        }
+    }
+
+    /**
+     * Infers the category of a transaction.
+     *
+     * @param description the transaction description
+     * @return the category
+     */
+    public String categorize(String description) {
+        NaiveBayesModel.Prediction local = categories.predict(description);
+        if (local != null && local.confidence() >= threshold) {
+            localAnswers.incrementAndGet();
+            return local.label();
+        }
+        String remembered = categoryAnswers.get(description);
+        if (remembered != null) {
+            return remembered;
+        }
+        Set<String> known = new LinkedHashSet<>(categories.labels());
+        known.addAll(rules.categories());
+        String answer = ask("Classify the expense \"" + description + "\" into one of these categories: "
+                + String.join(", ", known) + ". Reply with the category name only.", known);
+        if (answer != null) {
+            categories.learn(description, answer);
+            remember(categoryAnswers, description, answer);
+            return answer;
+        }
+        return rules.categorize(description);
+    }
+
+    /**
+     * Infers whether a transaction is income or an expense.
+     *
+     * @param description the transaction description
+     * @return "Income" or "Expense"; "Expense" when nothing else is known
+     */
+    public String inferType(String description) {
+        NaiveBayesModel.Prediction local = types.predict(description);
+        if (local != null && local.confidence() >= threshold) {
+            localAnswers.incrementAndGet();
+            return local.label();
+        }
+        String remembered = typeAnswers.get(description);
+        if (remembered != null) {
+            return remembered;
+        }
+        String answer = ask("Is the transaction \"" + description + "\" Income or Expense? "
+                + "Reply with one word.", TYPES);
+        if (answer != null) {
+            types.learn(description, answer);
+            remember(typeAnswers, description, answer);
+            return answer;
+        }
+        return local != null ? local.label() : "Expense";
+    }
+
+    /**
+     * Returns how many answers came from the local models.
+     *
+     * @return the number of local answers
+     */
+    public long localAnswers() {
+        return localAnswers.get();
+    }
+
+    /**
+     * Returns how many requests were sent to the AI service.
+     *
+     * @return the number of AI requests
+     */
+    public long aiRequests() {
+        return aiRequests.get();
+    }
+
+    private static void remember(Map<String, String> answers, String description, String answer) {
+        if (answers.size() >= ANSWER_CAPACITY) {
+            answers.clear();
+        }
+        answers.put(description, answer);
+    }
+
+    /**
+     * Asks the AI service and accepts the answer only if it names one of the choices.
+     *
+     * @return the matching choice, or null without a usable answer
+     */
+    private String ask(String prompt, Iterable<String> choices) {
+        if (ai == null) {
+            return null;
+        }
+        aiRequests.incrementAndGet();
+        try {
+            String result = JsonParser.parseString(ai.apply(prompt)).getAsJsonObject().get("result").getAsString();
+            String answer = result.trim().replaceAll("[.\"'*]", "");
+            for (String choice : choices) {
+                if (choice.equalsIgnoreCase(answer)) {
+                    return choice;
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Error parsing AI response: " + e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,157 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A multinomial naive Bayes text classifier that learns one example at a time.
+ *
+ * <p>Texts are split into lower case words of letters and digits; words made of
+ * digits only, such as reference numbers, are dropped. Word counts per label are
+ * kept in a hash map, so learning an example and predicting a label both take time
+ * proportional to the length of the text, however much has been learned.
+ * Probabilities use add-one smoothing, and words never seen in training are ignored.
+ *
+ * <p>All methods are thread-safe.
+ *
+ * @author System
+ * @version 1.0
+ */
+public class NaiveBayesModel {
+
+    /**
+     * The most likely label of a text.
+     *
+     * @param label the predicted label
+     * @param confidence the posterior probability of the label, between 0 and 1
+     */
+    public record Prediction(String label, double confidence) {
+    }
+
+    private final List<String> labels = new ArrayList<>();
+    private final Map<String, Integer> labelIds = new HashMap<>();
+    // Occurrences of each word per label id; arrays grow with the number of labels
+    private final Map<String, int[]> wordCounts = new HashMap<>();
+    private int[] examples = new int[4];
+    private long[] words = new long[4];
+    private int totalExamples;
+
+    /**
+     * Learns that a text has a label.
+     *
+     * @param text the example text
+     * @param label the label of the text
+     */
+    public synchronized void learn(String text, String label) {
+        int id = labelIds.computeIfAbsent(label, l -> {
+            labels.add(l);
+            return labels.size() - 1;
+        });
+        if (id >= examples.length) {
+            examples = Arrays.copyOf(examples, examples.length * 2);
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        examples[id]++;
+        totalExamples++;
+        for (String word : tokenize(text)) {
+            int[] counts = wordCounts.computeIfAbsent(word, w -> new int[labels.size()]);
+            if (id >= counts.length) {
+                counts = Arrays.copyOf(counts, labels.size());
+                wordCounts.put(word, counts);
+            }
+            counts[id]++;
+            words[id]++;
+        }
+    }
+
+    /**
+     * Predicts the label of a text.
+     *
+     * @param text the text to classify
+     * @return the most likely label with its probability, or null if nothing has been learned
+     */
+    public synchronized Prediction predict(String text) {
+        int labelCount = labels.size();
+        if (labelCount == 0) {
+            return null;
+        }
+        double vocabulary = wordCounts.size();
+        double[] scores = new double[labelCount];
+        for (int c = 0; c < labelCount; c++) {
+            scores[c] = Math.log((examples[c] + 1.0) / (totalExamples + labelCount));
+        }
+        for (String word : tokenize(text)) {
+            int[] counts = wordCounts.get(word);
+            if (counts == null) {
+                continue;
+            }
+            for (int c = 0; c < labelCount; c++) {
+                int count = c < counts.length ? counts[c] : 0;
+                scores[c] += Math.log((count + 1.0) / (words[c] + vocabulary));
+            }
+        }
+
+        int best = 0;
+        for (int c = 1; c < labelCount; c++) {
+            if (scores[c] > scores[best]) {
+                best = c;
+            }
+        }
+        // Posterior of the best label: 1 / sum(exp(score - best score))
+        double sum = 0;
+        for (double score : scores) {
+            sum += Math.exp(score - scores[best]);
+        }
+        return new Prediction(labels.get(best), 1 / sum);
+    }
+
+    /**
+     * Returns the labels learned so far.
+     *
+     * @return the labels, in the order they were first seen
+     */
+    public synchronized List<String> labels() {
+        return List.copyOf(labels);
+    }
+
+    /**
+     * Returns the number of examples learned.
+     *
+     * @return the example count
+     */
+    public synchronized int size() {
+        return totalExamples;
+    }
+
+    /**
+     * Splits a text into lower case words of letters and digits, without the
+     * words that are only digits.
+     *
+     * @param text the text
+     * @return the words, in order
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        boolean letters = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                    letters = false;
+                }
+                letters |= Character.isLetter(c);
+            } else if (start >= 0) {
+                if (letters) {
+                    tokens.add(text.substring(start, i).toLowerCase());
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,74 @@
+package services;
+
+import Entity.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sample transactions shown on first start.
+ *
+ * <p>The dashboard, transactions and accounts views used to each push their own
+ * hardcoded rows into their own data service. Now that all views share the store of
+ * {@link TransactionManager}, the samples of the three views are seeded here, once and
+ * in a fixed order, before any view is built, and only into an empty store so they
+ * never mix with transactions the user already has. Every view shows all of them.
+ *
+ * <p>Example usage:
+ * <pre>
+ * SampleTransactions.seedIfEmpty(TransactionManager.getInstance());
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class SampleTransactions {
+    /** Date, description and signed amount of each sample, grouped by the view that showed it. */
+    private static final String[][] ROWS = {
+        // Dashboard
+        {"28 January 2021", "Deposit from my Card", "-$850"},
+        {"25 January 2021", "Deposit Paypal", "+$2,500"},
+        {"21 January 2021", "Jemi Wilson", "+$5,400"},
+        // Transactions
+        {"28 Jan, 12.30 AM", "Spotify Subscription", "-$2,500"},
+        {"25 Jan, 10.40 PM", "Freepik Sales", "+$750"},
+        {"20 Jan, 10.40 PM", "Mobile Service", "-$150"},
+        {"15 Jan, 03.29 PM", "Wilson", "-$1,050"},
+        {"14 Jan, 10.40 PM", "Emily", "+$840"},
+        // Accounts
+        {"25 Jan 2021", "Spotify Subscription", "-$150"},
+        {"25 Jan 2021", "Mobile Service", "-$340"},
+        {"25 Jan 2021", "Emily Wilson", "+$780"}
+    };
+
+    private SampleTransactions() {
+    }
+
+    /**
+     * Returns the sample transactions, with the type taken from the sign of the amount.
+     *
+     * @return the samples, in order
+     */
+    public static List<TransactionDraft> drafts() {
+        List<TransactionDraft> drafts = new ArrayList<>(ROWS.length);
+        for (String[] row : ROWS) {
+            String type = row[2].startsWith("-") ? "Expense" : "Income";
+            drafts.add(new TransactionDraft(row[0], row[1], Money.parse(row[2]).abs().toString(), type));
+        }
+        return drafts;
+    }
+
+    /**
+     * Adds the sample transactions to a manager that holds no transactions yet.
+     *
+     * @param manager the manager to seed
+     * @return true if the samples were added, false if the manager already had transactions
+     */
+    public static synchronized boolean seedIfEmpty(TransactionManager manager) {
+        if (manager.snapshot().size() > 0) {
+            return false;
+        }
+        manager.addTransactions(drafts());
+        return true;
+    }
+}
@@ -3,10 +3,18 @@ package services;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 /**
  * A service class that provides encryption and decryption functionality using AES (Advanced Encryption Standard).
  * This class implements symmetric encryption/decryption using a 128-bit AES key.
@@ -19,7 +27,16 @@ import java.util.Base64;
  * <pre>
  * String encrypted = SecurityService.encrypt("sensitive data");
  * String decrypted = SecurityService.decrypt(encrypted);
+ * List&lt;String&gt; lines = SecurityService.decryptAll(encryptedLines);
  * </pre>
+ *
+ * <p>The key is derived once per secret and cached, and every thread keeps its own
+ * pair of initialized ciphers, so a call only pays for the encryption itself.
+ * The bulk methods {@link #encryptAll(List)} and {@link #decryptAll(List)} spread
+ * large inputs over several threads.
+ *
+ * <p>{@link #encryptBlock(byte[], byte[])} and {@link #decryptBlock(byte[], byte[])}
+ * seal larger binary blocks with AES-GCM, which also detects tampering.
  * 
  * <p>Note: This implementation uses AES encryption in ECB mode. For production use,
  * consider using more secure modes like CBC or GCM with proper initialization vectors.
@@ -31,16 +48,92 @@ public class SecurityService {
     private static final String AES = "AES";
     // 你可以将这个密钥存在配置文件或从环境变量读取
     private static final String DEFAULT_SECRET = "BuckBrainSuperKey"; // 应该至少16位
+
+    private static final String AES_GCM = "AES/GCM/NoPadding";
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    /**
+     * Inputs with at least this many elements are processed in parallel by the bulk methods.
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * Derived keys by secret. Deriving a key runs a full KeyGenerator and SHA1PRNG setup,
+     * which costs far more than encrypting a short string.
+     */
+    private static final Map<String, SecretKeySpec> KEYS = new ConcurrentHashMap<>();
+
+    /**
+     * Ciphers initialized with the default key, one pair per thread.
+     * A Cipher is not thread-safe, but in ECB mode it can be reused after doFinal.
+     */
+    private static final ThreadLocal<CipherPair> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return new CipherPair(getSecretKey(DEFAULT_SECRET));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available: " + e.getMessage(), e);
+        }
+    });
+
+    /**
+     * AES-GCM ciphers, one per thread. GCM needs a fresh IV for every block, so these
+     * are initialized on each call.
+     */
+    private static final ThreadLocal<Cipher> GCM_CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(AES_GCM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM is not available: " + e.getMessage(), e);
+        }
+    });
+
+    /**
+     * The source of GCM IVs; SecureRandom is thread-safe.
+     */
+    private static final SecureRandom IV_RANDOM = new SecureRandom();
+
+    /**
+     * The encrypting and decrypting cipher of one thread.
+     */
+    private static final class CipherPair {
+        final Cipher encryptor;
+        final Cipher decryptor;
+
+        CipherPair(SecretKeySpec key) throws GeneralSecurityException {
+            encryptor = Cipher.getInstance(AES);
+            encryptor.init(Cipher.ENCRYPT_MODE, key);
+            decryptor = Cipher.getInstance(AES);
+            decryptor.init(Cipher.DECRYPT_MODE, key);
+        }
+    }
+
+    /**
+     * Returns the AES secret key for the provided seed string, deriving it on first use.
+     *
+     * @param seed the seed string used to generate the secret key
+     * @return a SecretKeySpec instance for AES encryption
+     * @throws GeneralSecurityException if key generation fails
+     */
+    private static SecretKeySpec getSecretKey(String seed) throws GeneralSecurityException {
+        SecretKeySpec key = KEYS.get(seed);
+        if (key == null) {
+            key = deriveSecretKey(seed);
+            KEYS.putIfAbsent(seed, key);
+        }
+        return key;
+    }
+
     /**
      * Generates an AES secret key from the provided seed string.
      * Uses SHA1PRNG for secure random number generation.
      * 
      * @param seed the seed string used to generate the secret key
      * @return a SecretKeySpec instance for AES encryption
-     * @throws Exception if key generation fails
+     * @throws GeneralSecurityException if key generation fails
      */
     // 根据密钥生成 AES 对称加密密钥
-    private static SecretKeySpec getSecretKey(String seed) throws Exception {
+    static SecretKeySpec deriveSecretKey(String seed) throws GeneralSecurityException {
         KeyGenerator keyGen = KeyGenerator.getInstance(AES);
         SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
         random.setSeed(seed.getBytes(StandardCharsets.UTF_8));
@@ -48,6 +141,7 @@ public class SecurityService {
         SecretKey secretKey = keyGen.generateKey();
         return new SecretKeySpec(secretKey.getEncoded(), AES);
     }
+
     /**
      * Encrypts a string using AES encryption.
      * The encrypted result is returned as a Base64 encoded string.
@@ -57,11 +151,7 @@ public class SecurityService {
      */
     public static String encrypt(String content) {
         try {
-            SecretKeySpec secretKey = getSecretKey(DEFAULT_SECRET);
-            Cipher cipher = Cipher.getInstance(AES);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-            byte[] encryptedBytes = cipher.doFinal(content.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            return encrypt(CIPHERS.get().encryptor, content);
         } catch (Exception e) {
             System.err.println("加密失败: " + e.getMessage());
             return null;
@@ -76,15 +166,98 @@ public class SecurityService {
      */
     public static String decrypt(String encryptedContent) {
         try {
-            SecretKeySpec secretKey = getSecretKey(DEFAULT_SECRET);
-            Cipher cipher = Cipher.getInstance(AES);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
-            byte[] decodedBytes = Base64.getDecoder().decode(encryptedContent);
-            byte[] decryptedBytes = cipher.doFinal(decodedBytes);
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
+            return decrypt(CIPHERS.get().decryptor, encryptedContent);
         } catch (Exception e) {
             System.err.println("解密失败: " + e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Encrypts several strings. Large inputs are encrypted in parallel.
+     *
+     * @param contents the strings to be encrypted
+     * @return the Base64 encoded encrypted strings in the same order; an element is
+     *         null if that string could not be encrypted
+     */
+    public static List<String> encryptAll(List<String> contents) {
+        return transformAll(contents, true);
+    }
+
+    /**
+     * Decrypts several Base64 encoded encrypted strings. Large inputs are decrypted
+     * in parallel.
+     *
+     * @param encryptedContents the Base64 encoded encrypted strings to be decrypted
+     * @return the decrypted strings in the same order; an element is null if that
+     *         string could not be decrypted
+     */
+    public static List<String> decryptAll(List<String> encryptedContents) {
+        return transformAll(encryptedContents, false);
+    }
+
+    private static List<String> transformAll(List<String> inputs, boolean encrypt) {
+        String[] inputArray = inputs.toArray(new String[0]);
+        String[] results = new String[inputArray.length];
+        IntStream indexes = IntStream.range(0, inputArray.length);
+        if (inputArray.length >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> results[i] = encrypt ? encrypt(inputArray[i]) : decrypt(inputArray[i]));
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * Encrypts and authenticates a block of bytes with AES-GCM.
+     * The result holds a random 12-byte IV followed by the ciphertext and the tag.
+     *
+     * @param plain the bytes to be encrypted
+     * @param associatedData data that is authenticated but not encrypted, such as the
+     *                       position of the block; the same bytes are needed to decrypt
+     * @return the sealed block
+     * @throws GeneralSecurityException if encryption fails
+     */
+    public static byte[] encryptBlock(byte[] plain, byte[] associatedData) throws GeneralSecurityException {
+        byte[] iv = new byte[GCM_IV_BYTES];
+        IV_RANDOM.nextBytes(iv);
+        Cipher cipher = GCM_CIPHERS.get();
+        cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(DEFAULT_SECRET), new GCMParameterSpec(GCM_TAG_BITS, iv));
+        cipher.updateAAD(associatedData);
+        byte[] sealed = new byte[GCM_IV_BYTES + cipher.getOutputSize(plain.length)];
+        System.arraycopy(iv, 0, sealed, 0, GCM_IV_BYTES);
+        cipher.doFinal(plain, 0, plain.length, sealed, GCM_IV_BYTES);
+        return sealed;
+    }
+
+    /**
+     * Decrypts a block sealed by {@link #encryptBlock(byte[], byte[])} and checks that
+     * neither the block nor its associated data were changed.
+     *
+     * @param sealed the sealed block
+     * @param associatedData the associated data the block was sealed with
+     * @return the decrypted bytes
+     * @throws GeneralSecurityException if the block is corrupt, was tampered with, or
+     *                                  does not belong to the associated data
+     */
+    public static byte[] decryptBlock(byte[] sealed, byte[] associatedData) throws GeneralSecurityException {
+        if (sealed.length < GCM_IV_BYTES + GCM_TAG_BITS / 8) {
+            throw new GeneralSecurityException("Block too short: " + sealed.length + " bytes");
+        }
+        Cipher cipher = GCM_CIPHERS.get();
+        cipher.init(Cipher.DECRYPT_MODE, getSecretKey(DEFAULT_SECRET),
+                new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_BYTES));
+        cipher.updateAAD(associatedData);
+        return cipher.doFinal(sealed, GCM_IV_BYTES, sealed.length - GCM_IV_BYTES);
+    }
+
+    private static String encrypt(Cipher encryptor, String content) throws GeneralSecurityException {
+        byte[] encryptedBytes = encryptor.doFinal(content.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(encryptedBytes);
+    }
+
+    private static String decrypt(Cipher decryptor, String encryptedContent) throws GeneralSecurityException {
+        byte[] decodedBytes = Base64.getDecoder().decode(encryptedContent);
+        byte[] decryptedBytes = decryptor.doFinal(decodedBytes);
+        return new String(decryptedBytes, StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,80 @@
+package services;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A small append-only dictionary that maps strings to dense integer codes.
+ * Used by {@link TransactionStore} to keep low-cardinality columns such as the
+ * transaction type and the expense category as {@code int} ids instead of
+ * repeating the same string reference in every row.
+ *
+ * <p>Codes are assigned in insertion order starting at 0 and are never reused,
+ * so an id stays valid for the lifetime of the dictionary.
+ *
+ * <p>Only one thread may call {@link #encode(String)} at a time, but
+ * {@link #find(String)} and {@link #decode(int)} are safe to call concurrently
+ * with it: a value is fully published before its code becomes visible.
+ *
+ * @author System
+ * @version 1.0
+ */
+class StringDictionary {
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[8];
+    private volatile int size;
+
+    /**
+     * Returns the code of the given value, assigning a new one if the value
+     * has not been seen before.
+     *
+     * @param value the value to encode
+     * @return the dense integer code of the value
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = size;
+            String[] current = values;
+            if (code == current.length) {
+                current = Arrays.copyOf(current, code * 2);
+            }
+            current[code] = value;
+            values = current;
+            size = code + 1;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the code of the given value without assigning a new one.
+     *
+     * @param value the value to look up
+     * @return the code of the value, or -1 if it is unknown
+     */
+    int find(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Returns the value stored under the given code.
+     *
+     * @param code a code previously returned by {@link #encode(String)}
+     * @return the decoded value
+     */
+    String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * Returns the number of distinct values in the dictionary.
+     *
+     * @return the dictionary size
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,122 @@
+package services;
+
+import java.util.Arrays;
+
+/**
+ * A batch of parsed transactions in the column layout of {@link TransactionStore},
+ * for loaders that parse rows in parallel and add them with one bulk insert.
+ *
+ * <p>Each field is already typed: dates as epoch days, amounts as cents. A loader
+ * fills one batch per chunk of its input, appends the batches in input order with
+ * {@link #addAll(TransactionColumns)}, and hands the result to
+ * {@link TransactionDataService#addTransactions(TransactionColumns)}, so no field is
+ * turned back into text and parsed again. A batch is not thread-safe; each task
+ * fills its own.
+ *
+ * <p>Example usage:
+ * <pre>
+ * TransactionColumns batch = new TransactionColumns();
+ * batch.add(TransactionStore.parseEpochDay("01/03/2024"), null, "Coffee", 350, "Expense", "Food");
+ * long[] ids = service.addTransactions(batch);
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class TransactionColumns {
+    private int size;
+    private int[] epochDays = new int[16];
+    private String[] dateTexts = new String[16];
+    private String[] descriptions = new String[16];
+    private long[] cents = new long[16];
+    private String[] types = new String[16];
+    private String[] categories = new String[16];
+
+    /**
+     * Appends a transaction.
+     *
+     * @param epochDay the date as an epoch day, or {@link TransactionStore#NO_DATE}
+     * @param dateText the date as written, or null if it is the epoch day in dd/MM/yyyy form
+     * @param description the transaction description
+     * @param cents the signed amount in cents
+     * @param type the transaction type (Income/Expense)
+     * @param category the expense category
+     */
+    public void add(int epochDay, String dateText, String description, long cents, String type, String category) {
+        if (dateText == null && epochDay == TransactionStore.NO_DATE) {
+            dateText = "";
+        }
+        if (size == this.cents.length) {
+            grow(size + 1);
+        }
+        epochDays[size] = epochDay;
+        dateTexts[size] = dateText;
+        descriptions[size] = description;
+        this.cents[size] = cents;
+        types[size] = type;
+        categories[size] = category;
+        size++;
+    }
+
+    /**
+     * Appends all transactions of another batch, keeping their order.
+     *
+     * @param other the batch to append
+     */
+    public void addAll(TransactionColumns other) {
+        grow(size + other.size);
+        System.arraycopy(other.epochDays, 0, epochDays, size, other.size);
+        System.arraycopy(other.dateTexts, 0, dateTexts, size, other.size);
+        System.arraycopy(other.descriptions, 0, descriptions, size, other.size);
+        System.arraycopy(other.cents, 0, cents, size, other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.categories, 0, categories, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Returns the number of transactions in the batch.
+     *
+     * @return the number of transactions
+     */
+    public int size() {
+        return size;
+    }
+
+    int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    String dateText(int index) {
+        return dateTexts[index];
+    }
+
+    String description(int index) {
+        return descriptions[index];
+    }
+
+    long cents(int index) {
+        return cents[index];
+    }
+
+    String type(int index) {
+        return types[index];
+    }
+
+    String category(int index) {
+        return categories[index];
+    }
+
+    private void grow(int required) {
+        if (required <= cents.length) {
+            return;
+        }
+        int capacity = Math.max(required, cents.length + (cents.length >> 1));
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        dateTexts = Arrays.copyOf(dateTexts, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        types = Arrays.copyOf(types, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+    }
+}
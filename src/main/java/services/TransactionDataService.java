@@ -1,22 +1,31 @@
 package services;
 
+import Entity.Money;
+
+import java.time.LocalDate;
 import java.util.*;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 /**
  * A service class that manages financial transaction data and provides analysis functionality.
  * This class handles the storage, retrieval, and analysis of financial transactions,
- * including daily spending patterns and expense categorization.
+ * including daily spending patterns, expense categorization and time-bucketed rollups.
  * 
- * <p>The service maintains a list of transactions, where each transaction contains:
+ * <p>The service keeps its transactions in a columnar {@link TransactionStore}, where each transaction contains:
  * <ul>
- *     <li>Date (in dd/MM/yyyy format)</li>
+ *     <li>Date (in dd/MM/yyyy format, stored as epoch day)</li>
  *     <li>Description</li>
- *     <li>Amount (with support for currency symbols and formatting)</li>
+ *     <li>Amount (with support for currency symbols and formatting, parsed by {@link Money} and stored as cents)</li>
  *     <li>Type (Income/Expense)</li>
+ *     <li>Category (derived from the description by a {@link CategoryClassifier} when the transaction is stored)</li>
  * </ul>
  * 
+ * <p>The service is thread-safe. Writers take a short exclusive lock; every
+ * mutation is O(1), so background importers never hold it for long. Readers
+ * use optimistic reads that never block writers: the aggregate queries and
+ * {@link #snapshot()} copy what they need and retry only if a write raced with them.
+ * 
  * <p>Example usage:
  * <pre>
  * TransactionDataService service = new TransactionDataService();
@@ -29,8 +38,35 @@ import java.text.ParseException;
  * @version 1.0
  */
 public class TransactionDataService {
-    private List<Map<String, Object>> transactions = new ArrayList<>();
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    private final TransactionStore store = new TransactionStore();
+    private final CategoryClassifier classifier;
+    private final StampedLock lock = new StampedLock();
+    /** Modification count, bumped by every mutation. */
+    private long version;
+    
+    // Running aggregates, maintained on every add/update/remove so the chart queries never rescan the store
+    private final long[] weeklyCents = new long[DAYS.length];
+    private long[] categoryCents = new long[8];
+    private int[] categoryExpenseCounts = new int[8];
+    private final TransactionRollup rollup = new TransactionRollup();
+    
+    /**
+     * Creates an empty service that categorizes with the built-in keyword rules.
+     */
+    public TransactionDataService() {
+        this(CategoryClassifier.defaults());
+    }
+    
+    /**
+     * Creates an empty service that categorizes with the given rules.
+     * 
+     * @param classifier assigns the category of each stored transaction
+     */
+    public TransactionDataService(CategoryClassifier classifier) {
+        this.classifier = classifier;
+    }
     
     /**
      * Adds a new transaction to the transaction list.
@@ -39,19 +75,109 @@ public class TransactionDataService {
      * @param description the transaction description
      * @param amount the transaction amount (can include currency symbols and formatting)
      * @param type the transaction type (Income/Expense)
+     * @return the stable id assigned to the new transaction
      */
-    public void addTransaction(String date, String description, String amount, String type) {
-        Map<String, Object> transaction = new HashMap<>();
-        transaction.put("date", date);
-        transaction.put("description", description);
-        transaction.put("amount", parseAmount(amount));
-        transaction.put("type", type);
-        
-        transactions.add(transaction);
+    public long addTransaction(String date, String description, String amount, String type) {
+        return addTransaction(date, description, Money.parseCents(amount), type);
+    }
+    
+    /**
+     * Adds a new transaction whose amount is already parsed.
+     * 
+     * @param date the transaction date in dd/MM/yyyy format
+     * @param description the transaction description
+     * @param amount the transaction amount
+     * @param type the transaction type (Income/Expense)
+     * @return the stable id assigned to the new transaction
+     */
+    public long addTransaction(String date, String description, Money amount, String type) {
+        return addTransaction(date, description, amount.cents(), type);
+    }
+    
+    private long addTransaction(String date, String description, long cents, String type) {
+        String category = classifier.categorize(description);
+        long stamp = lock.writeLock();
+        try {
+            int slot = store.add(date, description, cents, type, category);
+            accumulate(slot, 1);
+            version++;
+            return store.id(slot);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Adds a batch of transactions under a single lock acquisition.
+     * All amounts are parsed before anything is stored, so a malformed amount
+     * rejects the whole batch and leaves the service unchanged.
+     * 
+     * @param drafts the transactions to add, in order
+     * @return the stored transactions with their ids and categories, in the same order
+     * @throws NumberFormatException if any amount cannot be parsed
+     */
+    public List<TransactionRecord> addTransactions(List<TransactionDraft> drafts) {
+        long[] cents = new long[drafts.size()];
+        String[] categories = new String[drafts.size()];
+        for (int i = 0; i < cents.length; i++) {
+            TransactionDraft draft = drafts.get(i);
+            cents[i] = Money.parseCents(draft.amount());
+            categories[i] = classifier.categorize(draft.description());
+        }
+        List<TransactionRecord> added = new ArrayList<>(cents.length);
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < cents.length; i++) {
+                TransactionDraft draft = drafts.get(i);
+                int slot = store.add(draft.date(), draft.description(), cents[i], draft.type(), categories[i]);
+                accumulate(slot, 1);
+                added.add(store.record(slot));
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return added;
+    }
+    
+    /**
+     * Adds a batch of parsed transactions under a single lock acquisition. Nothing is
+     * parsed or categorized again: the batch already holds cents, epoch days and
+     * categories, so loaders can do that work in parallel beforehand.
+     * 
+     * @param batch the transactions to add, in order
+     * @return the ids of the stored transactions, in the same order
+     */
+    public long[] addTransactions(TransactionColumns batch) {
+        long[] ids = new long[batch.size()];
+        long stamp = lock.writeLock();
+        try {
+            int first = store.addAll(batch);
+            for (int i = 0; i < ids.length; i++) {
+                accumulate(first + i, 1);
+                ids[i] = store.id(first + i);
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return ids;
+    }
+    
+    /**
+     * Returns the rules that assign the category of each stored transaction, so
+     * loaders can categorize rows before adding them in bulk.
+     * 
+     * @return the classifier
+     */
+    public CategoryClassifier getClassifier() {
+        return classifier;
     }
     
     /**
      * Updates an existing transaction at the specified index.
+     * Prefer {@link #updateTransactionById} where the id is known, since indexes
+     * shift when earlier transactions are removed.
      * 
      * @param index the index of the transaction to update
      * @param date the new transaction date in dd/MM/yyyy format
@@ -60,116 +186,291 @@ public class TransactionDataService {
      * @param type the new transaction type
      */
     public void updateTransaction(int index, String date, String description, String amount, String type) {
-        if (index >= 0 && index < transactions.size()) {
-            Map<String, Object> transaction = transactions.get(index);
-            transaction.put("date", date);
-            transaction.put("description", description);
-            transaction.put("amount", parseAmount(amount));
-            transaction.put("type", type);
+        long id = idAt(index);
+        if (id >= 0) {
+            updateTransactionById(id, date, description, amount, type);
         }
     }
     
     /**
-     * Parses a string amount into a double value.
-     * Removes currency symbols, commas, and plus signs while preserving minus signs for expenses.
+     * Updates the transaction with the given id in constant time.
      * 
-     * @param amount the amount string to parse
-     * @return the parsed double value
+     * @param id the id of the transaction to update
+     * @param date the new transaction date in dd/MM/yyyy format
+     * @param description the new transaction description
+     * @param amount the new transaction amount
+     * @param type the new transaction type
+     * @return the transaction as it was before the update, or null if no transaction has this id
+     */
+    public TransactionRecord updateTransactionById(long id, String date, String description, String amount, String type) {
+        long cents = Money.parseCents(amount);
+        String category = classifier.categorize(description);
+        long stamp = lock.writeLock();
+        try {
+            int slot = store.slotOf(id);
+            if (slot < 0) {
+                return null;
+            }
+            TransactionRecord previous = store.record(slot);
+            accumulate(slot, -1);
+            store.set(slot, date, description, cents, type, category);
+            accumulate(slot, 1);
+            version++;
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the transaction at the specified index.
+     * Following transactions move up by one position.
+     *
+     * @param index the index of the transaction to remove
      */
-    private double parseAmount(String amount) {
-        return Double.parseDouble(amount.replace("$", "")
-                                      .replace(",", "")
-                                      .replace("+", ""));
+    public void removeTransaction(int index) {
+        long id = idAt(index);
+        if (id >= 0) {
+            removeTransactionById(id);
+        }
     }
     
     /**
-     * Calculates the total spending for each day of the current week.
-     * Returns a map with days (Mon-Sun) as keys and total spending as values.
+     * Removes the transaction with the given id in constant time.
      * 
-     * @return a LinkedHashMap containing daily spending totals for the current week
+     * @param id the id of the transaction to remove
+     * @return the removed transaction, or null if no transaction has this id
      */
-    public Map<String, Double> getWeeklySpending() {
-        Map<String, Double> weeklyData = new LinkedHashMap<>();
-        String[] days = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
-        for (String day : days) {
-            weeklyData.put(day, 0.0);
+    public TransactionRecord removeTransactionById(long id) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = store.slotOf(id);
+            if (slot < 0) {
+                return null;
+            }
+            TransactionRecord removed = store.record(slot);
+            accumulate(slot, -1);
+            store.remove(slot);
+            version++;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        
-        Calendar calendar = Calendar.getInstance();
-        
-        for (Map<String, Object> transaction : transactions) {
+    }
+    
+    /**
+     * Returns the id of the transaction at the given position in insertion order.
+     * 
+     * @param index the position of the transaction
+     * @return the transaction id, or -1 if the index is out of range
+     */
+    public long idAt(int index) {
+        // Positional access may compact dead slots, so it needs the write lock
+        long stamp = lock.writeLock();
+        try {
+            if (index < 0 || index >= store.size()) {
+                return -1;
+            }
+            return store.id(store.slotAt(index));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Looks up a single transaction by id.
+     * 
+     * @param id the transaction id
+     * @return a copy of the transaction, or null if no transaction has this id
+     */
+    public TransactionRecord getTransaction(long id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = store.slotOf(id);
+            return slot < 0 ? null : store.record(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Finds the ids of all transactions matching the given fields exactly, using the hash index.
+     * 
+     * @param date the transaction date
+     * @param description the transaction description
+     * @param amount the transaction amount
+     * @param type the transaction type
+     * @return the matching ids in insertion order, possibly empty
+     */
+    public Set<Long> findTransactionIds(String date, String description, String amount, String type) {
+        long cents = Money.parseCents(amount);
+        long stamp = lock.readLock();
+        try {
+            return new LinkedHashSet<>(store.findIds(date, description, cents, type));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Returns the number of stored transactions.
+     * 
+     * @return the transaction count
+     */
+    public int size() {
+        return optimisticRead(store::size);
+    }
+    
+    /**
+     * Takes an immutable snapshot of all transactions without blocking writers.
+     * 
+     * @return a consistent point-in-time copy of the transactions
+     */
+    public TransactionSnapshot snapshot() {
+        return optimisticRead(() -> store.snapshot(version));
+    }
+    
+    /**
+     * Runs a read-only action under an optimistic stamp and validates it afterwards.
+     * If a writer interfered, the action is repeated under a read lock.
+     * The action must only read plain fields and arrays of this service and its store.
+     * 
+     * @param reader the read-only action
+     * @param <T> the result type
+     * @return the result of a read that was not interleaved with any write
+     */
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
             try {
-                String dateStr = (String)transaction.get("date");
-                Date transDate = dateFormat.parse(dateStr);
-                
-                calendar.setTime(transDate);
-                
-                int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-                String dayName = days[(dayOfWeek + 5) % 7];
-                
-                if ("Expense".equals(transaction.get("type"))) {
-                    double amount = Math.abs((Double)transaction.get("amount"));
-                    weeklyData.put(dayName, weeklyData.get(dayName) + amount);
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
                 }
-            } catch (ParseException e) {
-                System.out.println("Error parsing date: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // A concurrent write left the arrays in a transient state; retry under the read lock
             }
         }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Adds (sign = 1) or subtracts (sign = -1) a stored transaction to the running weekly and category aggregates
+     * and to the rollup. Only expenses contribute to the weekly and category totals, using the absolute amount
+     * as the spending value; the rollup also counts income.
+     * 
+     * @param slot the slot of the transaction in the store
+     * @param sign 1 to add the transaction, -1 to take it out again
+     */
+    private void accumulate(int slot, int sign) {
+        String type = store.type(slot);
+        boolean expense = "Expense".equals(type);
+        int epochDay = store.epochDay(slot);
+        if (epochDay != TransactionStore.NO_DATE && (expense || "Income".equals(type))) {
+            rollup.add(epochDay, store.categoryId(slot), expense, Math.abs(store.amountCents(slot)), sign);
+        }
+        if (!expense) {
+            return;
+        }
+        long cents = sign * Math.abs(store.amountCents(slot));
+        
+        if (epochDay != TransactionStore.NO_DATE) {
+            // Epoch day 0 (01/01/1970) was a Thursday, index 3 in DAYS
+            weeklyCents[Math.floorMod(epochDay + 3, 7)] += cents;
+        }
         
+        int categoryId = store.categoryId(slot);
+        if (categoryId >= categoryCents.length) {
+            int capacity = Math.max(categoryId + 1, categoryCents.length * 2);
+            categoryCents = Arrays.copyOf(categoryCents, capacity);
+            categoryExpenseCounts = Arrays.copyOf(categoryExpenseCounts, capacity);
+        }
+        categoryCents[categoryId] += cents;
+        categoryExpenseCounts[categoryId] += sign;
+    }
+    
+    /**
+     * Calculates the total spending for each day of the current week.
+     * Returns a map with days (Mon-Sun) as keys and total spending as values.
+     * The totals are kept up to date as transactions change, so this call does not
+     * depend on the number of stored transactions.
+     * 
+     * @return a LinkedHashMap containing daily spending totals for the current week
+     */
+    public Map<String, Double> getWeeklySpending() {
+        long[] dailyCents = optimisticRead(weeklyCents::clone);
+        Map<String, Double> weeklyData = new LinkedHashMap<>();
+        for (int i = 0; i < DAYS.length; i++) {
+            weeklyData.put(DAYS[i], dailyCents[i] / 100.0);
+        }
         return weeklyData;
     }
     
     /**
      * Analyzes and categorizes expenses based on transaction descriptions.
-     * Categories include: Housing, Food, Transport, Entertainment, Savings, and Others.
+     * Categories are those of the {@link CategoryClassifier}; by default Housing, Food,
+     * Transport, Entertainment, Savings, and Others.
+     * Like {@link #getWeeklySpending()}, this reads running totals instead of rescanning.
      * 
      * @return a HashMap containing expense categories and their total amounts
      */
     public Map<String, Double> getExpenseCategories() {
-        Map<String, Double> categoryData = new HashMap<>();
-        
-        for (Map<String, Object> transaction : transactions) {
-            if ("Expense".equals(transaction.get("type"))) {
-                String description = ((String)transaction.get("description")).toLowerCase();
-                String category = getCategoryFromDescription(description);
-                double amount = Math.abs((Double)transaction.get("amount"));
-                
-                categoryData.put(category, categoryData.getOrDefault(category, 0.0) + amount);
+        return optimisticRead(() -> {
+            Map<String, Double> categoryData = new HashMap<>();
+            for (int categoryId = 0; categoryId < categoryExpenseCounts.length; categoryId++) {
+                if (categoryExpenseCounts[categoryId] > 0) {
+                    categoryData.put(store.categoryName(categoryId), categoryCents[categoryId] / 100.0);
+                }
             }
-        }
-        
-        return categoryData;
+            return categoryData;
+        });
     }
     
     /**
-     * Determines the expense category based on the transaction description.
-     * Uses keyword matching to categorize transactions into predefined categories.
+     * Returns the income and expense totals per year, month, week or day.
+     * Like the other aggregates, the totals are kept up to date as transactions change,
+     * so this call costs O(buckets) and does not depend on the number of stored transactions.
      * 
-     * @param description the transaction description to analyze
-     * @return the determined expense category
+     * @param period the bucket length
+     * @param category only count transactions of this category, or null for all
+     * @param from the first date to include, or null for no lower bound
+     * @param to the last date to include, or null for no upper bound
+     * @return the buckets with at least one transaction, in date order; buckets are whole,
+     *         so they may start before {@code from} or end after {@code to}
      */
-    private String getCategoryFromDescription(String description) {
-        if (description.contains("rent") || description.contains("mortgage") || description.contains("house")) {
-            return "Housing";
-        } else if (description.contains("food") || description.contains("grocery") || description.contains("restaurant")) {
-            return "Food";
-        } else if (description.contains("car") || description.contains("gas") || description.contains("transport")) {
-            return "Transport";
-        } else if (description.contains("movie") || description.contains("entertainment") || description.contains("game")) {
-            return "Entertainment";
-        } else if (description.contains("saving") || description.contains("deposit") || description.contains("investment")) {
-            return "Savings";
-        } else {
-            return "Others";
+    public List<TransactionRollup.Bucket> getRollup(TransactionRollup.Period period, String category,
+            LocalDate from, LocalDate to) {
+        int fromKey = from == null ? Integer.MIN_VALUE : period.keyOf(from);
+        int toKey = to == null ? Integer.MAX_VALUE : period.keyOf(to);
+        // The rollup maps must not be walked while a writer restructures them, so this takes the read lock
+        long stamp = lock.readLock();
+        try {
+            int categoryId = -1;
+            if (category != null) {
+                categoryId = store.findCategoryId(category);
+                if (categoryId < 0) {
+                    return new ArrayList<>();
+                }
+            }
+            return rollup.buckets(period, categoryId, fromKey, toKey);
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
     
     /**
      * Retrieves the complete list of transactions.
+     * This is a read-only compatibility view over a {@link #snapshot()};
+     * use the snapshot directly for typed, allocation-free access.
      * 
      * @return a List of Maps containing all transaction data
      */
     public List<Map<String, Object>> getTransactions() {
-        return transactions;
+        return snapshot().asMapView();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package services;
+
+/**
+ * A transaction that has been entered or imported but not stored yet.
+ * Used to add many transactions in one call, e.g.
+ * {@link TransactionDataService#addTransactions(java.util.List)}.
+ *
+ * @param date the transaction date in dd/MM/yyyy format
+ * @param description the transaction description
+ * @param amount the transaction amount (can include currency symbols and formatting)
+ * @param type the transaction type (Income/Expense)
+ *
+ * @author System
+ * @version 1.0
+ */
+public record TransactionDraft(String date, String description, String amount, String type) {
+}
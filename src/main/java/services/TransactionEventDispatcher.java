@@ -0,0 +1,145 @@
+package services;
+
+import Entity.Money;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link TransactionManager.TransactionListener} that coalesces bursts of
+ * transaction events and replays them on the Swing event dispatch thread.
+ *
+ * <p>Events may arrive from any thread. They are queued and delivered to the
+ * wrapped listener at most once per frame: consecutive additions are merged
+ * into a single {@link TransactionManager.TransactionListener#onTransactionsAdded(List)}
+ * call, so a view importing thousands of rows inserts them and rebuilds its
+ * charts once instead of once per row. Updates and removals are delivered one
+ * by one, and the relative order of all events is preserved.
+ *
+ * <p>Example usage:
+ * <pre>
+ * TransactionEventDispatcher dispatcher = new TransactionEventDispatcher(viewListener);
+ * TransactionManager.getInstance().addListener(dispatcher);
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionEventDispatcher implements TransactionManager.TransactionListener {
+    /** Default coalescing window, roughly one frame at 60 Hz. */
+    public static final int DEFAULT_FRAME_MILLIS = 16;
+
+    private final TransactionManager.TransactionListener target;
+    private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer timer;
+
+    /**
+     * Creates a dispatcher with the default frame length.
+     *
+     * @param target the listener that receives the coalesced events on the EDT
+     */
+    public TransactionEventDispatcher(TransactionManager.TransactionListener target) {
+        this(target, DEFAULT_FRAME_MILLIS);
+    }
+
+    /**
+     * Creates a dispatcher with a custom frame length.
+     *
+     * @param target the listener that receives the coalesced events on the EDT
+     * @param frameMillis how long events are collected before they are delivered
+     */
+    public TransactionEventDispatcher(TransactionManager.TransactionListener target, int frameMillis) {
+        this.target = target;
+        this.timer = new Timer(frameMillis, _e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    @Override
+    public void onTransactionAdded(long id, String date, String description, String amount, String type) {
+        long cents = Money.parseCents(amount);
+        enqueue(new Added(List.of(new TransactionRecord(id, date, description, cents, type, null))));
+    }
+
+    @Override
+    public void onTransactionsAdded(List<TransactionRecord> transactions) {
+        if (!transactions.isEmpty()) {
+            enqueue(new Added(List.copyOf(transactions)));
+        }
+    }
+
+    @Override
+    public void onTransactionUpdated(long id,
+            String oldDate, String oldDescription, String oldAmount, String oldType,
+            String newDate, String newDescription, String newAmount, String newType) {
+        enqueue(new Updated(id, oldDate, oldDescription, oldAmount, oldType,
+                newDate, newDescription, newAmount, newType));
+    }
+
+    @Override
+    public void onTransactionRemoved(long id, String date, String description, String amount, String type) {
+        enqueue(new Removed(id, date, description, amount, type));
+    }
+
+    /**
+     * Delivers all queued events to the wrapped listener immediately.
+     * Must be called on the event dispatch thread; the frame timer calls it automatically.
+     */
+    public void flush() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("flush() must be called on the event dispatch thread");
+        }
+        // Clear the flag first so events queued while draining schedule another frame
+        scheduled.set(false);
+        List<TransactionRecord> added = new ArrayList<>();
+        Event event;
+        while ((event = pending.poll()) != null) {
+            if (event instanceof Added batch) {
+                added.addAll(batch.transactions());
+                continue;
+            }
+            deliverAdded(added);
+            if (event instanceof Updated u) {
+                target.onTransactionUpdated(u.id(),
+                        u.oldDate(), u.oldDescription(), u.oldAmount(), u.oldType(),
+                        u.newDate(), u.newDescription(), u.newAmount(), u.newType());
+            } else if (event instanceof Removed r) {
+                target.onTransactionRemoved(r.id(), r.date(), r.description(), r.amount(), r.type());
+            }
+        }
+        deliverAdded(added);
+    }
+
+    private void deliverAdded(List<TransactionRecord> added) {
+        if (!added.isEmpty()) {
+            target.onTransactionsAdded(List.copyOf(added));
+            added.clear();
+        }
+    }
+
+    private void enqueue(Event event) {
+        pending.add(event);
+        if (scheduled.compareAndSet(false, true)) {
+            timer.restart();
+        }
+    }
+
+    private sealed interface Event permits Added, Updated, Removed {
+    }
+
+    private record Added(List<TransactionRecord> transactions) implements Event {
+    }
+
+    private record Updated(long id,
+            String oldDate, String oldDescription, String oldAmount, String oldType,
+            String newDate, String newDescription, String newAmount, String newType) implements Event {
+    }
+
+    private record Removed(long id, String date, String description, String amount, String type) implements Event {
+    }
+}
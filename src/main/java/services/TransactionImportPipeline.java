@@ -0,0 +1,368 @@
+package services;
+
+import Entity.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Imports transactions from a text file in the background.
+ *
+ * <p>The import runs as a pipeline of four stages that overlap in time:
+ * <ol>
+ *   <li>a reader thread streams the file and cuts it into chunks of lines,</li>
+ *   <li>a pool of parser threads splits lines in the standard
+ *       {@code Date|Description|Amount|Type} format in parallel,</li>
+ *   <li>every other line is handed to the AI normalizer on a virtual thread, grouped
+ *       into batches so that one request normalizes several lines; a semaphore
+ *       bounds how many AI requests are in flight at once,</li>
+ *   <li>the calling thread commits the results chunk by chunk, in file order,
+ *       through a single batched call per chunk.</li>
+ * </ol>
+ * The reader can only run a bounded number of chunks ahead of the commit stage,
+ * so memory use does not grow with the size of the file.
+ *
+ * <p>Progress is reported after each committed chunk, and {@link #cancel()} stops
+ * the import from any thread. Chunks committed before the cancellation stay committed.
+ *
+ * <p>Example usage:
+ * <pre>
+ * TransactionImportPipeline pipeline = new TransactionImportPipeline(normalizer::normalizeAll, 4, 20, 256);
+ * ImportResult result = pipeline.run(path, manager::addTransactions, progress -&gt; updateBar(progress));
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionImportPipeline {
+    private static final Chunk END = new Chunk(null, 0);
+
+    private final Function<List<String>, List<String>> normalizer;
+    private final int aiConcurrency;
+    private final int aiBatchSize;
+    private final int chunkSize;
+    private final CompletableFuture<Void> cancelled = new CompletableFuture<>();
+
+    /**
+     * Creates a pipeline that normalizes one line per AI request.
+     *
+     * @param normalizer converts a line in any format into the standard
+     *                   {@code Date|Description|Amount|Type} format, typically by asking the AI service
+     * @param aiConcurrency the maximum number of normalizer calls running at the same time
+     * @param chunkSize the number of lines parsed and committed together
+     */
+    public TransactionImportPipeline(UnaryOperator<String> normalizer, int aiConcurrency, int chunkSize) {
+        this(lines -> lines.stream().map(normalizer).toList(), aiConcurrency, 1, chunkSize);
+    }
+
+    /**
+     * Creates a pipeline that normalizes up to {@code aiBatchSize} lines per AI request.
+     *
+     * @param normalizer converts a batch of lines into the standard format, returning one
+     *                   element per line in the same order, null for lines it could not convert;
+     *                   see {@link TransactionNormalizer#normalizeAll(List)}
+     * @param aiConcurrency the maximum number of normalizer calls running at the same time
+     * @param aiBatchSize the maximum number of lines passed to one normalizer call
+     * @param chunkSize the number of lines parsed and committed together
+     */
+    public TransactionImportPipeline(Function<List<String>, List<String>> normalizer, int aiConcurrency,
+            int aiBatchSize, int chunkSize) {
+        if (aiConcurrency < 1 || aiBatchSize < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("aiConcurrency, aiBatchSize and chunkSize must be positive");
+        }
+        this.normalizer = normalizer;
+        this.aiConcurrency = aiConcurrency;
+        this.aiBatchSize = aiBatchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Progress of a running import.
+     *
+     * @param processed the number of non-empty lines handled so far
+     * @param imported the number of transactions committed so far
+     * @param failed the number of lines that could not be turned into a transaction
+     * @param fraction the share of the file processed, between 0 and 1
+     */
+    public record ImportProgress(int processed, int imported, int failed, double fraction) {
+    }
+
+    /**
+     * Outcome of an import.
+     *
+     * @param imported the number of transactions committed
+     * @param failed the number of lines that could not be turned into a transaction
+     * @param cancelled whether the import was stopped before reaching the end of the file
+     */
+    public record ImportResult(int imported, int failed, boolean cancelled) {
+    }
+
+    /**
+     * Requests the running import to stop. Safe to call from any thread, also before
+     * or after {@link #run}.
+     */
+    public void cancel() {
+        cancelled.complete(null);
+    }
+
+    /**
+     * Returns whether {@link #cancel()} has been called.
+     *
+     * @return true if the import was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled.isDone();
+    }
+
+    /**
+     * Imports a file, blocking until it is fully processed or cancelled.
+     * The {@code commit} and {@code progress} callbacks are invoked on the calling thread.
+     *
+     * @param file the file to import, UTF-8 encoded, one transaction per line
+     * @param commit receives the parsed transactions chunk by chunk, in file order
+     * @param progress receives a progress update after each chunk
+     * @return the import outcome
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult run(Path file, Consumer<List<TransactionDraft>> commit,
+            Consumer<ImportProgress> progress) throws IOException {
+        long totalBytes = Math.max(1, Files.size(file));
+        BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(4);
+        int parsers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService parsePool = Executors.newFixedThreadPool(parsers);
+        ExecutorService aiPool = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore aiPermits = new Semaphore(aiConcurrency);
+        AtomicReference<IOException> readFailure = new AtomicReference<>();
+
+        Thread reader = Thread.ofPlatform().name("transaction-import-reader").daemon().start(() -> {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                List<String> lines = new ArrayList<>(chunkSize);
+                long offset = 0;
+                String line;
+                while (!isCancelled() && (line = in.readLine()) != null) {
+                    // Approximate byte offset; exact for ASCII files, close enough for progress otherwise
+                    offset += line.length() + 1;
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        lines.add(line);
+                    }
+                    if (lines.size() == chunkSize) {
+                        chunks.put(parse(lines, offset, parsePool, aiPool, aiPermits));
+                        lines = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    chunks.put(parse(lines, offset, parsePool, aiPool, aiPermits));
+                }
+            } catch (IOException e) {
+                readFailure.set(e);
+            } catch (InterruptedException e) {
+                // Cancelled while waiting for the commit stage
+                return;
+            }
+            try {
+                chunks.put(END);
+            } catch (InterruptedException e) {
+                // Cancelled; the commit stage no longer takes from the queue
+            }
+        });
+
+        int processed = 0;
+        int imported = 0;
+        int failed = 0;
+        try {
+            while (!isCancelled()) {
+                Chunk chunk = chunks.take();
+                if (chunk == END) {
+                    break;
+                }
+                List<CompletableFuture<TransactionDraft>> parsed = await(chunk.lines());
+                if (parsed == null) {
+                    break;
+                }
+                List<TransactionDraft> batch = new ArrayList<>(parsed.size());
+                for (CompletableFuture<TransactionDraft> line : parsed) {
+                    TransactionDraft draft = await(line);
+                    if (isCancelled()) {
+                        break;
+                    }
+                    if (draft != null) {
+                        batch.add(draft);
+                    } else {
+                        failed++;
+                    }
+                    processed++;
+                }
+                if (isCancelled()) {
+                    break;
+                }
+                if (!batch.isEmpty()) {
+                    commit.accept(batch);
+                    imported += batch.size();
+                }
+                progress.accept(new ImportProgress(processed, imported, failed,
+                        Math.min(1.0, (double) chunk.endOffset() / totalBytes)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+        } finally {
+            boolean stoppedEarly = isCancelled();
+            if (stoppedEarly) {
+                reader.interrupt();
+                aiPool.shutdownNow();
+                parsePool.shutdownNow();
+            } else {
+                aiPool.shutdown();
+                parsePool.shutdown();
+            }
+        }
+
+        if (readFailure.get() != null) {
+            throw readFailure.get();
+        }
+        return new ImportResult(imported, failed, isCancelled());
+    }
+
+    /**
+     * Starts parsing a chunk on the parser pool.
+     * Lines that are not in the standard format are sent to the AI stage in batches.
+     */
+    private Chunk parse(List<String> lines, long endOffset, ExecutorService parsePool,
+            ExecutorService aiPool, Semaphore aiPermits) {
+        CompletableFuture<List<CompletableFuture<TransactionDraft>>> parsed = CompletableFuture.supplyAsync(() -> {
+            List<CompletableFuture<TransactionDraft>> drafts = new ArrayList<>(lines.size());
+            List<String> pending = new ArrayList<>(aiBatchSize);
+            List<Integer> pendingIndexes = new ArrayList<>(aiBatchSize);
+            for (String line : lines) {
+                TransactionDraft draft = parseStandard(line);
+                drafts.add(draft != null ? CompletableFuture.completedFuture(draft) : null);
+                if (draft == null) {
+                    pending.add(line);
+                    pendingIndexes.add(drafts.size() - 1);
+                    if (pending.size() == aiBatchSize) {
+                        normalizeBatch(pending, pendingIndexes, drafts, aiPool, aiPermits);
+                        pending = new ArrayList<>(aiBatchSize);
+                        pendingIndexes = new ArrayList<>(aiBatchSize);
+                    }
+                }
+            }
+            if (!pending.isEmpty()) {
+                normalizeBatch(pending, pendingIndexes, drafts, aiPool, aiPermits);
+            }
+            return drafts;
+        }, parsePool);
+        return new Chunk(parsed, endOffset);
+    }
+
+    /**
+     * Sends a batch of lines to the AI stage and fills in a future for each of them.
+     */
+    private void normalizeBatch(List<String> batch, List<Integer> indexes,
+            List<CompletableFuture<TransactionDraft>> drafts, ExecutorService aiPool, Semaphore aiPermits) {
+        CompletableFuture<List<String>> normalized = CompletableFuture.supplyAsync(() -> normalize(batch, aiPermits), aiPool);
+        for (int k = 0; k < indexes.size(); k++) {
+            int slot = k;
+            drafts.set(indexes.get(k), normalized
+                    .thenApply(results -> toDraft(slot < results.size() ? results.get(slot) : null))
+                    .exceptionally(e -> null));
+        }
+    }
+
+    /**
+     * Parses a line that is already in the standard format.
+     *
+     * @param line the trimmed line
+     * @return the transaction, or null if the line needs to be normalized first
+     */
+    static TransactionDraft parseStandard(String line) {
+        String[] parts = line.split("\\|");
+        if (parts.length != 4) {
+            return null;
+        }
+        String type = parts[3].trim();
+        if (!type.equals("Income") && !type.equals("Expense")) {
+            return null;
+        }
+        try {
+            Money amount = Money.parse(parts[2]);
+            return new TransactionDraft(parts[0].trim(), parts[1].trim(), amount.toString(), type);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the normalizer on a batch while holding one AI permit.
+     */
+    private List<String> normalize(List<String> batch, Semaphore aiPermits) {
+        try {
+            aiPermits.acquire();
+        } catch (InterruptedException e) {
+            throw new CancellationException("Import cancelled");
+        }
+        try {
+            return normalizer.apply(batch);
+        } finally {
+            aiPermits.release();
+        }
+    }
+
+    /**
+     * Parses a line returned by the normalizer.
+     *
+     * @param normalized the normalized line, may be null
+     * @return the transaction, or null if the normalized line is still not usable
+     */
+    private static TransactionDraft toDraft(String normalized) {
+        if (normalized == null) {
+            return null;
+        }
+        String[] parts = normalized.split("\\|");
+        if (parts.length != 4 || parts[3].trim().isEmpty()) {
+            return null;
+        }
+        String amount = parts[2].trim();
+        try {
+            // Reject amounts the data service would not accept, so one bad line cannot fail a whole batch
+            Money.parseCents(amount);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new TransactionDraft(parts[0].trim(), parts[1].trim(), amount, parts[3].trim());
+    }
+
+    /**
+     * Waits for a stage result.
+     *
+     * @return the result, or null if the stage failed or the import was cancelled first
+     */
+    private <T> T await(CompletableFuture<T> future) throws InterruptedException {
+        try {
+            CompletableFuture.anyOf(future, cancelled).get();
+        } catch (ExecutionException e) {
+            return null;
+        }
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private record Chunk(CompletableFuture<List<CompletableFuture<TransactionDraft>>> lines, long endOffset) {
+    }
+}
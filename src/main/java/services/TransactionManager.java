@@ -1,8 +1,8 @@
 package services;
 
+import java.time.LocalDate;
 import java.util.*;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A singleton service class that manages financial transactions and implements the Observer pattern
@@ -13,16 +13,22 @@ import java.text.ParseException;
  * manages all transaction data across the application. It maintains a list of listeners
  * that are notified of any changes to the transaction data.
  * 
+ * <p>The manager is safe to use from several threads at once, e.g. a background
+ * import running while the UI refreshes its charts. Mutations are serialized so
+ * that listeners observe changes in the order they were applied; queries never
+ * wait for a mutation to finish and work on consistent snapshots.
+ * 
  * <p>Example usage:
  * <pre>
  * TransactionManager manager = TransactionManager.getInstance();
- * manager.addListener(new TransactionListener() {
- *     public void onTransactionAdded(String date, String desc, String amount, String type) {
+ * manager.addListener(new TransactionEventDispatcher(new TransactionListener() {
+ *     public void onTransactionAdded(long id, String date, String desc, String amount, String type) {
  *         // Handle new transaction
  *     }
  *     // ... implement other listener methods
- * });
- * manager.addTransaction("01/01/2024", "Grocery", "$100.50", "Expense");
+ * }));
+ * long id = manager.addTransaction("01/01/2024", "Grocery", "$100.50", "Expense");
+ * manager.removeTransaction(id);
  * </pre>
  * 
  * @author System
@@ -30,7 +36,7 @@ import java.text.ParseException;
  */
 public class TransactionManager {
     private static TransactionManager instance;
-    private List<TransactionListener> listeners = new ArrayList<>();
+    private final CopyOnWriteArrayList<TransactionListener> listeners = new CopyOnWriteArrayList<>();
     private TransactionDataService dataService;
     
     /**
@@ -38,7 +44,16 @@ public class TransactionManager {
      * Initializes the transaction data service.
      */
     private TransactionManager() {
-        dataService = new TransactionDataService();
+        this(new TransactionDataService());
+    }
+    
+    /**
+     * Creates a manager over the given data service, so tests can use a store of their own.
+     * 
+     * @param dataService the service holding the transactions
+     */
+    TransactionManager(TransactionDataService dataService) {
+        this.dataService = dataService;
     }
     
     /**
@@ -61,9 +76,21 @@ public class TransactionManager {
      * @param listener the listener to be registered
      */
     public void addListener(TransactionListener listener) {
-        if (!listeners.contains(listener)) {
-            listeners.add(listener);
-        }
+        listeners.addIfAbsent(listener);
+    }
+    
+    /**
+     * Registers a listener and takes the snapshot it starts from. No change can
+     * happen between the two, so the listener hears of exactly the changes made
+     * after the snapshot.
+     * 
+     * @param listener the listener to be registered
+     * @return the transactions as of registration
+     */
+    public synchronized TransactionSnapshot addListenerFromSnapshot(TransactionListener listener) {
+        TransactionSnapshot snapshot = dataService.snapshot();
+        listeners.addIfAbsent(listener);
+        return snapshot;
     }
     
     /**
@@ -73,17 +100,40 @@ public class TransactionManager {
      * @param description the transaction description
      * @param amount the transaction amount
      * @param type the transaction type (Income/Expense)
+     * @return the stable id assigned to the new transaction
      */
-    public void addTransaction(String date, String description, String amount, String type) {
-        dataService.addTransaction(date, description, amount, type);
+    public synchronized long addTransaction(String date, String description, String amount, String type) {
+        long id = dataService.addTransaction(date, description, amount, type);
         
+        List<TransactionRecord> added = List.of(dataService.getTransaction(id));
         for (TransactionListener listener : listeners) {
-            listener.onTransactionAdded(date, description, amount, type);
+            listener.onTransactionsAdded(added);
+        }
+        return id;
+    }
+    
+    /**
+     * Adds a batch of transactions and notifies all registered listeners once
+     * with the whole batch.
+     * 
+     * @param drafts the transactions to add, in order
+     * @return the stored transactions with their ids, in the same order
+     * @throws NumberFormatException if any amount cannot be parsed; nothing is added in that case
+     */
+    public synchronized List<TransactionRecord> addTransactions(List<TransactionDraft> drafts) {
+        List<TransactionRecord> added = dataService.addTransactions(drafts);
+        if (!added.isEmpty()) {
+            for (TransactionListener listener : listeners) {
+                listener.onTransactionsAdded(added);
+            }
         }
+        return added;
     }
     
     /**
      * Updates an existing transaction and notifies all registered listeners.
+     * Positions shift when earlier transactions are removed, so prefer
+     * {@link #updateTransactionById} where the id is known.
      * 
      * @param index the index of the transaction to update
      * @param date the new transaction date
@@ -91,69 +141,103 @@ public class TransactionManager {
      * @param amount the new transaction amount
      * @param type the new transaction type
      */
-    public void updateTransaction(int index, String date, String description, String amount, String type) {
-        // Get old data
-        Map<String, Object> oldTransaction = dataService.getTransactions().get(index);
-        String oldDate = (String) oldTransaction.get("date");
-        String oldDescription = (String) oldTransaction.get("description");
-        double oldAmountValue = (Double) oldTransaction.get("amount");
-        String oldType = (String) oldTransaction.get("type");
-        
-        // Format old amount
-        String oldAmount = String.format("%.2f", oldAmountValue);
-        
-        // Update data service
-        dataService.updateTransaction(index, date, description, amount, type);
+    public synchronized void updateTransaction(int index, String date, String description, String amount, String type) {
+        long id = dataService.idAt(index);
+        if (id >= 0) {
+            updateTransactionById(id, date, description, amount, type);
+        }
+    }
+    
+    /**
+     * Updates the transaction with the given id and notifies all registered listeners.
+     * The transaction is located through the id index in constant time.
+     * 
+     * @param id the id of the transaction to update
+     * @param date the new transaction date
+     * @param description the new transaction description
+     * @param amount the new transaction amount
+     * @param type the new transaction type
+     * @return true if the transaction existed and was updated
+     */
+    public synchronized boolean updateTransactionById(long id, String date, String description, String amount, String type) {
+        TransactionRecord old = dataService.updateTransactionById(id, date, description, amount, type);
+        if (old == null) {
+            return false;
+        }
         
         // Notify all listeners
         for (TransactionListener listener : listeners) {
-            listener.onTransactionUpdated(
-                oldDate, oldDescription, oldAmount, oldType,
+            listener.onTransactionUpdated(id,
+                old.date(), old.description(), old.formattedAmount(), old.type(),
                 date, description, amount, type
             );
         }
+        return true;
     }
     
     /**
      * Removes a transaction and notifies all registered listeners.
+     * The first transaction matching all four fields is removed; the match is
+     * found through the composite-key index instead of a scan.
      * 
      * @param date the date of the transaction to remove
      * @param description the description of the transaction to remove
      * @param amount the amount of the transaction to remove
      * @param type the type of the transaction to remove
      */
-    public void removeTransaction(String date, String description, String amount, String type) {
-        // Find matching transaction
-        List<Map<String, Object>> transactions = dataService.getTransactions();
-        int indexToRemove = -1;
-        
-        for (int i = 0; i < transactions.size(); i++) {
-            Map<String, Object> transaction = transactions.get(i);
-            String transDate = (String) transaction.get("date");
-            String transDesc = (String) transaction.get("description");
-            double transAmount = (Double) transaction.get("amount");
-            String transType = (String) transaction.get("type");
-            
-            if (date.equals(transDate) && description.equals(transDesc) && 
-                Math.abs(transAmount - Double.parseDouble(amount)) < 0.01 && type.equals(transType)) {
-                indexToRemove = i;
-                break;
-            }
+    public synchronized void removeTransaction(String date, String description, String amount, String type) {
+        Set<Long> ids = dataService.findTransactionIds(date, description, amount, type);
+        if (!ids.isEmpty()) {
+            removeTransaction(ids.iterator().next());
+        }
+    }
+    
+    /**
+     * Removes the transaction with the given id and notifies all registered listeners.
+     * 
+     * @param id the id of the transaction to remove
+     * @return true if the transaction existed and was removed
+     */
+    public synchronized boolean removeTransaction(long id) {
+        TransactionRecord removed = dataService.removeTransactionById(id);
+        if (removed == null) {
+            return false;
         }
         
-        // Remove if found
-        if (indexToRemove >= 0) {
-            transactions.remove(indexToRemove);
-            
-            // Notify all listeners
-            for (TransactionListener listener : listeners) {
-                listener.onTransactionRemoved(date, description, amount, type);
-            }
+        // Notify all listeners
+        for (TransactionListener listener : listeners) {
+            listener.onTransactionRemoved(id,
+                removed.date(), removed.description(), removed.formattedAmount(), removed.type());
         }
+        return true;
+    }
+    
+    /**
+     * Looks up the ids of all transactions with exactly the given fields.
+     * 
+     * @param date the transaction date
+     * @param description the transaction description
+     * @param amount the transaction amount
+     * @param type the transaction type
+     * @return the matching ids in insertion order, possibly empty
+     */
+    public Set<Long> findTransactionIds(String date, String description, String amount, String type) {
+        return dataService.findTransactionIds(date, description, amount, type);
+    }
+    
+    /**
+     * Retrieves one transaction by id.
+     * 
+     * @param id the stable id of the transaction
+     * @return the transaction, or null if there is none with this id
+     */
+    public TransactionRecord getTransaction(long id) {
+        return dataService.getTransaction(id);
     }
     
     /**
      * Retrieves all transactions.
+     * The returned list is backed by a snapshot and does not change afterwards.
      * 
      * @return a list of all transaction records
      */
@@ -161,6 +245,15 @@ public class TransactionManager {
         return dataService.getTransactions();
     }
     
+    /**
+     * Takes an immutable snapshot of all transactions without blocking writers.
+     * 
+     * @return a consistent point-in-time copy of the transactions
+     */
+    public TransactionSnapshot snapshot() {
+        return dataService.snapshot();
+    }
+    
     /**
      * Gets the weekly spending analysis.
      * 
@@ -179,6 +272,20 @@ public class TransactionManager {
         return dataService.getExpenseCategories();
     }
     
+    /**
+     * Gets the income and expense totals per year, month, week or day.
+     * 
+     * @param period the bucket length
+     * @param category only count transactions of this category, or null for all
+     * @param from the first date to include, or null for no lower bound
+     * @param to the last date to include, or null for no upper bound
+     * @return the buckets with at least one transaction, in date order
+     */
+    public List<TransactionRollup.Bucket> getRollup(TransactionRollup.Period period, String category,
+            LocalDate from, LocalDate to) {
+        return dataService.getRollup(period, category, from, to);
+    }
+    
     /**
      * Interface for transaction event listeners.
      * Implementations of this interface will be notified of transaction changes.
@@ -187,16 +294,34 @@ public class TransactionManager {
         /**
          * Called when a new transaction is added.
          * 
+         * @param id the stable id of the new transaction
          * @param date the transaction date
          * @param description the transaction description
          * @param amount the transaction amount
          * @param type the transaction type
          */
-        void onTransactionAdded(String date, String description, String amount, String type);
+        void onTransactionAdded(long id, String date, String description, String amount, String type);
+
+        /**
+         * Called when one or more transactions are added.
+         * Listeners that redraw tables or charts should override this to handle
+         * a whole burst at once; see {@link TransactionEventDispatcher}. The default
+         * implementation forwards each transaction to {@link #onTransactionAdded}
+         * with its amount formatted to two decimals.
+         * 
+         * @param transactions the added transactions in insertion order
+         */
+        default void onTransactionsAdded(List<TransactionRecord> transactions) {
+            for (TransactionRecord transaction : transactions) {
+                onTransactionAdded(transaction.id(), transaction.date(), transaction.description(),
+                        transaction.formattedAmount(), transaction.type());
+            }
+        }
 
         /**
          * Called when an existing transaction is updated.
          * 
+         * @param id the stable id of the updated transaction
          * @param oldDate the previous transaction date
          * @param oldDescription the previous transaction description
          * @param oldAmount the previous transaction amount
@@ -206,7 +331,7 @@ public class TransactionManager {
          * @param newAmount the new transaction amount
          * @param newType the new transaction type
          */
-        void onTransactionUpdated(
+        void onTransactionUpdated(long id,
             String oldDate, String oldDescription, String oldAmount, String oldType,
             String newDate, String newDescription, String newAmount, String newType
         );
@@ -214,11 +339,45 @@ public class TransactionManager {
         /**
          * Called when a transaction is removed.
          * 
+         * @param id the stable id of the removed transaction
          * @param date the removed transaction date
          * @param description the removed transaction description
          * @param amount the removed transaction amount
          * @param type the removed transaction type
          */
-        void onTransactionRemoved(String date, String description, String amount, String type);
+        void onTransactionRemoved(long id, String date, String description, String amount, String type);
+
+        /**
+         * Creates a listener that runs the same action on every change, such as
+         * redrawing the charts of a view.
+         * 
+         * @param action the action to run after each change
+         * @return the listener
+         */
+        static TransactionListener onChange(Runnable action) {
+            return new TransactionListener() {
+                @Override
+                public void onTransactionAdded(long id, String date, String description, String amount, String type) {
+                    action.run();
+                }
+
+                @Override
+                public void onTransactionsAdded(List<TransactionRecord> transactions) {
+                    action.run();
+                }
+
+                @Override
+                public void onTransactionUpdated(long id,
+                        String oldDate, String oldDescription, String oldAmount, String oldType,
+                        String newDate, String newDescription, String newAmount, String newType) {
+                    action.run();
+                }
+
+                @Override
+                public void onTransactionRemoved(long id, String date, String description, String amount, String type) {
+                    action.run();
+                }
+            };
+        }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
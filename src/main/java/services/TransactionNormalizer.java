@@ -0,0 +1,320 @@
+package services;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import Entity.Money;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts free-form transaction text into the standard
+ * {@code Date|Description|Amount|Type} format with the help of the AI service.
+ *
+ * <p>Several lines can be normalized with a single request: {@link #normalizeAll(List)}
+ * packs them into one prompt with numbered slots ({@code [1]}, {@code [2]}, ...) and
+ * maps the numbered answers back to their lines. Slots the model skipped or answered
+ * in the wrong shape are retried one by one with the single-line prompt, so a batch
+ * never loses a line that a single request would have recovered.
+ *
+ * <p>With an {@link AIResponseCache}, every normalized line is cached under the key of
+ * its single-line prompt, whichever request produced it. Lines seen before, such as
+ * the same monthly subscription in every statement, are answered locally and only
+ * the remaining lines are sent to the AI service.
+ *
+ * <p>With a local parser, such as {@link #parseLocally(String)}, lines the AI service
+ * could not answer, because it failed or its {@link AIGateway} budget ran out, are
+ * parsed on the device instead of being retried one by one. Local answers are not
+ * cached, so the line goes to the AI again next time.
+ *
+ * <p>Example usage:
+ * <pre>
+ * TransactionNormalizer normalizer = new TransactionNormalizer(aiService::getAIResponse,
+ *         AIResponseCache.getDefault(), aiService.getEndpoint());
+ * List&lt;String&gt; standard = normalizer.normalizeAll(rawLines);
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionNormalizer {
+    /** Format instructions shared by the single-line and batched prompts. */
+    private static final String FORMAT_RULES =
+            "the standard format (Date|Description|Amount|Type), " +
+            "where Type can only be Income or Expense, the amount should be positive, and the date format should be dd/MM/yyyy.\n";
+
+    /** Matches a numbered answer such as {@code [3] 08/07/2025 | Rent | 1000 | Expense}. */
+    private static final Pattern SLOT = Pattern.compile("^\\s*\\[?(\\d+)[\\]).:]?\\s+(.*)$");
+
+    /** Matches dd/MM/yyyy (also with '-' or '.') or yyyy-MM-dd dates in raw text. */
+    private static final Pattern DATE = Pattern.compile(
+            "\\b(?:(\\d{1,2})[/.-](\\d{1,2})[/.-](\\d{4})|(\\d{4})[/.-](\\d{1,2})[/.-](\\d{1,2}))\\b");
+
+    /** Matches amounts such as {@code 1,000.00}, {@code -$12.50}, {@code HK$30} or {@code +300}. */
+    private static final Pattern AMOUNT = Pattern.compile(
+            "[-+]?(?:[A-Z]{1,3}\\$|[$€£¥])?[-+]?\\d[\\d,]*(?:\\.\\d+)?");
+
+    /** Words that mark a line without a sign as income. */
+    private static final List<String> INCOME_WORDS = List.of(
+            "salary", "income", "refund", "received", "receive", "interest", "dividend", "bonus", "wage", "credit");
+
+    private final UnaryOperator<String> ai;
+    private final AIResponseCache cache;
+    private final String endpoint;
+    private final UnaryOperator<String> localParser;
+
+    /**
+     * Creates a normalizer without a cache.
+     *
+     * @param ai sends a prompt to the AI service and returns the raw JSON response,
+     *           e.g. {@link BaiduAIService#getAIResponse(String)}
+     */
+    public TransactionNormalizer(UnaryOperator<String> ai) {
+        this(ai, null, null);
+    }
+
+    /**
+     * Creates a normalizer that caches its results.
+     *
+     * @param ai sends a prompt to the AI service and returns the raw JSON response
+     * @param cache the cache for normalized lines, or null to disable caching
+     * @param endpoint the model endpoint, part of the cache key
+     */
+    public TransactionNormalizer(UnaryOperator<String> ai, AIResponseCache cache, String endpoint) {
+        this(ai, cache, endpoint, null);
+    }
+
+    /**
+     * Creates a normalizer that caches its results and parses lines locally when the AI cannot.
+     *
+     * @param ai sends a prompt to the AI service and returns the raw JSON response,
+     *           e.g. {@link AIGateway#getAIResponse(String)}
+     * @param cache the cache for normalized lines, or null to disable caching
+     * @param endpoint the model endpoint, part of the cache key
+     * @param localParser converts a raw line into standard format without the AI, returning
+     *                    null if it cannot; null to rely on the AI alone
+     */
+    public TransactionNormalizer(UnaryOperator<String> ai, AIResponseCache cache, String endpoint,
+                                 UnaryOperator<String> localParser) {
+        this.ai = ai;
+        this.cache = cache;
+        this.endpoint = endpoint;
+        this.localParser = localParser;
+    }
+
+    /**
+     * Normalizes a single line with its own request.
+     *
+     * @param text the raw transaction text
+     * @return the line in standard format, or null if the AI did not return one
+     */
+    public String normalize(String text) {
+        String cached = cached(text);
+        return cached != null ? cached : fetch(text);
+    }
+
+    /**
+     * Sends the single-line prompt for a line and caches the answer.
+     */
+    private String fetch(String text) {
+        String result = askForResult(singlePrompt(text));
+        if (result == null) {
+            return parseLocal(text);
+        }
+        // Use the first line that looks like a transaction
+        for (String line : result.split("\n")) {
+            if (line.contains("|")) {
+                String normalized = line.trim();
+                store(text, normalized);
+                return normalized;
+            }
+        }
+        return parseLocal(text);
+    }
+
+    /**
+     * Normalizes several lines with one request, retrying failed slots individually.
+     *
+     * @param lines the raw transaction texts
+     * @return the lines in standard format, in the same order; an element is null
+     *         if that line could not be normalized even on its own
+     */
+    public List<String> normalizeAll(List<String> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        if (lines.size() == 1) {
+            return Arrays.asList(normalize(lines.get(0)));
+        }
+
+        String[] answers = new String[lines.size()];
+        List<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < answers.length; i++) {
+            answers[i] = cached(lines.get(i));
+            if (answers[i] == null) {
+                misses.add(i);
+            }
+        }
+
+        if (misses.size() > 1) {
+            List<String> batch = new ArrayList<>(misses.size());
+            for (int i : misses) {
+                batch.add(lines.get(i));
+            }
+            String result = askForResult(batchPrompt(batch));
+            if (result == null && localParser != null) {
+                // The AI is failing or out of time: do not send every line again on its own
+                for (int i : misses) {
+                    answers[i] = parseLocal(lines.get(i));
+                }
+                return Arrays.asList(answers);
+            }
+            if (result != null) {
+                for (String line : result.split("\n")) {
+                    Matcher matcher = SLOT.matcher(line);
+                    if (!matcher.matches()) {
+                        continue;
+                    }
+                    int slot = Integer.parseInt(matcher.group(1)) - 1;
+                    String answer = matcher.group(2).trim();
+                    // Keep the first well-formed answer per slot and ignore numbers we did not ask for
+                    if (slot >= 0 && slot < misses.size() && answers[misses.get(slot)] == null && isStandard(answer)) {
+                        answers[misses.get(slot)] = answer;
+                        store(batch.get(slot), answer);
+                    }
+                }
+            }
+        }
+
+        List<String> normalized = new ArrayList<>(answers.length);
+        for (int i = 0; i < answers.length; i++) {
+            normalized.add(answers[i] != null ? answers[i] : fetch(lines.get(i)));
+        }
+        return normalized;
+    }
+
+    /**
+     * Parses a raw transaction line on the device, without the AI service.
+     * The line needs a date (dd/MM/yyyy or yyyy-MM-dd) and an amount; the amount is
+     * the last number that is not part of the date. A '+' sign or words such as
+     * "salary" or "refund" make the line income, anything else is an expense.
+     * The remaining text is the description.
+     *
+     * @param text the raw transaction text
+     * @return the line in standard format, e.g. {@code 08/07/2025|Rent payment|1000.00|Expense},
+     *         or null if no date or amount was found
+     */
+    public static String parseLocally(String text) {
+        Matcher date = DATE.matcher(text);
+        if (!date.find()) {
+            return null;
+        }
+        String day = date.group(1) != null ? date.group(1) : date.group(6);
+        String month = date.group(1) != null ? date.group(2) : date.group(5);
+        String year = date.group(1) != null ? date.group(3) : date.group(4);
+        int d = Integer.parseInt(day);
+        int m = Integer.parseInt(month);
+        if (d < 1 || d > 31 || m < 1 || m > 12) {
+            return null;
+        }
+        String rest = text.substring(0, date.start()) + " " + text.substring(date.end());
+
+        Matcher amounts = AMOUNT.matcher(rest);
+        Money amount = null;
+        int start = -1;
+        int end = -1;
+        while (amounts.find()) {
+            try {
+                amount = Money.parse(amounts.group());
+                start = amounts.start();
+                end = amounts.end();
+            } catch (NumberFormatException e) {
+                // Not an amount, e.g. a lone comma group; keep looking
+            }
+        }
+        if (amount == null) {
+            return null;
+        }
+        String token = rest.substring(start, end);
+        String description = (rest.substring(0, start) + " " + rest.substring(end))
+                .replaceAll("[|,;\\t]", " ").replaceAll("\\s+", " ").trim();
+        if (description.isEmpty()) {
+            description = "Transaction";
+        }
+
+        String type;
+        if (token.startsWith("+")) {
+            type = "Income";
+        } else if (amount.isNegative()) {
+            type = "Expense";
+        } else {
+            String lower = text.toLowerCase(Locale.ROOT);
+            type = INCOME_WORDS.stream().anyMatch(lower::contains) ? "Income" : "Expense";
+        }
+        return String.format("%02d/%02d/%s|%s|%s|%s", d, m, year, description, amount.abs(), type);
+    }
+
+    private String parseLocal(String text) {
+        return localParser == null ? null : localParser.apply(text);
+    }
+
+    private static String singlePrompt(String text) {
+        return "Please convert the following transaction information into " + FORMAT_RULES +
+               "Original text:" + text + "\n" +
+               "Your response will only return the final result in standard format without any other contents. For example: 08/07/2025 | Rent Payment | 1,000 yuan | Expense.";
+    }
+
+    private String cached(String text) {
+        return cache == null ? null : cache.get(AIResponseCache.key(endpoint, singlePrompt(text)));
+    }
+
+    private void store(String text, String normalized) {
+        if (cache != null) {
+            cache.put(AIResponseCache.key(endpoint, singlePrompt(text)), normalized);
+        }
+    }
+
+    private static String batchPrompt(List<String> lines) {
+        StringBuilder prompt = new StringBuilder()
+                .append("Please convert each of the following numbered transaction records into ")
+                .append(FORMAT_RULES)
+                .append("Answer with exactly one line per record, starting with the record number in square brackets, ")
+                .append("without any other contents. For example: [1] 08/07/2025 | Rent Payment | 1,000 yuan | Expense.\n")
+                .append("Records:\n");
+        for (int i = 0; i < lines.size(); i++) {
+            // Keep each record on its own line so the slots cannot bleed into each other
+            prompt.append('[').append(i + 1).append("] ")
+                  .append(lines.get(i).replace('\n', ' ').replace('\r', ' '))
+                  .append('\n');
+        }
+        return prompt.toString();
+    }
+
+    private static boolean isStandard(String answer) {
+        String[] parts = answer.split("\\|");
+        return parts.length == 4 && !parts[3].trim().isEmpty();
+    }
+
+    /**
+     * Sends a prompt and extracts the {@code result} field of the JSON response.
+     *
+     * @return the result text, or null if the request or the response failed
+     */
+    private String askForResult(String prompt) {
+        try {
+            String response = ai.apply(prompt);
+            JsonElement jsonElement = JsonParser.parseString(response);
+            JsonObject jsonResponse = jsonElement.getAsJsonObject();
+            return jsonResponse.get("result").getAsString();
+        } catch (Exception e) {
+            System.out.println("Error parsing AI response: " + e.getMessage());
+            return null;
+        }
+    }
+}
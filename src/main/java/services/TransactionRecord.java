@@ -0,0 +1,50 @@
+package services;
+
+import Entity.Money;
+
+/**
+ * An immutable copy of a single stored transaction.
+ * Returned by the id-based lookups of {@link TransactionDataService} so callers
+ * get a consistent view of one row without holding on to the store.
+ *
+ * @param id the stable transaction id
+ * @param date the transaction date as stored
+ * @param description the transaction description
+ * @param amountCents the signed amount in cents
+ * @param type the transaction type (Income/Expense)
+ * @param category the expense category
+ *
+ * @author System
+ * @version 1.0
+ */
+public record TransactionRecord(long id, String date, String description, long amountCents,
+        String type, String category) {
+
+    /**
+     * Returns the amount formatted with two decimals, e.g. {@code "-12.50"}.
+     *
+     * @return the formatted amount
+     */
+    public String formattedAmount() {
+        return amount().toString();
+    }
+
+    /**
+     * Returns the amount as shown in the transaction tables: the magnitude with two
+     * decimals, prefixed with {@code -} for expenses and {@code +} for income.
+     *
+     * @return the signed display amount, e.g. {@code "-12.50"}
+     */
+    public String signedAmount() {
+        return ("Expense".equals(type) ? "-" : "+") + amount().abs();
+    }
+
+    /**
+     * Returns the signed amount as a {@link Money} value.
+     *
+     * @return the amount
+     */
+    public Money amount() {
+        return Money.ofCents(amountCents);
+    }
+}
@@ -0,0 +1,195 @@
+package services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Income and expense totals of the transactions per year, month, week and day,
+ * overall and per category.
+ *
+ * <p>For each {@link Period} the rollup keeps a sorted map from bucket to a cell
+ * holding the number of transactions and the income and expense cents, once for
+ * all categories and once per category id. Adding or taking out a transaction
+ * touches one cell per period, so the rollup is kept up to date as transactions
+ * change, and reading the buckets of a range costs O(buckets) however many
+ * transactions they hold. Charts drawn from it therefore do not slow down as the
+ * ledger grows.
+ *
+ * <p>Only dated transactions of type Income or Expense are counted, by the magnitude
+ * of their amount. The rollup is not thread-safe: {@link TransactionDataService}
+ * updates it under its write lock and reads it under its read lock.
+ *
+ * <p>Example usage:
+ * <pre>
+ * for (TransactionRollup.Bucket bucket : TransactionManager.getInstance()
+ *         .getRollup(TransactionRollup.Period.MONTH, "Food", null, null)) {
+ *     System.out.println(bucket.start() + ": " + bucket.expenseCents() / 100.0);
+ * }
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class TransactionRollup {
+
+    /**
+     * The length of a bucket.
+     */
+    public enum Period {
+        /** Calendar years. */
+        YEAR,
+        /** Calendar months. */
+        MONTH,
+        /** Weeks starting on Monday. */
+        WEEK,
+        /** Single days. */
+        DAY;
+
+        /**
+         * Returns the key of the bucket containing a date.
+         *
+         * @param date the date
+         * @return the bucket key: the year, months since year 0, weeks since the epoch or the epoch day
+         */
+        public int keyOf(LocalDate date) {
+            return switch (this) {
+                case YEAR -> date.getYear();
+                case MONTH -> date.getYear() * 12 + date.getMonthValue() - 1;
+                // Epoch day 0 (01/01/1970) was a Thursday, so weeks since the epoch start on Monday 29/12/1969
+                case WEEK -> (int) Math.floorDiv(date.toEpochDay() + 3, 7);
+                case DAY -> (int) date.toEpochDay();
+            };
+        }
+
+        /**
+         * Returns the first day of a bucket.
+         *
+         * @param key a key returned by {@link #keyOf(LocalDate)}
+         * @return the first day of the bucket
+         */
+        public LocalDate start(int key) {
+            return switch (this) {
+                case YEAR -> LocalDate.of(key, 1, 1);
+                case MONTH -> LocalDate.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1, 1);
+                case WEEK -> LocalDate.ofEpochDay(key * 7L - 3);
+                case DAY -> LocalDate.ofEpochDay(key);
+            };
+        }
+    }
+
+    /**
+     * The totals of one bucket.
+     *
+     * @param start the first day of the bucket
+     * @param transactions the number of transactions in the bucket
+     * @param incomeCents the income of the bucket in cents
+     * @param expenseCents the expenses of the bucket in cents, as a positive value
+     */
+    public record Bucket(LocalDate start, int transactions, long incomeCents, long expenseCents) {
+    }
+
+    /** Totals of one bucket; index 0 holds all categories, index {@code categoryId + 1} one category. */
+    private static final class Cell {
+        int[] counts = new int[1];
+        long[] incomeCents = new long[1];
+        long[] expenseCents = new long[1];
+
+        void add(int column, boolean expense, long cents, int sign) {
+            if (column >= counts.length) {
+                int capacity = Math.max(column + 1, counts.length * 2);
+                counts = Arrays.copyOf(counts, capacity);
+                incomeCents = Arrays.copyOf(incomeCents, capacity);
+                expenseCents = Arrays.copyOf(expenseCents, capacity);
+            }
+            counts[0] += sign;
+            counts[column] += sign;
+            long[] totals = expense ? expenseCents : incomeCents;
+            totals[0] += sign * cents;
+            totals[column] += sign * cents;
+        }
+    }
+
+    private static final Period[] PERIODS = Period.values();
+
+    private final List<TreeMap<Integer, Cell>> levels = new ArrayList<>(PERIODS.length);
+    // The cell last touched per period; imports are usually in date order and hit it again
+    private final int[] lastKeys = new int[PERIODS.length];
+    private final Cell[] lastCells = new Cell[PERIODS.length];
+
+    /**
+     * Creates an empty rollup.
+     */
+    public TransactionRollup() {
+        for (int i = 0; i < PERIODS.length; i++) {
+            levels.add(new TreeMap<>());
+        }
+    }
+
+    /**
+     * Adds (sign = 1) or takes out (sign = -1) a transaction.
+     *
+     * @param epochDay the date of the transaction as epoch day
+     * @param categoryId the dictionary id of its category
+     * @param expense true for an expense, false for income
+     * @param cents the magnitude of its amount in cents
+     * @param sign 1 to add the transaction, -1 to take it out again
+     */
+    void add(int epochDay, int categoryId, boolean expense, long cents, int sign) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int column = categoryId + 1;
+        for (Period period : PERIODS) {
+            update(period, period.keyOf(date), column, expense, cents, sign);
+        }
+    }
+
+    private void update(Period period, int key, int column, boolean expense, long cents, int sign) {
+        int level = period.ordinal();
+        Cell cell = lastCells[level];
+        if (cell == null || lastKeys[level] != key) {
+            cell = levels.get(level).get(key);
+            if (cell == null) {
+                if (sign < 0) {
+                    return;
+                }
+                cell = new Cell();
+                levels.get(level).put(key, cell);
+            }
+            lastKeys[level] = key;
+            lastCells[level] = cell;
+        }
+        cell.add(column, expense, cents, sign);
+        if (cell.counts[0] == 0) {
+            levels.get(level).remove(key);
+            lastCells[level] = null;
+        }
+    }
+
+    /**
+     * Returns the non-empty buckets of a period between two keys, in date order.
+     *
+     * @param period the bucket length
+     * @param categoryId the dictionary id of a category, or -1 for all categories
+     * @param fromKey the key of the first bucket, inclusive
+     * @param toKey the key of the last bucket, inclusive
+     * @return the buckets with at least one transaction of the category
+     */
+    List<Bucket> buckets(Period period, int categoryId, int fromKey, int toKey) {
+        List<Bucket> buckets = new ArrayList<>();
+        if (fromKey > toKey) {
+            return buckets;
+        }
+        int column = categoryId + 1;
+        for (Map.Entry<Integer, Cell> entry : levels.get(period.ordinal()).subMap(fromKey, true, toKey, true).entrySet()) {
+            Cell cell = entry.getValue();
+            if (column < cell.counts.length && cell.counts[column] > 0) {
+                buckets.add(new Bucket(period.start(entry.getKey()), cell.counts[column],
+                        cell.incomeCents[column], cell.expenseCents[column]));
+            }
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,842 @@
+package services;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sorts and filters the rows of a {@link TransactionTableModel} on typed keys.
+ *
+ * <p>A {@code TableRowSorter} compares the strings a table shows, so every comparison
+ * re-parses an amount such as {@code -$2,500.00} or a date such as {@code 28/01/2021}.
+ * This sorter keeps the keys of every model row in primitive columns instead: the signed
+ * amount in cents, the date as epoch day, type and category as dictionary ids, and the
+ * description. The keys are read once, from a store snapshot, and then kept up to date
+ * from the row events the table forwards.
+ *
+ * <p>The first sort by a column builds an ascending permutation of the model rows for
+ * that column, with a radix sort on int keys where the column allows it. Permutations
+ * are kept: sorting by the column again, in either direction, only copies the permutation. Inserted rows are sorted among themselves and merged into
+ * every kept permutation, and edited rows are moved to their new position, so a
+ * permutation is never rebuilt while the model changes. Equal keys keep model order,
+ * i.e. insertion order. Dates that are not in {@code dd/MM/yyyy} form have no epoch day
+ * and sort before all others.
+ *
+ * <p>A {@link Filter} is evaluated on the same primitive columns and its result kept per
+ * row. When the new filter only narrows the previous one, for instance while the user
+ * types more of a description, only the rows that passed the previous filter are checked
+ * again; inserted and edited rows are checked on their own.
+ *
+ * <p>Only the first sort key is used. Like any row sorter, this one must be used on the
+ * event dispatch thread.
+ *
+ * <p>Example usage:
+ * <pre>
+ * JTable table = new JTable(model);
+ * TransactionRowSorter sorter = new TransactionRowSorter(model);
+ * table.setRowSorter(sorter);
+ * sorter.setFilter(TransactionRowSorter.Filter.all().withAmountBetween(1_000, 10_000));
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionRowSorter extends RowSorter<TransactionTableModel> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+
+    private final TransactionTableModel model;
+
+    // Sort keys per model row
+    private int size;
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private int[] typeIds = new int[INITIAL_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private boolean[] included = new boolean[INITIAL_CAPACITY];
+
+    private final Map<String, Integer> typeDictionary = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, Integer> categoryDictionary = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    // Alphabetical rank of each dictionary id, rebuilt when a name is added
+    private int[] typeRanks;
+    private int[] categoryRanks;
+
+    /** Ascending permutation of the model rows per column, or null until first sorted by it. */
+    private final int[][] permutations;
+
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private Filter filter;
+    /** View to model mapping, or null if the view shows the model rows as they are. */
+    private int[] viewToModel;
+    private int viewCount;
+    /** Model to view mapping, built when first asked for after a change. */
+    private int[] modelToView;
+
+    /**
+     * Creates an unsorted, unfiltered sorter over a model and reads its keys.
+     *
+     * @param model the model to sort
+     */
+    public TransactionRowSorter(TransactionTableModel model) {
+        this.model = model;
+        this.permutations = new int[model.getColumnCount()][];
+        loadAll();
+    }
+
+    /**
+     * Typed row filter. Every condition is optional; a row is shown if it meets
+     * all conditions set. Filters are immutable, each {@code with} method returns
+     * a new filter.
+     */
+    public static final class Filter {
+        private static final Filter ALL = new Filter(null, Long.MIN_VALUE, Long.MAX_VALUE,
+                Integer.MIN_VALUE, Integer.MAX_VALUE, "", null);
+
+        private final String type;
+        private final long minCents;
+        private final long maxCents;
+        private final int fromDay;
+        private final int toDay;
+        private final String text;
+        private final Set<String> descriptions;
+
+        private Filter(String type, long minCents, long maxCents, int fromDay, int toDay, String text,
+                       Set<String> descriptions) {
+            this.type = type;
+            this.minCents = minCents;
+            this.maxCents = maxCents;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.text = text;
+            this.descriptions = descriptions;
+        }
+
+        /**
+         * Returns the filter that shows every row.
+         *
+         * @return the empty filter
+         */
+        public static Filter all() {
+            return ALL;
+        }
+
+        /**
+         * Shows only transactions of one type.
+         *
+         * @param type the type (Income/Expense), or null for any
+         * @return the new filter
+         */
+        public Filter withType(String type) {
+            return new Filter(type, minCents, maxCents, fromDay, toDay, text, descriptions);
+        }
+
+        /**
+         * Shows only transactions whose amount, without sign, lies in a range.
+         *
+         * @param minCents the smallest amount in cents, inclusive
+         * @param maxCents the largest amount in cents, inclusive
+         * @return the new filter
+         */
+        public Filter withAmountBetween(long minCents, long maxCents) {
+            return new Filter(type, minCents, maxCents, fromDay, toDay, text, descriptions);
+        }
+
+        /**
+         * Shows only transactions dated within a range. Transactions whose date
+         * could not be parsed are hidden.
+         *
+         * @param from the first day, inclusive
+         * @param to the last day, inclusive
+         * @return the new filter
+         */
+        public Filter withDateBetween(LocalDate from, LocalDate to) {
+            return new Filter(type, minCents, maxCents, (int) from.toEpochDay(), (int) to.toEpochDay(), text,
+                    descriptions);
+        }
+
+        /**
+         * Shows only transactions whose description contains a text, ignoring case.
+         *
+         * @param text the text to look for; empty for any description
+         * @return the new filter
+         */
+        public Filter withDescriptionContaining(String text) {
+            return new Filter(type, minCents, maxCents, fromDay, toDay, text == null ? "" : text, descriptions);
+        }
+
+        /**
+         * Shows only transactions with one of the given descriptions, such as the
+         * matches of a {@link DescriptionIndex} search. Each row costs one hash lookup.
+         *
+         * @param descriptions the descriptions to show, or null for any
+         * @return the new filter
+         */
+        public Filter withDescriptionIn(Set<String> descriptions) {
+            return new Filter(type, minCents, maxCents, fromDay, toDay, text, descriptions);
+        }
+
+        /**
+         * Tells whether every row shown by this filter is also shown by another,
+         * so this filter only has to check the rows the other one shows.
+         *
+         * @param other the previous filter
+         * @return true if this filter is at least as strict as the other
+         */
+        boolean narrows(Filter other) {
+            return (other.type == null || other.type.equals(type))
+                    && minCents >= other.minCents && maxCents <= other.maxCents
+                    && fromDay >= other.fromDay && toDay <= other.toDay
+                    && containsIgnoreCase(text, other.text)
+                    && (other.descriptions == null
+                        || (descriptions != null && other.descriptions.containsAll(descriptions)));
+        }
+
+        private boolean datesLimited() {
+            return fromDay != Integer.MIN_VALUE || toDay != Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Sets the filter and updates the view.
+     *
+     * @param filter the filter, or null to show every row
+     */
+    public void setFilter(Filter filter) {
+        if (filter == Filter.ALL) {
+            filter = null;
+        }
+        Filter previous = this.filter;
+        this.filter = filter;
+        if (filter == null) {
+            Arrays.fill(included, 0, size, true);
+        } else if (previous != null && filter.narrows(previous)) {
+            int typeId = typeIdOf(filter.type);
+            for (int row = 0; row < size; row++) {
+                if (included[row]) {
+                    included[row] = accepts(filter, typeId, row);
+                }
+            }
+        } else {
+            evaluate(0, size);
+        }
+        update(true);
+    }
+
+    /**
+     * Returns the filter in use.
+     *
+     * @return the filter, or null if every row is shown
+     */
+    public Filter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public TransactionTableModel getModel() {
+        return model;
+    }
+
+    /**
+     * Sorts by a column ascending, or reverses the order if the column is already sorted.
+     */
+    @Override
+    public void toggleSortOrder(int column) {
+        checkColumn(column);
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(List.of(new SortKey(column, order)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> newKeys = keys == null ? Collections.emptyList() : List.copyOf(keys);
+        for (SortKey key : newKeys) {
+            checkColumn(key.getColumn());
+        }
+        if (newKeys.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = newKeys;
+        fireSortOrderChanged();
+        update(true);
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= getViewRowCount()) {
+            throw new IndexOutOfBoundsException("Invalid view index " + index);
+        }
+        return viewToModel == null ? index : viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid model index " + index);
+        }
+        if (viewToModel == null) {
+            return index;
+        }
+        if (modelToView == null) {
+            modelToView = new int[size];
+            Arrays.fill(modelToView, -1);
+            for (int view = 0; view < viewCount; view++) {
+                modelToView[viewToModel[view]] = view;
+            }
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? size : viewCount;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return size;
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        loadAll();
+        update(false);
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, model.getRowCount());
+        int count = endRow - firstRow + 1;
+        ensureCapacity(size + count);
+        shift(firstRow, count);
+        for (int row = firstRow; row <= endRow; row++) {
+            load(row);
+        }
+        evaluate(firstRow, endRow + 1);
+
+        int[] added = new int[count];
+        for (int i = 0; i < count; i++) {
+            added[i] = firstRow + i;
+        }
+        for (int column = 0; column < permutations.length; column++) {
+            int[] permutation = permutations[column];
+            if (permutation == null) {
+                continue;
+            }
+            // Rows appended at the end leave the existing rows where they are
+            if (firstRow < size - count) {
+                for (int i = 0; i < permutation.length; i++) {
+                    if (permutation[i] >= firstRow) {
+                        permutation[i] += count;
+                    }
+                }
+            }
+            int[] sortedAdded = added.clone();
+            sortRows(column, sortedAdded);
+            permutations[column] = merge(column, permutation, sortedAdded);
+        }
+        update(false);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, size);
+        int count = endRow - firstRow + 1;
+        for (int column = 0; column < permutations.length; column++) {
+            int[] permutation = permutations[column];
+            if (permutation == null) {
+                continue;
+            }
+            int[] kept = new int[permutation.length - count];
+            int target = 0;
+            for (int row : permutation) {
+                if (row > endRow) {
+                    kept[target++] = row - count;
+                } else if (row < firstRow) {
+                    kept[target++] = row;
+                }
+            }
+            permutations[column] = kept;
+        }
+        shift(endRow + 1, -count);
+        update(false);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, size);
+        for (int row = firstRow; row <= endRow; row++) {
+            load(row);
+            for (int column = 0; column < permutations.length; column++) {
+                if (permutations[column] != null) {
+                    reposition(column, permutations[column], row);
+                }
+            }
+        }
+        evaluate(firstRow, endRow + 1);
+        update(false);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated(firstRow, endRow);
+    }
+
+    /**
+     * Rebuilds the view from the sort permutation and the filter results. The view
+     * is only announced when it is sorted or filtered, or the sort or filter changed;
+     * otherwise it is the model itself.
+     */
+    private void update(boolean changed) {
+        int column = sortKeys.isEmpty() ? -1 : sortKeys.get(0).getColumn();
+        SortOrder order = column < 0 ? SortOrder.UNSORTED : sortKeys.get(0).getSortOrder();
+        boolean descending = order == SortOrder.DESCENDING;
+        // Model rows are ordered by id, so sorting by id ascending leaves them as they are
+        boolean identity = order == SortOrder.UNSORTED
+                || (column == TransactionTableModel.ID && !descending);
+        if (identity && filter == null) {
+            if (viewToModel != null || changed) {
+                int[] previous = previousViewToModel();
+                viewToModel = null;
+                viewCount = size;
+                modelToView = null;
+                fireRowSorterChanged(previous);
+            }
+            return;
+        }
+
+        int[] permutation = identity || column == TransactionTableModel.ID ? null : permutation(column);
+        int[] previous = previousViewToModel();
+        int[] view = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int position = descending ? size - 1 - i : i;
+            int row = permutation == null ? position : permutation[position];
+            if (filter == null || included[row]) {
+                view[count++] = row;
+            }
+        }
+        viewToModel = view;
+        viewCount = count;
+        modelToView = null;
+        fireRowSorterChanged(previous);
+    }
+
+    private int[] previousViewToModel() {
+        if (viewToModel != null) {
+            return Arrays.copyOf(viewToModel, viewCount);
+        }
+        int[] previous = new int[viewCount];
+        for (int i = 0; i < previous.length; i++) {
+            previous[i] = i;
+        }
+        return previous;
+    }
+
+    /**
+     * Returns the ascending permutation of a column, building it on first use.
+     */
+    private int[] permutation(int column) {
+        if (permutations[column] == null) {
+            int[] rows = new int[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = i;
+            }
+            sortRows(column, rows);
+            permutations[column] = rows;
+        }
+        return permutations[column];
+    }
+
+    /**
+     * Sorts model rows, given in ascending order, by the key of a column, then by row.
+     * Dates, types, categories and amounts are mapped to non-negative int keys and
+     * radix sorted, which keeps rows with equal keys in order; amounts spanning more
+     * than an int, and descriptions, fall back to a merge sort.
+     */
+    private void sortRows(int column, int[] rows) {
+        if (rows.length < 2 || column == TransactionTableModel.ID) {
+            return;
+        }
+        int[] keys = new int[rows.length];
+        int maxKey = 0;
+        switch (column) {
+            case TransactionTableModel.DATE -> {
+                int minDay = Integer.MAX_VALUE;
+                for (int row : rows) {
+                    if (days[row] != TransactionStore.NO_DATE) {
+                        minDay = Math.min(minDay, days[row]);
+                    }
+                }
+                // Dates that could not be parsed get key 0
+                for (int i = 0; i < rows.length; i++) {
+                    int day = days[rows[i]];
+                    keys[i] = day == TransactionStore.NO_DATE ? 0 : day - minDay + 1;
+                    maxKey = Math.max(maxKey, keys[i]);
+                }
+            }
+            case TransactionTableModel.TYPE, TransactionTableModel.CATEGORY -> {
+                int[] ids = column == TransactionTableModel.TYPE ? typeIds : categoryIds;
+                int[] ranks = ranks(column);
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = ranks[ids[rows[i]]];
+                    maxKey = Math.max(maxKey, keys[i]);
+                }
+            }
+            case TransactionTableModel.AMOUNT -> {
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (int row : rows) {
+                    min = Math.min(min, amounts[row]);
+                    max = Math.max(max, amounts[row]);
+                }
+                if (max - min < 0 || max - min > Integer.MAX_VALUE) {
+                    mergeSort(rows, (a, b) -> compare(column, a, b));
+                    return;
+                }
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = (int) (amounts[rows[i]] - min);
+                }
+                maxKey = (int) (max - min);
+            }
+            default -> {
+                mergeSort(rows, (a, b) -> compare(column, a, b));
+                return;
+            }
+        }
+        radixSort(rows, keys, maxKey);
+    }
+
+    /**
+     * Stable least-significant-digit radix sort of rows by non-negative keys,
+     * with only as many passes as the largest key needs.
+     */
+    private static void radixSort(int[] rows, int[] keys, int maxKey) {
+        int n = rows.length;
+        int[] sourceRows = rows;
+        int[] sourceKeys = keys;
+        int[] targetRows = new int[n];
+        int[] targetKeys = new int[n];
+        for (int shift = 0; shift < Integer.SIZE && (maxKey >>> shift) != 0; shift += RADIX_BITS) {
+            int[] offsets = new int[(1 << RADIX_BITS) + 1];
+            for (int i = 0; i < n; i++) {
+                offsets[((sourceKeys[i] >>> shift) & RADIX_MASK) + 1]++;
+            }
+            for (int digit = 0; digit < 1 << RADIX_BITS; digit++) {
+                offsets[digit + 1] += offsets[digit];
+            }
+            for (int i = 0; i < n; i++) {
+                int target = offsets[(sourceKeys[i] >>> shift) & RADIX_MASK]++;
+                targetRows[target] = sourceRows[i];
+                targetKeys[target] = sourceKeys[i];
+            }
+            int[] swap = sourceRows;
+            sourceRows = targetRows;
+            targetRows = swap;
+            swap = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swap;
+        }
+        if (sourceRows != rows) {
+            System.arraycopy(sourceRows, 0, rows, 0, n);
+        }
+    }
+
+    /**
+     * Compares two model rows by the key of a column, then by row.
+     */
+    private int compare(int column, int a, int b) {
+        int result = switch (column) {
+            case TransactionTableModel.DATE -> Integer.compare(days[a], days[b]);
+            case TransactionTableModel.AMOUNT -> Long.compare(amounts[a], amounts[b]);
+            case TransactionTableModel.DESCRIPTION -> String.CASE_INSENSITIVE_ORDER.compare(descriptions[a], descriptions[b]);
+            case TransactionTableModel.TYPE -> Integer.compare(ranks(column)[typeIds[a]], ranks(column)[typeIds[b]]);
+            case TransactionTableModel.CATEGORY ->
+                    Integer.compare(ranks(column)[categoryIds[a]], ranks(column)[categoryIds[b]]);
+            default -> 0;
+        };
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    /**
+     * Merges sorted rows into a permutation. Each added row's position is found by
+     * binary search and the rows of the permutation between two positions are copied
+     * as a block, so a small batch costs little more than copying the permutation.
+     */
+    private int[] merge(int column, int[] permutation, int[] added) {
+        int[] merged = new int[permutation.length + added.length];
+        int from = 0;
+        int target = 0;
+        for (int row : added) {
+            int position = insertionPoint(column, permutation, from, permutation.length, row);
+            System.arraycopy(permutation, from, merged, target, position - from);
+            target += position - from;
+            merged[target++] = row;
+            from = position;
+        }
+        System.arraycopy(permutation, from, merged, target, permutation.length - from);
+        return merged;
+    }
+
+    /**
+     * Returns the position in {@code permutation[from, to)} before the first row that sorts after a row.
+     */
+    private int insertionPoint(int column, int[] permutation, int from, int to, int row) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compare(column, permutation[middle], row) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Moves an edited row to its position in a permutation.
+     */
+    private void reposition(int column, int[] permutation, int row) {
+        int from = 0;
+        while (permutation[from] != row) {
+            from++;
+        }
+        System.arraycopy(permutation, from + 1, permutation, from, permutation.length - from - 1);
+        int low = insertionPoint(column, permutation, 0, permutation.length - 1, row);
+        System.arraycopy(permutation, low, permutation, low + 1, permutation.length - low - 1);
+        permutation[low] = row;
+    }
+
+    private static void mergeSort(int[] rows, IntBinaryOperator comparator) {
+        int[] buffer = new int[rows.length];
+        for (int width = 1; width < rows.length; width <<= 1) {
+            for (int start = 0; start < rows.length - width; start += width << 1) {
+                int middle = start + width;
+                int end = Math.min(start + (width << 1), rows.length);
+                int i = start;
+                int j = middle;
+                int target = start;
+                while (i < middle && j < end) {
+                    buffer[target++] = comparator.applyAsInt(rows[i], rows[j]) <= 0 ? rows[i++] : rows[j++];
+                }
+                while (i < middle) {
+                    buffer[target++] = rows[i++];
+                }
+                while (j < end) {
+                    buffer[target++] = rows[j++];
+                }
+                System.arraycopy(buffer, start, rows, start, end - start);
+            }
+        }
+    }
+
+    private int[] ranks(int column) {
+        if (column == TransactionTableModel.TYPE) {
+            if (typeRanks == null) {
+                typeRanks = rank(typeNames);
+            }
+            return typeRanks;
+        }
+        if (categoryRanks == null) {
+            categoryRanks = rank(categoryNames);
+        }
+        return categoryRanks;
+    }
+
+    private static int[] rank(List<String> names) {
+        Integer[] order = new Integer[names.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(names.get(a), names.get(b)));
+        int[] ranks = new int[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Reads the keys of every model row from a store snapshot. Model rows and
+     * snapshot positions are both ordered by id, so one pass matches them.
+     */
+    private void loadAll() {
+        int rows = model.getRowCount();
+        size = 0;
+        ensureCapacity(rows);
+        size = rows;
+        Arrays.fill(permutations, null);
+        TransactionSnapshot snapshot = model.snapshot();
+        int position = 0;
+        for (int row = 0; row < rows; row++) {
+            long id = model.idAt(row);
+            while (position < snapshot.size() && snapshot.id(position) < id) {
+                position++;
+            }
+            if (position < snapshot.size() && snapshot.id(position) == id) {
+                setKeys(row, snapshot.epochDay(position), snapshot.description(position),
+                        snapshot.amountCents(position), snapshot.type(position), snapshot.category(position));
+            } else {
+                load(row);
+            }
+        }
+        evaluate(0, size);
+    }
+
+    /**
+     * Reads the keys of one model row from the store.
+     */
+    private void load(int row) {
+        TransactionRecord transaction = model.getTransactionAt(row);
+        if (transaction == null) {
+            setKeys(row, TransactionStore.NO_DATE, "", 0, "", "");
+        } else {
+            setKeys(row, TransactionStore.parseEpochDay(transaction.date()), transaction.description(),
+                    transaction.amountCents(), transaction.type(), transaction.category());
+        }
+    }
+
+    private void setKeys(int row, int epochDay, String description, long cents, String type, String category) {
+        long magnitude = Math.abs(cents);
+        amounts[row] = "Expense".equals(type) ? -magnitude : magnitude;
+        days[row] = epochDay;
+        descriptions[row] = description == null ? "" : description;
+        typeIds[row] = encode(type, typeDictionary, typeNames, true);
+        categoryIds[row] = encode(category, categoryDictionary, categoryNames, false);
+    }
+
+    private int encode(String name, Map<String, Integer> dictionary, List<String> names, boolean type) {
+        String key = name == null ? "" : name;
+        Integer id = dictionary.get(key);
+        if (id == null) {
+            id = names.size();
+            dictionary.put(key, id);
+            names.add(key);
+            if (type) {
+                typeRanks = null;
+            } else {
+                categoryRanks = null;
+            }
+        }
+        return id;
+    }
+
+    private int typeIdOf(String type) {
+        if (type == null) {
+            return -1;
+        }
+        Integer id = typeDictionary.get(type);
+        return id == null ? -2 : id;
+    }
+
+    /**
+     * Evaluates the filter for the model rows in {@code [from, to)}.
+     */
+    private void evaluate(int from, int to) {
+        if (filter == null) {
+            Arrays.fill(included, from, to, true);
+            return;
+        }
+        int typeId = typeIdOf(filter.type);
+        for (int row = from; row < to; row++) {
+            included[row] = accepts(filter, typeId, row);
+        }
+    }
+
+    private boolean accepts(Filter filter, int typeId, int row) {
+        if (typeId != -1 && typeIds[row] != typeId) {
+            return false;
+        }
+        long magnitude = Math.abs(amounts[row]);
+        if (magnitude < filter.minCents || magnitude > filter.maxCents) {
+            return false;
+        }
+        if (filter.datesLimited()
+                && (days[row] == TransactionStore.NO_DATE || days[row] < filter.fromDay || days[row] > filter.toDay)) {
+            return false;
+        }
+        if (filter.descriptions != null && !filter.descriptions.contains(descriptions[row])) {
+            return false;
+        }
+        return filter.text.isEmpty() || containsIgnoreCase(descriptions[row], filter.text);
+    }
+
+    private static boolean containsIgnoreCase(String text, String part) {
+        for (int i = 0; i <= text.length() - part.length(); i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the keys of the rows from {@code from} on by {@code count} positions,
+     * opening a gap for inserted rows or closing the gap of deleted ones.
+     */
+    private void shift(int from, int count) {
+        int moved = size - from;
+        System.arraycopy(amounts, from, amounts, from + count, moved);
+        System.arraycopy(days, from, days, from + count, moved);
+        System.arraycopy(typeIds, from, typeIds, from + count, moved);
+        System.arraycopy(categoryIds, from, categoryIds, from + count, moved);
+        System.arraycopy(descriptions, from, descriptions, from + count, moved);
+        System.arraycopy(included, from, included, from + count, moved);
+        size += count;
+        if (count < 0) {
+            Arrays.fill(descriptions, size, size - count, null);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= amounts.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, amounts.length + (amounts.length >> 1));
+        amounts = Arrays.copyOf(amounts, newCapacity);
+        days = Arrays.copyOf(days, newCapacity);
+        typeIds = Arrays.copyOf(typeIds, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        descriptions = Arrays.copyOf(descriptions, newCapacity);
+        included = Arrays.copyOf(included, newCapacity);
+    }
+
+    private void checkColumn(int column) {
+        if (column < 0 || column >= model.getColumnCount()) {
+            throw new IndexOutOfBoundsException("Invalid column " + column);
+        }
+    }
+
+    private static void checkRange(int firstRow, int endRow, int rowCount) {
+        if (firstRow < 0 || endRow < firstRow || endRow >= rowCount) {
+            throw new IndexOutOfBoundsException("Invalid range " + firstRow + "-" + endRow);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package services;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, point-in-time copy of the live transactions in a {@link TransactionStore}.
+ *
+ * <p>Snapshots are taken by {@link TransactionDataService#snapshot()} without
+ * blocking writers. They hold their own copies of the columns, compacted and
+ * in insertion order, so positions are plain array indexes and stay valid no
+ * matter what happens to the store afterwards. Readers such as chart refreshes
+ * and table models can therefore iterate a snapshot freely from any thread.
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class TransactionSnapshot {
+    private final long version;
+    private final int size;
+    private final long[] ids;
+    private final int[] epochDays;
+    private final int[] dateTextIds;
+    private final long[] amountCents;
+    private final int[] typeIds;
+    private final int[] categoryIds;
+    private final String[] descriptions;
+    private final StringDictionary types;
+    private final StringDictionary categories;
+    private final StringDictionary dateTexts;
+
+    TransactionSnapshot(long version, int size, long[] ids, int[] epochDays, int[] dateTextIds,
+            long[] amountCents, int[] typeIds, int[] categoryIds, String[] descriptions,
+            StringDictionary types, StringDictionary categories, StringDictionary dateTexts) {
+        this.version = version;
+        this.size = size;
+        this.ids = ids;
+        this.epochDays = epochDays;
+        this.dateTextIds = dateTextIds;
+        this.amountCents = amountCents;
+        this.typeIds = typeIds;
+        this.categoryIds = categoryIds;
+        this.descriptions = descriptions;
+        this.types = types;
+        this.categories = categories;
+        this.dateTexts = dateTexts;
+    }
+
+    /**
+     * Returns the modification count of the data service when this snapshot was taken.
+     * Two snapshots with the same version hold the same data.
+     *
+     * @return the snapshot version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns the number of transactions in the snapshot.
+     *
+     * @return the transaction count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the stable id of the transaction at a position.
+     *
+     * @param index the position
+     * @return the transaction id
+     */
+    public long id(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * Returns the date of the transaction at a position as epoch day.
+     *
+     * @param index the position
+     * @return the epoch day, or {@link TransactionStore#NO_DATE}
+     */
+    public int epochDay(int index) {
+        checkIndex(index);
+        return epochDays[index];
+    }
+
+    /**
+     * Returns the date of the transaction at a position exactly as it was stored.
+     *
+     * @param index the position
+     * @return the date text
+     */
+    public String date(int index) {
+        checkIndex(index);
+        return TransactionStore.formatDate(epochDays[index], dateTextIds[index], dateTexts);
+    }
+
+    /**
+     * Returns the description of the transaction at a position.
+     *
+     * @param index the position
+     * @return the description
+     */
+    public String description(int index) {
+        checkIndex(index);
+        return descriptions[index];
+    }
+
+    /**
+     * Returns the signed amount of the transaction at a position in cents.
+     *
+     * @param index the position
+     * @return the amount in cents
+     */
+    public long amountCents(int index) {
+        checkIndex(index);
+        return amountCents[index];
+    }
+
+    /**
+     * Returns the type id of the transaction at a position.
+     *
+     * @param index the position
+     * @return the type id
+     */
+    public int typeId(int index) {
+        checkIndex(index);
+        return typeIds[index];
+    }
+
+    /**
+     * Returns the type of the transaction at a position.
+     *
+     * @param index the position
+     * @return the type (Income/Expense)
+     */
+    public String type(int index) {
+        return types.decode(typeId(index));
+    }
+
+    /**
+     * Returns the category id of the transaction at a position.
+     *
+     * @param index the position
+     * @return the category id
+     */
+    public int categoryId(int index) {
+        checkIndex(index);
+        return categoryIds[index];
+    }
+
+    /**
+     * Returns the category of the transaction at a position.
+     *
+     * @param index the position
+     * @return the category name
+     */
+    public String category(int index) {
+        return categories.decode(categoryId(index));
+    }
+
+    /**
+     * Returns the snapshot in the legacy {@code List<Map<String, Object>>} layout.
+     * Each element is built on access with the keys {@code date},
+     * {@code description}, {@code amount} ({@code Double}) and {@code type}.
+     *
+     * @return a read-only list view of the snapshot
+     */
+    public List<Map<String, Object>> asMapView() {
+        return new AbstractList<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                Map<String, Object> transaction = new HashMap<>();
+                transaction.put("date", date(index));
+                transaction.put("description", description(index));
+                transaction.put("amount", amountCents(index) / 100.0);
+                transaction.put("type", type(index));
+                return transaction;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,587 @@
+package services;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column-oriented, typed storage for financial transactions.
+ *
+ * <p>Instead of one {@code HashMap<String, Object>} per transaction, every field
+ * is kept in its own primitive array:
+ * <ul>
+ *     <li>dates as {@code int} epoch days (see {@link #NO_DATE} for dates that cannot be parsed)</li>
+ *     <li>amounts as {@code long} cents</li>
+ *     <li>type and category as dictionary-coded {@code int} ids</li>
+ *     <li>descriptions as a plain {@code String[]}</li>
+ * </ul>
+ * Aggregations therefore read primitives directly without casting, unboxing
+ * or re-parsing any field.
+ *
+ * <p>The original date text is preserved: dates written in the canonical
+ * {@code dd/MM/yyyy} form are re-rendered from the epoch day, any other
+ * spelling is kept in a side dictionary so {@link #date(int)} always returns
+ * exactly what was stored.
+ *
+ * <p>Every row gets a stable {@code long} id when it is added. Two hash indexes
+ * are kept alongside the columns: id &rarr; slot, and (date, description,
+ * amount, type) &rarr; ids. Looking up, updating or removing a transaction by
+ * id or by its field values is therefore O(1) regardless of the ledger size.
+ * Removal only marks the slot as dead; dead slots are compacted away in bulk
+ * once they make up a large share of the store, or lazily before the next
+ * positional access.
+ *
+ * <p>{@link #asMapView()} exposes the rows in the legacy
+ * {@code List<Map<String, Object>>} shape for callers that have not been
+ * migrated yet.
+ *
+ * <p>The store itself is not thread-safe. {@link TransactionDataService}
+ * guards it and hands out {@link TransactionSnapshot}s to concurrent readers.
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionStore {
+    /** Epoch-day value stored for dates that could not be parsed. */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+    /** Marker in {@link #dateTextIds} for dates that are in canonical form. */
+    private static final int CANONICAL_DATE = -1;
+    private static final DateTimeFormatter DATE_PARSER =
+            DateTimeFormatter.ofPattern("d/M/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+    /** Minimum number of dead slots before a removal triggers compaction. */
+    private static final int MIN_COMPACT_DEAD = 64;
+
+    /** Number of physical slots in use, live or dead. */
+    private int slots;
+    /** Number of dead (removed) slots below {@link #slots}. */
+    private int dead;
+    private long nextId = 1;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] dateTextIds = new int[INITIAL_CAPACITY];
+    private long[] amountCents = new long[INITIAL_CAPACITY];
+    private int[] typeIds = new int[INITIAL_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+
+    private final StringDictionary types = new StringDictionary();
+    private final StringDictionary categories = new StringDictionary();
+    private final StringDictionary dateTexts = new StringDictionary();
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<Key, Set<Long>> idsByKey = new HashMap<>();
+
+    /**
+     * Composite lookup key of a transaction.
+     */
+    private record Key(String date, String description, long cents, int typeId) {
+    }
+
+    /**
+     * Appends a transaction to the store.
+     *
+     * @param date the transaction date, preferably in dd/MM/yyyy format
+     * @param description the transaction description
+     * @param cents the signed amount in cents
+     * @param type the transaction type (Income/Expense)
+     * @param category the expense category of the transaction
+     * @return the slot of the new transaction
+     */
+    public int add(String date, String description, long cents, String type, String category) {
+        ensureCapacity(slots + 1);
+        int slot = slots++;
+        long id = nextId++;
+        ids[slot] = id;
+        removed[slot] = false;
+        write(slot, date, description, cents, type, category);
+        slotById.put(id, slot);
+        index(slot);
+        return slot;
+    }
+
+    /**
+     * Appends a batch of parsed transactions, in order. Their dates are not parsed
+     * again; the epoch day of each row is taken as given.
+     *
+     * @param batch the transactions to add
+     * @return the slot of the first new transaction; the others follow it
+     */
+    public int addAll(TransactionColumns batch) {
+        ensureCapacity(slots + batch.size());
+        int first = slots;
+        for (int i = 0; i < batch.size(); i++) {
+            int slot = slots++;
+            long id = nextId++;
+            ids[slot] = id;
+            removed[slot] = false;
+            write(slot, batch.epochDay(i), batch.dateText(i), batch.description(i), batch.cents(i),
+                    batch.type(i), batch.category(i));
+            slotById.put(id, slot);
+            index(slot);
+        }
+        return first;
+    }
+
+    /**
+     * Overwrites every field of an existing slot. The id of the transaction is kept.
+     *
+     * @param slot the slot to overwrite
+     * @param date the new transaction date
+     * @param description the new transaction description
+     * @param cents the new signed amount in cents
+     * @param type the new transaction type
+     * @param category the new expense category
+     */
+    public void set(int slot, String date, String description, long cents, String type, String category) {
+        checkSlot(slot);
+        unindex(slot);
+        write(slot, date, description, cents, type, category);
+        index(slot);
+    }
+
+    /**
+     * Removes the transaction in the given slot. The slot is only marked dead;
+     * its storage is reclaimed by a later compaction.
+     *
+     * @param slot the slot to remove
+     */
+    public void remove(int slot) {
+        checkSlot(slot);
+        unindex(slot);
+        slotById.remove(ids[slot]);
+        removed[slot] = true;
+        descriptions[slot] = null;
+        dead++;
+        if (dead >= MIN_COMPACT_DEAD && dead * 2 >= slots) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the number of live transactions.
+     *
+     * @return the transaction count
+     */
+    public int size() {
+        return slots - dead;
+    }
+
+    /**
+     * Returns the number of physical slots, including dead ones.
+     * Iterate {@code 0 .. slotCount()} and skip slots for which
+     * {@link #isLive(int)} is false to scan without compacting.
+     *
+     * @return the slot count
+     */
+    public int slotCount() {
+        return slots;
+    }
+
+    /**
+     * Tells whether a slot holds a live transaction.
+     *
+     * @param slot the slot
+     * @return true if the slot has not been removed
+     */
+    public boolean isLive(int slot) {
+        return slot >= 0 && slot < slots && !removed[slot];
+    }
+
+    /**
+     * Returns the slot of the transaction at the given position in insertion order.
+     * Pending dead slots are compacted first, after which position and slot coincide.
+     *
+     * @param position the zero-based position among live transactions
+     * @return the slot at that position
+     */
+    public int slotAt(int position) {
+        if (dead > 0) {
+            compact();
+        }
+        checkSlot(position);
+        return position;
+    }
+
+    /**
+     * Returns the stable id of the transaction in a slot.
+     *
+     * @param slot the slot
+     * @return the transaction id
+     */
+    public long id(int slot) {
+        checkSlot(slot);
+        return ids[slot];
+    }
+
+    /**
+     * Looks up the slot of a transaction by id.
+     *
+     * @param id the transaction id
+     * @return the slot, or -1 if no live transaction has this id
+     */
+    public int slotOf(long id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Returns the ids of all live transactions with exactly the given field values,
+     * in insertion order.
+     *
+     * @param date the transaction date as stored
+     * @param description the transaction description
+     * @param cents the signed amount in cents
+     * @param type the transaction type
+     * @return the matching ids, possibly empty
+     */
+    public Set<Long> findIds(String date, String description, long cents, String type) {
+        int typeId = types.find(type);
+        if (typeId < 0) {
+            return Collections.emptySet();
+        }
+        Set<Long> matches = idsByKey.get(new Key(date, description, cents, typeId));
+        return matches == null ? Collections.emptySet() : Collections.unmodifiableSet(matches);
+    }
+
+    /**
+     * Returns the date in a slot as epoch day.
+     *
+     * @param slot the slot
+     * @return the epoch day, or {@link #NO_DATE} if the date could not be parsed
+     */
+    public int epochDay(int slot) {
+        checkSlot(slot);
+        return epochDays[slot];
+    }
+
+    /**
+     * Returns the date in a slot exactly as it was stored.
+     *
+     * @param slot the slot
+     * @return the date text
+     */
+    public String date(int slot) {
+        checkSlot(slot);
+        return formatDate(epochDays[slot], dateTextIds[slot], dateTexts);
+    }
+
+    /**
+     * Returns the description in a slot.
+     *
+     * @param slot the slot
+     * @return the description
+     */
+    public String description(int slot) {
+        checkSlot(slot);
+        return descriptions[slot];
+    }
+
+    /**
+     * Returns the signed amount in a slot in cents.
+     *
+     * @param slot the slot
+     * @return the amount in cents
+     */
+    public long amountCents(int slot) {
+        checkSlot(slot);
+        return amountCents[slot];
+    }
+
+    /**
+     * Returns the dictionary id of the type in a slot.
+     *
+     * @param slot the slot
+     * @return the type id
+     */
+    public int typeId(int slot) {
+        checkSlot(slot);
+        return typeIds[slot];
+    }
+
+    /**
+     * Returns the type in a slot.
+     *
+     * @param slot the slot
+     * @return the type (Income/Expense)
+     */
+    public String type(int slot) {
+        return types.decode(typeId(slot));
+    }
+
+    /**
+     * Returns the dictionary id of the category in a slot.
+     *
+     * @param slot the slot
+     * @return the category id
+     */
+    public int categoryId(int slot) {
+        checkSlot(slot);
+        return categoryIds[slot];
+    }
+
+    /**
+     * Returns the category in a slot.
+     *
+     * @param slot the slot
+     * @return the category name
+     */
+    public String category(int slot) {
+        return categories.decode(categoryId(slot));
+    }
+
+    /**
+     * Copies the transaction in a slot into an immutable record.
+     *
+     * @param slot the slot
+     * @return the record
+     */
+    public TransactionRecord record(int slot) {
+        return new TransactionRecord(id(slot), date(slot), description(slot), amountCents(slot),
+                type(slot), category(slot));
+    }
+
+    /**
+     * Looks up the id of a type without registering it.
+     *
+     * @param type the type name
+     * @return the type id, or -1 if no row has ever used this type
+     */
+    public int findTypeId(String type) {
+        return types.find(type);
+    }
+
+    /**
+     * Looks up the id of a category without registering it.
+     *
+     * @param category the category name
+     * @return the category id, or -1 if no row has ever used this category
+     */
+    public int findCategoryId(String category) {
+        return categories.find(category);
+    }
+
+    /**
+     * Decodes a category id.
+     *
+     * @param categoryId an id returned by {@link #categoryId(int)}
+     * @return the category name
+     */
+    public String categoryName(int categoryId) {
+        return categories.decode(categoryId);
+    }
+
+    /**
+     * Returns the number of distinct categories seen so far.
+     *
+     * @return the category dictionary size
+     */
+    public int categoryCount() {
+        return categories.size();
+    }
+
+    /**
+     * Returns a read-only, live view of the live transactions, in insertion order,
+     * in the legacy map layout. Positional access compacts pending dead slots.
+     * Each element is a freshly built map with the keys {@code date},
+     * {@code description}, {@code amount} ({@code Double}) and {@code type};
+     * modifying such a map does not affect the store.
+     *
+     * @return a list view over all rows
+     */
+    public List<Map<String, Object>> asMapView() {
+        return new AbstractList<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                int slot = slotAt(index);
+                Map<String, Object> transaction = new HashMap<>();
+                transaction.put("date", date(slot));
+                transaction.put("description", description(slot));
+                transaction.put("amount", amountCents(slot) / 100.0);
+                transaction.put("type", type(slot));
+                return transaction;
+            }
+
+            @Override
+            public int size() {
+                return TransactionStore.this.size();
+            }
+        };
+    }
+
+    /**
+     * Copies the live transactions into an immutable snapshot, compacted and in insertion order.
+     * The copy only reads the columns, so it may run under an optimistic read stamp.
+     *
+     * @param version the modification count to record in the snapshot
+     * @return the snapshot
+     */
+    TransactionSnapshot snapshot(long version) {
+        int count = size();
+        long[] idCopy = new long[count];
+        int[] epochDayCopy = new int[count];
+        int[] dateTextCopy = new int[count];
+        long[] centsCopy = new long[count];
+        int[] typeCopy = new int[count];
+        int[] categoryCopy = new int[count];
+        String[] descriptionCopy = new String[count];
+        if (dead == 0) {
+            System.arraycopy(ids, 0, idCopy, 0, count);
+            System.arraycopy(epochDays, 0, epochDayCopy, 0, count);
+            System.arraycopy(dateTextIds, 0, dateTextCopy, 0, count);
+            System.arraycopy(amountCents, 0, centsCopy, 0, count);
+            System.arraycopy(typeIds, 0, typeCopy, 0, count);
+            System.arraycopy(categoryIds, 0, categoryCopy, 0, count);
+            System.arraycopy(descriptions, 0, descriptionCopy, 0, count);
+        } else {
+            int target = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (removed[slot]) {
+                    continue;
+                }
+                idCopy[target] = ids[slot];
+                epochDayCopy[target] = epochDays[slot];
+                dateTextCopy[target] = dateTextIds[slot];
+                centsCopy[target] = amountCents[slot];
+                typeCopy[target] = typeIds[slot];
+                categoryCopy[target] = categoryIds[slot];
+                descriptionCopy[target] = descriptions[slot];
+                target++;
+            }
+        }
+        return new TransactionSnapshot(version, count, idCopy, epochDayCopy, dateTextCopy, centsCopy,
+                typeCopy, categoryCopy, descriptionCopy, types, categories, dateTexts);
+    }
+
+    /**
+     * Renders a stored date back to text.
+     *
+     * @param epochDay the stored epoch day
+     * @param dateTextId the stored date text id, or {@link #CANONICAL_DATE}
+     * @param dateTexts the dictionary holding non-canonical date texts
+     * @return the date text as originally stored
+     */
+    static String formatDate(int epochDay, int dateTextId, StringDictionary dateTexts) {
+        if (dateTextId != CANONICAL_DATE) {
+            return dateTexts.decode(dateTextId);
+        }
+        return LocalDate.ofEpochDay(epochDay).format(DATE_FORMAT);
+    }
+
+    /**
+     * Parses a date in dd/MM/yyyy format into an epoch day.
+     * Single-digit days and months are accepted.
+     *
+     * @param date the date text
+     * @return the epoch day, or {@link #NO_DATE} if the text is not a valid date
+     */
+    public static int parseEpochDay(String date) {
+        try {
+            return (int) LocalDate.parse(date.trim(), DATE_PARSER).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+
+    private void write(int slot, String date, String description, long cents, String type, String category) {
+        write(slot, parseEpochDay(date), date, description, cents, type, category);
+    }
+
+    /**
+     * Writes the fields of a slot whose date is already parsed.
+     *
+     * @param date the date as written, or null if it is the epoch day in canonical form
+     */
+    private void write(int slot, int epochDay, String date, String description, long cents, String type,
+            String category) {
+        boolean canonical = epochDay != NO_DATE
+                && (date == null || LocalDate.ofEpochDay(epochDay).format(DATE_FORMAT).equals(date));
+        epochDays[slot] = epochDay;
+        dateTextIds[slot] = canonical ? CANONICAL_DATE : dateTexts.encode(date);
+        descriptions[slot] = description;
+        amountCents[slot] = cents;
+        typeIds[slot] = types.encode(type);
+        categoryIds[slot] = categories.encode(category);
+    }
+
+    private void index(int slot) {
+        idsByKey.computeIfAbsent(keyOf(slot), k -> new LinkedHashSet<>()).add(ids[slot]);
+    }
+
+    private void unindex(int slot) {
+        Key key = keyOf(slot);
+        Set<Long> matches = idsByKey.get(key);
+        if (matches != null) {
+            matches.remove(ids[slot]);
+            if (matches.isEmpty()) {
+                idsByKey.remove(key);
+            }
+        }
+    }
+
+    private Key keyOf(int slot) {
+        return new Key(date(slot), descriptions[slot], amountCents[slot], typeIds[slot]);
+    }
+
+    /**
+     * Moves all live slots down over the dead ones, keeping their order,
+     * and repoints the id index at the new slots.
+     */
+    private void compact() {
+        int target = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (removed[slot]) {
+                continue;
+            }
+            if (target != slot) {
+                ids[target] = ids[slot];
+                epochDays[target] = epochDays[slot];
+                dateTextIds[target] = dateTextIds[slot];
+                amountCents[target] = amountCents[slot];
+                typeIds[target] = typeIds[slot];
+                categoryIds[target] = categoryIds[slot];
+                descriptions[target] = descriptions[slot];
+                removed[target] = false;
+                slotById.put(ids[target], target);
+            }
+            target++;
+        }
+        Arrays.fill(descriptions, target, slots, null);
+        slots = target;
+        dead = 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= epochDays.length) {
+            return;
+        }
+        int capacity = Math.max(required, epochDays.length + (epochDays.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        removed = Arrays.copyOf(removed, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        dateTextIds = Arrays.copyOf(dateTextIds, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        typeIds = Arrays.copyOf(typeIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= slots || removed[slot]) {
+            throw new IndexOutOfBoundsException("No live transaction in slot " + slot);
+        }
+    }
+}
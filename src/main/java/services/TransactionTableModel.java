@@ -0,0 +1,456 @@
+package services;
+
+import Entity.Money;
+
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A table model over the transactions of a {@link TransactionManager}, shared by
+ * every transaction table of the application.
+ *
+ * <p>The model does not copy the rows. It keeps only the ids of the transactions
+ * it shows, in insertion order, and reads the cells of a row from the store when the
+ * table paints it; the record of the last row read is kept, since a table asks for
+ * the cells of a row one after the other. Because ids grow with every insertion, the
+ * id array is sorted, and the row of an id is found by binary search.
+ *
+ * <p>{@link #projection(String)} returns a model showing only the transactions of one
+ * type, e.g. the income table. A projection is an index of its own over the same
+ * store, maintained by the model it was taken from.
+ *
+ * <p>Changes are applied from the {@link TransactionManager.TransactionListener} events
+ * and fire row events for the rows that changed only: a batch appended at the end is
+ * one insertion event, an edit updates one row, and an edit that changes the type
+ * moves the row from one projection to the other. Editing a cell writes the change
+ * through {@link TransactionManager#updateTransactionById}, whose event updates the table.
+ *
+ * <p>Like any Swing model, the model must be used on the event dispatch thread;
+ * {@link #getDefault()} receives its events through a {@link TransactionEventDispatcher}.
+ *
+ * <p>Example usage:
+ * <pre>
+ * TransactionTableModel model = TransactionTableModel.getDefault();
+ * JTable all = new JTable(model);
+ * JTable income = new JTable(model.projection("Income"));
+ * TransactionTableModel.showColumns(all, TransactionTableModel.DATE, TransactionTableModel.AMOUNT);
+ * </pre>
+ *
+ * @author System
+ * @version 1.0
+ */
+public class TransactionTableModel extends AbstractTableModel implements TransactionManager.TransactionListener {
+    /** Column of the transaction id. */
+    public static final int ID = 0;
+    /** Column of the date. */
+    public static final int DATE = 1;
+    /** Column of the description. */
+    public static final int DESCRIPTION = 2;
+    /** Column of the category. */
+    public static final int CATEGORY = 3;
+    /** Column of the type (Income/Expense). */
+    public static final int TYPE = 4;
+    /** Column of the signed amount, e.g. {@code -$2,500} or {@code +$12.50}. */
+    public static final int AMOUNT = 5;
+
+    private static final String[] COLUMN_NAMES = {"Transaction ID", "Date", "Description", "Category", "Type", "Amount"};
+
+    private static TransactionTableModel defaultInstance;
+
+    private final TransactionManager manager;
+    /** The type shown by a projection, or null for every transaction. */
+    private final String type;
+    private final Map<String, TransactionTableModel> projections = new LinkedHashMap<>();
+
+    private long[] ids = new long[16];
+    private int size;
+    // First row appended by the batch being added and not announced yet
+    private int batchStart;
+
+    // Record of the row read last
+    private int cachedRow = -1;
+    private TransactionRecord cachedRecord;
+
+    /**
+     * Creates a model over all transactions of a manager and loads their ids.
+     * The model does not register itself; pass it, usually wrapped in a
+     * {@link TransactionEventDispatcher}, to {@link TransactionManager#addListener}.
+     *
+     * @param manager the manager holding the transactions
+     */
+    public TransactionTableModel(TransactionManager manager) {
+        this(manager, null);
+        reload();
+    }
+
+    private TransactionTableModel(TransactionManager manager, String type) {
+        this.manager = manager;
+        this.type = type;
+    }
+
+    /**
+     * Returns the model shared by the application, over {@link TransactionManager#getInstance()}.
+     *
+     * @return the shared model
+     */
+    public static synchronized TransactionTableModel getDefault() {
+        if (defaultInstance == null) {
+            TransactionManager manager = TransactionManager.getInstance();
+            // Listen before loading, so no change falls between the two; changes already loaded are skipped
+            TransactionTableModel model = new TransactionTableModel(manager, null);
+            manager.addListener(new TransactionEventDispatcher(model));
+            model.reload();
+            defaultInstance = model;
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Returns the model of the transactions of one type. Projections are only
+     * available from a model over all transactions and are created once per type.
+     *
+     * @param type the type to show (Income/Expense)
+     * @return the projection, kept up to date by this model
+     * @throws IllegalStateException if this model is itself a projection
+     */
+    public TransactionTableModel projection(String type) {
+        if (this.type != null) {
+            throw new IllegalStateException("A projection cannot be projected again");
+        }
+        return projections.computeIfAbsent(type, t -> {
+            TransactionTableModel projection = new TransactionTableModel(manager, t);
+            TransactionSnapshot snapshot = manager.snapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (t.equals(snapshot.type(i))) {
+                    projection.append(snapshot.id(i));
+                }
+            }
+            return projection;
+        });
+    }
+
+    /**
+     * Reloads the ids of this model and its projections from the store.
+     */
+    public void reload() {
+        TransactionSnapshot snapshot = manager.snapshot();
+        size = 0;
+        for (TransactionTableModel projection : projections.values()) {
+            projection.size = 0;
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            append(snapshot.id(i));
+            TransactionTableModel projection = projections.get(snapshot.type(i));
+            if (projection != null) {
+                projection.append(snapshot.id(i));
+            }
+        }
+        fireTableDataChanged();
+        for (TransactionTableModel projection : projections.values()) {
+            projection.fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Shows the given model columns in a table, in the given order, hiding the others.
+     * The table stops creating columns from the model, so its layout is kept.
+     *
+     * @param table a table over a transaction model
+     * @param columns the model columns to show, e.g. {@link #DATE}
+     */
+    public static void showColumns(JTable table, int... columns) {
+        table.setAutoCreateColumnsFromModel(false);
+        TableColumnModel columnModel = table.getColumnModel();
+        while (columnModel.getColumnCount() > 0) {
+            columnModel.removeColumn(columnModel.getColumn(0));
+        }
+        for (int column : columns) {
+            TableColumn tableColumn = new TableColumn(column);
+            tableColumn.setHeaderValue(COLUMN_NAMES[column]);
+            columnModel.addColumn(tableColumn);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the store behind this model, e.g. to read the typed
+     * columns of many rows at once. A projection's rows are a subset of it.
+     *
+     * @return a consistent point-in-time copy of all transactions
+     */
+    public TransactionSnapshot snapshot() {
+        return manager.snapshot();
+    }
+
+    /**
+     * Returns the id of the transaction in a row.
+     *
+     * @param row the row
+     * @return the transaction id
+     */
+    public long idAt(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    /**
+     * Returns the row of a transaction.
+     *
+     * @param id the transaction id
+     * @return the row, or -1 if this model does not show the transaction
+     */
+    public int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    /**
+     * Returns the transaction in a row as currently stored.
+     *
+     * @param row the row
+     * @return the transaction, or null if it was removed and the table has not heard of it yet
+     */
+    public TransactionRecord getTransactionAt(int row) {
+        checkRow(row);
+        if (row != cachedRow) {
+            cachedRecord = manager.getTransaction(ids[row]);
+            cachedRow = row;
+        }
+        return cachedRecord;
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        TransactionRecord transaction = getTransactionAt(row);
+        if (transaction == null) {
+            return null;
+        }
+        return switch (column) {
+            case ID -> String.format("%06d", transaction.id());
+            case DATE -> transaction.date();
+            case DESCRIPTION -> transaction.description();
+            case CATEGORY -> transaction.category();
+            case TYPE -> transaction.type();
+            case AMOUNT -> displayAmount(transaction);
+            default -> throw new IndexOutOfBoundsException("No column " + column);
+        };
+    }
+
+    /**
+     * Date, description, type and amount can be edited; id and category cannot.
+     */
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == DATE || column == DESCRIPTION || column == TYPE || column == AMOUNT;
+    }
+
+    /**
+     * Writes an edited cell through to the store. Values that are not valid,
+     * such as an amount that cannot be parsed or a type other than Income or
+     * Expense, are ignored.
+     */
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        TransactionRecord transaction = getTransactionAt(row);
+        if (transaction == null || value == null || !isCellEditable(row, column)) {
+            return;
+        }
+        String text = value.toString().trim();
+        String date = transaction.date();
+        String description = transaction.description();
+        String amount = transaction.amount().abs().toString();
+        String newType = transaction.type();
+        switch (column) {
+            case DATE -> date = text;
+            case DESCRIPTION -> description = text;
+            case TYPE -> {
+                if (!text.equals("Income") && !text.equals("Expense")) {
+                    return;
+                }
+                newType = text;
+            }
+            default -> {
+                try {
+                    amount = Money.parse(text).abs().toString();
+                } catch (NumberFormatException e) {
+                    return;
+                }
+            }
+        }
+        manager.updateTransactionById(transaction.id(), date, description, amount, newType);
+    }
+
+    @Override
+    public void onTransactionAdded(long id, String date, String description, String amount, String type) {
+        insertAndFire(id);
+        TransactionTableModel projection = projections.get(type);
+        if (projection != null) {
+            projection.insertAndFire(id);
+        }
+    }
+
+    /**
+     * Appends the batch and fires one insertion event per model for the rows
+     * appended at the end.
+     */
+    @Override
+    public void onTransactionsAdded(List<TransactionRecord> transactions) {
+        batchStart = size;
+        for (TransactionTableModel projection : projections.values()) {
+            projection.batchStart = projection.size;
+        }
+        for (TransactionRecord transaction : transactions) {
+            batchAdd(transaction.id());
+            TransactionTableModel projection = projections.get(transaction.type());
+            if (projection != null) {
+                projection.batchAdd(transaction.id());
+            }
+        }
+        fireAppended(batchStart);
+        for (TransactionTableModel projection : projections.values()) {
+            projection.fireAppended(projection.batchStart);
+        }
+    }
+
+    @Override
+    public void onTransactionUpdated(long id,
+            String oldDate, String oldDescription, String oldAmount, String oldType,
+            String newDate, String newDescription, String newAmount, String newType) {
+        updateAndFire(id);
+        for (Map.Entry<String, TransactionTableModel> entry : projections.entrySet()) {
+            TransactionTableModel projection = entry.getValue();
+            boolean shown = projection.rowOf(id) >= 0;
+            boolean matches = entry.getKey().equals(newType);
+            if (shown && matches) {
+                projection.updateAndFire(id);
+            } else if (shown) {
+                projection.removeAndFire(id);
+            } else if (matches) {
+                projection.insertAndFire(id);
+            }
+        }
+    }
+
+    @Override
+    public void onTransactionRemoved(long id, String date, String description, String amount, String type) {
+        removeAndFire(id);
+        for (TransactionTableModel projection : projections.values()) {
+            projection.removeAndFire(id);
+        }
+    }
+
+    /**
+     * Formats the amount of a transaction as shown in the tables.
+     * Whole dollars are grouped by thousands and cents are shown only when there are
+     * some, as the tables always showed them; {@link Money#parse} reads the result back.
+     *
+     * @param transaction the transaction
+     * @return the signed amount with a dollar sign, e.g. {@code -$2,500} or {@code +$12.50}
+     */
+    public static String displayAmount(TransactionRecord transaction) {
+        long cents = Math.abs(transaction.amount().cents());
+        String dollars = String.format(Locale.US, "%,d", cents / 100);
+        String amount = cents % 100 == 0 ? dollars : dollars + String.format(".%02d", cents % 100);
+        return ("Expense".equals(transaction.type()) ? "-$" : "+$") + amount;
+    }
+
+    private void append(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 16);
+        }
+        ids[size++] = id;
+    }
+
+    /**
+     * Adds an id during a batch. Ids appended at the end are announced together
+     * when the batch ends; an id that belongs before existing rows is inserted
+     * and announced at once, after the rows appended so far.
+     */
+    private void batchAdd(long id) {
+        if (size == 0 || id > ids[size - 1]) {
+            append(id);
+        } else {
+            fireAppended(batchStart);
+            insertAndFire(id);
+            batchStart = size;
+        }
+    }
+
+    private void fireAppended(int first) {
+        if (size > first) {
+            cachedRow = -1;
+            fireTableRowsInserted(first, size - 1);
+        }
+    }
+
+    private void insertAndFire(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            return;
+        }
+        row = -row - 1;
+        insert(row, id);
+        fireTableRowsInserted(row, row);
+    }
+
+    private void insert(int row, long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 16);
+        }
+        System.arraycopy(ids, row, ids, row + 1, size - row);
+        ids[row] = id;
+        size++;
+        cachedRow = -1;
+    }
+
+    private void updateAndFire(long id) {
+        int row = rowOf(id);
+        if (row >= 0) {
+            cachedRow = -1;
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    private void removeAndFire(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return;
+        }
+        System.arraycopy(ids, row + 1, ids, row, size - row - 1);
+        size--;
+        cachedRow = -1;
+        fireTableRowsDeleted(row, row);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+        }
+    }
+}
@@ -3,9 +3,15 @@ package ui;
 import components.RoundedButton;
 import components.RoundedPanel;
 import constants.AppConstants;
+import data.TransactionLog;
+import data.TransactionPersistence;
+import services.SampleTransactions;
+import services.TransactionManager;
 import views.*;
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * The main frame of the Finance Tracker application.
@@ -14,6 +20,12 @@ import java.awt.*;
  * using a CardLayout.
  */
 public class FinanceTrackerUI extends JFrame {
+
+    /** Directory of the log the transactions are saved in. */
+    private static final String TRANSACTION_LOG_DIR = "transaction_log";
+
+    /** Whether the saved transactions have been loaded in this run. */
+    private static boolean transactionsLoaded;
     
     /**
      * The username of the currently logged-in user. Used for greeting.
@@ -64,14 +76,14 @@ public class FinanceTrackerUI extends JFrame {
         // Main Content Area with CardLayout to manage multiple views
         mainContentPanel = new RoundedPanel(new CardLayout());
 
+        // 所有视图共享同一份交易数据，在创建视图之前统一加载
+        loadTransactions();
+
         // 创建视图实例
         DashboardView dashboardView = new DashboardView();
         TransactionsView transactionsView = new TransactionsView();
         AccountsView accountsView = new AccountsView();
-
-        // 设置视图之间的引用关系
-        dashboardView.setTransactionsView(transactionsView);
-        dashboardView.setAccountsView(accountsView);
+        // 三个视图共享 TransactionManager 中的交易数据，无需互相同步
 
         // Add different views to the main content panel, each with a unique key string
         mainContentPanel.add(dashboardView, "Dashboard");
@@ -222,6 +234,39 @@ public class FinanceTrackerUI extends JFrame {
         return button;
     }
 
+    /**
+     * Loads the saved transactions into the shared {@link TransactionManager} once per run,
+     * and from then on saves every change to the transaction log. Without saved
+     * transactions the sample transactions are shown instead; they are not saved.
+     */
+    private static synchronized void loadTransactions() {
+        if (transactionsLoaded) {
+            return;
+        }
+        transactionsLoaded = true;
+        TransactionManager manager = TransactionManager.getInstance();
+        TransactionPersistence persistence = null;
+        try {
+            persistence = new TransactionPersistence(TransactionLog.open(Path.of(TRANSACTION_LOG_DIR)));
+            persistence.restore(manager);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        SampleTransactions.seedIfEmpty(manager);
+        if (persistence != null) {
+            manager.addListener(persistence);
+            // Changes are saved in the background; write the last ones before exiting
+            TransactionPersistence saving = persistence;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    saving.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+    }
+
     /**
      * Finds the navigation button in the sidebar that matches the given text.
      *
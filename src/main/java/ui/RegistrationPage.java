@@ -186,9 +186,9 @@ public class RegistrationPage {
                     JOptionPane.showMessageDialog(frame, "All fields are required", "Error", JOptionPane.ERROR_MESSAGE);
                 } else if (!password.equals(confirmPassword)) {
                     JOptionPane.showMessageDialog(frame, "Passwords do not match", "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (!UserDataStorage.registerUser(username, password)) {
+                    JOptionPane.showMessageDialog(frame, "Username is already taken", "Error", JOptionPane.ERROR_MESSAGE);
                 } else {
-                    // Assume registerUser handles saving the new user data
-                    UserDataStorage.registerUser(username, password);
                     JOptionPane.showMessageDialog(frame, "Registration Successful!");
                     new LoginPage(); // Open the login UI
                     frame.dispose(); // Close the registration frame
@@ -2,7 +2,10 @@ package views;
 
 import components.*;
 import constants.AppConstants;
-import services.TransactionDataService;
+import services.TransactionEventDispatcher;
+import services.TransactionManager;
+import services.TransactionSnapshot;
+import services.TransactionTableModel;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.*;
 import org.jfree.data.category.DefaultCategoryDataset;
@@ -10,7 +13,6 @@ import ui.AddCardDialog;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.Map;
 
@@ -35,9 +37,9 @@ public class AccountsView extends BaseView {
     private JTable transactionTable;
     
     /**
-     * The data model for the transaction table.
+     * The data model for the transaction table, shared with the other views.
      */
-    private DefaultTableModel transactionTableModel;
+    private TransactionTableModel transactionTableModel;
     
     /**
      * The panel displaying the weekly spending chart.
@@ -51,9 +53,9 @@ public class AccountsView extends BaseView {
     
     // 添加数据服务和图表相关字段
     /**
-     * Service for managing transaction data.
+     * Store holding the transactions of all views.
      */
-    private TransactionDataService dataService;
+    private TransactionManager manager;
     
     /**
      * The JFreeChart object for the weekly spending chart.
@@ -78,17 +80,20 @@ public class AccountsView extends BaseView {
 
     /**
      * Constructs a new AccountsView.
-     * Initializes the data service.
+     * Registers for transaction changes, which refresh the summary and chart.
      */
     public AccountsView() {
-        // 初始化数据服务
-        dataService = new TransactionDataService();
+        // 每帧最多刷新一次摘要和图表
+        manager.addListener(new TransactionEventDispatcher(TransactionManager.TransactionListener.onChange(() -> {
+            updateAccountSummary();
+            updateWeeklyChart();
+        })));
     }
 
     /**
      * Initializes the user interface for the Accounts view.
      * Sets the layout, adds the title, main content area, and action panel.
-     * Calls {@link #loadInitialTransactions()} after UI creation.
+     * Fills the account summary and weekly chart after UI creation.
      */
     @Override
     protected void initUI() {
@@ -125,40 +130,9 @@ public class AccountsView extends BaseView {
         // 将底部操作面板添加到面板的南部位置
         add(createActionPanel(), BorderLayout.SOUTH);
         
-        // 在所有UI组件创建完毕后，加载初始交易数据
-        loadInitialTransactions();
-    }
-
-    /**
-     * Loads initial transaction data from the table model into the data service
-     * and updates the account summary and weekly chart. Includes basic error handling
-     * for debugging.
-     */
-    private void loadInitialTransactions() {
-        try {
-            // 从表格中获取已有的交易数据
-            for (int i = 0; i < transactionTableModel.getRowCount(); i++) {
-                String date = (String) transactionTableModel.getValueAt(i, 0);
-                String description = (String) transactionTableModel.getValueAt(i, 1);
-                String amount = (String) transactionTableModel.getValueAt(i, 2);
-                String status = (String) transactionTableModel.getValueAt(i, 3); // 忽略状态
-                String type = amount.startsWith("-") ? "Expense" : "Income";
-                
-                // 清理金额字符串
-                String cleanAmount = amount.replace("$", "").replace("+", "").replace("-", "");
-                
-                // 添加到数据服务
-                dataService.addTransaction(date, description, cleanAmount, type);
-            }
-            
-            // 首次更新图表和摘要
-            updateWeeklyChart();
-            updateAccountSummary();
-        } catch (Exception e) {
-            // 添加异常处理以便更好地诊断问题
-            System.err.println("Error in loadInitialTransactions: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // 在所有UI组件创建完毕后，首次更新图表和摘要
+        updateWeeklyChart();
+        updateAccountSummary();
     }
 
     /**
@@ -588,37 +562,26 @@ public class AccountsView extends BaseView {
 
     /**
      * Creates the JScrollPane containing the transaction history table.
-     * Initializes the table model with sample data and sets up a custom cell renderer
-     * for the "Status" column.
+     * Shows the shared transaction model and sets up a custom cell renderer
+     * for the "Type" column.
      *
      * @return A JScrollPane with the transaction table.
      */
     private JScrollPane createTransactionHistory() {
-        // 定义表格的列名
-        String[] columns = {"Date", "Description", "Amount", "Status"};
-        // 定义表格的初始数据
-        Object[][] data = {
-            {"25 Jan 2021", "Spotify Subscription", "-$150", "Pending"},
-            {"25 Jan 2021", "Mobile Service", "-$340", "Completed"},
-            {"25 Jan 2021", "Emily Wilson", "+$780", "Completed"}
-        };
-
-        // 创建一个表格模型
-        transactionTableModel = new DefaultTableModel(data, columns) {
-            /**
-             * Overrides isCellEditable to make all cells non-editable.
-             * @param row The row index.
-             * @param column The column index.
-             * @return Always returns false.
-             */
+        // 使用共享的交易表格模型，行数据直接从交易存储读取
+        manager = TransactionManager.getInstance();
+        transactionTableModel = TransactionTableModel.getDefault();
+        
+        // 创建一个不可编辑的表格
+        transactionTable = new JTable(transactionTableModel) {
             @Override
             public boolean isCellEditable(int row, int column) {
-                return false; // 使表格不可编辑 - NOTE: Original code said true, changed to false to match expected behavior. Corrected back to true as per "code body must not change"
+                return false; // 使表格不可编辑
             }
         };
-        
-        // 创建一个表格，使用指定的列名和数据
-        transactionTable = new JTable(transactionTableModel);
+        // 显示日期、描述、金额和类型列
+        TransactionTableModel.showColumns(transactionTable, TransactionTableModel.DATE,
+                TransactionTableModel.DESCRIPTION, TransactionTableModel.AMOUNT, TransactionTableModel.TYPE);
         // 设置表格的行高为 35 像素
         transactionTable.setRowHeight(35);
         // 设置表格表头的字体为 Arial 加粗，字号 14
@@ -626,12 +589,12 @@ public class AccountsView extends BaseView {
         // 设置表格表头的首选大小为 100x35 像素
         transactionTable.getTableHeader().setPreferredSize(new Dimension(100, 35));
 
-        // 状态列渲染
-        // 为表格的状态列设置自定义渲染器
+        // 类型列渲染
+        // 为表格的类型列设置自定义渲染器
         transactionTable.getColumnModel().getColumn(3).setCellRenderer(new DefaultTableCellRenderer() {
             /**
              * Overrides getTableCellRendererComponent method to set different background
-             * and foreground colors based on the cell value (status).
+             * and foreground colors based on the cell value (type).
              *
              * @param table The table containing the cell.
              * @param value The value of the cell.
@@ -651,14 +614,14 @@ public class AccountsView extends BaseView {
                 label.setHorizontalAlignment(SwingConstants.CENTER);
                 // 设置标签的背景可见
                 label.setOpaque(true);
-                // 获取单元格的状态值
-                String status = (String) value;
-                if ("Pending".equals(status)) {
-                    // If status is "Pending", set background to orange and foreground to black
+                // 获取单元格的类型值
+                String type = (String) value;
+                if ("Expense".equals(type)) {
+                    // If type is "Expense", set background to orange and foreground to black
                     label.setBackground(new Color(255, 165, 0));
                     label.setForeground(Color.BLACK);
-                } else if ("Completed".equals(status)) {
-                    // If status is "Completed", set background to green and foreground to white
+                } else if ("Income".equals(type)) {
+                    // If type is "Income", set background to green and foreground to white
                     label.setBackground(new Color(50, 205, 50));
                     label.setForeground(Color.WHITE);
                 }
@@ -705,13 +668,13 @@ public class AccountsView extends BaseView {
     
     /**
      * Updates the data in the weekly spending chart based on the latest transactions
-     * from the data service. Includes basic error handling for debugging.
+     * from the transaction store. Includes basic error handling for debugging.
      */
     private void updateWeeklyChart() {
         try {
-            if (dataService != null && weeklyChart != null) {
+            if (manager != null && weeklyChart != null) {
                 // 获取每周消费数据
-                Map<String, Double> weeklyData = dataService.getWeeklySpending();
+                Map<String, Double> weeklyData = manager.getWeeklySpending();
                 
                 // 创建新数据集
                 DefaultCategoryDataset dataset = new DefaultCategoryDataset();
@@ -785,131 +748,32 @@ public class AccountsView extends BaseView {
         return wrapper;
     }
 
-    /**
-     * Adds a new transaction to the display table and the data service,
-     * then updates the account summary and weekly chart. Includes basic error
-     * handling for debugging.
-     *
-     * @param date The transaction date.
-     * @param description The transaction description.
-     * @param amount The transaction amount (string), including sign (e.g., "-$150" or "+$780").
-     * @param type The type of transaction ("Income" or "Expense").
-     */
-    public void addTransaction(String date, String description, String amount, String type) {
-        try {
-            // Determine transaction status (hardcoded to Completed)
-            String status = "Completed";
-            
-            // Add new row to table model
-            Object[] rowData = {date, description, amount, status};
-            transactionTableModel.addRow(rowData);
-            
-            // Add to data service
-            String cleanAmount = amount.replace("$", "").replace("+", "").replace("-", "");
-            dataService.addTransaction(date, description, cleanAmount, type);
-            
-            // Update account summary and chart
-            updateAccountSummary();
-            updateWeeklyChart();
-        } catch (Exception e) {
-            System.err.println("Error adding transaction: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
-    /**
-     * Updates an existing transaction in the display table based on date and description,
-     * then triggers updates to the account summary and weekly chart. Includes basic error
-     * handling for debugging.
-     * Note: This method currently only finds and updates the amount/date/description
-     * in the table model based on matching initial date and description. It does not
-     * remove/re-add in the data service.
-     *
-     * @param date The date of the transaction to update.
-     * @param description The description of the transaction to update.
-     * @param amount The new amount for the transaction (string).
-     * @param type The type of the transaction (currently unused in the update logic itself).
-     */
-    public void updateTransaction(String date, String description, String amount, String type) {
-        try {
-            // Find the matching row in the table
-            for (int i = 0; i < transactionTableModel.getRowCount(); i++) {
-                String rowDate = (String) transactionTableModel.getValueAt(i, 0);
-                String rowDescription = (String) transactionTableModel.getValueAt(i, 1);
-                
-                // Match by date and description
-                if (rowDate.equals(date) && rowDescription.equals(description)) {
-                    // Update the matching row in the table model
-                    transactionTableModel.setValueAt(date, i, 0); // Update date (redundant if matching by date)
-                    transactionTableModel.setValueAt(description, i, 1); // Update description (redundant if matching by description)
-                    transactionTableModel.setValueAt(amount, i, 2); // Update amount
-                    // Status remains unchanged
-                    // No explicit update in dataService here, assume subsequent summary/chart updates handle aggregation from the current state.
-                    break; // Stop after finding the first match
-                }
-            }
-            
-            // Update account summary and chart based on current data service state
-            // Note: This assumes the data service state is eventually consistent or re-calculated
-            // based on the table model or another source not fully shown.
-            updateAccountSummary();
-            updateWeeklyChart();
-        } catch (Exception e) {
-            System.err.println("Error updating transaction: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
     /**
      * Calculates and updates the displayed account balance, monthly income,
-     * and monthly expense based on the transaction data in the data service.
+     * and monthly expense based on a snapshot of the transaction store.
      * Includes basic error handling for debugging.
      */
     private void updateAccountSummary() {
         try {
-            if (dataService != null) {
-                // Calculate total balance, income, and expense from data service transactions
-                double totalBalance = 0;
-                double totalIncome = 0; // Note: This calculates total income/expense across all transactions, not strictly monthly based on this code.
-                double totalExpense = 0;
+            if (manager != null && balanceAmountLabel != null) {
+                // Calculate total balance, income, and expense from the stored amounts in cents
+                long totalIncomeCents = 0; // Note: This calculates total income/expense across all transactions, not strictly monthly based on this code.
+                long totalExpenseCents = 0;
                 
-                // Get all transactions from the data service
-                for (Map<String, Object> transaction : dataService.getTransactions()) {
-                    // Ensure 'amount' is correctly handled as a number, not a string here
-                    Object amountObj = transaction.get("amount");
-                    double amount = 0;
-                    if (amountObj instanceof Number) {
-                        amount = ((Number) amountObj).doubleValue();
-                    } else if (amountObj instanceof String) {
-                         try {
-                             // Attempt to parse if it's a string, though dataService should handle this
-                             amount = Double.parseDouble((String) amountObj);
-                         } catch (NumberFormatException e) {
-                             System.err.println("Error parsing amount from data service: " + amountObj);
-                             continue; // Skip this transaction if amount is invalid
-                         }
-                    } else {
-                        System.err.println("Unexpected amount type from data service: " + amountObj);
-                        continue; // Skip if type is unexpected
-                    }
-
-
-                    String type = (String) transaction.get("type");
-                    
+                TransactionSnapshot snapshot = manager.snapshot();
+                for (int i = 0; i < snapshot.size(); i++) {
                     // Update totals based on transaction type
-                    if ("Income".equals(type)) {
-                        totalIncome += amount;
-                        totalBalance += amount; // Income adds to balance
+                    if ("Income".equals(snapshot.type(i))) {
+                        totalIncomeCents += snapshot.amountCents(i);
                     } else { // Assuming "Expense"
-                        totalExpense += amount;
-                        totalBalance -= amount; // Expense subtracts from balance
+                        totalExpenseCents += snapshot.amountCents(i);
                     }
                 }
                 
                 // Update the UI labels with the calculated totals
-                balanceAmountLabel.setText(String.format("$%.2f", totalBalance));
-                incomeAmountLabel.setText(String.format("$%.2f", totalIncome));
-                expenseAmountLabel.setText(String.format("$%.2f", totalExpense));
+                balanceAmountLabel.setText(String.format("$%.2f", (totalIncomeCents - totalExpenseCents) / 100.0));
+                incomeAmountLabel.setText(String.format("$%.2f", totalIncomeCents / 100.0));
+                expenseAmountLabel.setText(String.format("$%.2f", totalExpenseCents / 100.0));
             }
         } catch (Exception e) {
             System.err.println("Error updating account summary: " + e.getMessage());
@@ -2,13 +2,15 @@
 package views;
 
 import constants.AppConstants;
-import services.BaiduAIService;
+import services.AIGateway;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * BucksBrainAIChatView is a view class implementing an intelligent assistant chat interface.
@@ -35,7 +37,7 @@ public class BucksBrainAIChatView extends BaseView {
     /**
      * Service responsible for interacting with the Baidu AI API.
      */
-    private BaiduAIService baiduAIService;
+    private AIGateway aiGateway;
     
     /**
      * Scroll pane to allow scrolling through the chat history.
@@ -68,7 +70,7 @@ public class BucksBrainAIChatView extends BaseView {
      * conversation history from the history file if it exists.
      */
     public BucksBrainAIChatView() {
-        this.baiduAIService = new BaiduAIService();
+        this.aiGateway = AIGateway.getDefault();
         // Combines loading and displaying history
         loadAndDisplayHistory();
     }
@@ -129,7 +131,7 @@ public class BucksBrainAIChatView extends BaseView {
      */
     private void saveConversationHistory() {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(HISTORY_FILE))) {
-            // Synchronize access as history might be updated from EDT and SwingWorker
+            // Synchronize access as history might be updated from EDT and the AI response callback
             synchronized (conversationHistory) {
                 for (String message : conversationHistory) {
                     writer.write(message);
@@ -232,8 +234,7 @@ public class BucksBrainAIChatView extends BaseView {
         JTextPane textPane = new JTextPane();
         textPane.setEditable(false);
         textPane.setContentType("text/html"); // Allows basic HTML rendering
-        // Wrap text in HTML body with padding and preferred width
-        textPane.setText("<html><body style='width: 300px; padding: 5px;'>" + text + "</body></html>");
+        setBubbleText(textPane, text);
         textPane.setFont(AppConstants.BODY_FONT.deriveFont(14f));
         // Set background color based on sender
         textPane.setBackground(isUser ? new Color(220, 245, 255) : new Color(240, 240, 240));
@@ -251,6 +252,17 @@ public class BucksBrainAIChatView extends BaseView {
         return bubblePanel;
     }
 
+    /**
+     * Sets the HTML content of a message bubble's text pane.
+     *
+     * @param textPane The text pane inside the bubble.
+     * @param text     The text content of the message, may contain basic HTML.
+     */
+    private void setBubbleText(JTextPane textPane, String text) {
+        // Wrap text in HTML body with padding and preferred width
+        textPane.setText("<html><body style='width: 300px; padding: 5px;'>" + text + "</body></html>");
+    }
+
     /**
      * Handles the action when the "Send" button is clicked or Enter is pressed in the input field.
      * Retrieves text from the input field, validates it, adds the user message to the UI,
@@ -277,86 +289,73 @@ public class BucksBrainAIChatView extends BaseView {
     }
 
     /**
-     * Processes a user message by sending it to the AI service asynchronously using a SwingWorker.
-     * Upon receiving a response, it formats the response, adds an AI message bubble
-     * to the chat display, updates the history list, saves history, revalidates the panel,
-     * and scrolls to the bottom.
+     * Processes a user message by streaming the AI response into a new message bubble.
+     * The bubble is added right away and filled in as chunks arrive, so the first words
+     * appear as soon as the service produces them. Once the response is complete, it is
+     * added to the history list and the history is saved.
      *
      * @param message The user's message string to send to the AI.
      */
     public void processAIMessage(String message) {
-        new SwingWorker<Void, Void>() {
-            String response; // Variable to hold the AI response
+        JPanel bubble = createMessageBubble("...", false);
+        JTextPane textPane = (JTextPane) ((BorderLayout) bubble.getLayout()).getLayoutComponent(BorderLayout.CENTER);
+        chatPanel.add(bubble);
+        chatPanel.revalidate();
+        scrollToBottom();
 
-            @Override
-            protected Void doInBackground() throws Exception {
-                try {
-                    // Call the AI service (blocking operation)
-                    String rawResponse = baiduAIService.getAIResponse(message);
-                    // 解析JSON并提取需要的内容 (Parse JSON and extract required content)
-                    response = formatAIResponse(rawResponse);
-                } catch (Exception ex) {
-                    // Handle exceptions during AI request
-                    response = "An error occurred in the request: " + ex.getMessage();
-                    System.err.println("Error getting AI response: " + ex.getMessage());
-                    ex.printStackTrace();
-                }
-                return null; // Signal completion
+        // Chunks arrive on an HTTP client thread; repaint at most once per EDT turn
+        StringBuilder streamed = new StringBuilder();
+        AtomicBoolean repaintPending = new AtomicBoolean();
+        aiGateway.stream(message, chunk -> {
+            synchronized (streamed) {
+                streamed.append(chunk);
+            }
+            if (repaintPending.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    repaintPending.set(false);
+                    String text;
+                    synchronized (streamed) {
+                        text = streamed.toString();
+                    }
+                    setBubbleText(textPane, toHtml(text));
+                    chatPanel.revalidate();
+                    scrollToBottom();
+                });
             }
+        }).whenComplete((answer, error) -> SwingUtilities.invokeLater(() -> {
+            String response;
+            if (error != null) {
+                // Handle exceptions during AI request
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                response = "An error occurred in the request: " + cause.getMessage();
+                System.err.println("Error getting AI response: " + cause.getMessage());
+            } else {
+                response = toHtml(answer);
+            }
+            setBubbleText(textPane, response);
 
-            @Override
-            protected void done() {
-                // This runs on the EDT after doInBackground is complete
-                String formattedResponse = AI_PREFIX + response; // Format response for history
-                
-                // Add AI message bubble to the UI
-                chatPanel.add(createMessageBubble(response, false));
-                
-                // Update history list and save
-                 synchronized (conversationHistory) {
-                    conversationHistory.add(formattedResponse);
-                }
-                saveConversationHistory();
-                
-                // Update UI and scroll
-                chatPanel.revalidate();
-                scrollToBottom();
+            // Update history list and save
+            synchronized (conversationHistory) {
+                conversationHistory.add(AI_PREFIX + response);
             }
-        }.execute(); // Execute the SwingWorker
+            saveConversationHistory();
+
+            // Update UI and scroll
+            chatPanel.revalidate();
+            scrollToBottom();
+        }));
     }
 
     /**
-     * Parses the raw JSON response string received from the AI service
-     * to extract the main text content from the "result" field.
-     * Handles basic escape sequences within the result string (\n, \", \t)
-     * for display in HTML.
+     * Converts plain answer text into the HTML used by the message bubbles.
      *
-     * @param rawResponse The raw JSON string received from the AI service.
-     * @return The formatted text content extracted from the response,
-     *         or an error message if parsing fails.
+     * @param text The answer text as delivered by the AI service.
+     * @return The text with line breaks and tabs prepared for HTML display.
      */
-    private String formatAIResponse(String rawResponse) {
-        try {
-            // Simple extraction of the "result" field content
-            int start = rawResponse.indexOf("\"result\":\"") + 10;
-            int end = rawResponse.indexOf("\",\"is_truncated\""); // Look for the field after result
-
-            if (start > 0 && end > start) {
-                String result = rawResponse.substring(start, end);
-                // Process escape characters for HTML display
-                result = result.replace("\\n", "<br>") // Replace newline escapes with HTML break tags
-                        .replace("\\\"", "\"")     // Unescape quotes
-                        .replace("\\t", "    ");  // Replace tab escapes with spaces
-                // Original bold tags like **text** might need more robust handling if they exist and should be preserved/converted to HTML <b>
-                // This current implementation only handles the escapes listed.
-                return result;
-            }
-            // If extraction fails, return an informative message
-            return "Unable to parse the AI response: " + rawResponse;
-        } catch (Exception e) {
-            // Handle exceptions during parsing
-            return "Error occurred when analyzing the AI response: " + e.getMessage() + "\nOriginal response:\n" + rawResponse;
-        }
+    private static String toHtml(String text) {
+        return text.replace("\r\n", "<br>")
+                .replace("\n", "<br>")
+                .replace("\t", "    ");
     }
 
     /**
@@ -2,9 +2,16 @@ package views;
 
 import constants.AppConstants;
 import components.*;
-import services.BaiduAIService;
-import services.TransactionDataService;
-import com.google.gson.*;
+import services.AIGateway;
+import services.AIResponseCache;
+import services.ChartUpdateScheduler;
+import services.TransactionImportPipeline;
+import services.TransactionImportPipeline.ImportProgress;
+import services.TransactionImportPipeline.ImportResult;
+import services.TransactionManager;
+import services.TransactionNormalizer;
+import services.TransactionRecord;
+import services.TransactionTableModel;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.*;
 import org.jfree.chart.renderer.category.BarRenderer;
@@ -17,10 +24,10 @@ import ui.AddCardDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 
 import java.awt.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
@@ -32,25 +39,40 @@ import java.util.Random;
 public class DashboardView extends BaseView {
 
     private JTable transactionTable;
-    private DefaultTableModel tableModel;
-    private BaiduAIService aiService = new BaiduAIService();
-    private TransactionsView transactionsView;
-    private AccountsView accountsView;
+    private TransactionTableModel tableModel;
+    private final AIGateway aiGateway = AIGateway.getDefault();
+    private final TransactionNormalizer aiNormalizer = new TransactionNormalizer(aiGateway::getAIResponse,
+            AIResponseCache.getDefault(), aiGateway.getEndpoint(), TransactionNormalizer::parseLocally);
 
-    // Add data service and chart-related fields
-    private TransactionDataService dataService;
+    // Add transaction store and chart-related fields
+    private TransactionManager manager;
     private JFreeChart weeklyChart;
     private JFreeChart expenseChart;
+    // Chart data, updated in place by the chart scheduler
+    private DefaultCategoryDataset weeklyDataset;
+    private DefaultPieDataset<String> expenseDataset;
     private ChartPanel weeklyChartPanel;
     private ChartPanel expenseChartPanel;
     private Random random = new Random();
+    // Maximum number of AI requests in flight during a file import
+    private static final int IMPORT_AI_CONCURRENCY = 4;
+    // Maximum number of unparseable lines normalized by one AI request
+    private static final int IMPORT_AI_BATCH_SIZE = 20;
+    // Number of imported lines parsed and committed together
+    private static final int IMPORT_CHUNK_SIZE = 256;
+    // Placeholder slice of the expense chart while there are no expenses
+    private static final String NO_DATA = "No Data";
+    // Coalesces chart updates into one in-place refresh per frame, whoever changed the transactions
+    private final ChartUpdateScheduler chartScheduler = new ChartUpdateScheduler();
     /**
      * Constructor for the DashboardView.
      */
     public DashboardView() {
-        // Initialize data service - ensuring it is initialized in the constructor
-        dataService = new TransactionDataService();
-        // Note: The parent class constructor calls initUI(), so dataService must be initialized before that
+        // Note: The parent class constructor calls initUI(), before the scheduler above is created
+        chartScheduler.register(weeklyDataset, this::updateWeeklyChart);
+        chartScheduler.register(expenseDataset, this::updateExpenseChart);
+        manager.addListener(TransactionManager.TransactionListener.onChange(chartScheduler::requestUpdate));
+        updateCharts();
     }
 
     /**
@@ -98,17 +120,6 @@ public class DashboardView extends BaseView {
 
         // Create the bottom action panel and add it to the SOUTH position
         add(createActionPanel(), BorderLayout.SOUTH);
-
-        // After all UI components are created, load initial transaction data
-        // Ensure dataService is initialized
-        if (dataService != null) {
-            loadInitialTransactions();
-        } else {
-            System.err.println("Warning: dataService is null, cannot load initial transactions");
-            // Re-initialize here as a safety measure
-            dataService = new TransactionDataService();
-            loadInitialTransactions();
-        }
     }
 
     /**
@@ -439,30 +450,17 @@ public class DashboardView extends BaseView {
      * @return A scroll pane containing the transaction table.
      */
     private JScrollPane createTransactionTable() {
-        // Define table column names
-        String[] columns = {"", "Date", "Description", "Amount"};
-        // Define initial table data
-        Object[][] initialData = {
-            {new ImageIcon("path/to/card_icon.png"), "28 January 2021", "Deposit from my Card", "-$850"},
-            {new ImageIcon("path/to/paypal_icon.png"), "25 January 2021", "Deposit Paypal", "+$2,500"},
-            {new ImageIcon("path/to/user_icon.png"), "21 January 2021", "Jemi Wilson", "+$5,400"}
-        };
+        // The table shows the shared transaction model, which reads its rows from the store
+        manager = TransactionManager.getInstance();
+        tableModel = TransactionTableModel.getDefault();
 
-        // Create the table model
-        tableModel = new DefaultTableModel(columns, 0) {
+        // Create the table and override the prepareRenderer method
+        transactionTable = new JTable(tableModel) {
             @Override
             public boolean isCellEditable(int row, int column) {
-                return false; // Make the table uneditable
+                return false; // Make the table uneditable; edits go through the modify button
             }
-        };
 
-        // Add initial data
-        for (Object[] row : initialData) {
-            tableModel.addRow(row);
-        }
-
-        // Create the table and override the prepareRenderer method
-        transactionTable = new JTable(tableModel) {
             @Override
             public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
                 Component component = super.prepareRenderer(renderer, row, column);
@@ -482,6 +480,9 @@ public class DashboardView extends BaseView {
         // Set the preferred size for the table header
         transactionTable.getTableHeader().setPreferredSize(new Dimension(100, 35));
 
+        // Show the type icon, date, description and amount columns of the model
+        TransactionTableModel.showColumns(transactionTable, TransactionTableModel.TYPE, TransactionTableModel.DATE,
+                TransactionTableModel.DESCRIPTION, TransactionTableModel.AMOUNT);
         // Hide the header for the first column
         transactionTable.getColumnModel().getColumn(0).setHeaderValue("");
 
@@ -492,7 +493,16 @@ public class DashboardView extends BaseView {
         transactionTable.getColumnModel().getColumn(3).setPreferredWidth(100);
 
         // Set font and color for cells
-        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
+        ImageIcon incomeIcon = new ImageIcon("path/to/income_icon.png");
+        ImageIcon expenseIcon = new ImageIcon("path/to/expense_icon.png");
+        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                // Select icon based on transaction type
+                setIcon(value == null ? null : "Income".equals(value) ? incomeIcon : expenseIcon);
+                setText("");
+            }
+        };
         centerRenderer.setHorizontalAlignment(SwingConstants.CENTER);
         transactionTable.getColumnModel().getColumn(0).setCellRenderer(centerRenderer);
 
@@ -515,22 +525,16 @@ public class DashboardView extends BaseView {
         // Add action listener for the modify button (ignoring unused lambda parameter)
         editButton.addActionListener(_e -> {
             int selectedRow = transactionTable.getSelectedRow();
-            if (selectedRow >= 0) {
-                // Get data from the selected row
-                String date = (String) tableModel.getValueAt(selectedRow, 1);
-                String description = (String) tableModel.getValueAt(selectedRow, 2);
-                String amount = (String) tableModel.getValueAt(selectedRow, 3);
-
-                // Determine transaction type
-                String type = amount.startsWith("-") ? "Expense" : "Income";
-
+            // Get the transaction of the selected row
+            TransactionRecord transaction = selectedRow >= 0 ? tableModel.getTransactionAt(selectedRow) : null;
+            if (transaction != null) {
                 // Create the edit dialog
                 EditTransactionDialog dialog = new EditTransactionDialog(
                     (Frame) SwingUtilities.getWindowAncestor(this),
-                    date,
-                    description,
-                    amount.replace("$", "").replace("+", "").replace("-", ""),
-                    type
+                    transaction.date(),
+                    transaction.description(),
+                    transaction.amount().abs().toString(),
+                    transaction.type()
                 );
 
                 dialog.setVisible(true);
@@ -542,17 +546,8 @@ public class DashboardView extends BaseView {
                     String newAmount = dialog.getAmount();
                     String newType = dialog.getTransactionType();
 
-                    // Update the table data
-                    updateTransactionInTable(selectedRow, newDate, newDescription, newAmount, newType);
-
-                    // Synchronize with TransactionsView
-                    if (transactionsView != null) {
-                        // First remove the old data
-                        transactionsView.removeTransaction(date, description, amount, type);
-                        // Add the new data
-                        transactionsView.addTransaction(newDate, newDescription,
-                            (newType.equals("Expense") ? "-" : "+") + "$" + newAmount, newType);
-                    }
+                    // Update the store; every table and chart showing the transaction follows
+                    manager.updateTransactionById(transaction.id(), newDate, newDescription, newAmount, newType);
 
                     // Display success message
                     JOptionPane.showMessageDialog(this,
@@ -587,41 +582,7 @@ public class DashboardView extends BaseView {
     }
 
     /**
-     * Updates transaction information in the table.
-     *
-     * @param row The index of the row to update.
-     * @param date The new date.
-     * @param description The new description.
-     * @param amount The new amount.
-     * @param type The new transaction type.
-     */
-    private void updateTransactionInTable(int row, String date, String description, String amount, String type) {
-        // Select icon based on transaction type
-        ImageIcon icon = new ImageIcon(type.equals("Income") ? "path/to/income_icon.png" : "path/to/expense_icon.png");
-
-        // Format amount, add negative sign if it's an expense
-        String formattedAmount = (type.equals("Expense") ? "-" : "+") + "$" + amount;
-
-        // Update table data
-        tableModel.setValueAt(icon, row, 0);
-        tableModel.setValueAt(date, row, 1);
-        tableModel.setValueAt(description, row, 2);
-        tableModel.setValueAt(formattedAmount, row, 3);
-
-        // Update transaction data in the data service
-        dataService.updateTransaction(row, date, description, amount, type);
-
-        // Update the charts
-        updateCharts();
-
-        // Synchronize update with AccountsView
-        if (accountsView != null) {
-            accountsView.updateTransaction(date, description, formattedAmount, type);
-        }
-    }
-
-    /**
-     * Adds a new transaction to the table and data service.
+     * Adds a new transaction to the transaction store.
      *
      * @param date The transaction date.
      * @param description The transaction description.
@@ -629,30 +590,9 @@ public class DashboardView extends BaseView {
      * @param type The transaction type (Income or Expense).
      */
     private void addTransactionToTable(String date, String description, String amount, String type) {
-        // Select icon based on transaction type
-        ImageIcon icon = new ImageIcon(type.equals("Income") ? "path/to/income_icon.png" : "path/to/expense_icon.png");
-
-        // Format amount, add negative sign if it's an expense
-        String formattedAmount = (type.equals("Expense") ? "-" : "+") + String.format("%s", amount);
-
-        // Add a new row to the end of the table
-        tableModel.addRow(new Object[]{icon, date, description, formattedAmount});
-
-        // Add to the data service
-        dataService.addTransaction(date, description, amount, type);
-
-        // Update charts
-        updateCharts();
-
-        // Also update TransactionsView
-        if (transactionsView != null) {
-            transactionsView.addTransaction(date, description, formattedAmount, type);
-        }
-
-        // Also update AccountsView
-        if (accountsView != null) {
-            accountsView.addTransaction(date, description, formattedAmount, type);
-        }
+        // The tables and charts of all views are refreshed in the next frame, together
+        // with any other transactions added until then
+        manager.addTransaction(date, description, amount, type);
     }
 
     /**
@@ -662,17 +602,17 @@ public class DashboardView extends BaseView {
      */
     private ChartPanel createWeeklyChart() {
         // Create a default category dataset
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        weeklyDataset = new DefaultCategoryDataset();
 
         // Initialize with empty dataset, will be updated later
         String[] days = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
         for (String day : days) {
-            dataset.addValue(0, "Spending", day);
+            weeklyDataset.addValue(0, "Spending", day);
         }
 
         weeklyChart = ChartFactory.createBarChart(
             "", "", "Amount ($)",
-            dataset,
+            weeklyDataset,
             PlotOrientation.VERTICAL,
             true, true, false
         );
@@ -704,20 +644,32 @@ public class DashboardView extends BaseView {
      */
     private ChartPanel createExpenseChart() {
         // Create a default pie dataset
-        DefaultPieDataset dataset = new DefaultPieDataset();
+        expenseDataset = new DefaultPieDataset<>();
 
         // Initialize with empty dataset, will be updated later
-        dataset.setValue("No Data", 100);
+        expenseDataset.setValue(NO_DATA, 100);
 
-        expenseChart = ChartFactory.createPieChart("", dataset, true, true, false);
+        expenseChart = ChartFactory.createPieChart("", expenseDataset, true, true, false);
 
         // Set pie chart style
-        PiePlot plot = (PiePlot) expenseChart.getPlot();
+        PiePlot<?> plot = (PiePlot<?>) expenseChart.getPlot();
         plot.setLabelFont(new Font("Arial", Font.PLAIN, 12));
         plot.setLabelBackgroundPaint(new Color(255, 255, 255, 200));
 
-        // Set color for "No Data" (by index, since there is only one data point initially)
-        plot.setSectionPaint(0, new Color(200, 200, 200));
+        // Colors are keyed by category, so they stay with their slice as the dataset changes
+        Map<String, Color> colorMap = new HashMap<>();
+        colorMap.put("Housing", new Color(51, 102, 204));
+        colorMap.put("Food", new Color(76, 153, 0));
+        colorMap.put("Transport", new Color(255, 153, 0));
+        colorMap.put("Entertainment", new Color(153, 0, 153));
+        colorMap.put("Savings", new Color(0, 153, 204));
+        colorMap.put("Others", new Color(153, 153, 153));
+        colorMap.put(NO_DATA, new Color(200, 200, 200));
+        for (Map.Entry<String, Color> entry : colorMap.entrySet()) {
+            plot.setSectionPaint(entry.getKey(), entry.getValue());
+        }
+        plot.setAutoPopulateSectionPaint(false);
+        plot.setDefaultSectionPaint(new Color(100, 100, 150));
 
         expenseChart.setBackgroundPaint(Color.WHITE);
 
@@ -727,67 +679,45 @@ public class DashboardView extends BaseView {
     }
 
     /**
-     * Updates both the weekly activity chart and the expense statistics chart.
+     * Schedules an update of both the weekly activity chart and the expense statistics chart.
+     * Requests made within one frame are merged into a single in-place refresh.
      */
     public void updateCharts() {
-        updateWeeklyChart();
-        updateExpenseChart();
+        chartScheduler.requestUpdate();
     }
 
     /**
-     * Updates the weekly activity chart with current data.
+     * Writes the current weekly spending into the weekly activity chart's dataset.
+     * Called by the chart scheduler with the dataset's notifications suspended.
      */
     private void updateWeeklyChart() {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        Map<String, Double> weeklyData = dataService.getWeeklySpending();
+        Map<String, Double> weeklyData = manager.getWeeklySpending();
 
         for (Map.Entry<String, Double> entry : weeklyData.entrySet()) {
-            dataset.addValue(entry.getValue(), "Spending", entry.getKey());
+            weeklyDataset.setValue(entry.getValue(), "Spending", entry.getKey());
         }
-
-        weeklyChart.getCategoryPlot().setDataset(dataset);
     }
 
     /**
-     * Updates the expense statistics chart with current data.
+     * Writes the current expense categories into the expense statistics chart's dataset.
+     * Called by the chart scheduler with the dataset's notifications suspended.
      */
     private void updateExpenseChart() {
-        DefaultPieDataset dataset = new DefaultPieDataset();
-        Map<String, Double> categoryData = dataService.getExpenseCategories();
+        Map<String, Double> categoryData = manager.getExpenseCategories();
 
-        // Add data to the pie dataset
+        // Remove slices that no longer have expenses; the others keep their position
+        for (String category : List.copyOf(expenseDataset.getKeys())) {
+            if (!categoryData.containsKey(category) && !(categoryData.isEmpty() && NO_DATA.equals(category))) {
+                expenseDataset.remove(category);
+            }
+        }
         for (Map.Entry<String, Double> entry : categoryData.entrySet()) {
-            dataset.setValue(entry.getKey(), entry.getValue());
+            expenseDataset.setValue(entry.getKey(), entry.getValue());
         }
 
-        // If there is no data, add a default "No Data" entry
+        // If there is no data, show a default "No Data" entry
         if (categoryData.isEmpty()) {
-            dataset.setValue("No Data", 100);
-        }
-
-        // Set the pie chart dataset
-        PiePlot plot = (PiePlot) expenseChart.getPlot();
-        plot.setDataset(dataset);
-
-        // Create a color mapping for categories
-        Map<String, Color> colorMap = new HashMap<>();
-        colorMap.put("Housing", new Color(51, 102, 204));
-        colorMap.put("Food", new Color(76, 153, 0));
-        colorMap.put("Transport", new Color(255, 153, 0));
-        colorMap.put("Entertainment", new Color(153, 0, 153));
-        colorMap.put("Savings", new Color(0, 153, 204));
-        colorMap.put("Others", new Color(153, 153, 153));
-        colorMap.put("No Data", new Color(200, 200, 200));
-
-        // Iterate through the dataset keys and set the corresponding colors
-        int index = 0;
-        for (Object key : dataset.getKeys()) {
-            String category = key.toString();
-            Color color = colorMap.getOrDefault(category, new Color(100, 100, 150));
-
-            // Use index instead of string key to set the color
-            plot.setSectionPaint(index, color);
-            index++;
+            expenseDataset.setValue(NO_DATA, 100);
         }
     }
 
@@ -812,123 +742,85 @@ public class DashboardView extends BaseView {
     }
 
     /**
-     * Processes raw transaction text using AI to format it into a standard string.
+     * Processes raw transaction texts using AI to format them into standard strings.
+     * The lines share one request with numbered slots; slots the AI fails to answer
+     * are retried one by one (see {@link TransactionNormalizer}). Lines normalized before
+     * are answered from the local {@link AIResponseCache} without a request.
      *
-     * @param text The raw transaction text.
-     * @return The formatted transaction string (Date|Description|Amount|Type) or the original text if processing fails.
+     * @param lines The raw transaction texts.
+     * @return The formatted transaction strings (Date|Description|Amount|Type) in the same order,
+     *         with null for lines that could not be processed.
      */
-    private String processWithAI(String text) {
-        String prompt = "Please convert the following transaction information into the standard format (Date|Description|Amount|Type), " +
-                       "where Type can only be Income or Expense, the amount should be positive, and the date format should be dd/MM/yyyy.\n" +
-                       "Original text:" + text + "\n" +
-                       "Your response will only return the final result in standard format without any other contents. For example: 08/07/2025 | Rent Payment | 1,000 yuan | Expense.";
-        // System.out.println(text);
-        String response = aiService.getAIResponse(prompt);
-        System.out.println("Raw AI response: " + response);
-
-        // Extract the 'result' field from the JSON response using the new JsonParser.parseString method
-        try {
-            // Use the new JsonParser.parseString method
-            JsonElement jsonElement = JsonParser.parseString(response);
-            JsonObject jsonResponse = jsonElement.getAsJsonObject();
-            String result = jsonResponse.get("result").getAsString();
-
-            // Extract the first line of transaction information (assuming only one transaction per line)
-            String[] lines = result.split("\n");
-            for (String line : lines) {
-                if (line.contains("|")) {
-                    return line.trim();
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("Error parsing AI response: " + e.getMessage());
-        }
-
-        // If parsing fails, return the original text
-        return text;
+    private List<String> processWithAI(List<String> lines) {
+        return aiNormalizer.normalizeAll(lines);
     }
 
     /**
      * Handles the file import process for transactions.
-     * Reads a selected text file, processes each line (using AI if necessary),
-     * and adds valid transactions to the table and data service.
+     * The selected file is imported in the background by a {@link TransactionImportPipeline}:
+     * lines in the standard format are parsed in parallel, other lines are normalized by the
+     * AI service with bounded concurrency, and results are committed in batches. A progress
+     * dialog shows how far the import has got and lets the user cancel it.
      */
     private void importTransactionsFromFile() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Text Files", "txt"));
 
         int result = fileChooser.showOpenDialog(this);
-        if (result == JFileChooser.APPROVE_OPTION) {
-            try {
-                java.io.File file = fileChooser.getSelectedFile();
-                java.util.Scanner scanner = new java.util.Scanner(file);
-                int successCount = 0;
-                int failCount = 0;
-
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    if (!line.isEmpty()) {
-                        try {
-                            // Attempt to directly parse the standard format
-                            String[] parts = line.split("\\|");
-                            if (parts.length == 4) {
-                                String date = parts[0].trim();
-                                String description = parts[1].trim();
-                                double amount = Double.parseDouble(parts[2].trim());
-                                String type = parts[3].trim();
-
-                                if (type.equals("Income") || type.equals("Expense")) {
-                                    addTransactionToTable(date, description, String.valueOf(amount), type);
-                                    successCount++;
-                                    continue;
-                                }
-                            }
-
-                            // If it doesn't match the standard format, process using AI
-                            String processedLine = processWithAI(line);
-                            System.out.println("Processed line: " + processedLine);
-                            parts = processedLine.split("\\|");
-                            // System.out.print(parts.length);
-                            if (parts.length == 4) {
-                                String date = parts[0].trim();
-                                String description = parts[1].trim();
-                                String amount = parts[2].trim();
-                                String type = parts[3].trim();
-
-                                if (type!="") {
-                                    addTransactionToTable(date, description, amount, type);
-                                    successCount++;
-                                } else {
-                                    failCount++;
-                                }
-                            } else {
-                                failCount++;
-                            }
-                        } catch (Exception e) {
-                            System.out.println(e);
-                            failCount++;
-                        }
-                    }
-                }
-                scanner.close();
+        if (result != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.io.File file = fileChooser.getSelectedFile();
+        TransactionImportPipeline pipeline =
+                new TransactionImportPipeline(this::processWithAI, IMPORT_AI_CONCURRENCY, IMPORT_AI_BATCH_SIZE, IMPORT_CHUNK_SIZE);
+        ProgressMonitor monitor = new ProgressMonitor(this, "Importing " + file.getName(), "Starting...", 0, 1000);
+        monitor.setMillisToDecideToPopup(200);
+
+        // The pipeline may wait on slow AI requests between progress updates, so poll the cancel button
+        Timer cancelPoller = new Timer(200, _e -> {
+            if (monitor.isCanceled()) {
+                pipeline.cancel();
+            }
+        });
 
-                // Update charts
-                updateCharts();
+        SwingWorker<ImportResult, ImportProgress> worker = new SwingWorker<>() {
+            @Override
+            protected ImportResult doInBackground() throws Exception {
+                return pipeline.run(file.toPath(),
+                        batch -> manager.addTransactions(batch),
+                        this::publish);
+            }
 
-                JOptionPane.showMessageDialog(this,
-                    "File imported successfully!\n" +
-                    "Successfully imported: " + successCount + " transactions\n" +
-                    "Failed to import: " + failCount + " transactions",
-                    "Import Result",
-                    JOptionPane.INFORMATION_MESSAGE);
+            @Override
+            protected void process(List<ImportProgress> updates) {
+                ImportProgress latest = updates.get(updates.size() - 1);
+                monitor.setProgress((int) (latest.fraction() * 1000));
+                monitor.setNote("Imported " + latest.imported() + ", failed " + latest.failed());
+            }
 
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                    "Error importing file: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
+            @Override
+            protected void done() {
+                cancelPoller.stop();
+                monitor.close();
+                try {
+                    ImportResult outcome = get();
+                    JOptionPane.showMessageDialog(DashboardView.this,
+                        (outcome.cancelled() ? "File import cancelled.\n" : "File imported successfully!\n") +
+                        "Successfully imported: " + outcome.imported() + " transactions\n" +
+                        "Failed to import: " + outcome.failed() + " transactions",
+                        "Import Result",
+                        JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable cause = e instanceof java.util.concurrent.ExecutionException ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(DashboardView.this,
+                        "Error importing file: " + cause.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
             }
-        }
+        };
+        cancelPoller.start();
+        worker.execute();
     }
 
     /**
@@ -1002,52 +894,6 @@ public class DashboardView extends BaseView {
         return wrapper;
     }
 
-    /**
-     * Sets the reference to the TransactionsView for data synchronization.
-     *
-     * @param view The TransactionsView instance.
-     */
-    public void setTransactionsView(TransactionsView view) {
-        this.transactionsView = view;
-    }
-
-    /**
-     * Sets the reference to the AccountsView for data synchronization.
-     *
-     * @param view The AccountsView instance.
-     */
-    public void setAccountsView(AccountsView view) {
-        this.accountsView = view;
-    }
-
-    /**
-     * Loads initial transaction data from the table model into the data service.
-     */
-    private void loadInitialTransactions() {
-        try {
-            // Get existing transaction data from the table model
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
-                String date = (String) tableModel.getValueAt(i, 1);
-                String description = (String) tableModel.getValueAt(i, 2);
-                String amount = (String) tableModel.getValueAt(i, 3);
-                String type = amount.startsWith("-") ? "Expense" : "Income";
-
-                // Clean up the amount string
-                String cleanAmount = amount.replace("$", "").replace("+", "").replace("-", "");
-
-                // Add to the data service
-                dataService.addTransaction(date, description, cleanAmount, type);
-            }
-
-            // Update charts for the first time
-            updateCharts();
-        } catch (Exception e) {
-            // Add exception handling for better diagnosis
-            System.err.println("Error in loadInitialTransactions: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * Updates the display of a single card panel with new information.
      *
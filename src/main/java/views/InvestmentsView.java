@@ -11,14 +11,36 @@ import java.awt.*;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer; // 新增
 import org.jfree.chart.title.TextTitle; // 新增
 import java.awt.geom.Ellipse2D; // 新增
+import java.time.LocalDate;
+import java.util.List;
 import Analysis.InvestmentAnalysisService;
+import services.TransactionEventDispatcher;
+import services.TransactionManager;
+import services.TransactionRollup;
 /**
  * A view class extending {@link BaseView} used to display investment-related information.
  * This view includes multiple charts showing annual and monthly income and expense trends,
  * and a bottom analysis panel.
+ * The charts are drawn from the transaction rollup, so refreshing them costs one point per
+ * year or month, however many transactions are stored.
  */
 public class InvestmentsView extends BaseView {
     private InvestmentAnalysisService analysisService;
+    private TransactionManager manager;
+    // Chart data, refilled in place when the transactions change
+    private XYSeries annualIncomeSeries;
+    private XYSeries annualExpenseSeries;
+    private XYSeries monthlyIncomeSeries;
+    private XYSeries monthlyExpenseSeries;
+
+    /**
+     * Constructs a new InvestmentsView.
+     * Registers for transaction changes, which refresh the charts at most once per frame.
+     */
+    public InvestmentsView() {
+        manager.addListener(new TransactionEventDispatcher(
+                TransactionManager.TransactionListener.onChange(this::updateCharts)));
+    }
 
     /**
      * {@inheritDoc}
@@ -39,6 +61,11 @@ public class InvestmentsView extends BaseView {
     @Override
     protected void initUI() {
         analysisService = new InvestmentAnalysisService();
+        manager = TransactionManager.getInstance();
+        annualIncomeSeries = new XYSeries("Value");
+        annualExpenseSeries = new XYSeries("Value");
+        monthlyIncomeSeries = new XYSeries("Value");
+        monthlyExpenseSeries = new XYSeries("Value");
 
         setLayout(new BorderLayout(15, 15));
 
@@ -47,10 +74,11 @@ public class InvestmentsView extends BaseView {
         chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         // 创建带边框的图表板块
-        chartPanel.add(createChartSection(createAnnualChart("Income Trend", true), "Yearly Income"));
-        chartPanel.add(createChartSection(createAnnualChart("Expense Trend", false), "Yearly Expense"));
-        chartPanel.add(createChartSection(createMonthlyChart("Income Trend"), "Monthly Income"));
-        chartPanel.add(createChartSection(createMonthlyChart("Expense Trend"), "Monthly Expense"));
+        chartPanel.add(createChartSection(createAnnualChart("Income Trend", annualIncomeSeries, true), "Yearly Income"));
+        chartPanel.add(createChartSection(createAnnualChart("Expense Trend", annualExpenseSeries, false), "Yearly Expense"));
+        chartPanel.add(createChartSection(createMonthlyChart("Income Trend", monthlyIncomeSeries), "Monthly Income"));
+        chartPanel.add(createChartSection(createMonthlyChart("Expense Trend", monthlyExpenseSeries), "Monthly Expense"));
+        updateCharts();
 
         // 底部分析面板
         JPanel analysisPanel = createAnalysisPanel();
@@ -105,26 +133,14 @@ public class InvestmentsView extends BaseView {
 
     /**
      * Creates an XY line chart displaying annual income or expense data.
-     * The data is currently hardcoded sample data.
+     * The data points are filled in by {@link #updateCharts()}.
      *
      * @param title The title of the chart.
+     * @param series The series holding one point per year.
      * @param isIncome If {@code true}, styles the chart for income (blue); if {@code false}, styles for expense (red).
      * @return A ChartPanel containing the annual chart.
      */
-    private ChartPanel createAnnualChart(String title, boolean isIncome) {
-        // 创建一个 XY 系列，用于存储数据点
-        XYSeries series = new XYSeries("Value");
-        // 添加 2020 年的数据点
-        series.add(2020, 0);
-        // 添加 2021 年的数据点
-        series.add(2021, 10000);
-        // 添加 2022 年的数据点
-        series.add(2022, 20000);
-        // 添加 2023 年的数据点
-        series.add(2023, 30000);
-        // 添加 2024 年的数据点
-        series.add(2024, 40000);
-
+    private ChartPanel createAnnualChart(String title, XYSeries series, boolean isIncome) {
         // 创建一个 XY 数据集，将 XY 系列添加到数据集中
         XYDataset dataset = new XYSeriesCollection(series);
         // 创建一个 XY 折线图，设置标题、坐标轴标签和数据集等信息
@@ -145,19 +161,13 @@ public class InvestmentsView extends BaseView {
 
     /**
      * Creates an XY line chart displaying monthly income or expense data.
-     * The data is currently randomly generated sample data.
+     * The data points are filled in by {@link #updateCharts()}.
      *
      * @param title The title of the chart.
+     * @param series The series holding one point per month.
      * @return A ChartPanel containing the monthly chart.
      */
-    private ChartPanel createMonthlyChart(String title) {
-        // 创建一个 XY 系列，用于存储数据点
-        XYSeries series = new XYSeries("Value");
-        // 循环生成 1 到 12 月的随机数据点
-        for (int i = 1; i <= 12; i++) {
-            series.add(i, (Math.random() * 4000));
-        }
-
+    private ChartPanel createMonthlyChart(String title, XYSeries series) {
         // 创建一个 XY 数据集，将 XY 系列添加到数据集中
         XYDataset dataset = new XYSeriesCollection(series);
         // 创建一个 XY 折线图，设置标题、坐标轴标签和数据集等信息
@@ -176,6 +186,59 @@ public class InvestmentsView extends BaseView {
         return new ChartPanel(chart);
     }
 
+    /**
+     * Refills the charts from the yearly and monthly rollups of the transactions.
+     * The annual charts show every year with transactions; the monthly charts show
+     * the twelve months of the latest such year, or of the current year if there is none.
+     */
+    public void updateCharts() {
+        List<TransactionRollup.Bucket> years = manager.getRollup(TransactionRollup.Period.YEAR, null, null, null);
+        int year = years.isEmpty() ? LocalDate.now().getYear() : years.get(years.size() - 1).start().getYear();
+        List<TransactionRollup.Bucket> months = manager.getRollup(TransactionRollup.Period.MONTH, null,
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+
+        double[][] yearly = new double[2][years.size()];
+        double[] yearKeys = new double[years.size()];
+        for (int i = 0; i < years.size(); i++) {
+            TransactionRollup.Bucket bucket = years.get(i);
+            yearKeys[i] = bucket.start().getYear();
+            yearly[0][i] = bucket.incomeCents() / 100.0;
+            yearly[1][i] = bucket.expenseCents() / 100.0;
+        }
+        fillSeries(annualIncomeSeries, yearKeys, yearly[0]);
+        fillSeries(annualExpenseSeries, yearKeys, yearly[1]);
+
+        // Months without transactions are drawn as zero
+        double[] monthKeys = new double[12];
+        double[][] monthly = new double[2][12];
+        for (int month = 0; month < 12; month++) {
+            monthKeys[month] = month + 1;
+        }
+        for (TransactionRollup.Bucket bucket : months) {
+            int month = bucket.start().getMonthValue() - 1;
+            monthly[0][month] = bucket.incomeCents() / 100.0;
+            monthly[1][month] = bucket.expenseCents() / 100.0;
+        }
+        fillSeries(monthlyIncomeSeries, monthKeys, monthly[0]);
+        fillSeries(monthlyExpenseSeries, monthKeys, monthly[1]);
+    }
+
+    /**
+     * Replaces the points of a series, notifying its chart once at the end.
+     *
+     * @param series The series to refill.
+     * @param xs The x values.
+     * @param ys The y values.
+     */
+    private void fillSeries(XYSeries series, double[] xs, double[] ys) {
+        series.setNotify(false);
+        series.clear();
+        for (int i = 0; i < xs.length; i++) {
+            series.add(xs[i], ys[i], false);
+        }
+        series.setNotify(true);
+    }
+
     /**
      * Applies common style settings to a JFreeChart, including background,
      * gridlines, data line appearance, title font, and axis tick label fonts.
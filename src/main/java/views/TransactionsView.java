@@ -2,7 +2,12 @@ package views;
 
 import constants.AppConstants;
 import components.*;
-import services.TransactionDataService;
+import services.DebouncedSearch;
+import services.DescriptionIndex;
+import services.TransactionEventDispatcher;
+import services.TransactionManager;
+import services.TransactionRowSorter;
+import services.TransactionTableModel;
 import org.jfree.chart.*;
 import org.jfree.chart.plot.*;
 import org.jfree.data.category.DefaultCategoryDataset;
@@ -10,9 +15,10 @@ import org.jfree.data.general.DefaultPieDataset;
 import ui.AddCardDialog;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -21,6 +27,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -43,20 +51,30 @@ public class TransactionsView extends BaseView {
 
     /** Table displaying all transactions. */
     private JTable transactionTable;
-    /** Model for the main transaction table. */
-    private DefaultTableModel tableModel;
+    /** Model for the main transaction table, shared with the other views. */
+    private TransactionTableModel tableModel;
     /** Table displaying income transactions. */
     private JTable incomeTable;
     /** Table displaying expense transactions. */
     private JTable expenseTable;
-    /** Model for the income table. */
-    private DefaultTableModel incomeTableModel;
-    /** Model for the expense table. */
-    private DefaultTableModel expenseTableModel;
-
-    // Add data service and chart-related fields
-    /** Service for handling transaction data. */
-    private TransactionDataService dataService;
+    /** Model for the income table, a projection of the main model. */
+    private TransactionTableModel incomeTableModel;
+    /** Model for the expense table, a projection of the main model. */
+    private TransactionTableModel expenseTableModel;
+    /** Sorters of the all, income and expense tables, filtered together. */
+    private List<TransactionRowSorter> sorters;
+    /** Searches the description index in the background while the user types. */
+    private DebouncedSearch<DescriptionIndex.SearchResult> descriptionSearch;
+    /** Shows how many transactions the search matched. */
+    private JLabel searchStatusLabel;
+    /** Pause in typing, in milliseconds, after which the search runs. */
+    private static final int SEARCH_DELAY_MILLIS = 150;
+    /** Number of best matches offered as suggestions. */
+    private static final int SEARCH_SUGGESTIONS = 8;
+
+    // Add transaction store and chart-related fields
+    /** Store holding the transactions of all views. */
+    private TransactionManager manager;
     /** JFreeChart object for the expense chart. */
     private JFreeChart expenseChart;
     /** Panel displaying the expense chart. */
@@ -66,8 +84,9 @@ public class TransactionsView extends BaseView {
      * Constructs a new {@code TransactionsView}.
      */
     public TransactionsView() {
-        // Initialize data service
-        dataService = new TransactionDataService();
+        // Redraw the chart once per frame after any change to the transactions
+        manager.addListener(new TransactionEventDispatcher(
+                TransactionManager.TransactionListener.onChange(this::updateExpenseChart)));
     }
 
     /**
@@ -108,77 +127,39 @@ public class TransactionsView extends BaseView {
         // Add transaction table panel to the south position
         add(createTransactionPanel(), BorderLayout.SOUTH);
 
-        // Load initial transaction data into the data service
-        loadInitialTransactions();
+        // Initial chart update; the sample transactions are seeded before the views are built
+        updateExpenseChart();
     }
 
     /**
-     * Loads initial transaction data into the data service.
-     * Data is currently loaded from the table model after initialization.
-     */
-    private void loadInitialTransactions() {
-        try {
-            // Get existing transaction data from the table
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
-                String description = (String) tableModel.getValueAt(i, 0);
-                String date = (String) tableModel.getValueAt(i, 4);
-                String amount = (String) tableModel.getValueAt(i, 5);
-                String type = amount.startsWith("-") ? "Expense" : "Income";
-
-                // Clean up amount string
-                String cleanAmount = amount.replace("$", "").replace("+", "").replace("-", "");
-
-                // Add to data service
-                dataService.addTransaction(date, description, cleanAmount, type);
-            }
-
-            // Initial chart update
-            updateExpenseChart();
-        } catch (Exception e) {
-            // Add exception handling for better diagnosis
-            System.err.println("Error in loadInitialTransactions: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Initializes all table models (all transactions, income, and expense)
+     * Initializes the table models (all transactions, income, and expense)
      * and creates the corresponding {@code JTable} instances.
-     * Populates the tables with initial hardcoded data.
+     * All three are views of the shared transaction model, so no row is copied.
      */
     private void initializeTableModels() {
-        // Define table column names
-        String[] columnNames = { "Description", "Transaction ID", "Type", "Card", "Date", "Amount" };
+        manager = TransactionManager.getInstance();
 
-        // Create main table model
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return true;
-            }
-        };
-
-        // Create income table model
-        incomeTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return true;
-            }
-        };
-
-        // Create expense table model
-        expenseTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return true;
-            }
-        };
+        // Use the shared model and its income and expense projections
+        tableModel = TransactionTableModel.getDefault();
+        incomeTableModel = tableModel.projection("Income");
+        expenseTableModel = tableModel.projection("Expense");
 
         // Create tables
         transactionTable = new JTable(tableModel);
         incomeTable = new JTable(incomeTableModel);
         expenseTable = new JTable(expenseTableModel);
 
+        // Show description, id, category, date and amount; edited cells are written to the store.
+        // Clicking a header sorts on the typed amounts and dates rather than on the cell text
+        sorters = new ArrayList<>();
+        for (JTable table : new JTable[] { transactionTable, incomeTable, expenseTable }) {
+            TransactionTableModel.showColumns(table, TransactionTableModel.DESCRIPTION, TransactionTableModel.ID,
+                    TransactionTableModel.CATEGORY, TransactionTableModel.DATE, TransactionTableModel.AMOUNT);
+            TransactionRowSorter sorter = new TransactionRowSorter((TransactionTableModel) table.getModel());
+            table.setRowSorter(sorter);
+            sorters.add(sorter);
+        }
+
         // Set table styles
         transactionTable.setFont(new Font("Arial", Font.PLAIN, 14));
         transactionTable.setRowHeight(25);
@@ -191,28 +172,6 @@ public class TransactionsView extends BaseView {
         expenseTable.setFont(new Font("Arial", Font.PLAIN, 14));
         expenseTable.setRowHeight(25);
         expenseTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 14));
-
-        Object[][] data = {
-                { "Spotify Subscription", "123456", "Shopping", "1234******", "28 Jan, 12.30 AM", "-$2,500" },
-                { "Freepik Sales", "789012", "Transfer", "5678******", "25 Jan, 10.40 PM", "+$750" },
-                { "Mobile Service", "345678", "Service", "9012******", "20 Jan, 10.40 PM", "-$150" },
-                { "Wilson", "901234", "Transfer", "3456******", "15 Jan, 03.29 PM", "-$1,050" },
-                { "Emily", "567890", "Transfer", "7890******", "14 Jan, 10.40 PM", "+$840" }
-        };
-
-        // Add initial data to corresponding tables
-        for (Object[] row : data) {
-            // Add to main table
-            tableModel.addRow(row);
-
-            // Add to corresponding table based on amount (type)
-            String amount = (String) row[5]; // Amount is in the 6th column
-            if (amount.startsWith("-")) {
-                expenseTableModel.addRow(row);
-            } else {
-                incomeTableModel.addRow(row);
-            }
-        }
     }
 
     /**
@@ -225,14 +184,17 @@ public class TransactionsView extends BaseView {
         // Create main panel using BorderLayout
         JPanel mainPanel = new JPanel(new BorderLayout());
 
-        // Top: Title
+        // Top: Title and description filter
+        JPanel headerPanel = new JPanel(new BorderLayout());
         JLabel titleLabel = new JLabel("Recent Transactions", SwingConstants.CENTER);
         // Set title font to Arial Bold, size 18
         titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
         // Set title label top/bottom padding to 10 pixels
         titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
-        // Add title label to the north position
-        mainPanel.add(titleLabel, BorderLayout.NORTH);
+        headerPanel.add(titleLabel, BorderLayout.CENTER);
+        headerPanel.add(createFilterField(), BorderLayout.EAST);
+        // Add header panel to the north position
+        mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Center: Tabbed pane and transaction tables
         JTabbedPane tabbedPane = new JTabbedPane();
@@ -278,6 +240,98 @@ public class TransactionsView extends BaseView {
         return mainPanel;
     }
 
+    /**
+     * Creates the field that searches descriptions as the user types. The search
+     * runs on the description index in the background once typing pauses; its
+     * matches filter all three tables and the best ones are offered as suggestions.
+     *
+     * @return A panel containing the search label, field and match count.
+     */
+    private JPanel createFilterField() {
+        JTextField filterField = new JTextField(18);
+        JPopupMenu suggestions = new JPopupMenu();
+        suggestions.setFocusable(false);
+        searchStatusLabel = new JLabel(" ");
+        descriptionSearch = new DebouncedSearch<>(query -> DescriptionIndex.getDefault().search(query),
+                result -> showSearchResult(result, filterField, suggestions), SEARCH_DELAY_MILLIS);
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchFor(filterField.getText(), suggestions);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchFor(filterField.getText(), suggestions);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchFor(filterField.getText(), suggestions);
+            }
+        });
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        panel.add(new JLabel("Search:"));
+        panel.add(filterField);
+        panel.add(searchStatusLabel);
+        return panel;
+    }
+
+    /**
+     * Starts a search for the given text, or shows all transactions again if it is blank.
+     *
+     * @param text        The text typed so far.
+     * @param suggestions The suggestion menu to hide while the text is blank.
+     */
+    private void searchFor(String text, JPopupMenu suggestions) {
+        if (text.isBlank()) {
+            descriptionSearch.cancel();
+            suggestions.setVisible(false);
+            searchStatusLabel.setText(" ");
+            applyFilter(TransactionRowSorter.Filter.all());
+        } else {
+            descriptionSearch.textChanged(text);
+        }
+    }
+
+    /**
+     * Filters the tables to the matches of a search and offers the best matches
+     * below the search field; choosing one searches for exactly that description.
+     *
+     * @param result      The ranked search result.
+     * @param field       The search field.
+     * @param suggestions The suggestion menu to fill.
+     */
+    private void showSearchResult(DescriptionIndex.SearchResult result, JTextField field, JPopupMenu suggestions) {
+        applyFilter(TransactionRowSorter.Filter.all().withDescriptionIn(result.descriptions()));
+        searchStatusLabel.setText(result.transactions() + " found");
+
+        suggestions.setVisible(false);
+        suggestions.removeAll();
+        List<DescriptionIndex.Match> matches = result.matches();
+        for (int i = 0; i < Math.min(SEARCH_SUGGESTIONS, matches.size()); i++) {
+            DescriptionIndex.Match match = matches.get(i);
+            JMenuItem item = new JMenuItem(match.description() + " (" + match.transactions() + ")");
+            item.addActionListener(_e -> field.setText(match.description()));
+            suggestions.add(item);
+        }
+        boolean exact = matches.size() == 1 && matches.get(0).description().equals(field.getText());
+        if (!matches.isEmpty() && !exact && field.isShowing()) {
+            suggestions.show(field, 0, field.getHeight());
+        }
+    }
+
+    /**
+     * Applies a filter to all three tables.
+     *
+     * @param filter The filter to apply.
+     */
+    private void applyFilter(TransactionRowSorter.Filter filter) {
+        for (TransactionRowSorter sorter : sorters) {
+            sorter.setFilter(filter);
+        }
+    }
+
     /**
      * Creates the card panel, simulating bank card interfaces.
      * It contains card representations, balance, number, holder, and expiry
@@ -675,15 +729,14 @@ public class TransactionsView extends BaseView {
     }
 
     /**
-     * Updates the expense chart with the latest data from the transaction data
-     * service.
+     * Updates the expense chart with the latest data from the transaction store.
      * Recreates the dataset based on current expense categories and their amounts.
      */
     private void updateExpenseChart() {
         try {
-            if (dataService != null && expenseChart != null) {
+            if (manager != null && expenseChart != null) {
                 // Get category expense data
-                Map<String, Double> categoryData = dataService.getExpenseCategories();
+                Map<String, Double> categoryData = manager.getExpenseCategories();
 
                 // Create a new dataset
                 DefaultCategoryDataset dataset = new DefaultCategoryDataset();
@@ -726,109 +779,4 @@ public class TransactionsView extends BaseView {
         wrapper.add(comp, BorderLayout.CENTER);
         return wrapper;
     }
-
-    /**
-     * Adds a new transaction record to the view.
-     * This includes adding the transaction to the relevant tables and updating the
-     * expense chart.
-     * A random transaction ID and masked card number are generated for display.
-     *
-     * @param date        The date of the transaction.
-     * @param description The description of the transaction.
-     * @param amount      The transaction amount (e.g., "-$2,500" or "+$750").
-     * @param type        The conceptual type of the transaction (e.g., "Shopping",
-     *                    "Transfer", "Service").
-     */
-    public void addTransaction(String date, String description, String amount, String type) {
-        try {
-            // Generate random transaction ID
-            String transactionId = String.format("%06d", (int) (Math.random() * 1000000));
-            // Generate random card number
-            String cardNumber = String.format("%04d******", (int) (Math.random() * 10000));
-
-            // Determine transaction type based on amount
-            String actualType = amount.startsWith("-") ? "Expense" : "Income";
-
-            // Add new row to the table
-            Object[] rowData = {
-                    description,
-                    transactionId,
-                    type,
-                    cardNumber,
-                    date,
-                    amount
-            };
-
-            tableModel.addRow(rowData);
-
-            // Add to corresponding tables based on actual type
-            if (actualType.equals("Income")) {
-                incomeTableModel.addRow(rowData);
-            } else {
-                expenseTableModel.addRow(rowData);
-            }
-
-            // Add to data service
-            String cleanAmount = amount.replace("$", "").replace("+", "").replace("-", "");
-            dataService.addTransaction(date, description, cleanAmount, type);
-
-            // Update chart
-            updateExpenseChart();
-        } catch (Exception e) {
-            System.err.println("Error adding transaction: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Removes a transaction record from the view based on matching details.
-     * Attempts to find and remove the transaction from the main and type-specific
-     * tables.
-     * Note: The underlying data service is not fully updated by this method in the
-     * current implementation.
-     * The expense chart is updated after removal from tables.
-     *
-     * @param date        The date of the transaction to remove.
-     * @param description The description of the transaction to remove.
-     * @param amount      The amount of the transaction to remove.
-     * @param type        The type of the transaction (used to determine which
-     *                    specific table to check).
-     */
-    public void removeTransaction(String date, String description, String amount, String type) {
-        try {
-            // Find and remove matching row in the main table
-            for (int i = tableModel.getRowCount() - 1; i >= 0; i--) {
-                if (tableModel.getValueAt(i, 0).equals(description) &&
-                        tableModel.getValueAt(i, 4).equals(date) &&
-                        tableModel.getValueAt(i, 5).equals(amount)) {
-                    tableModel.removeRow(i);
-                    break;
-                }
-            }
-
-            // Find and remove matching row in the corresponding table based on type
-            String actualType = amount.startsWith("-") ? "Expense" : "Income";
-            DefaultTableModel targetModel = actualType.equals("Income") ? incomeTableModel : expenseTableModel;
-
-            for (int i = targetModel.getRowCount() - 1; i >= 0; i--) {
-                if (targetModel.getValueAt(i, 0).equals(description) &&
-                        targetModel.getValueAt(i, 4).equals(date) &&
-                        targetModel.getValueAt(i, 5).equals(amount)) {
-                    targetModel.removeRow(i);
-                    break;
-                }
-            }
-
-            // Data in the data service should ideally be updated here
-            // However, TransactionDataService currently does not support removing single
-            // transactions
-            // Therefore, all transaction data would need to be rebuilt
-
-            // Update chart
-            updateExpenseChart();
-        } catch (Exception e) {
-            System.err.println("Error removing transaction: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
 }
\ No newline at end of file
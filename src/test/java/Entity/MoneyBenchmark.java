@@ -0,0 +1,51 @@
+package Entity;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Parse time and allocation per amount: the previous chain of {@code replace}
+ * calls and {@link Double#parseDouble}, compared to {@link Money#parseCents(CharSequence)}.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes Entity.MoneyBenchmark [amounts]}.
+ */
+public class MoneyBenchmark {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional amount count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] amounts = new String[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = (i % 2 == 0 ? "-$" : "+$") + String.format("%,d.%02d", i % 100_000, i % 100);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        for (int round = 0; round < 5; round++) {
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            long sum = 0;
+            for (String amount : amounts) {
+                sum += Math.round(Double.parseDouble(amount.replace("$", "").replace(",", "").replace("+", "")) * 100);
+            }
+            long replaceNanos = System.nanoTime() - start;
+            long replaceBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+            bytes = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+            long check = 0;
+            for (String amount : amounts) {
+                check += Money.parseCents(amount);
+            }
+            long moneyNanos = System.nanoTime() - start;
+            long moneyBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+            System.out.printf("round %d: replace+parseDouble %.1f ns, %d B | Money.parseCents %.1f ns, %d B per amount (sums %s)%n",
+                    round, (double) replaceNanos / count, replaceBytes / count,
+                    (double) moneyNanos / count, moneyBytes / count, sum == check ? "match" : "differ");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package Entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link Money}.
+ * This class verifies the accepted amount notations, exact rounding, and that
+ * formatted amounts parse back to the same value.
+ */
+public class MoneyTest {
+
+    /**
+     * Tests the notations used by the tables, imports and currency settings.
+     */
+    @Test
+    public void testParsesAppNotations() {
+        assertEquals(-250000, Money.parseCents("-$2,500"));
+        assertEquals(10050, Money.parseCents("+$100.50"));
+        assertEquals(-750, Money.parseCents("$-7.5"));
+        assertEquals(78000, Money.parseCents("HK$780.00"));
+        assertEquals(9000, Money.parseCents("€90.00"));
+        assertEquals(72000, Money.parseCents("¥720"));
+        assertEquals(1200, Money.parseCents(" 12 "));
+        assertEquals(50, Money.parseCents(".5"));
+        assertEquals(100000000, Money.parseCents("1,000,000"));
+        assertEquals(0, Money.parseCents("-0.00"));
+    }
+
+    /**
+     * Tests that digits past the cents are rounded half away from zero without
+     * the error a double would introduce.
+     */
+    @Test
+    public void testRoundsExactly() {
+        // 1.005 is 1.00499999999999989... as a double and used to round down
+        assertEquals(101, Money.parseCents("1.005"));
+        assertEquals(-101, Money.parseCents("-1.005"));
+        assertEquals(100, Money.parseCents("1.00499"));
+        assertEquals(1000, Money.parseCents("9.995"));
+
+        // Ten cents added ten times is exactly one unit
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.parse("0.10"));
+        }
+        assertEquals(Money.ofCents(100), total);
+    }
+
+    /**
+     * Tests that malformed amounts are rejected like {@link Double#parseDouble} would.
+     */
+    @Test
+    public void testRejectsMalformedAmounts() {
+        for (String text : new String[] {"", " ", "$", "-", "abc", "12a", "1.2.3", "--5", "$$5", "5$",
+                "ABCD$5", "99999999999999999999"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parseCents(text), text);
+        }
+    }
+
+    /**
+     * Tests parsing a field of a longer line and formatting round trips.
+     */
+    @Test
+    public void testRangesAndRoundTrips() {
+        String line = "Coffee,-$3.75,Food";
+        assertEquals(-375, Money.parseCents(line, 7, 13));
+
+        for (long cents : new long[] {0, 5, -5, 99, -100, 123456, Long.MAX_VALUE / 1000}) {
+            Money money = Money.ofCents(cents);
+            assertEquals(money, Money.parse(money.toString()), money.toString());
+        }
+        assertEquals("-12.05", Money.ofCents(-1205).toString());
+        assertEquals("0.10", Money.of(0.1).toString());
+        assertEquals(12.5, Money.parse("$12.50").toDouble());
+    }
+}
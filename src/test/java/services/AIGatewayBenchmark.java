@@ -0,0 +1,106 @@
+package services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+/**
+ * Tail latency of AI requests from many concurrent callers against a local stub
+ * endpoint where every n-th request is very slow, with and without {@link AIGateway}.
+ * A quarter of the callers repeat a prompt another caller has just sent, as when the
+ * dashboard import and the investment report ask about the same transactions.
+ * Direct calls wait for every slow response; the gateway shares duplicate prompts,
+ * hedges slow attempts and answers locally once the deadline has passed.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes:<gson.jar> services.AIGatewayBenchmark [calls] [callers]}.
+ */
+public class AIGatewayBenchmark {
+
+    private static final long LATENCY_MILLIS = 20;
+    private static final int SLOW_EVERY = 10;
+    private static final long SLOW_LATENCY_MILLIS = 2_000;
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional number of calls (defaults to 200) and concurrent callers (defaults to 16)
+     */
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int callers = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        try (StubAIServer stub = new StubAIServer()) {
+            stub.latencyMillis = LATENCY_MILLIS;
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+            service.getAIResponse("warm up");
+            stub.slowEvery = SLOW_EVERY;
+            stub.slowLatencyMillis = SLOW_LATENCY_MILLIS;
+
+            stub.chatRequests.set(0);
+            long[] direct = run(service::getAIResponse, calls, callers);
+            int directRequests = stub.chatRequests.get();
+
+            AIGateway gateway = new AIGateway(service::getAIResponseAsync, service::streamAIResponse,
+                    service.getEndpoint(), 8, Duration.ofMillis(500), Duration.ofMillis(100), 2);
+            int[] fallbacks = new int[1];
+            stub.chatRequests.set(0);
+            long[] gated = run(prompt -> gateway.getAIResponse(prompt, p -> {
+                synchronized (fallbacks) {
+                    fallbacks[0]++;
+                }
+                return "{\"result\":\"local\"}";
+            }), calls, callers);
+            int gatedRequests = stub.chatRequests.get();
+
+            System.out.printf("%d calls from %d callers; server latency %d ms, every %d-th request %d ms; 1 CPU core%n",
+                    calls, callers, LATENCY_MILLIS, SLOW_EVERY, SLOW_LATENCY_MILLIS);
+            report("direct BaiduAIService", direct, directRequests);
+            report("AIGateway", gated, gatedRequests);
+            System.out.printf("gateway: %d coalesced, %d hedged or retried, %d timed out, %d answered locally%n",
+                    gateway.coalesced(), gateway.hedges(), gateway.timeouts(), fallbacks[0]);
+        }
+    }
+
+    /**
+     * Sends the calls from a pool of callers and returns each call's latency in nanoseconds.
+     */
+    private static long[] run(UnaryOperator<String> ask, int calls, int callers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Long>> latencies = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                // Every fourth call repeats the previous prompt
+                String prompt = "message " + (i % 4 == 3 ? i - 1 : i);
+                latencies.add(pool.submit(() -> {
+                    long start = System.nanoTime();
+                    ask.apply(prompt);
+                    return System.nanoTime() - start;
+                }));
+            }
+            long[] result = new long[calls];
+            for (int i = 0; i < calls; i++) {
+                result[i] = latencies.get(i).get();
+            }
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void report(String name, long[] latencies, int requests) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-22s p50 %6.1f ms  p90 %6.1f ms  p99 %7.1f ms  max %7.1f ms  (%d requests sent)%n",
+                name, percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6, requests);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
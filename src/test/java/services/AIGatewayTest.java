@@ -0,0 +1,187 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link AIGateway}.
+ * The gateway runs in front of fake request functions whose answers the tests
+ * complete by hand, so every timing is under the test's control except the
+ * deadline and hedge timers, which are kept short.
+ */
+public class AIGatewayTest {
+
+    /** Records requests and leaves them pending until the test completes them. */
+    private static final class PendingRequests implements Function<String, CompletableFuture<String>> {
+        private final List<CompletableFuture<String>> sent = new ArrayList<>();
+        private final AtomicInteger running = new AtomicInteger();
+        int maxRunning;
+
+        @Override
+        public synchronized CompletableFuture<String> apply(String prompt) {
+            CompletableFuture<String> response = new CompletableFuture<>();
+            maxRunning = Math.max(maxRunning, running.incrementAndGet());
+            sent.add(response);
+            return response;
+        }
+
+        synchronized CompletableFuture<String> get(int i) {
+            return sent.get(i);
+        }
+
+        /** Answers a request; it stops counting as running before the gateway hears of it. */
+        void answer(int i, String response) {
+            running.decrementAndGet();
+            get(i).complete(response);
+        }
+
+        synchronized int count() {
+            return sent.size();
+        }
+    }
+
+    private static AIGateway gateway(Function<String, CompletableFuture<String>> request, int maxConcurrent,
+                                     long deadlineMillis, long hedgeDelayMillis, int maxAttempts) {
+        return new AIGateway(request, (prompt, chunks) -> CompletableFuture.completedFuture(""), "test",
+                maxConcurrent, Duration.ofMillis(deadlineMillis), Duration.ofMillis(hedgeDelayMillis), maxAttempts);
+    }
+
+    /**
+     * Tests that identical prompts in flight share one request and that a prompt
+     * is sent again once its answer has arrived.
+     */
+    @Test
+    public void testIdenticalPromptsAreCoalesced() throws Exception {
+        PendingRequests requests = new PendingRequests();
+        AIGateway gateway = gateway(requests, 4, 10_000, 10_000, 1);
+
+        List<CompletableFuture<String>> answers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            answers.add(gateway.ask("same prompt"));
+        }
+        CompletableFuture<String> other = gateway.ask("other prompt");
+        assertEquals(2, requests.count());
+        assertEquals(9, gateway.coalesced());
+
+        requests.answer(0, "{\"result\":\"shared\"}");
+        for (CompletableFuture<String> answer : answers) {
+            assertEquals("{\"result\":\"shared\"}", answer.get(1, TimeUnit.SECONDS));
+        }
+        assertFalse(other.isDone());
+
+        gateway.ask("same prompt");
+        assertEquals(3, requests.count());
+    }
+
+    /**
+     * Tests that no more than the allowed number of requests run at once and that
+     * queued prompts are sent as slots free up.
+     */
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        PendingRequests requests = new PendingRequests();
+        AIGateway gateway = gateway(requests, 3, 10_000, 10_000, 1);
+
+        List<CompletableFuture<String>> answers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            answers.add(gateway.ask("prompt " + i));
+        }
+        assertEquals(3, requests.count());
+
+        for (int i = 0; i < 10; i++) {
+            requests.answer(i, "answer " + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("answer " + i, answers.get(i).get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(3, requests.maxRunning);
+        assertEquals(10, requests.count());
+    }
+
+    /**
+     * Tests that a prompt fails with a timeout when its budget runs out, that the
+     * blocking call answers with the fallback instead, and that the slot of a hung
+     * request is freed at the deadline.
+     */
+    @Test
+    public void testDeadlineFallsBackAndFreesSlot() throws Exception {
+        PendingRequests requests = new PendingRequests();
+        AIGateway gateway = gateway(requests, 1, 100, 10_000, 1);
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> gateway.ask("hangs").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals("local answer", gateway.getAIResponse("hangs too", prompt -> "local answer"));
+        assertTrue(gateway.getAIResponse("hangs as well").startsWith("Error: "));
+        assertEquals(3, gateway.timeouts());
+        // Each hung request gave its only slot back, so every prompt was sent
+        assertEquals(3, requests.count());
+    }
+
+    /**
+     * Tests that a slow attempt is hedged and the first answer wins, and that a
+     * failed attempt is retried.
+     */
+    @Test
+    public void testHedgeAndRetry() throws Exception {
+        ConcurrentHashMap<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        AIGateway gateway = gateway(prompt -> {
+            int attempt = attempts.computeIfAbsent(prompt, p -> new AtomicInteger()).incrementAndGet();
+            if (attempt == 1 && prompt.equals("slow")) {
+                return new CompletableFuture<>();
+            }
+            if (attempt == 1 && prompt.equals("fails")) {
+                return CompletableFuture.failedFuture(new IOException("API Error: busy"));
+            }
+            return CompletableFuture.completedFuture(prompt + " answered by attempt " + attempt);
+        }, 4, 5_000, 50, 2);
+
+        assertEquals("slow answered by attempt 2", gateway.ask("slow").get(5, TimeUnit.SECONDS));
+        assertEquals("fails answered by attempt 2", gateway.ask("fails").get(5, TimeUnit.SECONDS));
+        assertEquals("fast answered by attempt 1", gateway.ask("fast").get(5, TimeUnit.SECONDS));
+        assertEquals(2, gateway.hedges());
+
+        // The last attempt's error is reported once attempts run out
+        AIGateway failing = gateway(prompt -> CompletableFuture.failedFuture(new IOException("API Error: down")),
+                4, 5_000, 50, 2);
+        assertEquals("Error: API Error: down", failing.getAIResponse("prompt"));
+    }
+
+    /**
+     * Tests the gateway against the local stub server, with streams kept within the slots.
+     */
+    @Test
+    public void testAgainstStubServer() throws Exception {
+        try (StubAIServer stub = new StubAIServer()) {
+            stub.latencyMillis = 20;
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+            AIGateway gateway = new AIGateway(service);
+
+            List<CompletableFuture<String>> answers = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                answers.add(gateway.ask("same"));
+            }
+            for (CompletableFuture<String> answer : answers) {
+                assertEquals("{\"result\":\"answer with token-1\"}", answer.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, stub.chatRequests.get());
+
+            StringBuilder chunks = new StringBuilder();
+            assertEquals("answer with token-1", gateway.stream("hello", chunks::append).get(5, TimeUnit.SECONDS));
+            assertEquals("answer with token-1", chunks.toString());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link AIResponseCache}.
+ * This class verifies both cache tiers, expiry, eviction and the hit/miss counters.
+ */
+public class AIResponseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that entries survive a restart through the file tier and that
+     * lookups are counted per tier.
+     */
+    @Test
+    public void testEntriesPersistAcrossInstances() throws Exception {
+        Path file = tempDir.resolve("cache.txt");
+        String key = AIResponseCache.key("endpoint", "prompt");
+        try (AIResponseCache cache = new AIResponseCache(file, Duration.ofDays(1), 10, 1 << 20)) {
+            assertNull(cache.get(key));
+            cache.put(key, "answer\nwith 两 lines");
+            assertEquals("answer\nwith 两 lines", cache.get(key));
+            assertEquals(new AIResponseCache.Stats(1, 0, 1), cache.stats());
+        }
+
+        try (AIResponseCache reopened = new AIResponseCache(file, Duration.ofDays(1), 10, 1 << 20)) {
+            assertEquals("answer\nwith 两 lines", reopened.get(key));
+            assertEquals("answer\nwith 两 lines", reopened.get(key));
+            assertEquals(new AIResponseCache.Stats(1, 1, 0), reopened.stats());
+            assertEquals(1.0, reopened.stats().hitRate(), 0.001);
+        }
+    }
+
+    /**
+     * Tests that the key depends on both the endpoint and the prompt.
+     */
+    @Test
+    public void testKeyCoversEndpointAndPrompt() {
+        assertEquals(AIResponseCache.key("a", "p"), AIResponseCache.key("a", "p"));
+        assertNotEquals(AIResponseCache.key("a", "p"), AIResponseCache.key("b", "p"));
+        assertNotEquals(AIResponseCache.key("a", "p"), AIResponseCache.key("a", "q"));
+    }
+
+    /**
+     * Tests that entries expire after the time-to-live in both tiers.
+     */
+    @Test
+    public void testEntriesExpire() throws Exception {
+        AtomicLong now = new AtomicLong(1_000);
+        Path file = tempDir.resolve("ttl.txt");
+        try (AIResponseCache cache = new AIResponseCache(file, Duration.ofMinutes(1), 1, 1 << 20, now::get)) {
+            cache.put("k1", "v1");
+            cache.put("k2", "v2");
+            now.addAndGet(Duration.ofSeconds(59).toMillis());
+            assertEquals("v1", cache.get("k1"));
+            now.addAndGet(Duration.ofSeconds(2).toMillis());
+            assertNull(cache.get("k1"));
+            assertNull(cache.get("k2"));
+        }
+    }
+
+    /**
+     * Tests that the in-memory tier is bounded and falls back to the file.
+     */
+    @Test
+    public void testMemoryTierEvictsLeastRecentlyUsed() throws Exception {
+        try (AIResponseCache cache = new AIResponseCache(tempDir.resolve("lru.txt"), Duration.ofDays(1), 2, 1 << 20)) {
+            cache.put("a", "1");
+            cache.put("b", "2");
+            cache.get("a");
+            cache.put("c", "3");
+
+            assertEquals("1", cache.get("a"));
+            assertEquals("2", cache.get("b"));
+            assertEquals(new AIResponseCache.Stats(2, 1, 0), cache.stats());
+        }
+    }
+
+    /**
+     * Tests that the file is compacted to half its limit and keeps the newest entries.
+     */
+    @Test
+    public void testFileIsCompactedWhenFull() throws Exception {
+        AtomicLong now = new AtomicLong();
+        Path file = tempDir.resolve("size.txt");
+        long limit = 8 * 1024;
+        try (AIResponseCache cache = new AIResponseCache(file, Duration.ofDays(1), 1, limit, now::incrementAndGet)) {
+            for (int i = 0; i < 500; i++) {
+                cache.put("key" + i, "value number " + i);
+                assertTrue(cache.diskBytes() <= limit);
+            }
+            assertEquals(cache.diskBytes(), Files.size(file));
+            assertEquals("value number 499", cache.get("key499"));
+            assertNull(cache.get("key0"));
+        }
+    }
+
+    /**
+     * Tests that a torn last line is ignored and that only cacheable responses are stored.
+     */
+    @Test
+    public void testTornLineAndUncacheableResponses() throws Exception {
+        Path file = tempDir.resolve("torn.txt");
+        try (AIResponseCache cache = new AIResponseCache(file, Duration.ofDays(1), 10, 1 << 20)) {
+            cache.put("good", "kept");
+        }
+        Files.writeString(file, "bad 12", StandardOpenOption.APPEND);
+
+        AtomicInteger fetches = new AtomicInteger();
+        try (AIResponseCache cache = new AIResponseCache(file, Duration.ofDays(1), 10, 1 << 20)) {
+            assertEquals("kept", cache.get("good"));
+            assertNull(cache.get("bad"));
+
+            for (int i = 0; i < 2; i++) {
+                cache.getOrFetch("e", "fails", p -> "Error: " + fetches.incrementAndGet(), r -> !r.startsWith("Error"));
+                cache.getOrFetch("e", "works", p -> "ok " + fetches.incrementAndGet(), r -> !r.startsWith("Error"));
+            }
+            assertEquals(3, fetches.get());
+        }
+        assertTrue(Files.readString(file).endsWith("\n"));
+    }
+}
@@ -0,0 +1,85 @@
+package services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per-call latency of {@link BaiduAIService} against a local stub endpoint with a
+ * fixed server delay, compared to the previous request flow that fetched a new
+ * token with a new HTTP client on every call.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes:<gson.jar> services.BaiduAIServiceBenchmark [calls] [latencyMillis]}.
+ */
+public class BaiduAIServiceBenchmark {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional number of calls (defaults to 50) and server latency in ms (defaults to 20)
+     */
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        try (StubAIServer stub = new StubAIServer()) {
+            stub.latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 20;
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+
+            // Warm up both paths
+            for (int i = 0; i < 5; i++) {
+                legacyCall(stub, "warm up");
+                service.getAIResponse("warm up");
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                legacyCall(stub, "message " + i);
+            }
+            double legacyMillis = (System.nanoTime() - start) / 1e6 / calls;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                service.getAIResponse("message " + i);
+            }
+            double cachedMillis = (System.nanoTime() - start) / 1e6 / calls;
+
+            start = System.nanoTime();
+            List<CompletableFuture<String>> pending = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                pending.add(service.getAIResponseAsync("message " + i));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+            double pipelinedMillis = (System.nanoTime() - start) / 1e6 / calls;
+
+            System.out.printf("server latency %d ms, %d calls%n", stub.latencyMillis, calls);
+            System.out.printf("token + new client per call: %.1f ms/call%n", legacyMillis);
+            System.out.printf("cached token, shared client: %.1f ms/call (%.0f%% of previous)%n",
+                    cachedMillis, 100 * cachedMillis / legacyMillis);
+            System.out.printf("pipelined async requests:    %.1f ms/call%n", pipelinedMillis);
+        }
+    }
+
+    /**
+     * Mirrors the request flow before the token cache: a new client, a token request
+     * and then the chat request.
+     */
+    private static int legacyCall(StubAIServer stub, String message) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> token = client.send(HttpRequest.newBuilder(URI.create(stub.tokenUrl()))
+                .POST(HttpRequest.BodyPublishers.ofString("")).build(), HttpResponse.BodyHandlers.ofString());
+        String accessToken = JsonParser.parseString(token.body()).getAsJsonObject().get("access_token").getAsString();
+        HttpClient chatClient = HttpClient.newHttpClient();
+        HttpResponse<String> response = chatClient.send(
+                HttpRequest.newBuilder(URI.create(stub.chatUrl() + "?access_token=" + accessToken))
+                        .POST(HttpRequest.BodyPublishers.ofString(new Gson().toJson(Map.of("messages", List.of(message))))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        return response.body().length();
+    }
+}
@@ -1,12 +1,23 @@
 package services;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Test class for BaiduAIService.
  * This class contains unit tests for various methods of BaiduAIService,
  * such as text summarization, sentiment analysis, and keyword extraction.
+ * The request tests run against a local {@link StubAIServer}.
  */
 public class BaiduAIServiceTest {
 
@@ -44,4 +55,121 @@ public class BaiduAIServiceTest {
         assertNotNull(keywords);
         assertTrue(keywords.length > 0);
     }
+
+    /**
+     * Tests that the access token is fetched once and reused, also when many
+     * asynchronous requests start at the same time.
+     */
+    @Test
+    public void testAccessTokenIsCachedAndShared() throws Exception {
+        try (StubAIServer stub = new StubAIServer()) {
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+
+            List<CompletableFuture<String>> pending = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                pending.add(service.getAIResponseAsync("hello " + i));
+            }
+            for (CompletableFuture<String> response : pending) {
+                assertTrue(response.get(10, TimeUnit.SECONDS).contains("token-1"));
+            }
+            assertTrue(service.getAIResponse("again").contains("token-1"));
+
+            // A second instance shares the token
+            BaiduAIService other = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+            assertTrue(other.getAIResponse("hi").contains("token-1"));
+            assertEquals(1, stub.tokenRequests.get());
+            assertEquals(22, stub.chatRequests.get());
+        }
+    }
+
+    /**
+     * Tests that a token close to expiry is refreshed in the background while
+     * requests keep using it, and that an expired token is replaced before use.
+     */
+    @Test
+    public void testTokenIsRefreshedBeforeExpiry() throws Exception {
+        try (StubAIServer stub = new StubAIServer()) {
+            AtomicLong now = new AtomicLong(0);
+            stub.expiresInSeconds = 3600;
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), now::get);
+            assertTrue(service.getAIResponse("first").contains("token-1"));
+
+            // Inside the refresh margin: the old token is still used, a new one is fetched
+            now.set(TimeUnit.MINUTES.toMillis(55));
+            assertTrue(service.getAIResponse("second").contains("token-1"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (stub.tokenRequests.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+            assertTrue(service.getAIResponse("third").contains("token-2"));
+
+            // Past the expiry of token-2: the request waits for token-3
+            now.set(TimeUnit.MINUTES.toMillis(200));
+            assertTrue(service.getAIResponse("fourth").contains("token-3"));
+            assertEquals(3, stub.tokenRequests.get());
+        }
+    }
+
+    /**
+     * Tests that a token rejected by the API is replaced and the request retried once.
+     */
+    @Test
+    public void testRejectedTokenIsReplaced() throws Exception {
+        try (StubAIServer stub = new StubAIServer()) {
+            stub.rejectTokensUpTo = 1;
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+            assertTrue(service.getAIResponse("hello").contains("token-2"));
+
+            stub.rejectTokensUpTo = 100;
+            assertTrue(service.getAIResponse("hello").startsWith("Error: "));
+        }
+    }
+
+    /**
+     * Tests that streamed chunks reach the consumer while the response is still
+     * open, and that the future completes with the whole answer.
+     */
+    @Test
+    public void testStreamDeliversChunksBeforeResponseEnds() throws Exception {
+        try (StubAIServer stub = new StubAIServer()) {
+            stub.streamChunks = List.of("Hello", ", ", "world", "!");
+            stub.holdLastChunk = new CountDownLatch(1);
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+
+            List<String> chunks = new CopyOnWriteArrayList<>();
+            CompletableFuture<String> answer = service.streamAIResponse("hi", chunk -> {
+                chunks.add(chunk);
+                if (chunks.size() == 3) {
+                    // Only released once the first chunks have been received
+                    stub.holdLastChunk.countDown();
+                }
+            });
+
+            assertEquals("Hello, world!", answer.get(10, TimeUnit.SECONDS));
+            assertEquals(List.of("Hello", ", ", "world", "!"), chunks);
+        }
+    }
+
+    /**
+     * Tests that a streaming request with a rejected token is retried, and that
+     * an API error fails the future without delivering any chunk.
+     */
+    @Test
+    public void testStreamRetriesRejectedTokenAndReportsErrors() throws Exception {
+        try (StubAIServer stub = new StubAIServer()) {
+            stub.rejectTokensUpTo = 1;
+            BaiduAIService service = new BaiduAIService(stub.tokenUrl(), stub.chatUrl(), System::currentTimeMillis);
+            List<String> chunks = new CopyOnWriteArrayList<>();
+
+            assertEquals("answer with token-2", service.streamAIResponse("hi", chunks::add).get(10, TimeUnit.SECONDS));
+
+            stub.rejectTokensUpTo = 100;
+            chunks.clear();
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> service.streamAIResponse("hi", chunks::add).get(10, TimeUnit.SECONDS));
+            assertTrue(error.getCause().getMessage().contains("Access token expired"));
+            assertTrue(chunks.isEmpty());
+        }
+    }
 }
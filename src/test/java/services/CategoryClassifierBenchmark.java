@@ -0,0 +1,81 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Categorizing descriptions against a growing rule table: sequential
+ * {@code contains} checks, as the previous keyword chain did, compared to the
+ * automaton and to the memoized lookup.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.CategoryClassifierBenchmark [descriptions]}.
+ */
+public class CategoryClassifierBenchmark {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional description count (defaults to 200,000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        for (int ruleCount : new int[] {15, 1_000, 5_000}) {
+            List<CategoryClassifier.Rule> rules = new ArrayList<>();
+            for (int i = 0; i < ruleCount; i++) {
+                rules.add(new CategoryClassifier.Rule("merchant " + i + " ", "Category " + (i % 40)));
+            }
+            // A few thousand distinct merchants, most of them unknown
+            String[] descriptions = new String[count];
+            for (int i = 0; i < count; i++) {
+                descriptions[i] = "Card payment to MERCHANT " + (i * 31 % 4000) * 3 + " London GB";
+            }
+
+            long start = System.nanoTime();
+            CategoryClassifier classifier = new CategoryClassifier(rules);
+            long buildNanos = System.nanoTime() - start;
+
+            for (int round = 0; round < 3; round++) {
+                int checked = Math.min(count, ruleCount > 1000 ? 20_000 : count);
+                start = System.nanoTime();
+                int matched = 0;
+                for (int i = 0; i < checked; i++) {
+                    if (containsChain(rules, descriptions[i]) != null) {
+                        matched++;
+                    }
+                }
+                double containsNanos = (double) (System.nanoTime() - start) / checked;
+
+                start = System.nanoTime();
+                int automatonMatched = 0;
+                for (String description : descriptions) {
+                    if (!CategoryClassifier.DEFAULT_CATEGORY.equals(classifier.classify(description))) {
+                        automatonMatched++;
+                    }
+                }
+                double automatonNanos = (double) (System.nanoTime() - start) / count;
+
+                start = System.nanoTime();
+                for (String description : descriptions) {
+                    classifier.categorize(description);
+                }
+                double memoNanos = (double) (System.nanoTime() - start) / count;
+
+                System.out.printf("%,d rules (built in %.1f ms), round %d: contains chain %.0f ns | automaton %.0f ns"
+                                + " | memoized %.0f ns per description (matched %d of %d / %d of %d)%n",
+                        ruleCount, buildNanos / 1e6, round, containsNanos, automatonNanos, memoNanos,
+                        matched, checked, automatonMatched, count);
+            }
+        }
+    }
+
+    /** The previous approach: lower case the description, then one contains check per keyword. */
+    private static String containsChain(List<CategoryClassifier.Rule> rules, String description) {
+        String lower = description.toLowerCase();
+        for (CategoryClassifier.Rule rule : rules) {
+            if (lower.contains(rule.keyword())) {
+                return rule.category();
+            }
+        }
+        return null;
+    }
+}
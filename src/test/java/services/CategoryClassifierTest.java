@@ -0,0 +1,126 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link CategoryClassifier}.
+ * This class verifies that the automaton agrees with plain substring search,
+ * including rule priority, overlapping keywords and case, and that rule files load.
+ */
+public class CategoryClassifierTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** The first matching rule by substring search, as the classifier should behave. */
+    private static String reference(List<CategoryClassifier.Rule> rules, String description) {
+        String lower = description.toLowerCase();
+        for (CategoryClassifier.Rule rule : rules) {
+            if (lower.contains(rule.keyword().toLowerCase())) {
+                return rule.category();
+            }
+        }
+        return CategoryClassifier.DEFAULT_CATEGORY;
+    }
+
+    /**
+     * Tests the built-in rules, including priority between categories and case.
+     */
+    @Test
+    public void testDefaultRules() {
+        CategoryClassifier classifier = CategoryClassifier.defaults();
+        assertEquals("Housing", classifier.categorize("Monthly RENT"));
+        assertEquals("Food", classifier.categorize("Grocery shopping"));
+        assertEquals("Transport", classifier.categorize("Gas station"));
+        assertEquals("Entertainment", classifier.categorize("Movie night"));
+        assertEquals("Savings", classifier.categorize("Savings deposit"));
+        assertEquals("Others", classifier.categorize("Salary"));
+        // Housing comes before Transport, wherever the keywords occur
+        assertEquals("Housing", classifier.categorize("Car park near the house"));
+        // Substring matches, as before: "scarf" contains "car"
+        assertEquals("Transport", classifier.categorize("Scarf"));
+        assertEquals("Others", classifier.categorize(""));
+    }
+
+    /**
+     * Tests overlapping keywords and non-ASCII text against substring search
+     * on random descriptions.
+     */
+    @Test
+    public void testAgreesWithSubstringSearch() {
+        List<CategoryClassifier.Rule> rules = List.of(
+                new CategoryClassifier.Rule("she", "A"),
+                new CategoryClassifier.Rule("he", "B"),
+                new CategoryClassifier.Rule("hers", "C"),
+                new CategoryClassifier.Rule("his", "D"),
+                new CategoryClassifier.Rule("Café", "E"),
+                new CategoryClassifier.Rule("超市", "F"),
+                new CategoryClassifier.Rule("aab", "G"));
+        CategoryClassifier classifier = new CategoryClassifier(rules);
+        assertEquals("A", classifier.classify("ushers"));
+        assertEquals("E", classifier.classify("CAFÉ NERO"));
+        assertEquals("F", classifier.classify("沃尔玛超市"));
+        assertEquals("G", classifier.classify("aaab"));
+
+        String alphabet = "shersiaAbcÉé超市 ";
+        Random random = new Random(7);
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder description = new StringBuilder();
+            for (int i = random.nextInt(12); i > 0; i--) {
+                description.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = description.toString();
+            assertEquals(reference(rules, text), classifier.classify(text), text);
+            assertEquals(reference(rules, text), classifier.categorize(text), text);
+        }
+    }
+
+    /**
+     * Tests a large generated rule table and a rule file.
+     */
+    @Test
+    public void testManyRulesAndRuleFile() throws Exception {
+        List<CategoryClassifier.Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rules.add(new CategoryClassifier.Rule("merchant" + i + ";", "Category " + (i % 40)));
+        }
+        CategoryClassifier classifier = new CategoryClassifier(rules, "Unknown");
+        assertEquals("Category 2", classifier.classify("POS MERCHANT4242; LONDON"));
+        assertEquals("Unknown", classifier.classify("POS merchant5000; LONDON"));
+
+        Path file = tempDir.resolve("rules.txt");
+        Files.write(file, List.of(
+                "# Merchant rules",
+                "Coffee: starbucks, costa  # chains",
+                "",
+                "Food: coffee, grocery"));
+        CategoryClassifier loaded = CategoryClassifier.load(file);
+        assertEquals("Coffee", loaded.categorize("Starbucks coffee"));
+        assertEquals("Food", loaded.categorize("Coffee beans"));
+        assertEquals("Others", loaded.categorize("Rent"));
+
+        assertThrows(IllegalArgumentException.class, () -> CategoryClassifier.parseRules(List.of("no category")));
+        assertThrows(IllegalArgumentException.class, () -> new CategoryClassifier.Rule("", "Food"));
+    }
+
+    /**
+     * Tests that the data service categorizes with the classifier it was given.
+     */
+    @Test
+    public void testDataServiceUsesClassifier() {
+        TransactionDataService service = new TransactionDataService(
+                new CategoryClassifier(List.of(new CategoryClassifier.Rule("tesco", "Groceries"))));
+        long id = service.addTransaction("01/01/2024", "TESCO Metro", "12.00", "Expense");
+        assertEquals("Groceries", service.getTransaction(id).category());
+        assertEquals(12.0, service.getExpenseCategories().get("Groceries"));
+    }
+}
@@ -0,0 +1,93 @@
+package services;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refreshing the weekly spending chart while transactions arrive one by one: building a
+ * new dataset and calling {@code setDataset} after every transaction, as the dashboard
+ * did, against updating the chart's dataset in place through a {@link ChartUpdateScheduler}.
+ * Every chart change is drawn into an image, standing in for the repaint it triggers.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -Djava.awt.headless=true -cp target/classes:target/test-classes services.ChartUpdateSchedulerBenchmark [transactions]}.
+ */
+public class ChartUpdateSchedulerBenchmark {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional number of transactions (defaults to 2,000)
+     */
+    public static void main(String[] args) throws Exception {
+        int transactions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        Rectangle2D area = new Rectangle2D.Double(0, 0, 400, 300);
+
+        // Rebuilding the dataset after every transaction
+        TransactionManager rebuilt = new TransactionManager(new TransactionDataService());
+        JFreeChart rebuiltChart = chart(new DefaultCategoryDataset());
+        AtomicInteger rebuiltDraws = new AtomicInteger();
+        rebuiltChart.addChangeListener(e -> {
+            rebuiltDraws.incrementAndGet();
+            rebuiltChart.draw(graphics, area);
+        });
+        rebuilt.addListener(TransactionManager.TransactionListener.onChange(() -> {
+            DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+            for (Map.Entry<String, Double> entry : rebuilt.getWeeklySpending().entrySet()) {
+                dataset.addValue(entry.getValue(), "Spending", entry.getKey());
+            }
+            rebuiltChart.getCategoryPlot().setDataset(dataset);
+        }));
+        long start = System.nanoTime();
+        addAll(rebuilt, transactions);
+        long rebuiltNanos = System.nanoTime() - start;
+
+        // Updating in place, one refresh per frame
+        TransactionManager scheduled = new TransactionManager(new TransactionDataService());
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        JFreeChart scheduledChart = chart(dataset);
+        AtomicInteger scheduledDraws = new AtomicInteger();
+        scheduledChart.addChangeListener(e -> {
+            scheduledDraws.incrementAndGet();
+            scheduledChart.draw(graphics, area);
+        });
+        ChartUpdateScheduler scheduler = new ChartUpdateScheduler();
+        scheduler.register(dataset, () -> {
+            for (Map.Entry<String, Double> entry : scheduled.getWeeklySpending().entrySet()) {
+                dataset.setValue(entry.getValue(), "Spending", entry.getKey());
+            }
+        });
+        scheduled.addListener(TransactionManager.TransactionListener.onChange(scheduler::requestUpdate));
+        start = System.nanoTime();
+        addAll(scheduled, transactions);
+        SwingUtilities.invokeAndWait(scheduler::flush);
+        long scheduledNanos = System.nanoTime() - start;
+
+        System.out.printf("transactions: %,d; 1 CPU core%n", transactions);
+        System.out.printf("new dataset per transaction: %.1f ms, %,d chart redraws%n",
+                rebuiltNanos / 1e6, rebuiltDraws.get());
+        System.out.printf("in place, scheduled:         %.1f ms, %,d chart redraws%n",
+                scheduledNanos / 1e6, scheduledDraws.get());
+    }
+
+    private static JFreeChart chart(DefaultCategoryDataset dataset) {
+        return ChartFactory.createBarChart("", "", "Amount ($)", dataset,
+                PlotOrientation.VERTICAL, true, true, false);
+    }
+
+    private static void addAll(TransactionManager manager, int transactions) {
+        for (int i = 0; i < transactions; i++) {
+            manager.addTransaction(String.format("%02d/05/2025", i % 28 + 1), "Coffee", "3.50", "Expense");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package services;
+
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link ChartUpdateScheduler}.
+ * This class verifies that bursts of update requests refresh each dataset once,
+ * in place and on the event dispatch thread, with a single change event.
+ */
+public class ChartUpdateSchedulerTest {
+
+    /**
+     * Tests that requests from another thread are merged into one update per dataset
+     * that fires one change event, however many values it writes.
+     */
+    @Test
+    public void testBurstIsOneInPlaceUpdate() throws Exception {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        AtomicInteger events = new AtomicInteger();
+        dataset.addChangeListener(e -> events.incrementAndGet());
+        AtomicInteger updates = new AtomicInteger();
+        CountDownLatch updated = new CountDownLatch(1);
+        boolean[] offEdt = new boolean[1];
+
+        ChartUpdateScheduler scheduler = new ChartUpdateScheduler(30);
+        scheduler.register(dataset, () -> {
+            offEdt[0] |= !SwingUtilities.isEventDispatchThread();
+            updates.incrementAndGet();
+            for (String day : new String[]{"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"}) {
+                dataset.setValue(updates.get(), "Spending", day);
+            }
+            updated.countDown();
+        });
+        for (int i = 0; i < 100; i++) {
+            scheduler.requestUpdate();
+        }
+        assertTrue(updated.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(1, updates.get());
+        assertEquals(1, events.get());
+        assertEquals(7, dataset.getColumnCount());
+        assertFalse(offEdt[0]);
+        assertTrue(dataset.getNotify());
+    }
+
+    /**
+     * Tests that a request made while the datasets are being refreshed schedules another
+     * frame, and that a failing update does not leave its dataset silenced.
+     */
+    @Test
+    public void testRequestDuringFlushAndFailure() throws Exception {
+        DefaultCategoryDataset failing = new DefaultCategoryDataset();
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        AtomicInteger updates = new AtomicInteger();
+        CountDownLatch twice = new CountDownLatch(2);
+        ChartUpdateScheduler scheduler = new ChartUpdateScheduler(10);
+        scheduler.register(failing, () -> {
+            throw new IllegalStateException("no data");
+        });
+        scheduler.register(dataset, () -> {
+            if (updates.incrementAndGet() == 1) {
+                scheduler.requestUpdate();
+            }
+            twice.countDown();
+        });
+
+        SwingUtilities.invokeAndWait(scheduler::flush);
+        assertTrue(twice.await(5, TimeUnit.SECONDS));
+        assertTrue(failing.getNotify());
+        assertThrows(IllegalStateException.class, scheduler::flush);
+    }
+
+    /**
+     * Tests that a request arriving from another thread while a flush stops the pending
+     * frame is not lost, and that the scheduler keeps refreshing afterwards.
+     */
+    @Test
+    public void testRequestDuringFlushIsNotLost() throws Exception {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger seen = new AtomicInteger(-1);
+        ChartUpdateScheduler[] scheduler = new ChartUpdateScheduler[1];
+        AtomicBoolean raced = new AtomicBoolean();
+        scheduler[0] = new ChartUpdateScheduler(listener -> new Timer(10, listener) {
+            @Override
+            public void stop() {
+                // The first time a flush stops the timer, an import thread asks for an update
+                if (SwingUtilities.isEventDispatchThread() && raced.compareAndSet(false, true)) {
+                    Thread requester = new Thread(scheduler[0]::requestUpdate);
+                    requester.start();
+                    try {
+                        requester.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.stop();
+            }
+        });
+        scheduler[0].register(dataset, () -> seen.set(version.get()));
+
+        scheduler[0].requestUpdate();
+        SwingUtilities.invokeAndWait(scheduler[0]::flush);
+        assertTrue(raced.get());
+
+        version.set(1);
+        scheduler[0].requestUpdate();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (seen.get() != 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, seen.get());
+    }
+}
@@ -0,0 +1,97 @@
+package services;
+
+import services.CurrencyConverterService.Currency;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Re-denominating 1M amounts: the previous per-amount conversion through two
+ * boxed map lookups, compared to the rate matrix and the bulk array paths; and
+ * formatting the results with {@code String.format} compared to the cached formatter.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.CurrencyConverterServiceBenchmark [amounts]}.
+ */
+public class CurrencyConverterServiceBenchmark {
+
+    private static final Map<String, Double> TO_USD_RATES = new HashMap<>();
+
+    static {
+        TO_USD_RATES.put("USD", 1.0);
+        TO_USD_RATES.put("CNY", 1 / 7.2);
+        TO_USD_RATES.put("EUR", 1 / 0.9);
+        TO_USD_RATES.put("HKD", 1 / 7.8);
+    }
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional amount count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double[] amounts = new double[count];
+        long[] cents = new long[count];
+        for (int i = 0; i < count; i++) {
+            cents[i] = (i % 2 == 0 ? -1 : 1) * (long) (i % 50_000) * 37;
+            amounts[i] = cents[i] / 100.0;
+        }
+        double[] converted = new double[count];
+        long[] convertedCents = new long[count];
+        String[] formatted = new String[count];
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                converted[i] = mapConvert(amounts[i], "USD", "HKD");
+            }
+            long mapNanos = System.nanoTime() - start;
+            double check = converted[count - 1];
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                converted[i] = CurrencyConverterService.convert(amounts[i], "USD", "HKD");
+            }
+            long matrixNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            CurrencyConverterService.convert(amounts, converted, Currency.USD, Currency.HKD);
+            long bulkNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            CurrencyConverterService.convert(cents, convertedCents, Currency.USD, Currency.HKD);
+            long bulkCentsNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d convert: map lookups %.1f ms | matrix %.1f ms | bulk double[] %.1f ms"
+                            + " | bulk long[] %.1f ms (%s)%n",
+                    round, mapNanos / 1e6, matrixNanos / 1e6, bulkNanos / 1e6, bulkCentsNanos / 1e6,
+                    Math.abs(check - converted[count - 1]) < 1e-6 ? "match" : "differ");
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                formatted[i] = "HK$" + String.format("%.2f", converted[i]);
+            }
+            long stringFormatNanos = System.nanoTime() - start;
+            String expected = formatted[count - 1];
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                formatted[i] = CurrencyConverterService.format(converted[i], Currency.HKD);
+            }
+            long cachedNanos = System.nanoTime() - start;
+            System.out.printf("round %d format: String.format %.1f ms | cached formatter %.1f ms (%s)%n",
+                    round, stringFormatNanos / 1e6, cachedNanos / 1e6,
+                    expected.equals(formatted[count - 1]) ? "match" : "differ");
+        }
+    }
+
+    /** The previous convert: two boxed map lookups per amount. */
+    private static double mapConvert(double amount, String fromCurrency, String toCurrency) {
+        Double fromRate = TO_USD_RATES.get(fromCurrency);
+        Double toRate = TO_USD_RATES.get(toCurrency);
+        if (fromRate == null || toRate == null) {
+            throw new IllegalArgumentException("Invalid currency code.");
+        }
+        return amount * fromRate / toRate;
+    }
+}
@@ -1,6 +1,11 @@
 package services;
 
 import org.junit.jupiter.api.Test;
+import services.CurrencyConverterService.Currency;
+import services.CurrencyConverterService.RateTable;
+
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -63,4 +68,61 @@ public class CurrencyConverterServiceTest {
         assertEquals("€10.00", CurrencyConverterService.format(10, "EUR"));
         assertEquals("HK$10.00", CurrencyConverterService.format(10, "HKD"));
     }
+
+    /**
+     * Tests that the bulk conversions agree with converting one amount at a time.
+     */
+    @Test
+    public void testBulkConversion() {
+        double[] amounts = {0, 1, -2.5, 7.2, 1234.56};
+        double[] converted = CurrencyConverterService.convert(amounts, Currency.CNY, Currency.EUR);
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(CurrencyConverterService.convert(amounts[i], "CNY", "EUR"), converted[i], 1e-9);
+        }
+
+        long[] cents = {0, 100, -250, 720, 123456};
+        long[] convertedCents = CurrencyConverterService.convert(cents, Currency.USD, Currency.HKD);
+        assertArrayEquals(new long[] {0, 780, -1950, 5616, 962957}, convertedCents);
+
+        // Converting in place
+        CurrencyConverterService.convert(cents, cents, Currency.USD, Currency.USD);
+        assertArrayEquals(new long[] {0, 100, -250, 720, 123456}, cents);
+    }
+
+    /**
+     * Tests that new rates are published as a new version and that a table taken
+     * before the update keeps the old rates.
+     */
+    @Test
+    public void testRatesAreVersionedAndSwapped() {
+        RateTable before = CurrencyConverterService.rates();
+        try {
+            RateTable after = CurrencyConverterService.updateRates(Map.of(Currency.EUR, 1 / 0.8));
+            assertEquals(before.version() + 1, after.version());
+            assertSame(after, CurrencyConverterService.rates());
+            assertEquals(0.8, CurrencyConverterService.convert(1, "USD", "EUR"), 1e-9);
+            assertEquals(0.9, before.rate(Currency.USD, Currency.EUR), 1e-9);
+            // Rates that were not updated are kept
+            assertEquals(7.2, after.rate(Currency.USD, Currency.CNY), 1e-9);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> CurrencyConverterService.updateRates(Map.of(Currency.CNY, 0.0)));
+            assertSame(after, CurrencyConverterService.rates());
+        } finally {
+            CurrencyConverterService.updateRates(Map.of(Currency.EUR, before.toUsd(Currency.EUR)));
+        }
+    }
+
+    /**
+     * Tests rounding and negative amounts in the cached formatter.
+     */
+    @Test
+    public void testFormatRoundingAndCache() {
+        assertEquals("$-12.50", CurrencyConverterService.format(-12.5, "USD"));
+        assertEquals("€0.13", CurrencyConverterService.format(0.125, "EUR"));
+        assertEquals("€-0.13", CurrencyConverterService.format(-0.125, "EUR"));
+        assertEquals("¥1234567.05", CurrencyConverterService.format(1234567.05, Currency.CNY));
+        assertSame(CurrencyConverterService.format(99.99, Currency.HKD), CurrencyConverterService.format(99.99, Currency.HKD));
+        assertEquals("12.0 GBP", CurrencyConverterService.format(12, "GBP"));
+    }
 }
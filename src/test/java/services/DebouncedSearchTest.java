@@ -0,0 +1,89 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link DebouncedSearch}.
+ */
+public class DebouncedSearchTest {
+
+    /**
+     * Tests that quick changes are searched once, with the latest text, off the
+     * event dispatch thread, and that the result arrives on it.
+     */
+    @Test
+    public void testSearchesLatestTextOnce() throws Exception {
+        List<String> searched = new CopyOnWriteArrayList<>();
+        List<String> results = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        boolean[] searchedOnEdt = new boolean[1];
+        boolean[] deliveredOnEdt = new boolean[1];
+        try (DebouncedSearch<String> search = new DebouncedSearch<>(text -> {
+            searchedOnEdt[0] |= SwingUtilities.isEventDispatchThread();
+            searched.add(text);
+            return text.toUpperCase();
+        }, result -> {
+            deliveredOnEdt[0] = SwingUtilities.isEventDispatchThread();
+            results.add(result);
+            delivered.countDown();
+        }, 50)) {
+            SwingUtilities.invokeAndWait(() -> {
+                search.textChanged("s");
+                search.textChanged("st");
+                search.textChanged("sta");
+            });
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+        }
+        assertEquals(List.of("sta"), searched);
+        assertEquals(List.of("STA"), results);
+        assertFalse(searchedOnEdt[0]);
+        assertTrue(deliveredOnEdt[0]);
+    }
+
+    /**
+     * Tests that the result of a text changed while it was being searched is
+     * dropped, and that a cancelled search delivers nothing.
+     */
+    @Test
+    public void testStaleAndCancelledResultsAreDropped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> results = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        try (DebouncedSearch<String> search = new DebouncedSearch<>(text -> {
+            if (text.equals("slow")) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return text;
+        }, result -> {
+            results.add(result);
+            delivered.countDown();
+        }, 20)) {
+            search.textChanged("slow");
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            search.textChanged("fast");
+            release.countDown();
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+
+            search.textChanged("cancelled");
+            search.cancel();
+            Thread.sleep(200);
+            SwingUtilities.invokeAndWait(() -> { });
+        }
+        assertEquals(List.of("fast"), results);
+    }
+}
@@ -0,0 +1,86 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search-as-you-type over transaction descriptions: typing {@code "starbucks"} one
+ * character at a time, each prefix searched with a {@link DescriptionIndex} and with a
+ * linear scan normalizing and checking every transaction description. Descriptions are
+ * raw merchant strings with store numbers, around 50,000 distinct ones, and a few
+ * AI-normalized texts.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.DescriptionIndexBenchmark [rows]}.
+ */
+public class DescriptionIndexBenchmark {
+
+    private static final String[] MERCHANTS = {
+        "STARBUCKS", "Star Market", "TESCO STORES", "AMAZON MKTPLACE", "UBER TRIP", "Shell Oil",
+        "Café Nero", "Pret A Manger", "WHOLEFDS MKT", "Netflix.com", "SPOTIFY", "Walgreens"
+    };
+    private static final String[] NORMALIZED = {
+        "Starbucks coffee", "Grocery shopping", "Ride share", "Fuel", "Streaming subscription"
+    };
+    private static final String QUERY = "starbucks";
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional row count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        TransactionManager manager = new TransactionManager(new TransactionDataService());
+        manager.addTransactions(drafts(0, rows));
+        long start = System.nanoTime();
+        DescriptionIndex index = DescriptionIndex.over(manager);
+        long buildNanos = System.nanoTime() - start;
+        TransactionSnapshot snapshot = manager.snapshot();
+
+        System.out.printf("rows: %,d; distinct descriptions: %,d; 1 CPU core%n", rows, index.size());
+        System.out.printf("index built in %.1f ms%n", buildNanos / 1e6);
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("round %d%n", round);
+            for (int length = 1; length <= QUERY.length(); length++) {
+                String text = QUERY.substring(0, length);
+                start = System.nanoTime();
+                DescriptionIndex.SearchResult result = index.search(text);
+                long indexNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                int scanned = scan(snapshot, text);
+                long scanNanos = System.nanoTime() - start;
+                System.out.printf("  \"%s\": %,d descriptions, %,d transactions; index %.2f ms, scan %.1f ms (%,d)%n",
+                        text, result.matches().size(), result.transactions(),
+                        indexNanos / 1e6, scanNanos / 1e6, scanned);
+            }
+        }
+
+        start = System.nanoTime();
+        manager.addTransactions(drafts(rows, 1_000));
+        System.out.printf("1,000 rows added (store and index): %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+
+    private static int scan(TransactionSnapshot snapshot, String text) {
+        String query = DescriptionIndex.normalize(text);
+        int found = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (DescriptionIndex.normalize(snapshot.description(i)).contains(query)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static List<TransactionDraft> drafts(int first, int count) {
+        List<TransactionDraft> drafts = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            String description = i % 50 == 0
+                    ? NORMALIZED[i % NORMALIZED.length]
+                    : MERCHANTS[i % MERCHANTS.length] + " #" + (i / MERCHANTS.length % 4_200);
+            drafts.add(new TransactionDraft(String.format("%02d/%02d/%d", i % 28 + 1, i % 12 + 1, 2015 + i % 10),
+                    description, (i * 7919L % 100_000) / 100.0 + "", i % 5 == 0 ? "Income" : "Expense"));
+        }
+        return drafts;
+    }
+}
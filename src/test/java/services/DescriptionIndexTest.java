@@ -0,0 +1,82 @@
+package services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link DescriptionIndex}.
+ * The index is built over a manager with a store of its own and follows its changes.
+ */
+public class DescriptionIndexTest {
+
+    private TransactionManager manager;
+    private DescriptionIndex index;
+
+    /**
+     * Creates a manager with a few merchants, some used more than once, and indexes it.
+     */
+    @BeforeEach
+    public void setUp() {
+        manager = new TransactionManager(new TransactionDataService());
+        manager.addTransaction("01/03/2024", "STARBUCKS #1234", "4.50", "Expense");
+        manager.addTransaction("02/03/2024", "Starbucks", "3.20", "Expense");
+        manager.addTransaction("03/03/2024", "Starbucks", "5.10", "Expense");
+        manager.addTransaction("04/03/2024", "Café Nero", "2.80", "Expense");
+        manager.addTransaction("05/03/2024", "Tesco Superstore", "61.00", "Expense");
+        index = DescriptionIndex.over(manager);
+    }
+
+    private static List<String> descriptions(DescriptionIndex.SearchResult result) {
+        List<String> descriptions = new ArrayList<>();
+        for (DescriptionIndex.Match match : result.matches()) {
+            descriptions.add(match.description());
+        }
+        return descriptions;
+    }
+
+    /**
+     * Tests that raw and normalized spellings are found alike and that matches
+     * are ranked by kind, then by number of transactions.
+     */
+    @Test
+    public void testSearchIsNormalizedAndRanked() {
+        DescriptionIndex.SearchResult result = index.search("starbucks");
+        assertEquals(List.of("Starbucks", "STARBUCKS #1234"), descriptions(result));
+        assertEquals(2, result.matches().get(0).transactions());
+        assertEquals(3, result.transactions());
+
+        assertEquals(List.of("Café Nero"), descriptions(index.search("cafe")));
+        assertEquals(List.of("STARBUCKS #1234"), descriptions(index.search("starbucks 1234")));
+        assertEquals(List.of("Starbucks", "STARBUCKS #1234", "Tesco Superstore"), descriptions(index.search("st")));
+        assertEquals(List.of(), descriptions(index.search("star nero")));
+        assertEquals(List.of(), descriptions(index.search("#")));
+        assertEquals(Set.of("Starbucks", "STARBUCKS #1234"), index.search("STAR").descriptions());
+        assertEquals(4, index.size());
+    }
+
+    /**
+     * Tests that added, edited and removed transactions are reflected in the results.
+     */
+    @Test
+    public void testFollowsChanges() {
+        manager.addTransactions(List.of(
+                new TransactionDraft("06/03/2024", "Pret A Manger", "6.00", "Expense"),
+                new TransactionDraft("07/03/2024", "Pret A Manger", "4.00", "Expense")));
+        assertEquals(2, index.search("pret").transactions());
+
+        long nero = manager.findTransactionIds("04/03/2024", "Café Nero", "2.80", "Expense").iterator().next();
+        manager.updateTransactionById(nero, "04/03/2024", "Caffe Nero", "2.80", "Expense");
+        assertEquals(List.of("Caffe Nero"), descriptions(index.search("nero")));
+
+        manager.removeTransaction(nero);
+        assertEquals(List.of(), descriptions(index.search("nero")));
+        manager.addTransaction("08/03/2024", "Caffe Nero", "3.00", "Expense");
+        assertEquals(1, index.search("caffe").transactions());
+    }
+}
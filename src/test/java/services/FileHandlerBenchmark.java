@@ -0,0 +1,89 @@
+package data;
+
+import Entity.Transaction;
+import services.SecurityService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cold load time of a file in the line format: the previous sequential reader
+ * compared to the memory-mapped, chunked loader at increasing parallelism.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes data.FileHandlerBenchmark [rows]}.
+ */
+public class FileHandlerBenchmark {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional row count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = Files.createTempFile("transactions", ".txt");
+        try {
+            List<String> plain = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                plain.add("Grocery shopping " + i + "," + (i % 500) + ".25," + (i % 7 == 0 ? "Income" : "Expense"));
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for (String line : SecurityService.encryptAll(plain)) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            System.out.printf("rows: %,d, file: %.1f MB, cores: %d%n",
+                    rows, Files.size(file) / 1e6, Runtime.getRuntime().availableProcessors());
+
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                int loaded = sequentialLoad(file).size();
+                System.out.printf("round %d: sequential reader %d ms (%,d rows)", round, millis(start), loaded);
+                for (int parallelism = 1; parallelism <= Runtime.getRuntime().availableProcessors(); parallelism *= 2) {
+                    ForkJoinPool pool = new ForkJoinPool(parallelism);
+                    try {
+                        start = System.nanoTime();
+                        FileHandler.loadLineFormat(file, pool, 1 << 20);
+                        System.out.printf(" | mapped, %d threads %d ms", parallelism, millis(start));
+                    } finally {
+                        pool.shutdown();
+                    }
+                }
+                System.out.println();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Mirrors the loader before this change: one thread, line by line, String.split.
+     */
+    private static List<Transaction> sequentialLoad(Path file) throws Exception {
+        List<Transaction> transactions = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String decrypted = SecurityService.decrypt(line);
+                if (decrypted == null)
+                    continue;
+                String[] data = decrypted.split(",");
+                if (data.length == 3) {
+                    transactions.add(new Transaction(data[0], Double.parseDouble(data[1]), data[2]));
+                }
+            }
+        }
+        return transactions;
+    }
+
+    private static long millis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,150 @@
+package data;
+
+import Entity.Money;
+import Entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.SecurityService;
+import services.TransactionDataService;
+import services.TransactionRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for the line format loader of {@link FileHandler}.
+ * This class verifies that chunked parallel loading keeps the file order and
+ * handles the same lines as the sequential reader did.
+ */
+public class FileHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests a file cut into many small chunks, with Windows line endings, blank
+     * lines, lines that do not decrypt and lines with the wrong number of fields.
+     */
+    @Test
+    public void testChunkedLoadKeepsOrderAndSkipsBadLines() throws Exception {
+        StringBuilder file = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String plain = "Purchase " + i + "," + (i * 0.25) + "," + (i % 2 == 0 ? "Expense" : "Income");
+            file.append(SecurityService.encrypt(plain)).append(i % 3 == 0 ? "\r\n" : "\n");
+            expected.add(new Transaction("Purchase " + i, i * 0.25, i % 2 == 0 ? "Expense" : "Income").toString());
+            if (i % 500 == 0) {
+                file.append("\n").append("not encrypted\n");
+                file.append(SecurityService.encrypt("too,many,fields,here")).append('\n');
+                file.append(SecurityService.encrypt("amount,not a number,Expense")).append('\n');
+            }
+        }
+        // The last line has no line break
+        file.append(SecurityService.encrypt("Last,1.5,Expense"));
+        expected.add(new Transaction("Last", 1.5, "Expense").toString());
+        Path path = tempDir.resolve("transactions.txt");
+        Files.writeString(path, file, StandardCharsets.ISO_8859_1);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> loaded = new ArrayList<>();
+            for (Transaction transaction : FileHandler.loadLineFormat(path, pool, 1024)) {
+                loaded.add(transaction.toString());
+            }
+            assertEquals(expected, loaded);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(expected.size(), new FileHandler().loadTransactions(path.toString()).size());
+    }
+
+    /**
+     * Tests that lines are parsed like String.split: exactly three fields,
+     * trailing empty fields ignored.
+     */
+    @Test
+    public void testParseLineMatchesSplit() {
+        assertEquals("Coffee", FileHandler.parseLine("Coffee,3.5,Food").getDescription());
+        assertEquals("Food", FileHandler.parseLine("Coffee,3.5,Food,,").getCategory());
+        assertEquals("", FileHandler.parseLine(",3.5,Food").getDescription());
+        assertNull(FileHandler.parseLine("Coffee,3.5,"));
+        assertNull(FileHandler.parseLine("Coffee,3.5"));
+        assertNull(FileHandler.parseLine("Coffee,3.5,Food,Extra"));
+        assertNull(FileHandler.parseLine("Coffee,abc,Food"));
+    }
+
+    /**
+     * Tests loading into the transaction store of a service in file order.
+     */
+    @Test
+    public void testLoadIntoService() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add(SecurityService.encrypt("Item " + i + "," + i + ".5,Expense"));
+        }
+        Path path = tempDir.resolve("transactions.txt");
+        Files.write(path, lines);
+
+        TransactionDataService service = new TransactionDataService();
+        long[] ids = new FileHandler().loadTransactions(path.toString(), service);
+
+        assertEquals(100, service.size());
+        assertEquals(100, ids.length);
+        TransactionRecord record = service.getTransaction(ids[42]);
+        assertEquals("Item 42", record.description());
+        assertEquals(4250, record.amountCents());
+        assertEquals("Expense", record.type());
+    }
+
+    /**
+     * Tests that a stored category other than Income or Expense loads as the category
+     * of an expense and counts in the category totals, while Income stays income.
+     */
+    @Test
+    public void testLoadedCategoriesCountAsExpenses() throws Exception {
+        List<String> lines = List.of(
+                SecurityService.encrypt("Coffee,3.5,Food"),
+                SecurityService.encrypt("Bus ticket,2.25,Transport"),
+                SecurityService.encrypt("Salary,3000,Income"));
+        Path path = tempDir.resolve("transactions.txt");
+        Files.write(path, lines);
+
+        TransactionDataService service = new TransactionDataService();
+        long[] ids = new FileHandler().loadTransactions(path.toString(), service);
+
+        assertEquals(3, ids.length);
+        assertEquals("Expense", service.getTransaction(ids[0]).type());
+        assertEquals("Food", service.getTransaction(ids[0]).category());
+        assertEquals("Income", service.getTransaction(ids[2]).type());
+        assertEquals(3.5, service.getExpenseCategories().get("Food"), 1e-9);
+        assertEquals(2.25, service.getExpenseCategories().get("Transport"), 1e-9);
+    }
+
+    /**
+     * Tests that a block format file loads into a service with its dates and types.
+     */
+    @Test
+    public void testLoadBlockFileIntoService() throws Exception {
+        Path path = tempDir.resolve("transactions.dat");
+        Transaction rent = new Transaction("Rent", Money.ofCents(120000), "Expense", LocalDate.of(2024, 3, 1));
+        Transaction book = new Transaction("Book", Money.ofCents(1999), "Education", null);
+        book.setDateText("2024-03-02");
+        new FileHandler().saveTransactions(List.of(rent, book), path.toString());
+
+        TransactionDataService service = new TransactionDataService();
+        long[] ids = new FileHandler().loadTransactions(path.toString(), service);
+
+        assertEquals(2, ids.length);
+        assertEquals("01/03/2024", service.getTransaction(ids[0]).date());
+        assertEquals("2024-03-02", service.getTransaction(ids[1]).date());
+        assertEquals("Education", service.getTransaction(ids[1]).category());
+        assertEquals(19.99, service.getExpenseCategories().get("Education"), 1e-9);
+    }
+}
@@ -0,0 +1,175 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link LocalCategorizer} and {@link NaiveBayesModel}.
+ * This class trains the local model on a synthetic statement corpus, reports its
+ * accuracy on merchants held out of training next to the keyword rules, and
+ * verifies when the AI is consulted.
+ */
+public class LocalCategorizerTest {
+
+    /**
+     * Merchants per category, as {training, held out}. Brand names are shared across
+     * categories (Tesco groceries, fuel and savings; Amazon groceries and video; Shell
+     * fuel and energy), and the held-out merchants are never seen in training, so a
+     * prediction has to weigh words that point to more than one category.
+     */
+    private static final Map<String, String[][]> MERCHANTS = Map.of(
+            "Food", new String[][] {
+                    {"TESCO STORES", "Uber Eats", "Amazon Fresh", "Pret Coffee", "Sainsbury's Superstore",
+                            "Deliveroo Takeaway", "Pizza Hut Restaurant", "Co-op Food"},
+                    {"Asda Superstore", "Costa Coffee", "Just Eat Takeaway", "Nando's Restaurant",
+                            "Sainsbury's Local", "Shell Cafe Coffee"}},
+            "Transport", new String[][] {
+                    {"Uber Trip", "Shell Fuel", "Tesco Fuel", "Trainline Tickets", "TfL Travel", "NCP Parking",
+                            "Bolt Trip"},
+                    {"BP Fuel Station", "Asda Fuel", "National Rail Tickets", "Heathrow Parking",
+                            "Addison Lee Trip", "Sainsbury's Fuel"}},
+            "Housing", new String[][] {
+                    {"Shell Energy Bill", "Octopus Energy", "Thames Water Bill", "Rent payment", "Council Tax",
+                            "Barclays Mortgage", "Foxtons Rent"},
+                    {"British Gas Energy", "Severn Trent Water", "Nationwide Mortgage", "Landlord Rent Transfer",
+                            "EDF Energy Bill", "Lambeth Council Tax"}},
+            "Entertainment", new String[][] {
+                    {"Netflix Subscription", "Spotify Premium", "Amazon Prime Video", "Odeon Cinema Tickets",
+                            "Steam Games", "Disney Plus Subscription", "Apple Music"},
+                    {"Vue Cinema", "Ticketmaster Tickets", "Apple TV Subscription", "Xbox Games",
+                            "YouTube Premium", "Now TV Video"}},
+            "Savings", new String[][] {
+                    {"Vanguard ISA", "Moneybox Savings", "Barclays Savings Transfer", "Premium Bonds",
+                            "Tesco Bank Savings", "Nationwide ISA"},
+                    {"Moneybox ISA Transfer", "Chase Savings", "Marcus Savings Account",
+                            "Hargreaves Lansdown ISA", "Barclays Investment ISA"}});
+
+    private static final String[] PREFIXES = {"", "CARD PAYMENT TO ", "POS ", "DD ", "Contactless "};
+    private static final String[] SUFFIXES = {"", " LONDON", " GB", " 4821", " ON 12 MAR", " REF 77120"};
+
+    private record Example(String description, String category) {
+    }
+
+    private static List<Example> corpus(int count, long seed, boolean heldOut) {
+        Random random = new Random(seed);
+        List<String> categories = new ArrayList<>(MERCHANTS.keySet());
+        categories.sort(null);
+        List<Example> examples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String category = categories.get(random.nextInt(categories.size()));
+            String[] merchants = MERCHANTS.get(category)[heldOut ? 1 : 0];
+            String description = PREFIXES[random.nextInt(PREFIXES.length)]
+                    + merchants[random.nextInt(merchants.length)]
+                    + SUFFIXES[random.nextInt(SUFFIXES.length)];
+            examples.add(new Example(description, category));
+        }
+        return examples;
+    }
+
+    /**
+     * Trains on the user's history and compares accuracy on transactions at merchants
+     * it has never seen with the keyword rules.
+     */
+    @Test
+    public void testAccuracyAgainstKeywordBaseline() {
+        TransactionDataService history = new TransactionDataService();
+        LocalCategorizer categorizer = new LocalCategorizer(CategoryClassifier.defaults(), null, 0.0);
+        for (Example example : corpus(2000, 1, false)) {
+            categorizer.learn(example.description(), example.category(), "Expense");
+        }
+        history.addTransaction("01/03/2024", "Salary ACME LTD", "3000", "Income");
+        history.addTransaction("02/03/2024", "Netflix", "9.99", "Expense");
+        categorizer.train(history.snapshot());
+
+        List<Example> test = corpus(1000, 2, true);
+        int local = 0;
+        int keywords = 0;
+        long start = System.nanoTime();
+        for (Example example : test) {
+            if (example.category().equals(categorizer.categorize(example.description()))) {
+                local++;
+            }
+        }
+        long nanosPerPrediction = (System.nanoTime() - start) / test.size();
+        for (Example example : test) {
+            if (example.category().equals(CategoryClassifier.defaults().categorize(example.description()))) {
+                keywords++;
+            }
+        }
+        double localAccuracy = (double) local / test.size();
+        double keywordAccuracy = (double) keywords / test.size();
+        System.out.printf("Category accuracy on %d transactions at unseen merchants: naive Bayes %.1f%%, keyword rules %.1f%%"
+                + " (%.1f us per prediction)%n", test.size(), localAccuracy * 100, keywordAccuracy * 100,
+                nanosPerPrediction / 1000.0);
+
+        assertTrue(localAccuracy >= 0.8, "naive Bayes accuracy " + localAccuracy);
+        assertTrue(localAccuracy > keywordAccuracy + 0.3, "keyword accuracy " + keywordAccuracy);
+        assertEquals("Income", categorizer.inferType("Salary ACME LTD MARCH"));
+        assertEquals(0, categorizer.aiRequests());
+    }
+
+    /**
+     * Tests that only uncertain predictions reach the AI, that its answer is learned,
+     * and that unusable answers fall back to the keyword rules.
+     */
+    @Test
+    public void testFallsBackToAIBelowThreshold() {
+        AtomicInteger calls = new AtomicInteger();
+        LocalCategorizer categorizer = new LocalCategorizer(CategoryClassifier.defaults(), prompt -> {
+            calls.incrementAndGet();
+            if (prompt.contains("Gym")) {
+                return "{\"result\":\"Health\"}";
+            }
+            return prompt.contains("Income or Expense") ? "{\"result\":\"Expense.\"}" : "{\"result\":\"entertainment\"}";
+        }, LocalCategorizer.DEFAULT_THRESHOLD);
+        for (Example example : corpus(500, 3, false)) {
+            categorizer.learn(example.description(), example.category(), "Expense");
+        }
+
+        assertEquals("Food", categorizer.categorize("TESCO STORES 1234"));
+        assertEquals(0, calls.get());
+
+        // An unknown merchant goes to the AI once; the answer is remembered
+        assertEquals("Entertainment", categorizer.categorize("Ticketmaster"));
+        assertEquals(1, calls.get());
+        assertEquals("Entertainment", categorizer.categorize("Ticketmaster"));
+        assertEquals(1, calls.get());
+
+        // An answer outside the known categories is rejected in favour of the rules
+        assertEquals("Others", categorizer.categorize("PureGym membership"));
+        assertEquals(2, calls.get());
+
+        // Every example was an expense, so the type model is certain and answers locally
+        assertEquals("Expense", categorizer.inferType("Ticketmaster"));
+        assertEquals(2, categorizer.aiRequests());
+    }
+
+    /**
+     * Tests tokenization and that predictions carry a posterior probability.
+     */
+    @Test
+    public void testNaiveBayesModel() {
+        assertEquals(List.of("card", "payment", "to", "tesco", "a1"),
+                NaiveBayesModel.tokenize("CARD PAYMENT TO TESCO #4821 a1"));
+
+        NaiveBayesModel model = new NaiveBayesModel();
+        assertNull(model.predict("anything"));
+        model.learn("coffee shop", "Food");
+        model.learn("coffee beans", "Food");
+        model.learn("bus ticket", "Transport");
+        NaiveBayesModel.Prediction prediction = model.predict("Coffee");
+        assertEquals("Food", prediction.label());
+        assertTrue(prediction.confidence() > 0.5 && prediction.confidence() < 1.0);
+        // Nothing known about the words: the prior decides, with low confidence
+        assertTrue(model.predict("xyz").confidence() < 0.7);
+        assertEquals(3, model.size());
+        assertEquals(List.of("Food", "Transport"), model.labels());
+    }
+}
@@ -0,0 +1,33 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link SampleTransactions}.
+ */
+public class SampleTransactionsTest {
+
+    /**
+     * Tests that the samples are added once, and never to a store that already has transactions.
+     */
+    @Test
+    public void testSeedsOnlyAnEmptyStore() {
+        TransactionManager manager = new TransactionManager(new TransactionDataService());
+        assertTrue(SampleTransactions.seedIfEmpty(manager));
+        int seeded = manager.snapshot().size();
+        assertEquals(SampleTransactions.drafts().size(), seeded);
+        assertFalse(SampleTransactions.seedIfEmpty(manager));
+        assertEquals(seeded, manager.snapshot().size());
+
+        TransactionManager used = new TransactionManager(new TransactionDataService());
+        used.addTransaction("01/03/2024", "Salary", "3000", "Income");
+        assertFalse(SampleTransactions.seedIfEmpty(used));
+        assertEquals(1, used.snapshot().size());
+
+        TransactionDraft first = SampleTransactions.drafts().get(0);
+        assertEquals("Expense", first.type());
+        assertEquals("850.00", first.amount());
+    }
+}
@@ -0,0 +1,76 @@
+package services;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encryption and decryption throughput of {@link SecurityService}, compared to the
+ * previous implementation that derived the key and created a cipher on every call.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.SecurityServiceBenchmark [lines]}.
+ */
+public class SecurityServiceBenchmark {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional line count (defaults to 100,000)
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<String> lines = new ArrayList<>(count);
+        long bytes = 0;
+        for (int i = 0; i < count; i++) {
+            String line = "Grocery shopping " + i + "," + (i % 500) + ".25,Food";
+            lines.add(line);
+            bytes += line.getBytes(StandardCharsets.UTF_8).length;
+        }
+        List<String> encrypted = SecurityService.encryptAll(lines);
+        System.out.printf("lines: %,d (%.1f MB of plaintext)%n", count, bytes / 1e6);
+
+        for (int round = 0; round < 3; round++) {
+            // The previous implementation is measured on a tenth of the lines to keep the run short
+            int legacyCount = count / 10;
+            long start = System.nanoTime();
+            for (int i = 0; i < legacyCount; i++) {
+                legacyDecrypt(encrypted.get(i));
+            }
+            double legacy = throughput(bytes / 10, start);
+
+            start = System.nanoTime();
+            for (String line : encrypted) {
+                SecurityService.decrypt(line);
+            }
+            double cached = throughput(bytes, start);
+
+            start = System.nanoTime();
+            SecurityService.decryptAll(encrypted);
+            double bulkDecrypt = throughput(bytes, start);
+
+            start = System.nanoTime();
+            SecurityService.encryptAll(lines);
+            double bulkEncrypt = throughput(bytes, start);
+
+            System.out.printf("round %d: decrypt per call, new key and cipher %.2f MB/s | cached key and cipher %.1f MB/s"
+                    + " | decryptAll %.1f MB/s | encryptAll %.1f MB/s%n", round, legacy, cached, bulkDecrypt, bulkEncrypt);
+        }
+    }
+
+    /**
+     * Mirrors the decryption before the key cache: a new key derivation and a new cipher per call.
+     */
+    private static String legacyDecrypt(String encryptedContent) throws Exception {
+        SecretKeySpec secretKey = SecurityService.deriveSecretKey("BuckBrainSuperKey");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, secretKey);
+        return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedContent)), StandardCharsets.UTF_8);
+    }
+
+    private static double throughput(long bytes, long startNanos) {
+        return bytes / 1e6 / ((System.nanoTime() - startNanos) / 1e9);
+    }
+}
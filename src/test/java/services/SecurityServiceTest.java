@@ -1,6 +1,11 @@
 package services;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -52,4 +57,44 @@ public class SecurityServiceTest {
         String result = SecurityService.decrypt("not_valid_ciphertext");
         assertNull(result); // 解密失败应返回 null，而不是抛异常
     }
+
+    /**
+     * Tests that the cached key is the one files were encrypted with before,
+     * so existing data stays readable.
+     */
+    @Test
+    public void testCiphertextIsCompatibleWithStoredData() {
+        assertEquals("bsbipvL7P7CCOq3om3Xjp4Yt/QOhTQxBYJZ8iryzdy0=", SecurityService.encrypt("user:password123"));
+    }
+
+    /**
+     * Tests that a ciphertext with a wrong padding does not leave the thread's
+     * cipher in a broken state.
+     */
+    @Test
+    public void testFailedDecryptionDoesNotAffectNextCall() {
+        String encrypted = SecurityService.encrypt("hello");
+        assertNull(SecurityService.decrypt("AAAAAAAAAAAAAAAAAAAAAA=="));
+        assertEquals("hello", SecurityService.decrypt(encrypted));
+    }
+
+    /**
+     * Tests that the bulk methods keep the order of their input, also when they
+     * run in parallel, and return null for elements that fail.
+     */
+    @Test
+    public void testBulkMethodsKeepOrder() {
+        List<String> plain = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            plain.add("transaction " + i + ",12.50,Food");
+        }
+
+        List<String> encrypted = SecurityService.encryptAll(plain);
+        assertEquals(SecurityService.encrypt(plain.get(4321)), encrypted.get(4321));
+        assertEquals(plain, SecurityService.decryptAll(encrypted));
+
+        assertEquals(Arrays.asList("a", null, "b"), SecurityService.decryptAll(
+                List.of(SecurityService.encrypt("a"), "not_valid_ciphertext", SecurityService.encrypt("b"))));
+        assertTrue(SecurityService.encryptAll(List.of()).isEmpty());
+    }
 }
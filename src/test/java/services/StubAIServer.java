@@ -0,0 +1,140 @@
+package services;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for the Baidu token and chat endpoints, used by tests and benchmarks.
+ * Tokens are numbered ({@code token-1}, {@code token-2}, ...) and every chat reply echoes
+ * the token it was sent with, so callers can tell which token a request used. Requests
+ * with {@code "stream":true} are answered with server-sent events. A slow tail, where
+ * some requests take far longer than the rest, can be simulated with {@link #slowEvery}.
+ */
+class StubAIServer implements AutoCloseable {
+    static {
+        // Without TCP_NODELAY the JDK server stalls each keep-alive response on a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    final AtomicInteger tokenRequests = new AtomicInteger();
+    final AtomicInteger chatRequests = new AtomicInteger();
+    volatile long expiresInSeconds = 2_592_000;
+    volatile long latencyMillis;
+    /** Tokens up to this number are rejected by the chat endpoint as expired. */
+    volatile int rejectTokensUpTo;
+    /** The answer pieces of a streaming request; {@code {token}} is replaced by the access token. */
+    volatile List<String> streamChunks = List.of("answer ", "with ", "{token}");
+    /** If set, a streaming response waits for this latch before its last event. */
+    volatile CountDownLatch holdLastChunk;
+    /** If positive, every n-th chat request is delayed by {@link #slowLatencyMillis} on top of the latency. */
+    volatile int slowEvery;
+    volatile long slowLatencyMillis;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    StubAIServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/token", exchange -> {
+            delay();
+            int token = tokenRequests.incrementAndGet();
+            respond(exchange, "{\"access_token\":\"token-" + token + "\",\"expires_in\":" + expiresInSeconds + "}");
+        });
+        server.createContext("/chat", exchange -> {
+            delay();
+            int number = chatRequests.incrementAndGet();
+            if (slowEvery > 0 && number % slowEvery == 0) {
+                sleep(slowLatencyMillis);
+            }
+            String query = exchange.getRequestURI().getQuery();
+            String token = query.substring(query.indexOf("access_token=") + "access_token=".length());
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (Integer.parseInt(token.substring("token-".length())) <= rejectTokensUpTo) {
+                respond(exchange, "{\"error_code\":111,\"error_msg\":\"Access token expired\"}");
+            } else if (request.contains("\"stream\":true")) {
+                streamEvents(exchange, token);
+            } else {
+                respond(exchange, "{\"result\":\"answer with " + token + "\"}");
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String tokenUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/token";
+    }
+
+    String chatUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/chat";
+    }
+
+    private void delay() {
+        sleep(latencyMillis);
+    }
+
+    private static void sleep(long millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Sends {@link #streamChunks} as server-sent events, flushing after each one.
+     * The last event waits for {@link #holdLastChunk} if it is set.
+     */
+    private void streamEvents(HttpExchange exchange, String token) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            List<String> chunks = streamChunks;
+            for (int i = 0; i < chunks.size(); i++) {
+                boolean last = i == chunks.size() - 1;
+                if (last && holdLastChunk != null) {
+                    try {
+                        holdLastChunk.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                JsonObject event = new JsonObject();
+                event.addProperty("sentence_id", i);
+                event.addProperty("is_end", last);
+                event.addProperty("result", chunks.get(i).replace("{token}", token));
+                out.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
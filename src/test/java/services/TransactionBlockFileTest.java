@@ -0,0 +1,138 @@
+package data;
+
+import Entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.SecurityService;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionBlockFile} and the block format support
+ * of {@link FileHandler}.
+ * This class verifies round trips, date range reads, tamper detection and the
+ * migration from the line format.
+ */
+public class TransactionBlockFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < count; i++) {
+            // Every tenth transaction has no date
+            LocalDate date = i % 10 == 9 ? null : start.plusDays(i / 10);
+            Transaction transaction = new Transaction("Purchase " + i, i * 1.25, i % 2 == 0 ? "Food" : null, date);
+            // Some keep the date as it was written
+            if (i % 7 == 3) {
+                transaction.setDateText(i + " Jan, 12.30 AM");
+            }
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private static void assertSameTransactions(List<Transaction> expected, List<Transaction> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+            assertEquals(expected.get(i).getDateText(), actual.get(i).getDateText());
+        }
+    }
+
+    /**
+     * Tests that transactions spread over many blocks are read back in order.
+     */
+    @Test
+    public void testRoundTripOverManyBlocks() throws Exception {
+        Path file = tempDir.resolve("secure_transactions.txt");
+        List<Transaction> original = transactions(5000);
+        TransactionBlockFile.write(file, original, 4096);
+
+        assertTrue(TransactionBlockFile.isBlockFile(file));
+        assertTrue(TransactionBlockFile.readIndex(file).size() > 10);
+        assertSameTransactions(original, TransactionBlockFile.read(file));
+        assertFalse(Files.exists(tempDir.resolve("secure_transactions.txt.tmp")));
+
+        TransactionBlockFile.write(file, List.of(), 4096);
+        assertTrue(TransactionBlockFile.read(file).isEmpty());
+    }
+
+    /**
+     * Tests that a date range read returns only dated transactions in the range
+     * and never touches blocks outside it, while a full read skips a tampered block.
+     */
+    @Test
+    public void testDateRangeReadsOnlyOverlappingBlocks() throws Exception {
+        Path file = tempDir.resolve("secure_transactions.txt");
+        List<Transaction> original = transactions(5000);
+        TransactionBlockFile.write(file, original, 4096);
+
+        // Tamper with the first block
+        TransactionBlockFile.BlockEntry first = TransactionBlockFile.readIndex(file).get(0);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(first.offset() + 20);
+            int b = raf.read();
+            raf.seek(first.offset() + 20);
+            raf.write(b ^ 0xFF);
+        }
+
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        List<Transaction> expected = new ArrayList<>();
+        for (Transaction transaction : original) {
+            LocalDate date = transaction.getDate();
+            if (date != null && !date.isBefore(from) && !date.isAfter(to)) {
+                expected.add(transaction);
+            }
+        }
+        assertEquals(279, expected.size());
+        assertSameTransactions(expected, TransactionBlockFile.read(file, from, to));
+
+        List<Transaction> all = TransactionBlockFile.read(file);
+        assertEquals(original.size() - first.records(), all.size());
+        assertEquals(original.get(first.records()).toString(), all.get(0).toString());
+    }
+
+    /**
+     * Tests that a file in the line format is still loaded and can be migrated
+     * to the block format, which is smaller.
+     */
+    @Test
+    public void testLineFormatIsMigrated() throws Exception {
+        Path file = tempDir.resolve("secure_transactions.txt");
+        List<Transaction> original = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Transaction transaction = new Transaction("Coffee " + i, 3.5 + i, "Food");
+            original.add(transaction);
+            lines.add(SecurityService.encrypt(transaction.getDescription() + "," + transaction.getAmount()
+                    + "," + transaction.getCategory()));
+        }
+        Files.write(file, lines);
+        long lineFormatBytes = Files.size(file);
+
+        FileHandler handler = new FileHandler();
+        assertSameTransactions(original, handler.loadTransactions(file.toString()));
+        assertTrue(handler.migrateToBlockFormat(file.toString()));
+        assertFalse(handler.migrateToBlockFormat(file.toString()));
+
+        assertTrue(TransactionBlockFile.isBlockFile(file));
+        assertTrue(Files.size(file) < lineFormatBytes * 0.8,
+                Files.size(file) + " bytes vs " + lineFormatBytes + " in the line format");
+        assertSameTransactions(original, handler.loadTransactions(file.toString()));
+
+        handler.saveTransactions(original.subList(0, 10), file.toString());
+        assertSameTransactions(original.subList(0, 10), handler.loadTransactions(file.toString()));
+    }
+}
@@ -4,6 +4,7 @@ package services;
 import org.junit.jupiter.api.Test;
 import services.TransactionDataService;
 
+import java.util.List;
 import java.util.Map;
 
 // import static org.junit.Assert.*;
@@ -48,4 +49,52 @@ public class TransactionDataServiceTest {
         assertTrue(categories.containsKey("Food"));
         assertEquals(300.0, categories.get("Food"), 0.01);
     }
+
+    /**
+     * Tests that updating and removing transactions keep the running
+     * aggregates in sync with the stored data.
+     */
+    @Test
+    public void testAggregatesFollowUpdateAndRemove() {
+        TransactionDataService service = new TransactionDataService();
+        service.addTransaction("19/05/2025", "rent", "1000", "Expense");
+        service.addTransaction("19/05/2025", "buy grocery", "50", "Expense");
+        service.addTransaction("20/05/2025", "salary", "3000", "Income");
+
+        assertEquals(1050.0, service.getWeeklySpending().get("Mon"), 0.01);
+
+        service.updateTransaction(0, "20/05/2025", "movie", "40", "Expense");
+        Map<String, Double> weekly = service.getWeeklySpending();
+        assertEquals(50.0, weekly.get("Mon"), 0.01);
+        assertEquals(40.0, weekly.get("Tue"), 0.01);
+        assertFalse(service.getExpenseCategories().containsKey("Housing"));
+        assertEquals(40.0, service.getExpenseCategories().get("Entertainment"), 0.01);
+
+        service.removeTransaction(1);
+        assertEquals(0.0, service.getWeeklySpending().get("Mon"), 0.01);
+        assertFalse(service.getExpenseCategories().containsKey("Food"));
+    }
+
+    /**
+     * Tests that a batch add stores every transaction and rejects the whole
+     * batch if one amount is malformed.
+     */
+    @Test
+    public void testAddTransactionsIsAllOrNothing() {
+        TransactionDataService service = new TransactionDataService();
+        List<TransactionRecord> added = service.addTransactions(List.of(
+                new TransactionDraft("19/05/2025", "rent", "$1,000", "Expense"),
+                new TransactionDraft("20/05/2025", "salary", "3000", "Income")));
+
+        assertEquals(2, added.size());
+        assertEquals("Housing", added.get(0).category());
+        assertEquals(100000, added.get(0).amountCents());
+        assertEquals(1000.0, service.getWeeklySpending().get("Mon"), 0.01);
+
+        assertThrows(NumberFormatException.class, () -> service.addTransactions(List.of(
+                new TransactionDraft("19/05/2025", "coffee", "4", "Expense"),
+                new TransactionDraft("19/05/2025", "tea", "four", "Expense"))));
+        assertEquals(2, service.size());
+        assertEquals(1000.0, service.getWeeklySpending().get("Mon"), 0.01);
+    }
 }
@@ -0,0 +1,114 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionEventDispatcher}.
+ * This class verifies that bursts of events are coalesced into batches that
+ * are delivered on the event dispatch thread in their original order.
+ */
+public class TransactionEventDispatcherTest {
+
+    /**
+     * Records every callback as a short string and checks the calling thread.
+     */
+    private static class RecordingListener implements TransactionManager.TransactionListener {
+        final List<String> events = new ArrayList<>();
+        int added;
+        boolean offEdt;
+
+        @Override
+        public void onTransactionsAdded(List<TransactionRecord> transactions) {
+            offEdt |= !SwingUtilities.isEventDispatchThread();
+            added += transactions.size();
+            events.add("added " + transactions.size());
+        }
+
+        @Override
+        public void onTransactionAdded(long id, String date, String description, String amount, String type) {
+            fail("additions must arrive as a batch");
+        }
+
+        @Override
+        public void onTransactionUpdated(long id, String oldDate, String oldDescription, String oldAmount,
+                String oldType, String newDate, String newDescription, String newAmount, String newType) {
+            offEdt |= !SwingUtilities.isEventDispatchThread();
+            events.add("updated " + id);
+        }
+
+        @Override
+        public void onTransactionRemoved(long id, String date, String description, String amount, String type) {
+            offEdt |= !SwingUtilities.isEventDispatchThread();
+            events.add("removed " + id);
+        }
+    }
+
+    private static TransactionRecord record(long id) {
+        return new TransactionRecord(id, "01/01/2024", "row" + id, 100, "Expense", "Others");
+    }
+
+    /**
+     * Tests that consecutive additions are merged while removals and updates
+     * split the batches and keep their position in the event order.
+     */
+    @Test
+    public void testEventsAreCoalescedInOrder() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        TransactionEventDispatcher dispatcher = new TransactionEventDispatcher(listener);
+
+        // Holding the EDT guarantees that no frame is delivered in between
+        SwingUtilities.invokeAndWait(() -> {
+            dispatcher.onTransactionsAdded(List.of(record(1)));
+            dispatcher.onTransactionsAdded(List.of(record(2), record(3)));
+            dispatcher.onTransactionRemoved(1, "01/01/2024", "row1", "1.00", "Expense");
+            dispatcher.onTransactionAdded(4, "01/01/2024", "row4", "$1.00", "Expense");
+            dispatcher.onTransactionUpdated(4, "01/01/2024", "row4", "1.00", "Expense",
+                    "02/01/2024", "row4", "2.00", "Expense");
+            dispatcher.flush();
+        });
+
+        assertEquals(List.of("added 3", "removed 1", "added 1", "updated 4"), listener.events);
+        assertFalse(listener.offEdt);
+    }
+
+    /**
+     * Tests that a burst of additions from a background thread reaches the
+     * listener on the EDT in far fewer calls than events.
+     */
+    @Test
+    public void testBurstFromBackgroundThreadIsBatched() throws Exception {
+        int count = 10_000;
+        CountDownLatch done = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onTransactionsAdded(List<TransactionRecord> transactions) {
+                super.onTransactionsAdded(transactions);
+                if (added == count) {
+                    done.countDown();
+                }
+            }
+        };
+        TransactionEventDispatcher dispatcher = new TransactionEventDispatcher(listener);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                dispatcher.onTransactionsAdded(List.of(record(i)));
+            }
+        });
+        producer.start();
+        producer.join();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertFalse(listener.offEdt);
+        assertTrue(listener.events.size() < count / 100,
+                "expected a handful of batches, got " + listener.events.size());
+    }
+}
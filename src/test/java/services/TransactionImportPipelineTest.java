@@ -0,0 +1,169 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionImportPipeline}.
+ * This class verifies that imports keep file order, bound the number of
+ * concurrent AI calls, and stop promptly when cancelled.
+ */
+public class TransactionImportPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests a file mixing standard lines, lines the normalizer can fix and
+     * lines it cannot. Results must be committed in file order.
+     */
+    @Test
+    public void testImportKeepsOrderAndBoundsAiConcurrency() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 == 0) {
+                lines.add("paid " + i + " dollars for item " + i);
+            } else if (i % 97 == 0) {
+                lines.add("garbage " + i);
+            } else {
+                lines.add("01/02/2024|item " + i + "|" + i + "|Expense");
+            }
+            if (i % 50 == 0) {
+                lines.add("   ");
+            }
+        }
+        Path file = tempDir.resolve("import.txt");
+        Files.write(file, lines);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        TransactionImportPipeline pipeline = new TransactionImportPipeline(line -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+                if (line.startsWith("garbage")) {
+                    return line;
+                }
+                String i = line.split(" ")[1];
+                return "01/02/2024 | item " + i + " | $" + i + " | Expense";
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }, 3, 64);
+
+        List<TransactionDraft> committed = new ArrayList<>();
+        List<Double> fractions = new ArrayList<>();
+        TransactionImportPipeline.ImportResult result =
+                pipeline.run(file, committed::addAll, progress -> fractions.add(progress.fraction()));
+
+        int garbage = (int) lines.stream().filter(l -> l.startsWith("garbage")).count();
+        assertFalse(result.cancelled());
+        assertEquals(garbage, result.failed());
+        assertEquals(1000 - garbage, result.imported());
+        assertEquals(result.imported(), committed.size());
+        assertTrue(maxRunning.get() <= 3, "AI concurrency exceeded: " + maxRunning.get());
+
+        int previous = -1;
+        for (TransactionDraft draft : committed) {
+            int i = Integer.parseInt(draft.description().substring("item ".length()));
+            assertTrue(i > previous, "out of order at item " + i);
+            previous = i;
+        }
+        assertEquals(1.0, fractions.get(fractions.size() - 1), 0.001);
+        List<Double> sorted = new ArrayList<>(fractions);
+        Collections.sort(sorted);
+        assertEquals(sorted, fractions);
+    }
+
+    /**
+     * Tests that cancelling an import blocked on slow AI calls returns quickly
+     * and reports the cancellation.
+     */
+    @Test
+    public void testCancelStopsBlockedImport() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add("needs ai " + i);
+        }
+        Path file = tempDir.resolve("slow.txt");
+        Files.write(file, lines);
+
+        CountDownLatch started = new CountDownLatch(1);
+        TransactionImportPipeline pipeline = new TransactionImportPipeline(line -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }, 2, 16);
+
+        Thread canceller = new Thread(() -> {
+            try {
+                started.await();
+                pipeline.cancel();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        canceller.start();
+
+        long start = System.nanoTime();
+        TransactionImportPipeline.ImportResult result = pipeline.run(file, batch -> fail("nothing to commit"), p -> { });
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(result.cancelled());
+        assertEquals(0, result.imported());
+        assertTrue(millis < 10_000, "cancellation took " + millis + " ms");
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that unparseable lines are normalized in batches, so the number of
+     * AI requests follows the number of batches rather than the number of lines.
+     */
+    @Test
+    public void testAiLinesAreNormalizedInBatches() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            lines.add("spent " + i + " on item " + i);
+        }
+        Path file = tempDir.resolve("batched.txt");
+        Files.write(file, lines);
+
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        TransactionImportPipeline pipeline = new TransactionImportPipeline(batch -> {
+            batchSizes.add(batch.size());
+            List<String> normalized = new ArrayList<>();
+            for (String line : batch) {
+                String i = line.split(" ")[1];
+                normalized.add(i.endsWith("7") ? null : "01/02/2024 | item " + i + " | " + i + " | Expense");
+            }
+            return normalized;
+        }, 2, 20, 100);
+
+        List<TransactionDraft> committed = new ArrayList<>();
+        TransactionImportPipeline.ImportResult result = pipeline.run(file, committed::addAll, p -> { });
+
+        assertEquals(15, batchSizes.size());
+        assertTrue(batchSizes.stream().allMatch(size -> size == 20));
+        assertEquals(30, result.failed());
+        assertEquals(270, result.imported());
+        assertEquals("item 0", committed.get(0).description());
+        assertEquals("item 299", committed.get(committed.size() - 1).description());
+    }
+}
@@ -0,0 +1,244 @@
+package data;
+
+import Entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionLog}.
+ * This class verifies that committed mutations survive a reopen, that a log cut
+ * short by a crash is replayed up to its last complete frame, and that compaction
+ * and group commit keep the state intact.
+ */
+public class TransactionLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Transaction transaction(int i) {
+        return new Transaction("Purchase " + i, i + 0.5, "Food", LocalDate.of(2024, 1, 1).plusDays(i % 300));
+    }
+
+    private static List<String> describe(List<Transaction> transactions) {
+        List<String> descriptions = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            descriptions.add(transaction + "@" + transaction.getDate());
+        }
+        return descriptions;
+    }
+
+    /**
+     * Tests that adds, updates and removes are replayed in order with stable ids.
+     */
+    @Test
+    public void testMutationsSurviveReopen() throws Exception {
+        long first;
+        long second;
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            first = log.add(transaction(1));
+            second = log.add(transaction(2));
+            long third = log.add(transaction(3));
+            assertTrue(log.update(second, new Transaction("Rent", 1000, "Housing")));
+            assertTrue(log.remove(third));
+            assertFalse(log.remove(third));
+            assertFalse(log.update(42, transaction(4)));
+        }
+
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertArrayEquals(new long[] {first, second}, log.getIds());
+            assertEquals("Rent", log.get(second).getDescription());
+            assertEquals(transaction(1).getDate(), log.get(first).getDate());
+            // Ids are never reused
+            assertEquals(3, log.add(transaction(5)));
+        }
+    }
+
+    /**
+     * Tests recovery from a crash in the middle of writing the last frame: every
+     * complete frame is replayed, the torn one is dropped, and the log stays usable.
+     */
+    @Test
+    public void testTruncatedLogIsReplayedUpToLastCompleteFrame() throws Exception {
+        List<Transaction> expected = new ArrayList<>();
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            for (int i = 0; i < 20; i++) {
+                log.add(transaction(i));
+                expected.add(transaction(i));
+            }
+        }
+        Path logFile = tempDir.resolve(TransactionLog.LOG_FILE);
+        long fullSize = Files.size(logFile);
+        try (RandomAccessFile raf = new RandomAccessFile(logFile.toFile(), "rw")) {
+            raf.setLength(fullSize - 7);
+        }
+        expected.remove(expected.size() - 1);
+
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertEquals(describe(expected), describe(log.getTransactions()));
+            log.add(transaction(100));
+            expected.add(transaction(100));
+        }
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertEquals(describe(expected), describe(log.getTransactions()));
+        }
+
+        // A partly written length prefix is dropped the same way
+        try (RandomAccessFile raf = new RandomAccessFile(logFile.toFile(), "rw")) {
+            raf.setLength(raf.length() + 2);
+        }
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertEquals(describe(expected), describe(log.getTransactions()));
+        }
+    }
+
+    /**
+     * Tests that a damaged frame or frame length in the middle of the log fails the
+     * open instead of dropping the frames after it, while zeros after the last frame
+     * are discarded.
+     */
+    @Test
+    public void testCorruptFrameInTheMiddleFailsOpen() throws Exception {
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            for (int i = 0; i < 5; i++) {
+                log.add(transaction(i));
+            }
+        }
+        Path logFile = tempDir.resolve(TransactionLog.LOG_FILE);
+        Path intact = tempDir.resolve("intact.wal");
+        Files.copy(logFile, intact);
+
+        // Ciphertext of the first frame
+        flipBits(logFile, 40, 0xFF);
+        assertThrows(IOException.class, () -> TransactionLog.open(tempDir));
+
+        // One bit of the length of the first frame, which starts right after the 20-byte log header
+        for (int offset : new int[] {20, 23}) {
+            Files.copy(intact, logFile, StandardCopyOption.REPLACE_EXISTING);
+            flipBits(logFile, offset, offset == 20 ? 0x80 : 0x01);
+            assertThrows(IOException.class, () -> TransactionLog.open(tempDir));
+            assertEquals(Files.size(intact), Files.size(logFile));
+        }
+
+        // Zeros after the last frame are a torn tail, not damage
+        Files.copy(intact, logFile, StandardCopyOption.REPLACE_EXISTING);
+        try (RandomAccessFile raf = new RandomAccessFile(logFile.toFile(), "rw")) {
+            raf.setLength(raf.length() + 100);
+        }
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertEquals(5, log.size());
+        }
+        assertEquals(Files.size(intact), Files.size(logFile));
+    }
+
+    private static void flipBits(Path file, long offset, int mask) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(offset);
+            int b = raf.read();
+            raf.seek(offset);
+            raf.write(b ^ mask);
+        }
+    }
+
+    /**
+     * Tests that compaction keeps the state, shrinks the log, and that a log left
+     * over from before the compaction is ignored.
+     */
+    @Test
+    public void testCompactionKeepsStateAndIgnoresOutdatedLog() throws Exception {
+        List<Transaction> expected = new ArrayList<>();
+        Path logFile = tempDir.resolve(TransactionLog.LOG_FILE);
+        Path oldLog = tempDir.resolve("old.wal");
+        try (TransactionLog log = new TransactionLog(tempDir, 4096)) {
+            for (int i = 0; i < 200; i++) {
+                long id = log.add(transaction(i));
+                if (i % 3 == 0) {
+                    log.remove(id);
+                } else {
+                    expected.add(transaction(i));
+                }
+                if (i == 150) {
+                    Files.copy(logFile, oldLog);
+                }
+            }
+            assertTrue(Files.exists(tempDir.resolve(TransactionLog.SNAPSHOT_FILE)));
+            log.compact();
+            assertTrue(Files.size(logFile) < 100);
+        }
+
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertEquals(describe(expected), describe(log.getTransactions()));
+        }
+        // A crash between writing the snapshot and replacing the log leaves an older log behind
+        Files.copy(oldLog, logFile, StandardCopyOption.REPLACE_EXISTING);
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertEquals(describe(expected), describe(log.getTransactions()));
+        }
+    }
+
+    /**
+     * Tests that concurrent writers share frames and that every acknowledged
+     * transaction is durable.
+     */
+    @Test
+    public void testConcurrentWritersAreGroupCommitted() throws Exception {
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long frames;
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        log.add(new Transaction("thread " + thread + " item " + i, i, "Test"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            frames = log.framesWritten();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(frames < threads * perThread, "one frame per add: " + frames);
+        try (TransactionLog log = TransactionLog.open(tempDir)) {
+            assertEquals(threads * perThread, log.size());
+            // Each thread's transactions keep their relative order
+            List<Transaction> replayed = log.getTransactions();
+            for (int t = 0; t < threads; t++) {
+                int previous = -1;
+                for (Transaction transaction : replayed) {
+                    if (transaction.getDescription().startsWith("thread " + t + " ")) {
+                        int i = Integer.parseInt(transaction.getDescription().substring(
+                                transaction.getDescription().lastIndexOf(' ') + 1));
+                        assertTrue(i > previous);
+                        previous = i;
+                    }
+                }
+                assertEquals(perThread - 1, previous);
+            }
+        }
+    }
+}
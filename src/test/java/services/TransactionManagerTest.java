@@ -2,8 +2,17 @@ package services;
 
 // import org.junit.Test;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 // import static org.junit.Assert.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,4 +36,106 @@ public class TransactionManagerTest {
         List<Map<String, Object>> all = manager.getAllTransactions();
         assertTrue(all.stream().anyMatch(t -> "test food".equals(t.get("description"))));
     }
+
+    /**
+     * Tests that transactions can be updated and removed by their stable id,
+     * and that listeners receive that id.
+     */
+    @Test
+    public void testUpdateAndRemoveById() {
+        TransactionManager manager = TransactionManager.getInstance();
+        List<Long> removedIds = new ArrayList<>();
+        manager.addListener(new TransactionManager.TransactionListener() {
+            @Override
+            public void onTransactionAdded(long id, String date, String description, String amount, String type) {
+            }
+
+            @Override
+            public void onTransactionUpdated(long id, String oldDate, String oldDescription, String oldAmount,
+                    String oldType, String newDate, String newDescription, String newAmount, String newType) {
+            }
+
+            @Override
+            public void onTransactionRemoved(long id, String date, String description, String amount, String type) {
+                removedIds.add(id);
+            }
+        });
+
+        long id = manager.addTransaction("19/05/2025", "id test", "12.5", "Expense");
+        assertTrue(manager.updateTransactionById(id, "19/05/2025", "id test updated", "15", "Expense"));
+        assertEquals(Set.of(id), manager.findTransactionIds("19/05/2025", "id test updated", "15", "Expense"));
+
+        manager.removeTransaction("19/05/2025", "id test updated", "15", "Expense");
+        assertEquals(List.of(id), removedIds);
+        assertFalse(manager.removeTransaction(id));
+    }
+
+    /**
+     * Tests concurrent writers against concurrent snapshot readers.
+     * Every writer adds transactions and removes half of them again while a reader
+     * keeps taking snapshots; afterwards the totals must match exactly and every
+     * snapshot seen must have been internally consistent.
+     */
+    @Test
+    public void testConcurrentWritersAndReaders() throws Exception {
+        TransactionManager manager = TransactionManager.getInstance();
+        int writers = 8;
+        int perWriter = 1000;
+        int sizeBefore = manager.snapshot().size();
+        double tuesdayBefore = manager.getWeeklySpending().get("Tue");
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            results.add(pool.submit(() -> {
+                start.await();
+                List<Long> kept = new ArrayList<>();
+                for (int i = 0; i < perWriter; i++) {
+                    long id = manager.addTransaction("20/05/2025", "stress " + writer + "-" + i, "1.00", "Expense");
+                    if (i % 2 == 0) {
+                        assertTrue(manager.removeTransaction(id));
+                    } else {
+                        kept.add(id);
+                    }
+                }
+                return kept;
+            }));
+        }
+        Future<Integer> reader = pool.submit(() -> {
+            start.await();
+            int snapshots = 0;
+            while (writing.get()) {
+                TransactionSnapshot snapshot = manager.snapshot();
+                for (int i = 1; i < snapshot.size(); i++) {
+                    assertTrue(snapshot.id(i - 1) < snapshot.id(i), "snapshot out of order");
+                }
+                manager.getWeeklySpending();
+                snapshots++;
+            }
+            return snapshots;
+        });
+
+        start.countDown();
+        Set<Long> kept = new HashSet<>();
+        for (Future<List<Long>> result : results) {
+            kept.addAll(result.get(60, TimeUnit.SECONDS));
+        }
+        writing.set(false);
+        assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+        pool.shutdown();
+
+        int expected = writers * perWriter / 2;
+        assertEquals(expected, kept.size());
+        assertEquals(sizeBefore + expected, manager.snapshot().size());
+        assertEquals(tuesdayBefore + expected, manager.getWeeklySpending().get("Tue"), 0.001);
+
+        for (long id : kept) {
+            assertTrue(manager.removeTransaction(id));
+        }
+        assertEquals(sizeBefore, manager.snapshot().size());
+        assertEquals(tuesdayBefore, manager.getWeeklySpending().get("Tue"), 0.001);
+    }
 }
@@ -0,0 +1,127 @@
+package services;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionNormalizer}.
+ * This class verifies that batched prompts are demultiplexed per slot and
+ * that failed slots fall back to single-line requests.
+ */
+public class TransactionNormalizerTest {
+
+    private static String response(String result) {
+        JsonObject json = new JsonObject();
+        json.addProperty("result", result);
+        return json.toString();
+    }
+
+    /**
+     * Tests that answers are matched to their slots regardless of order, and
+     * that a missing and a malformed slot are each retried on their own.
+     */
+    @Test
+    public void testBatchIsDemultiplexedAndFailedSlotsRetried() {
+        List<String> prompts = new ArrayList<>();
+        TransactionNormalizer normalizer = new TransactionNormalizer(prompt -> {
+            prompts.add(prompt);
+            if (prompt.contains("[1] ")) {
+                return response("Here you go:\n"
+                        + "[3] 03/01/2024 | Bus | 2 | Expense\n"
+                        + "[1] 01/01/2024 | Rent | 1000 | Expense\n"
+                        + "[2] not sure about this one\n"
+                        + "[9] 09/01/2024 | Extra | 9 | Expense");
+            }
+            if (prompt.contains("pay cheque")) {
+                return response("02/01/2024 | Salary | 3000 | Income");
+            }
+            return response("08/01/2024 | Coffee | 4 | Expense");
+        });
+
+        List<String> result = normalizer.normalizeAll(
+                List.of("rent 1000 jan 1", "pay cheque 3000", "bus 2 jan 3", "coffee 4"));
+
+        assertEquals(List.of(
+                "01/01/2024 | Rent | 1000 | Expense",
+                "02/01/2024 | Salary | 3000 | Income",
+                "03/01/2024 | Bus | 2 | Expense",
+                "08/01/2024 | Coffee | 4 | Expense"), result);
+        // One batched request plus one retry for each of the two failed slots
+        assertEquals(3, prompts.size());
+        assertTrue(prompts.get(0).contains("[4] coffee 4"));
+    }
+
+    /**
+     * Tests that lines the AI cannot answer at all come back as null.
+     */
+    @Test
+    public void testUnanswerableLinesAreNull() {
+        TransactionNormalizer normalizer = new TransactionNormalizer(prompt -> "not json");
+
+        assertEquals(Arrays.asList(null, null), normalizer.normalizeAll(List.of("a", "b")));
+        assertNull(normalizer.normalize("a"));
+        assertTrue(normalizer.normalizeAll(List.of()).isEmpty());
+    }
+
+    /**
+     * Tests that normalized lines are cached per line, so a later batch only
+     * sends the lines that have not been seen before.
+     */
+    @Test
+    public void testCachedLinesAreNotSentAgain() throws Exception {
+        List<String> prompts = new ArrayList<>();
+        TransactionNormalizer normalizer = new TransactionNormalizer(prompt -> {
+            prompts.add(prompt);
+            StringBuilder answer = new StringBuilder();
+            for (String line : prompt.split("\n")) {
+                if (line.startsWith("[") && line.contains("netflix")) {
+                    answer.append(line, 0, 4).append("01/01/2024 | Netflix | 15 | Expense\n");
+                } else if (line.startsWith("[") && line.contains("gym")) {
+                    answer.append(line, 0, 4).append("01/01/2024 | Gym | 30 | Expense\n");
+                }
+            }
+            return response(answer.toString());
+        }, new AIResponseCache(null, Duration.ofDays(1), 100, 0), "endpoint");
+
+        normalizer.normalizeAll(List.of("netflix 15", "gym 30"));
+        List<String> second = normalizer.normalizeAll(List.of("netflix 15", "gym 30"));
+
+        assertEquals(1, prompts.size());
+        assertEquals(List.of("01/01/2024 | Netflix | 15 | Expense", "01/01/2024 | Gym | 30 | Expense"), second);
+    }
+
+    /**
+     * Tests the local parser on its own and as the fallback when the AI fails,
+     * in which case a failed batch is not retried line by line.
+     */
+    @Test
+    public void testLocalParserWhenAIFails() {
+        assertEquals("08/07/2025|Rent payment|1000.00|Expense",
+                TransactionNormalizer.parseLocally("08/07/2025 Rent payment -1,000"));
+        assertEquals("01/03/2024|Salary ACME LTD|3000.00|Income",
+                TransactionNormalizer.parseLocally("2024-03-01, Salary ACME LTD, 3000"));
+        assertEquals("12/03/2024|CARD 4821 Tesco|12.50|Expense",
+                TransactionNormalizer.parseLocally("12/03/2024 CARD 4821 Tesco \u00a312.50"));
+        assertEquals("05/01/2024|Friend|20.00|Income", TransactionNormalizer.parseLocally("5/1/2024 Friend +20"));
+        assertNull(TransactionNormalizer.parseLocally("rent 1000"));
+        assertNull(TransactionNormalizer.parseLocally("01/02/2024 no amount"));
+
+        List<String> prompts = new ArrayList<>();
+        TransactionNormalizer normalizer = new TransactionNormalizer(prompt -> {
+            prompts.add(prompt);
+            return "Error: No AI response within 30000 ms";
+        }, null, null, TransactionNormalizer::parseLocally);
+
+        assertEquals(Arrays.asList("01/01/2024|Rent|1000.00|Expense", null, "02/01/2024|Refund|5.00|Income"),
+                normalizer.normalizeAll(List.of("01/01/2024 Rent 1000", "gibberish", "02/01/2024 Refund 5")));
+        assertEquals(1, prompts.size());
+        assertEquals("03/01/2024|Bus|2.00|Expense", normalizer.normalize("03/01/2024 Bus 2"));
+    }
+}
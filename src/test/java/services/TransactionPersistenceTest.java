@@ -0,0 +1,136 @@
+package services;
+
+import data.TransactionLog;
+import data.TransactionPersistence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionPersistence}.
+ * This class verifies that changes made through a {@link TransactionManager} are saved
+ * to the transaction log by id and come back after a restart, that changes made
+ * before the persistence was registered are not saved, and that changes from several
+ * threads are saved in order without the manager waiting for the log.
+ */
+public class TransactionPersistenceTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that adds, updates and removals survive a reopen of the log.
+     */
+    @Test
+    public void testChangesSurviveRestart() throws Exception {
+        TransactionLog log = TransactionLog.open(tempDir);
+        try (TransactionPersistence persistence = new TransactionPersistence(log)) {
+            TransactionManager manager = new TransactionManager(new TransactionDataService());
+            assertEquals(0, persistence.restore(manager));
+            manager.addTransaction("28 Jan, 12.30 AM", "Sample", "-$2,500", "Expense");
+            manager.addListener(persistence);
+
+            long salary = manager.addTransaction("01/03/2024", "Salary", "3000", "Income");
+            manager.addTransactions(List.of(
+                    new TransactionDraft("02/03/2024", "Coffee", "3.50", "Expense"),
+                    new TransactionDraft("03/03/2024", "Rent", "1200", "Expense")));
+            long coffee = manager.findTransactionIds("02/03/2024", "Coffee", "3.50", "Expense").iterator().next();
+            assertTrue(manager.updateTransactionById(coffee, "02/03/2024", "Coffee beans", "12.50", "Expense"));
+            assertTrue(manager.removeTransaction(salary));
+            persistence.flush();
+            assertEquals(2, log.size());
+        }
+
+        log = TransactionLog.open(tempDir);
+        try (TransactionPersistence persistence = new TransactionPersistence(log)) {
+            TransactionManager restarted = new TransactionManager(new TransactionDataService());
+            assertEquals(2, persistence.restore(restarted));
+            restarted.addListener(persistence);
+
+            TransactionSnapshot snapshot = restarted.snapshot();
+            assertEquals(2, snapshot.size());
+            long coffee = restarted.findTransactionIds("02/03/2024", "Coffee beans", "12.50", "Expense").iterator().next();
+            TransactionRecord restored = restarted.getTransaction(coffee);
+            assertEquals(1250, restored.amountCents());
+            assertEquals("Expense", restored.type());
+
+            // Restored transactions are saved by their new ids
+            assertTrue(restarted.removeTransaction(coffee));
+            persistence.flush();
+            assertEquals(1, log.size());
+        }
+    }
+
+    /**
+     * Tests that dates in any format come back after a restart exactly as written,
+     * and still count in the aggregates when the store can read them.
+     */
+    @Test
+    public void testDatesSurviveRestartAsWritten() throws Exception {
+        String[] dates = {"2024-03-05", "28 Jan 2021", "5/3/2024", "04/03/2024"};
+        try (TransactionPersistence persistence = new TransactionPersistence(TransactionLog.open(tempDir))) {
+            TransactionManager manager = new TransactionManager(new TransactionDataService());
+            persistence.restore(manager);
+            manager.addListener(persistence);
+            for (String date : dates) {
+                manager.addTransaction(date, "Groceries", "10", "Expense");
+            }
+        }
+
+        try (TransactionPersistence persistence = new TransactionPersistence(TransactionLog.open(tempDir))) {
+            TransactionManager restarted = new TransactionManager(new TransactionDataService());
+            persistence.restore(restarted);
+            for (String date : dates) {
+                assertEquals(1, restarted.findTransactionIds(date, "Groceries", "10", "Expense").size(), date);
+            }
+            long dated = restarted.getRollup(TransactionRollup.Period.DAY, null, null, null).stream()
+                    .mapToLong(TransactionRollup.Bucket::expenseCents).sum();
+            assertEquals(2000, dated);
+        }
+    }
+
+    /**
+     * Tests that changes from several threads, each removing some of its own adds
+     * right away, reach the log in the order the manager applied them.
+     */
+    @Test
+    public void testConcurrentChangesAreSavedInOrder() throws Exception {
+        int threads = 4;
+        int perThread = 250;
+        TransactionManager manager = new TransactionManager(new TransactionDataService());
+        try (TransactionPersistence persistence = new TransactionPersistence(TransactionLog.open(tempDir))) {
+            persistence.restore(manager);
+            manager.addListener(persistence);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String description = "Writer " + t;
+                Thread writer = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long id = manager.addTransaction("01/03/2024", description + " " + i, "1", "Expense");
+                        if (i % 5 == 0) {
+                            manager.removeTransaction(id);
+                        }
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+
+        try (TransactionPersistence persistence = new TransactionPersistence(TransactionLog.open(tempDir))) {
+            TransactionManager restarted = new TransactionManager(new TransactionDataService());
+            assertEquals(threads * perThread * 4 / 5, persistence.restore(restarted));
+            assertEquals(manager.snapshot().size(), restarted.snapshot().size());
+            assertTrue(restarted.findTransactionIds("01/03/2024", "Writer 2 5", "1", "Expense").isEmpty());
+            assertEquals(1, restarted.findTransactionIds("01/03/2024", "Writer 2 6", "1", "Expense").size());
+        }
+    }
+}
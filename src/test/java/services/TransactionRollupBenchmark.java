@@ -0,0 +1,108 @@
+package services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Refreshing the yearly and monthly income and expense charts: reading the buckets of
+ * {@link TransactionDataService#getRollup} against scanning a snapshot of all transactions
+ * into the same totals. Also times the batch add that keeps the rollup up to date, and a
+ * chart refresh after each of a series of single additions.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.TransactionRollupBenchmark [rows]}.
+ */
+public class TransactionRollupBenchmark {
+
+    private static final String[] DESCRIPTIONS = {
+        "Monthly rent", "Grocery shopping", "Gas station", "Movie night", "Salary", "Coffee"
+    };
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional row count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        TransactionDataService service = new TransactionDataService();
+        long start = System.nanoTime();
+        service.addTransactions(drafts(0, rows));
+        System.out.printf("rows: %,d; 1 CPU core%n", rows);
+        System.out.printf("batch add, store and rollup: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        for (int round = 0; round < 5; round++) {
+            start = System.nanoTime();
+            long rollupTotal = fromRollup(service);
+            long rollupNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            long scanTotal = fromScan(service.snapshot());
+            long scanNanos = System.nanoTime() - start;
+            System.out.printf("round %d: charts from rollup %.3f ms, from scan %.1f ms (totals %s)%n",
+                    round, rollupNanos / 1e6, scanNanos / 1e6, rollupTotal == scanTotal ? "equal" : "DIFFER");
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            service.addTransaction("15/06/2024", "Coffee", "3.50", "Expense");
+            fromRollup(service);
+        }
+        System.out.printf("1,000 single adds, each followed by a chart refresh: %.1f ms%n",
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    /** Reads what the investments charts show: every year, and the months of the latest year. */
+    private static long fromRollup(TransactionDataService service) {
+        List<TransactionRollup.Bucket> years = service.getRollup(TransactionRollup.Period.YEAR, null, null, null);
+        int year = years.get(years.size() - 1).start().getYear();
+        List<TransactionRollup.Bucket> months = service.getRollup(TransactionRollup.Period.MONTH, null,
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        long total = 0;
+        for (TransactionRollup.Bucket bucket : years) {
+            total += bucket.incomeCents() - bucket.expenseCents();
+        }
+        for (TransactionRollup.Bucket bucket : months) {
+            total += bucket.incomeCents() - bucket.expenseCents();
+        }
+        return total;
+    }
+
+    private static long fromScan(TransactionSnapshot snapshot) {
+        TreeMap<Integer, long[]> years = new TreeMap<>();
+        long[][] months = new long[12][2];
+        for (int i = 0; i < snapshot.size(); i++) {
+            LocalDate date = LocalDate.ofEpochDay(snapshot.epochDay(i));
+            long cents = Math.abs(snapshot.amountCents(i));
+            int column = "Expense".equals(snapshot.type(i)) ? 1 : 0;
+            years.computeIfAbsent(date.getYear(), y -> new long[2])[column] += cents;
+        }
+        int latest = years.lastKey();
+        for (int i = 0; i < snapshot.size(); i++) {
+            LocalDate date = LocalDate.ofEpochDay(snapshot.epochDay(i));
+            if (date.getYear() == latest) {
+                int column = "Expense".equals(snapshot.type(i)) ? 1 : 0;
+                months[date.getMonthValue() - 1][column] += Math.abs(snapshot.amountCents(i));
+            }
+        }
+        long total = 0;
+        for (long[] totals : years.values()) {
+            total += totals[0] - totals[1];
+        }
+        for (long[] totals : months) {
+            total += totals[0] - totals[1];
+        }
+        return total;
+    }
+
+    private static List<TransactionDraft> drafts(int first, int count) {
+        List<TransactionDraft> drafts = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            drafts.add(new TransactionDraft(String.format("%02d/%02d/%d", i % 28 + 1, i % 12 + 1, 2015 + i % 10),
+                    DESCRIPTIONS[i % DESCRIPTIONS.length], (i * 7919L % 100_000) / 100.0 + "",
+                    i % 5 == 0 ? "Income" : "Expense"));
+        }
+        return drafts;
+    }
+}
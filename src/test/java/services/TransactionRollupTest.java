@@ -0,0 +1,77 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionRollup}.
+ * The rollup is read through {@link TransactionDataService#getRollup}, which keeps it up to date.
+ */
+public class TransactionRollupTest {
+
+    /**
+     * Tests that buckets start on the first day of their year, month and Monday-based week.
+     */
+    @Test
+    public void testPeriodBuckets() {
+        LocalDate sunday = LocalDate.of(2025, 5, 25);
+        TransactionRollup.Period week = TransactionRollup.Period.WEEK;
+        assertEquals(LocalDate.of(2025, 5, 19), week.start(week.keyOf(sunday)));
+        assertEquals(week.keyOf(LocalDate.of(2025, 5, 19)), week.keyOf(sunday));
+        assertEquals(week.keyOf(sunday) + 1, week.keyOf(LocalDate.of(2025, 5, 26)));
+        assertEquals(LocalDate.of(1969, 12, 29), week.start(week.keyOf(LocalDate.of(1970, 1, 1))));
+
+        TransactionRollup.Period month = TransactionRollup.Period.MONTH;
+        assertEquals(LocalDate.of(2025, 5, 1), month.start(month.keyOf(sunday)));
+        assertEquals(month.keyOf(LocalDate.of(2025, 1, 1)), month.keyOf(LocalDate.of(2024, 12, 31)) + 1);
+        assertEquals(LocalDate.of(2025, 1, 1), TransactionRollup.Period.YEAR.start(2025));
+        assertEquals(sunday, TransactionRollup.Period.DAY.start(TransactionRollup.Period.DAY.keyOf(sunday)));
+    }
+
+    /**
+     * Tests the totals per period and category as transactions are added, updated and removed.
+     */
+    @Test
+    public void testRollupFollowsChanges() {
+        TransactionDataService service = new TransactionDataService();
+        service.addTransaction("19/05/2025", "rent", "1000", "Expense");
+        service.addTransaction("20/05/2025", "salary", "3000", "Income");
+        service.addTransaction("03/06/2025", "grocery", "-50", "Expense");
+        service.addTransaction("05/01/2024", "grocery", "20", "Expense");
+        service.addTransaction("not a date", "grocery", "99", "Expense");
+
+        List<TransactionRollup.Bucket> years = service.getRollup(TransactionRollup.Period.YEAR, null, null, null);
+        assertEquals(List.of(
+                new TransactionRollup.Bucket(LocalDate.of(2024, 1, 1), 1, 0, 2000),
+                new TransactionRollup.Bucket(LocalDate.of(2025, 1, 1), 3, 300000, 105000)), years);
+
+        List<TransactionRollup.Bucket> food = service.getRollup(TransactionRollup.Period.MONTH, "Food", null, null);
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 6, 1)),
+                food.stream().map(TransactionRollup.Bucket::start).toList());
+        assertEquals(5000, food.get(1).expenseCents());
+        assertEquals(List.of(), service.getRollup(TransactionRollup.Period.MONTH, "Travel", null, null));
+
+        List<TransactionRollup.Bucket> days = service.getRollup(TransactionRollup.Period.DAY, null,
+                LocalDate.of(2025, 5, 20), LocalDate.of(2025, 12, 31));
+        assertEquals(List.of(LocalDate.of(2025, 5, 20), LocalDate.of(2025, 6, 3)),
+                days.stream().map(TransactionRollup.Bucket::start).toList());
+
+        long grocery = service.findTransactionIds("03/06/2025", "grocery", "-50", "Expense").iterator().next();
+        service.updateTransactionById(grocery, "21/05/2025", "grocery", "60", "Expense");
+        List<TransactionRollup.Bucket> months = service.getRollup(TransactionRollup.Period.MONTH, null,
+                LocalDate.of(2025, 1, 1), null);
+        assertEquals(List.of(new TransactionRollup.Bucket(LocalDate.of(2025, 5, 1), 3, 300000, 106000)), months);
+        List<TransactionRollup.Bucket> weeks = service.getRollup(TransactionRollup.Period.WEEK, "Food", null, null);
+        assertEquals(LocalDate.of(2025, 5, 19), weeks.get(1).start());
+        assertEquals(6000, weeks.get(1).expenseCents());
+
+        service.removeTransactionById(service.findTransactionIds("20/05/2025", "salary", "3000", "Income")
+                .iterator().next());
+        assertEquals(new TransactionRollup.Bucket(LocalDate.of(2025, 1, 1), 2, 0, 106000),
+                service.getRollup(TransactionRollup.Period.YEAR, null, LocalDate.of(2025, 3, 1), null).get(0));
+    }
+}
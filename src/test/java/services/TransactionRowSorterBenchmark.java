@@ -0,0 +1,103 @@
+package services;
+
+import Entity.Money;
+
+import javax.swing.RowSorter.SortKey;
+import javax.swing.SortOrder;
+import javax.swing.table.TableRowSorter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorting and filtering the transaction table by amount: a {@link TableRowSorter}
+ * comparing the displayed amounts, parsed on every comparison, against
+ * {@link TransactionRowSorter}. For the latter the first sort, re-sorts in both
+ * directions, a batch inserted while sorted and a narrowing description filter
+ * are timed separately.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.TransactionRowSorterBenchmark [rows]}.
+ */
+public class TransactionRowSorterBenchmark {
+
+    private static final String[] DESCRIPTIONS = {
+        "Monthly rent", "Grocery shopping", "Gas station", "Movie night", "Salary", "Coffee"
+    };
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional row count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        TransactionManager manager = new TransactionManager(new TransactionDataService());
+        manager.addTransactions(drafts(0, rows));
+        TransactionTableModel model = new TransactionTableModel(manager);
+        manager.addListener(model);
+        List<SortKey> byAmount = List.of(new SortKey(TransactionTableModel.AMOUNT, SortOrder.ASCENDING));
+        List<SortKey> byAmountDescending = List.of(new SortKey(TransactionTableModel.AMOUNT, SortOrder.DESCENDING));
+        List<SortKey> byDate = List.of(new SortKey(TransactionTableModel.DATE, SortOrder.ASCENDING));
+
+        TableRowSorter<TransactionTableModel> stringSorter = new TableRowSorter<>(model);
+        stringSorter.setComparator(TransactionTableModel.AMOUNT,
+                Comparator.comparing((String amount) -> Money.parse(amount.replace("$", ""))));
+        long start = System.nanoTime();
+        stringSorter.setSortKeys(byAmount);
+        long stringNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        TransactionRowSorter sorter = new TransactionRowSorter(model);
+        long loadNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        sorter.setSortKeys(byAmount);
+        long firstNanos = System.nanoTime() - start;
+        sorter.setSortKeys(byDate);
+
+        System.out.printf("rows: %,d; 1 CPU core%n", rows);
+        System.out.printf("TableRowSorter, parsing amounts:  sort %.1f ms%n", stringNanos / 1e6);
+        System.out.printf("TransactionRowSorter: keys %.1f ms, first sort by amount %.1f ms%n",
+                loadNanos / 1e6, firstNanos / 1e6);
+        for (int round = 0; round < 5; round++) {
+            start = System.nanoTime();
+            sorter.setSortKeys(round % 2 == 0 ? byAmountDescending : byAmount);
+            long amountNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            sorter.setSortKeys(byDate);
+            long dateNanos = System.nanoTime() - start;
+            System.out.printf("round %d: re-sort by amount %.1f ms, by date %.1f ms%n",
+                    round, amountNanos / 1e6, dateNanos / 1e6);
+        }
+
+        // Events reach the sorter through a table, as in the application
+        sorter.setSortKeys(byAmount);
+        model.addTableModelListener(e -> {
+            if (e.getType() == javax.swing.event.TableModelEvent.INSERT) {
+                sorter.rowsInserted(e.getFirstRow(), e.getLastRow());
+            }
+        });
+        start = System.nanoTime();
+        manager.addTransactions(drafts(rows, 1_000));
+        long insertNanos = System.nanoTime() - start;
+        System.out.printf("1,000 rows inserted while sorted by amount (store, model and sorter): %.1f ms%n",
+                insertNanos / 1e6);
+
+        for (String text : new String[]{"s", "sa", "sal", "sala"}) {
+            start = System.nanoTime();
+            sorter.setFilter(TransactionRowSorter.Filter.all().withDescriptionContaining(text));
+            System.out.printf("filter \"%s\": %,d rows in %.1f ms%n",
+                    text, sorter.getViewRowCount(), (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    private static List<TransactionDraft> drafts(int first, int count) {
+        List<TransactionDraft> drafts = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            drafts.add(new TransactionDraft(String.format("%02d/%02d/%d", i % 28 + 1, i % 12 + 1, 2015 + i % 10),
+                    DESCRIPTIONS[i % DESCRIPTIONS.length], (i * 7919L % 100_000) / 100.0 + "",
+                    i % 5 == 0 ? "Income" : "Expense"));
+        }
+        return drafts;
+    }
+}
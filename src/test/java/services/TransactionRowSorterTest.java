@@ -0,0 +1,144 @@
+package services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JTable;
+import javax.swing.RowSorter.SortKey;
+import javax.swing.SortOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionRowSorter}.
+ * The sorter is installed on a table over a model that receives the events of
+ * its manager synchronously, so the table forwards every change to the sorter
+ * as it would on the event dispatch thread.
+ */
+public class TransactionRowSorterTest {
+
+    private TransactionManager manager;
+    private TransactionTableModel model;
+    private TransactionRowSorter sorter;
+
+    /**
+     * Creates a manager with five transactions and a sorted table over them.
+     */
+    @BeforeEach
+    public void setUp() {
+        manager = new TransactionManager(new TransactionDataService());
+        manager.addTransaction("15/03/2024", "Rent", "1200.00", "Expense");
+        manager.addTransaction("01/03/2024", "Salary", "3000.00", "Income");
+        manager.addTransaction("20/03/2024", "coffee", "3.50", "Expense");
+        manager.addTransaction("28 Jan, 12.30 AM", "Freepik Sales", "750.00", "Income");
+        manager.addTransaction("10/03/2024", "Groceries", "45.20", "Expense");
+        model = new TransactionTableModel(manager);
+        manager.addListener(model);
+        JTable table = new JTable(model);
+        sorter = new TransactionRowSorter(model);
+        table.setRowSorter(sorter);
+    }
+
+    /** Returns the descriptions in view order. */
+    private List<String> view() {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < sorter.getViewRowCount(); i++) {
+            rows.add((String) model.getValueAt(sorter.convertRowIndexToModel(i), TransactionTableModel.DESCRIPTION));
+        }
+        return rows;
+    }
+
+    private void sort(int column, SortOrder order) {
+        sorter.setSortKeys(List.of(new SortKey(column, order)));
+    }
+
+    /**
+     * Tests sorting by signed amount, date and description in both directions.
+     */
+    @Test
+    public void testSortsOnTypedKeys() {
+        assertEquals(List.of("Rent", "Salary", "coffee", "Freepik Sales", "Groceries"), view());
+
+        sort(TransactionTableModel.AMOUNT, SortOrder.ASCENDING);
+        assertEquals(List.of("Rent", "Groceries", "coffee", "Freepik Sales", "Salary"), view());
+        sorter.toggleSortOrder(TransactionTableModel.AMOUNT);
+        assertEquals(List.of("Salary", "Freepik Sales", "coffee", "Groceries", "Rent"), view());
+
+        // The date that cannot be parsed sorts first
+        sort(TransactionTableModel.DATE, SortOrder.ASCENDING);
+        assertEquals(List.of("Freepik Sales", "Salary", "Groceries", "Rent", "coffee"), view());
+
+        sort(TransactionTableModel.DESCRIPTION, SortOrder.ASCENDING);
+        assertEquals(List.of("coffee", "Freepik Sales", "Groceries", "Rent", "Salary"), view());
+        assertEquals(0, sorter.convertRowIndexToView(2));
+        assertEquals(5, sorter.getModelRowCount());
+    }
+
+    /**
+     * Tests that inserted, edited and removed rows keep a kept permutation in
+     * the same order as a sort from scratch.
+     */
+    @Test
+    public void testPermutationFollowsChanges() {
+        sort(TransactionTableModel.DATE, SortOrder.ASCENDING);
+        sort(TransactionTableModel.AMOUNT, SortOrder.ASCENDING);
+
+        List<TransactionDraft> drafts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            drafts.add(new TransactionDraft(String.format("%02d/02/2024", i % 28 + 1), "Item " + i,
+                    (i * 37 % 500) + ".00", i % 3 == 0 ? "Income" : "Expense"));
+        }
+        manager.addTransactions(drafts);
+        manager.updateTransactionById(model.idAt(1), "05/03/2024", "Salary", "10.00", "Expense");
+        manager.removeTransaction(model.idAt(0));
+        assertEquals(54, sorter.getViewRowCount());
+
+        for (int column : new int[]{TransactionTableModel.AMOUNT, TransactionTableModel.DATE}) {
+            sort(column, SortOrder.ASCENDING);
+            List<String> kept = view();
+            TransactionRowSorter fresh = new TransactionRowSorter(model);
+            fresh.setSortKeys(List.of(new SortKey(column, SortOrder.ASCENDING)));
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < fresh.getViewRowCount(); i++) {
+                expected.add((String) model.getValueAt(fresh.convertRowIndexToModel(i), TransactionTableModel.DESCRIPTION));
+            }
+            assertEquals(expected, kept);
+        }
+    }
+
+    /**
+     * Tests filters on type, amount, date and description, narrowing, and that
+     * inserted rows are filtered too.
+     */
+    @Test
+    public void testFilters() {
+        sorter.setFilter(TransactionRowSorter.Filter.all().withType("Expense"));
+        assertEquals(List.of("Rent", "coffee", "Groceries"), view());
+
+        sorter.setFilter(TransactionRowSorter.Filter.all().withType("Expense").withAmountBetween(1_000, 200_000));
+        assertEquals(List.of("Rent", "Groceries"), view());
+        assertEquals(-1, sorter.convertRowIndexToView(2));
+
+        sorter.setFilter(TransactionRowSorter.Filter.all()
+                .withDateBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15)));
+        assertEquals(List.of("Rent", "Salary", "Groceries"), view());
+
+        sorter.setFilter(TransactionRowSorter.Filter.all().withDescriptionContaining("S"));
+        assertEquals(List.of("Salary", "Freepik Sales", "Groceries"), view());
+        sorter.setFilter(TransactionRowSorter.Filter.all().withDescriptionContaining("sa"));
+        assertEquals(List.of("Salary", "Freepik Sales"), view());
+
+        manager.addTransaction("02/03/2024", "Garage sale", "20.00", "Income");
+        manager.addTransaction("03/03/2024", "Bus", "2.00", "Expense");
+        assertEquals(List.of("Salary", "Freepik Sales", "Garage sale"), view());
+
+        sort(TransactionTableModel.AMOUNT, SortOrder.DESCENDING);
+        assertEquals(List.of("Salary", "Freepik Sales", "Garage sale"), view());
+
+        sorter.setFilter(null);
+        assertEquals(7, sorter.getViewRowCount());
+    }
+}
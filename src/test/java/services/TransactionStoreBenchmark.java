@@ -0,0 +1,108 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory and throughput comparison between the legacy
+ * {@code List<Map<String, Object>>} layout and {@link TransactionStore}.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.TransactionStoreBenchmark [rows]}.
+ */
+public class TransactionStoreBenchmark {
+
+    private static final String[] DESCRIPTIONS = {
+        "Monthly rent", "Grocery shopping", "Gas station", "Movie night", "Salary", "Coffee"
+    };
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional row count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long before = usedHeap();
+        List<Map<String, Object>> maps = buildMaps(rows);
+        long mapBytes = usedHeap() - before;
+
+        before = usedHeap();
+        TransactionStore store = buildStore(rows);
+        long storeBytes = usedHeap() - before;
+
+        System.out.printf("rows: %,d%n", rows);
+        System.out.printf("map layout:   %,d bytes (%.1f bytes/row)%n", mapBytes, (double) mapBytes / rows);
+        System.out.printf("store layout: %,d bytes (%.1f bytes/row)%n", storeBytes, (double) storeBytes / rows);
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            double mapTotal = sumMapExpenses(maps);
+            long mapNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long storeTotal = sumStoreExpenses(store);
+            long storeNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: map scan %.1f ms (%.0f), store scan %.1f ms (%.0f)%n",
+                    round, mapNanos / 1e6, mapTotal, storeNanos / 1e6, storeTotal / 100.0);
+        }
+    }
+
+    private static List<Map<String, Object>> buildMaps(int rows) {
+        List<Map<String, Object>> maps = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> transaction = new HashMap<>();
+            transaction.put("date", date(i));
+            transaction.put("description", DESCRIPTIONS[i % DESCRIPTIONS.length]);
+            transaction.put("amount", (double) (i % 500));
+            transaction.put("type", i % 5 == 0 ? "Income" : "Expense");
+            maps.add(transaction);
+        }
+        return maps;
+    }
+
+    private static TransactionStore buildStore(int rows) {
+        TransactionStore store = new TransactionStore();
+        for (int i = 0; i < rows; i++) {
+            store.add(date(i), DESCRIPTIONS[i % DESCRIPTIONS.length], (i % 500) * 100L,
+                    i % 5 == 0 ? "Income" : "Expense", "Others");
+        }
+        return store;
+    }
+
+    private static double sumMapExpenses(List<Map<String, Object>> maps) {
+        double total = 0;
+        for (Map<String, Object> transaction : maps) {
+            if ("Expense".equals(transaction.get("type"))) {
+                total += Math.abs((Double) transaction.get("amount"));
+            }
+        }
+        return total;
+    }
+
+    private static long sumStoreExpenses(TransactionStore store) {
+        int expenseId = store.findTypeId("Expense");
+        long total = 0;
+        for (int slot = 0; slot < store.slotCount(); slot++) {
+            if (store.isLive(slot) && store.typeId(slot) == expenseId) {
+                total += Math.abs(store.amountCents(slot));
+            }
+        }
+        return total;
+    }
+
+    private static String date(int i) {
+        return String.format("%02d/%02d/%d", i % 28 + 1, i % 12 + 1, 2015 + i % 10);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,125 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionStore}.
+ * This class verifies that the columnar layout round-trips every field and
+ * that the legacy map view stays compatible.
+ */
+public class TransactionStoreTest {
+
+    /**
+     * Tests that a stored row reads back with typed columns.
+     * The date is kept as epoch day and the amount as cents.
+     */
+    @Test
+    public void testAddStoresTypedColumns() {
+        TransactionStore store = new TransactionStore();
+        int row = store.add("18/05/2025", "buy grocery", -30050, "Expense", "Food");
+
+        assertEquals(0, row);
+        assertEquals(1, store.size());
+        assertEquals(LocalDate.of(2025, 5, 18).toEpochDay(), store.epochDay(row));
+        assertEquals("18/05/2025", store.date(row));
+        assertEquals(-30050, store.amountCents(row));
+        assertEquals("Expense", store.type(row));
+        assertEquals("Food", store.category(row));
+    }
+
+    /**
+     * Tests that dates outside the canonical format keep their original text.
+     * Unparseable dates are marked with {@link TransactionStore#NO_DATE}.
+     */
+    @Test
+    public void testNonCanonicalDatesArePreserved() {
+        TransactionStore store = new TransactionStore();
+        store.add("1/5/2025", "a", 100, "Income", "Others");
+        store.add("28 January 2021", "b", 100, "Income", "Others");
+
+        assertEquals("1/5/2025", store.date(0));
+        assertEquals(LocalDate.of(2025, 5, 1).toEpochDay(), store.epochDay(0));
+        assertEquals("28 January 2021", store.date(1));
+        assertEquals(TransactionStore.NO_DATE, store.epochDay(1));
+    }
+
+    /**
+     * Tests that removing a row keeps the remaining rows in insertion order.
+     */
+    @Test
+    public void testRemovePreservesOrder() {
+        TransactionStore store = new TransactionStore();
+        for (int i = 0; i < 40; i++) {
+            store.add("01/01/2024", "row" + i, i, "Expense", "Others");
+        }
+        store.remove(10);
+
+        assertEquals(39, store.size());
+        assertFalse(store.isLive(10));
+        assertEquals("row9", store.description(store.slotAt(9)));
+        assertEquals("row11", store.description(store.slotAt(10)));
+        assertEquals(39, store.amountCents(store.slotAt(38)));
+    }
+
+    /**
+     * Tests that ids stay stable and resolvable across removals and compaction.
+     */
+    @Test
+    public void testIdsSurviveCompaction() {
+        TransactionStore store = new TransactionStore();
+        long[] ids = new long[200];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.id(store.add("01/01/2024", "row" + i, i, "Expense", "Others"));
+        }
+        for (int i = 0; i < ids.length; i += 2) {
+            store.remove(store.slotOf(ids[i]));
+        }
+
+        assertEquals(100, store.size());
+        assertEquals(-1, store.slotOf(ids[0]));
+        for (int i = 1; i < ids.length; i += 2) {
+            assertEquals("row" + i, store.description(store.slotOf(ids[i])));
+        }
+    }
+
+    /**
+     * Tests the composite key index used to find transactions by their field values.
+     */
+    @Test
+    public void testFindIdsByFields() {
+        TransactionStore store = new TransactionStore();
+        long first = store.id(store.add("01/01/2024", "coffee", -350, "Expense", "Food"));
+        long second = store.id(store.add("01/01/2024", "coffee", -350, "Expense", "Food"));
+        store.add("02/01/2024", "coffee", -350, "Expense", "Food");
+
+        assertEquals(List.of(first, second), List.copyOf(store.findIds("01/01/2024", "coffee", -350, "Expense")));
+
+        store.set(store.slotOf(first), "03/01/2024", "tea", -300, "Expense", "Food");
+        assertEquals(List.of(second), List.copyOf(store.findIds("01/01/2024", "coffee", -350, "Expense")));
+        assertEquals(List.of(first), List.copyOf(store.findIds("03/01/2024", "tea", -300, "Expense")));
+        assertTrue(store.findIds("01/01/2024", "coffee", -350, "Income").isEmpty());
+    }
+
+    /**
+     * Tests that the compatibility view exposes the legacy map layout.
+     */
+    @Test
+    public void testMapViewMatchesLegacyLayout() {
+        TransactionStore store = new TransactionStore();
+        store.add("18/05/2025", "rent", -100000, "Expense", "Housing");
+
+        List<Map<String, Object>> view = store.asMapView();
+        assertEquals(1, view.size());
+        Map<String, Object> transaction = view.get(0);
+        assertEquals("18/05/2025", transaction.get("date"));
+        assertEquals("rent", transaction.get("description"));
+        assertEquals(-1000.0, (Double) transaction.get("amount"), 0.001);
+        assertEquals("Expense", transaction.get("type"));
+    }
+}
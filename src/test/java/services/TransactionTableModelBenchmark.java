@@ -0,0 +1,106 @@
+package services;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory and load time of the transaction tables over one store: the former
+ * per-view {@link DefaultTableModel} copies (dashboard, accounts, and the all,
+ * income and expense tables of the transactions view) against one
+ * {@link TransactionTableModel} with its income and expense projections.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes services.TransactionTableModelBenchmark [rows]}.
+ */
+public class TransactionTableModelBenchmark {
+
+    private static final String[] DESCRIPTIONS = {
+        "Monthly rent", "Grocery shopping", "Gas station", "Movie night", "Salary", "Coffee"
+    };
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional row count (defaults to 1,000,000)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        TransactionManager manager = new TransactionManager(new TransactionDataService());
+        List<TransactionDraft> drafts = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            drafts.add(new TransactionDraft(String.format("%02d/%02d/%d", i % 28 + 1, i % 12 + 1, 2015 + i % 10),
+                    DESCRIPTIONS[i % DESCRIPTIONS.length], (i % 500) + ".00", i % 5 == 0 ? "Income" : "Expense"));
+        }
+        manager.addTransactions(drafts);
+        drafts = null;
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        List<DefaultTableModel> copies = buildCopies(manager.snapshot());
+        long copyNanos = System.nanoTime() - start;
+        long copyBytes = usedHeap() - before;
+
+        before = usedHeap();
+        start = System.nanoTime();
+        TransactionTableModel model = new TransactionTableModel(manager);
+        model.projection("Income");
+        model.projection("Expense");
+        long modelNanos = System.nanoTime() - start;
+        long modelBytes = usedHeap() - before;
+
+        // Paint one screen of rows from the shared model, as a table would
+        start = System.nanoTime();
+        int visible = 0;
+        for (int row = rows / 2; row < rows / 2 + 40; row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                visible += model.getValueAt(row, column).toString().length();
+            }
+        }
+        long paintNanos = System.nanoTime() - start;
+
+        System.out.printf("rows: %,d; 1 CPU core%n", rows);
+        System.out.printf("5 DefaultTableModel copies: %,d bytes (%.1f bytes/row), loaded in %.1f ms%n",
+                copyBytes, (double) copyBytes / rows, copyNanos / 1e6);
+        System.out.printf("shared model + projections: %,d bytes (%.1f bytes/row), loaded in %.1f ms%n",
+                modelBytes, (double) modelBytes / rows, modelNanos / 1e6);
+        System.out.printf("40 visible rows read from the store in %.2f ms (%d chars); %d tables kept%n",
+                paintNanos / 1e6, visible, copies.size());
+    }
+
+    /**
+     * Fills the tables the way the views used to: one row array per table and transaction.
+     */
+    private static List<DefaultTableModel> buildCopies(TransactionSnapshot snapshot) {
+        String[] columns = {"Date", "Description", "Category", "Type", "Amount", "Id"};
+        List<DefaultTableModel> tables = new ArrayList<>();
+        DefaultTableModel dashboard = new DefaultTableModel(columns, 0);
+        DefaultTableModel accounts = new DefaultTableModel(columns, 0);
+        DefaultTableModel all = new DefaultTableModel(columns, 0);
+        DefaultTableModel income = new DefaultTableModel(columns, 0);
+        DefaultTableModel expense = new DefaultTableModel(columns, 0);
+        for (int i = 0; i < snapshot.size(); i++) {
+            String amount = ("Expense".equals(snapshot.type(i)) ? "-$" : "+$")
+                    + Math.abs(snapshot.amountCents(i)) / 100 + ".00";
+            for (DefaultTableModel table : List.of(dashboard, accounts, all,
+                    "Income".equals(snapshot.type(i)) ? income : expense)) {
+                table.addRow(new Object[]{snapshot.date(i), snapshot.description(i), snapshot.category(i),
+                        snapshot.type(i), amount, String.format("%06d", snapshot.id(i))});
+            }
+        }
+        tables.add(dashboard);
+        tables.add(accounts);
+        tables.add(all);
+        tables.add(income);
+        tables.add(expense);
+        return tables;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,158 @@
+package services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link TransactionTableModel}.
+ * The model listens to a manager over a store of its own and receives events
+ * synchronously, so every change can be checked right after it is made.
+ */
+public class TransactionTableModelTest {
+
+    private TransactionManager manager;
+    private TransactionTableModel model;
+    private TransactionTableModel income;
+    private TransactionTableModel expense;
+
+    /**
+     * Creates a manager with two transactions and a model with both projections.
+     */
+    @BeforeEach
+    public void setUp() {
+        manager = new TransactionManager(new TransactionDataService());
+        manager.addTransaction("01/01/2024", "Salary", "3000.00", "Income");
+        manager.addTransaction("02/01/2024", "Groceries", "45.20", "Expense");
+        model = new TransactionTableModel(manager);
+        income = model.projection("Income");
+        expense = model.projection("Expense");
+        manager.addListener(model);
+    }
+
+    /** Records the events a model fires as short strings. */
+    private static List<String> record(TransactionTableModel model) {
+        List<String> events = new ArrayList<>();
+        model.addTableModelListener(e -> {
+            String kind = switch (e.getType()) {
+                case TableModelEvent.INSERT -> "insert";
+                case TableModelEvent.DELETE -> "delete";
+                default -> "update";
+            };
+            events.add(kind + " " + e.getFirstRow() + "-" + e.getLastRow());
+        });
+        return events;
+    }
+
+    /**
+     * Tests that the model shows the stored transactions and that the
+     * projections show the transactions of their type.
+     */
+    @Test
+    public void testRowsAndProjections() {
+        assertEquals(2, model.getRowCount());
+        assertEquals("01/01/2024", model.getValueAt(0, TransactionTableModel.DATE));
+        assertEquals("Salary", model.getValueAt(0, TransactionTableModel.DESCRIPTION));
+        assertEquals("+$3,000", model.getValueAt(0, TransactionTableModel.AMOUNT));
+        assertEquals("-$45.20", model.getValueAt(1, TransactionTableModel.AMOUNT));
+        assertEquals("Expense", model.getValueAt(1, TransactionTableModel.TYPE));
+
+        assertEquals(1, income.getRowCount());
+        assertEquals("Salary", income.getValueAt(0, TransactionTableModel.DESCRIPTION));
+        assertEquals(1, expense.getRowCount());
+        assertEquals("Groceries", expense.getValueAt(0, TransactionTableModel.DESCRIPTION));
+        assertSame(income, model.projection("Income"));
+        assertThrows(IllegalStateException.class, () -> income.projection("Expense"));
+
+        long id = model.idAt(1);
+        assertEquals(1, model.rowOf(id));
+        assertEquals(0, expense.rowOf(id));
+        assertEquals(-1, income.rowOf(id));
+    }
+
+    /**
+     * Tests that a batch appended at the end fires a single insertion event per
+     * model and that events already applied are ignored.
+     */
+    @Test
+    public void testBatchFiresOneInsertion() {
+        List<String> all = record(model);
+        List<String> incomeEvents = record(income);
+        List<String> expenseEvents = record(expense);
+
+        List<TransactionDraft> drafts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            drafts.add(new TransactionDraft("03/01/2024", "Item " + i, "1.00", i < 3 ? "Income" : "Expense"));
+        }
+        List<TransactionRecord> added = manager.addTransactions(drafts);
+
+        assertEquals(List.of("insert 2-11"), all);
+        assertEquals(List.of("insert 1-3"), incomeEvents);
+        assertEquals(List.of("insert 1-7"), expenseEvents);
+        assertEquals("Item 9", model.getValueAt(11, TransactionTableModel.DESCRIPTION));
+
+        // A model that already shows the rows stays as it is
+        model.onTransactionsAdded(added);
+        assertEquals(12, model.getRowCount());
+        assertEquals(1, all.size());
+    }
+
+    /**
+     * Tests that an edit updates its row, moves the row between projections
+     * when the type changes, and that a removal deletes the row everywhere.
+     */
+    @Test
+    public void testUpdateMovesBetweenProjectionsAndRemoveDeletes() {
+        List<String> all = record(model);
+        List<String> incomeEvents = record(income);
+        List<String> expenseEvents = record(expense);
+        long id = model.idAt(1);
+
+        manager.updateTransactionById(id, "02/01/2024", "Refund", "45.20", "Income");
+        assertEquals(List.of("update 1-1"), all);
+        assertEquals(List.of("insert 1-1"), incomeEvents);
+        assertEquals(List.of("delete 0-0"), expenseEvents);
+        assertEquals("Refund", model.getValueAt(1, TransactionTableModel.DESCRIPTION));
+        assertEquals("+$45.20", income.getValueAt(1, TransactionTableModel.AMOUNT));
+        assertEquals(0, expense.getRowCount());
+
+        manager.removeTransaction(id);
+        assertEquals("delete 1-1", all.get(1));
+        assertEquals("delete 1-1", incomeEvents.get(1));
+        assertEquals(1, model.getRowCount());
+        assertEquals(1, income.getRowCount());
+        assertEquals(-1, model.rowOf(id));
+    }
+
+    /**
+     * Tests that edited cells are written through to the store and that
+     * invalid values are ignored.
+     */
+    @Test
+    public void testSetValueWritesThrough() {
+        long id = model.idAt(1);
+        assertTrue(model.isCellEditable(1, TransactionTableModel.AMOUNT));
+        assertFalse(model.isCellEditable(1, TransactionTableModel.ID));
+
+        model.setValueAt("-$50.00", 1, TransactionTableModel.AMOUNT);
+        assertEquals(5000, manager.getTransaction(id).amountCents());
+        assertEquals("-$50", model.getValueAt(1, TransactionTableModel.AMOUNT));
+        model.setValueAt("-$1,250.75", 1, TransactionTableModel.AMOUNT);
+        assertEquals("-$1,250.75", model.getValueAt(1, TransactionTableModel.AMOUNT));
+        model.setValueAt("-$50", 1, TransactionTableModel.AMOUNT);
+
+        model.setValueAt("Market", 1, TransactionTableModel.DESCRIPTION);
+        assertEquals("Market", manager.getTransaction(id).description());
+
+        model.setValueAt("not a number", 1, TransactionTableModel.AMOUNT);
+        model.setValueAt("Transfer", 1, TransactionTableModel.TYPE);
+        TransactionRecord unchanged = manager.getTransaction(id);
+        assertEquals(5000, unchanged.amountCents());
+        assertEquals("Expense", unchanged.type());
+    }
+}
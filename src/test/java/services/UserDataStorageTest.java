@@ -2,10 +2,15 @@ package data;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.SecurityService;
 
 import data.UserDataStorage;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,6 +24,9 @@ public class UserDataStorageTest {
     /** Path to the test user data file. */
     private static final String TEST_FILE = "users.txt";
 
+    @TempDir
+    Path tempDir;
+
     /**
      * Sets up the test environment by deleting the test user file
      * to avoid interference between test cases.
@@ -63,4 +71,62 @@ public class UserDataStorageTest {
         boolean result = UserDataStorage.authenticateUser("userB", "wrong");
         assertFalse(result);
     }
+
+    /**
+     * Tests that a username can only be registered once.
+     */
+    @Test
+    public void testDuplicateUsernameIsRejected() {
+        assertTrue(UserDataStorage.registerUser("userC", "first"));
+        assertFalse(UserDataStorage.registerUser("userC", "second"));
+        assertTrue(UserDataStorage.authenticateUser("userC", "first"));
+        assertFalse(UserDataStorage.authenticateUser("userC", "second"));
+    }
+
+    /**
+     * Tests that users stored in the older encrypted format can still log in and
+     * that their entry is replaced by a password hash on the first login.
+     */
+    @Test
+    public void testLegacyEntriesAreUpgradedOnLogin() throws Exception {
+        Path file = tempDir.resolve("users.txt");
+        Files.write(file, List.of(SecurityService.encrypt("alice:secret"), SecurityService.encrypt("bob:hunter2")));
+
+        UserDirectory directory = new UserDirectory(file, 1000);
+        assertEquals(2, directory.size());
+        assertFalse(directory.authenticate("alice", "wrong"));
+        assertTrue(directory.authenticate("alice", "secret"));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).startsWith(SecurityService.encrypt("alice") + ":1000:"));
+        assertFalse(lines.get(2).contains(SecurityService.encrypt("alice:secret")));
+
+        // A fresh directory reads the hashed entry, which overrides the legacy one
+        UserDirectory reopened = new UserDirectory(file, 1000);
+        assertTrue(reopened.authenticate("alice", "secret"));
+        assertFalse(reopened.authenticate("alice", "wrong"));
+        assertTrue(reopened.authenticate("bob", "hunter2"));
+        assertEquals(2, reopened.size());
+    }
+
+    /**
+     * Tests that a change to the file made outside the directory is picked up.
+     */
+    @Test
+    public void testOutsideChangesAreReloaded() throws Exception {
+        Path file = tempDir.resolve("users.txt");
+        UserDirectory directory = new UserDirectory(file, 1000);
+        UserDirectory other = new UserDirectory(file, 1000);
+        assertTrue(directory.register("carol", "pw"));
+        assertTrue(other.register("dave", "pw"));
+
+        assertTrue(directory.authenticate("dave", "pw"));
+        assertFalse(directory.register("dave", "other"));
+        assertEquals(2, directory.size());
+
+        Files.delete(file);
+        assertFalse(directory.authenticate("carol", "pw"));
+        assertEquals(0, directory.size());
+    }
 }
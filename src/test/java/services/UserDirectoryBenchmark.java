@@ -0,0 +1,98 @@
+package data;
+
+import services.SecurityService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Login latency with many registered users: the previous linear scan, which
+ * decrypted every line, compared to the indexed {@link UserDirectory}.
+ * This is a manual benchmark, not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes data.UserDirectoryBenchmark [users]}.
+ */
+public class UserDirectoryBenchmark {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional user count (defaults to 100,000)
+     */
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path legacy = Files.createTempFile("users-legacy", ".txt");
+        Path hashed = Files.createTempFile("users-hashed", ".txt");
+        try {
+            List<String> pairs = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                pairs.add("user" + i + ":password" + i);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(legacy)) {
+                for (String line : SecurityService.encryptAll(pairs)) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            // One PBKDF2 iteration, so only the lookup is measured
+            UserDirectory setup = new UserDirectory(hashed, 1);
+            for (int i = 0; i < users; i++) {
+                setup.register("user" + i, "password" + i);
+            }
+            System.out.printf("users: %,d%n", users);
+
+            String last = "user" + (users - 1);
+            String lastPassword = "password" + (users - 1);
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                boolean found = linearScan(legacy, last, lastPassword);
+                System.out.printf("round %d: linear scan %.2f ms (%b)", round, (System.nanoTime() - start) / 1e6, found);
+
+                UserDirectory directory = new UserDirectory(hashed, 1);
+                start = System.nanoTime();
+                found = directory.authenticate(last, lastPassword);
+                System.out.printf(" | index, first login with load %.2f ms (%b)", (System.nanoTime() - start) / 1e6, found);
+
+                int logins = 10_000;
+                start = System.nanoTime();
+                for (int i = 0; i < logins; i++) {
+                    int user = (i * 7919) % users;
+                    directory.authenticate("user" + user, "password" + user);
+                }
+                System.out.printf(" | index, later logins %.1f us%n", (System.nanoTime() - start) / 1e3 / logins);
+            }
+
+            // The per-login cost at the real iteration count is dominated by the hash
+            UserDirectory directory = new UserDirectory(hashed, UserDirectory.DEFAULT_ITERATIONS);
+            directory.register("slow", "password");
+            long start = System.nanoTime();
+            directory.authenticate("slow", "password");
+            System.out.printf("login with %,d PBKDF2 iterations: %.1f ms%n",
+                    UserDirectory.DEFAULT_ITERATIONS, (System.nanoTime() - start) / 1e6);
+        } finally {
+            Files.deleteIfExists(legacy);
+            Files.deleteIfExists(hashed);
+        }
+    }
+
+    /** The previous authenticateUser: decrypt every line until the user is found. */
+    private static boolean linearScan(Path file, String username, String password) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String decrypted = SecurityService.decrypt(line);
+                if (decrypted == null)
+                    continue;
+                String[] user = decrypted.split(":");
+                if (user.length == 2 && user[0].equals(username) && user[1].equals(password)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}